@@ -1,10 +1,12 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
 
-import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,15 +14,44 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
-@Slf4j
+/**
+ * Aspect logging calls of the methods of the components annotated with @LoggerInterceptor annotation.
+ * <p>
+ * Each call is logged as a structured event (with key-value pairs) by the logger named after the class of the
+ * intercepted component, therefore the level of the events could be configured per package (or class) in the
+ * logback configuration. Nothing is computed unless the level of the event is enabled. Successful calls are logged
+ * on INFO level and sampled with <code>logger.aspect.sampling.rate</code>, while exceptions are always logged on
+ * ERROR level. Arguments, returned values and the caller identity are rendered only when the event is written,
+ * and rendered values are truncated to <code>logger.aspect.max.value.length</code> characters.
+ */
 @Aspect
 @Order(100)
 @Component
 public class LoggerAspect {
 
+    private static final String METHOD_CALL_EVENT = "method.call";
+    private static final String METHOD_EXCEPTION_EVENT = "method.exception";
+
+    /**
+     * Loggers of the intercepted components, resolved once per class.
+     */
+    private static final ClassValue<Logger> LOGGERS = new ClassValue<>() {
+        @Override
+        protected Logger computeValue(Class<?> type) {
+            return LoggerFactory.getLogger(type);
+        }
+    };
+
+    @Value("${logger.aspect.sampling.rate}")
+    private double samplingRate;
+
+    @Value("${logger.aspect.max.value.length}")
+    private int maxValueLength;
+
     /**
      * Pointcut for all methods and classes annotated with @LoggerInterceptor annotation.
      * Used to enable logging for certain methods and entire classes.
@@ -38,6 +69,7 @@ public class LoggerAspect {
      *     <li>Identity of the user calling given method</li>
      *     <li>User levels of the authenticated user, or GUEST otherwise.</li>
      *     <li>List of parameters of the given method</li>
+     *     <li>Duration of the method execution</li>
      * </ul>
      *
      * Optionally, this method is used to log value returned by the intercepted method (if not exceptions are thrown)
@@ -53,64 +85,88 @@ public class LoggerAspect {
      */
     @Around(value = "loggingInterceptorPointcut()")
     private Object methodLoggerAdvice(ProceedingJoinPoint point) throws Throwable {
-        StringBuilder stringBuilder = new StringBuilder("Method: ");
+        Object target = point.getTarget();
+        Logger logger = LOGGERS.get(target != null ? target.getClass() : point.getSignature().getDeclaringType());
+
+        boolean callLogged = logger.isInfoEnabled() && isSampled();
+        if (!callLogged && !logger.isErrorEnabled()) return point.proceed();
+
+        long startTime = System.nanoTime();
         Object result;
         try {
-            try {
-                String callerIdentity = "Anonymous";
-                List<String> callerRoleList = List.of(Roles.ANONYMOUS.name());
-
-                if (SecurityContextHolder.getContext().getAuthentication() != null) {
-                    Authentication authenticationObj = SecurityContextHolder.getContext().getAuthentication();
-                    callerIdentity = authenticationObj.getName();
-                    callerRoleList = authenticationObj.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
-                }
-
-                stringBuilder.append(point.getSignature().getName())
-                        .append(" | Class: ")
-                        .append(point.getTarget().getClass().getSimpleName())
-                        .append('\n')
-                        .append("Invoked by user authenticated as: ")
-                        .append(callerIdentity)
-                        .append(" | List of users levels: ")
-                        .append(callerRoleList)
-                        .append('\n');
-
-                stringBuilder.append("List of parameters: ")
-                        .append("[ ");
-                for (Object parameter : point.getArgs()) {
-                    stringBuilder.append(parameter).append(": ").append(parameter != null ? parameter.getClass().getSimpleName() : "null");
-                    if (Arrays.stream(point.getArgs()).toList().getLast() != parameter) stringBuilder.append(", ");
-                }
-                stringBuilder.append(" ]").append('\n');
-            } catch (Exception exception) {
-                log.error("Exception: {} occurred while processing logger aspect message, since:  ", exception.getClass().getSimpleName(), exception.getCause());
-                throw exception;
-            }
-
             result = point.proceed();
         } catch (Throwable throwable) {
-            stringBuilder.append("Exception: ")
-                    .append(throwable.getClass().getSimpleName())
-                    .append(" was thrown during method execution, since: ")
-                    .append(throwable.getMessage())
-                    .append(". Cause: ")
-                    .append(throwable.getCause());
-            log.error(stringBuilder.toString());
+            if (logger.isErrorEnabled()) {
+                logger.atError()
+                        .setMessage(METHOD_EXCEPTION_EVENT)
+                        .addKeyValue("class", logger.getName())
+                        .addKeyValue("method", point.getSignature().getName())
+                        .addKeyValue("caller", LoggerAspect::callerIdentity)
+                        .addKeyValue("roles", LoggerAspect::callerRoles)
+                        .addKeyValue("args", () -> renderArguments(point.getArgs()))
+                        .addKeyValue("exception", throwable.getClass().getSimpleName())
+                        .addKeyValue("message", () -> truncate(throwable.getMessage()))
+                        .addKeyValue("cause", () -> truncate(throwable.getCause()))
+                        .addKeyValue("durationMs", elapsedMillis(startTime))
+                        .log();
+            }
             throw throwable;
         }
 
-        if (result != null) {
-            stringBuilder.append(" Method returned value: ")
-                    .append(result)
-                    .append(" of type: ")
-                    .append(result.getClass().getSimpleName());
-        } else {
-            stringBuilder.append(" Method did not return any value.");
+        if (callLogged) {
+            logger.atInfo()
+                    .setMessage(METHOD_CALL_EVENT)
+                    .addKeyValue("class", logger.getName())
+                    .addKeyValue("method", point.getSignature().getName())
+                    .addKeyValue("caller", LoggerAspect::callerIdentity)
+                    .addKeyValue("roles", LoggerAspect::callerRoles)
+                    .addKeyValue("args", () -> renderArguments(point.getArgs()))
+                    .addKeyValue("result", () -> renderValue(result))
+                    .addKeyValue("durationMs", elapsedMillis(startTime))
+                    .log();
         }
+        return result;
+    }
 
-        log.info(stringBuilder.toString());
+    private boolean isSampled() {
+        return samplingRate >= 1.0 || (samplingRate > 0.0 && ThreadLocalRandom.current().nextDouble() < samplingRate);
+    }
 
-        return result;
+    private static long elapsedMillis(long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private static String callerIdentity() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "Anonymous";
+    }
+
+    private static List<String> callerRoles() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) return List.of(Roles.ANONYMOUS.name());
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    /**
+     * Renders the arguments of the method, each truncated separately, along with their types.
+     */
+    private String renderArguments(Object[] args) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(renderValue(args[i]));
+        }
+        return builder.append(']').toString();
+    }
+
+    private String renderValue(Object value) {
+        if (value == null) return "null";
+        return truncate(value) + ": " + value.getClass().getSimpleName();
+    }
+
+    private String truncate(Object value) {
+        String rendered = String.valueOf(value);
+        if (rendered.length() <= maxValueLength) return rendered;
+        return rendered.substring(0, maxValueLength) + "...(" + rendered.length() + " chars)";
     }
 }
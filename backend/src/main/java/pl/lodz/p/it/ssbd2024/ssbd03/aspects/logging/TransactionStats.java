@@ -0,0 +1,60 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Statistics of single transaction, collected by the TxAspect for every intercepted method called within it.
+ * Instance is bound to the transaction as its resource in the transaction synchronization registry, and is
+ * logged after the transaction completes.
+ *
+ * @see TxAspect
+ * @see TransactionSynchronization
+ */
+@Getter
+public class TransactionStats {
+
+    /**
+     * Transaction identifier, used for logging purposes.
+     */
+    private final String transactionKey;
+
+    /**
+     * Value of the {@link System#nanoTime()} when the first method was intercepted within the transaction.
+     */
+    private final long startTime;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger facadeCalls = new AtomicInteger();
+
+    /**
+     * Constructs statistics of the transaction, which starts now.
+     *
+     * @param transactionKey Identifier of the transaction.
+     */
+    public TransactionStats(String transactionKey) {
+        this.transactionKey = transactionKey;
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Records the call of intercepted method within the transaction.
+     *
+     * @param facadeCall True if the method was called on the facade component.
+     */
+    public void recordCall(boolean facadeCall) {
+        calls.incrementAndGet();
+        if (facadeCall) facadeCalls.incrementAndGet();
+    }
+
+    /**
+     * Computes the time elapsed since the start of the transaction.
+     *
+     * @return Duration of the transaction in milliseconds.
+     */
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+}
@@ -28,20 +28,27 @@ public class TransactionSynchronization implements Synchronization {
     }
 
     /**
-     * Transaction identifier, used for logging purposes.
+     * Statistics of the transaction, logged after its completion.
      */
-    private final String transactionKey;
+    private final TransactionStats transactionStats;
+
+    /**
+     * Aspect tracking the transaction, notified after its completion.
+     */
+    private final TxAspect txAspect;
 
     /**
      * Constructor, used by txAspect, in order to create a Synchronization object
      * for the transaction to be executed synchronously.
      *
-     * @param transactionKey Identifier of the current transaction.
+     * @param transactionStats Statistics of the current transaction.
+     * @param txAspect         Aspect tracking the current transaction.
      *
      * @see TxAspect
      */
-    public TransactionSynchronization(String transactionKey) {
-        this.transactionKey = transactionKey;
+    public TransactionSynchronization(TransactionStats transactionStats, TxAspect txAspect) {
+        this.transactionStats = transactionStats;
+        this.txAspect = txAspect;
     }
 
     /**
@@ -54,13 +61,22 @@ public class TransactionSynchronization implements Synchronization {
 
     /**
      * This method is called by the transaction manager after the transaction is committed or rolled back.
-     * Used for logging result of the transaction.
+     * Used for logging result of the transaction, along with its duration and number of the intercepted calls.
      *
      * @param i The status of the transaction completion.
      */
     @Override
     public void afterCompletion(int i) {
-        log.info("Transaction: " + transactionKey + " completed with status:" + TransactionStatus.values()[i]);
-        TxAspect.getTransactionIds().remove(transactionKey);
+        txAspect.unregister(transactionStats);
+        if (log.isInfoEnabled()) {
+            log.atInfo()
+                    .setMessage("tx.completed")
+                    .addKeyValue("tx", transactionStats.getTransactionKey())
+                    .addKeyValue("status", i >= 0 && i < TransactionStatus.values().length ? TransactionStatus.values()[i] : i)
+                    .addKeyValue("durationMs", transactionStats.getDurationMillis())
+                    .addKeyValue("calls", transactionStats.getCalls().get())
+                    .addKeyValue("facadeCalls", transactionStats.getFacadeCalls().get())
+                    .log();
+        }
     }
 }
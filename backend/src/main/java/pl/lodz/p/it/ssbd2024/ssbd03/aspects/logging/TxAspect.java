@@ -1,19 +1,21 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging;
 
-import jakarta.transaction.Synchronization;
-import jakarta.transaction.Transaction;
-import lombok.Getter;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.AbstractFacade;
 
-import java.lang.reflect.Method;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Aspect
@@ -21,12 +23,29 @@ import java.util.Set;
 public class TxAspect {
 
     /**
-     * This set contains all transaction identifiers that currently exist in the application. Method executed around
-     * txPointcut() add an identifier (if it is not already in the set) and that identifier is removed by afterCompletionMethod()
-     * of TransactionSynchronization.
+     * Registry of the JTA transactions, used to identify current transaction and bind its statistics to it.
      */
-    @Getter
-    private static final Set<String> transactionIds = new HashSet<>();
+    private final TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    /**
+     * Statistics of the transactions that currently exist in the application, identified by the transaction key.
+     * Method executed around txPointcut() adds statistics of the transaction when it is intercepted for the first
+     * time, and it is removed by afterCompletion() method of TransactionSynchronization. Number of tracked transactions
+     * is bounded by <code>tx.registry.max.size</code>.
+     */
+    private final Map<String, TransactionStats> activeTransactions = new ConcurrentHashMap<>();
+
+    @Value("${tx.registry.max.size}")
+    private int maxActiveTransactions;
+
+    /**
+     * Autowired constructor for the aspect.
+     *
+     * @param transactionSynchronizationRegistry Registry of the JTA transactions.
+     */
+    public TxAspect(TransactionSynchronizationRegistry transactionSynchronizationRegistry) {
+        this.transactionSynchronizationRegistry = transactionSynchronizationRegistry;
+    }
 
     /**
      * Pointcut definition for every method or class with @TxTracked annotation (from pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging)
@@ -48,6 +67,8 @@ public class TxAspect {
      *    <li>Value returned by the executed method.</li>
      * </ul>
      *
+     * Additionally, the call is recorded in the statistics of the transaction (number of calls and facade calls),
+     * which are logged along with the duration of the transaction after it completes.
      * Optionally, this method is able to log error related information like:
      * <ul>
      *    <li>Exception throw during aspect execution.</li>
@@ -58,50 +79,91 @@ public class TxAspect {
      * @return Result of the executed method is returned, as this method is executed around certain method
      * that performs operations in a transaction.
      */
-
     @Around(value = "txPointcut()")
     private Object aroundTxPointcut(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
-        String transactionKey = null;
-        StringBuilder message = new StringBuilder("Method call: ");
-        message.append(proceedingJoinPoint.getSignature().getName());
-        message.append(" | Class: ").append(proceedingJoinPoint.getTarget().getClass().getSimpleName());
+        TransactionStats transactionStats = currentTransactionStats();
+        if (transactionStats != null) transactionStats.recordCall(proceedingJoinPoint.getTarget() instanceof AbstractFacade<?>);
+
         Object result;
         try {
-            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
-            Class<?> transactionSynchronizationRegistry = contextClassLoader.loadClass("com.atomikos.icatch.jta.TransactionSynchronizationRegistryImp");
+            result = proceedingJoinPoint.proceed();
+        } catch (Throwable throwable) {
+            if (log.isErrorEnabled()) {
+                log.atError()
+                        .setMessage("tx.call")
+                        .addKeyValue("tx", transactionStats != null ? transactionStats.getTransactionKey() : null)
+                        .addKeyValue("class", () -> proceedingJoinPoint.getTarget().getClass().getSimpleName())
+                        .addKeyValue("method", proceedingJoinPoint.getSignature().getName())
+                        .addKeyValue("user", TxAspect::callerIdentity)
+                        .addKeyValue("exception", throwable)
+                        .setCause(throwable)
+                        .log();
+            }
+            throw throwable;
+        }
 
-            Method getTransactionKey = transactionSynchronizationRegistry.getMethod("getTransactionKey", (Class<?>[]) null);
-            Transaction transaction = (Transaction) getTransactionKey.invoke(transactionSynchronizationRegistry.getDeclaredConstructor().newInstance());
+        if (log.isInfoEnabled()) {
+            log.atInfo()
+                    .setMessage("tx.call")
+                    .addKeyValue("tx", transactionStats != null ? transactionStats.getTransactionKey() : null)
+                    .addKeyValue("class", () -> proceedingJoinPoint.getTarget().getClass().getSimpleName())
+                    .addKeyValue("method", proceedingJoinPoint.getSignature().getName())
+                    .addKeyValue("user", TxAspect::callerIdentity)
+                    .addKeyValue("result", result)
+                    .log();
+        }
+        return result;
+    }
 
-            if (transaction != null) transactionKey = transaction.toString();
+    /**
+     * Retrieves statistics of the current transaction, binding new ones to the transaction (and registering the
+     * synchronization logging them after completion) when it is intercepted for the first time.
+     *
+     * @return Statistics of the current transaction, or null if the method is not called in the transactional context.
+     */
+    private TransactionStats currentTransactionStats() {
+        Object transactionKey = transactionSynchronizationRegistry.getTransactionKey();
+        if (transactionKey == null) return null;
 
-            if (transactionKey != null && !transactionIds.contains(transactionKey)) {
-                Method registerSynchronization = transactionSynchronizationRegistry.getMethod("registerInterposedSynchronization", Synchronization.class);
-                registerSynchronization.invoke(transactionSynchronizationRegistry.getDeclaredConstructor().newInstance(), new TransactionSynchronization(transactionKey));
-                transactionIds.add(transactionKey);
-            }
+        TransactionStats transactionStats = (TransactionStats) transactionSynchronizationRegistry.getResource(TransactionStats.class);
+        if (transactionStats == null) {
+            transactionStats = new TransactionStats(transactionKey.toString());
+            transactionSynchronizationRegistry.putResource(TransactionStats.class, transactionStats);
+            transactionSynchronizationRegistry.registerInterposedSynchronization(new TransactionSynchronization(transactionStats, this));
+            register(transactionStats);
+        }
+        return transactionStats;
+    }
 
-            try {
-                if (transactionKey == null) message.append(" | This method is not called in the transactional context.");
-                else message.append(" | Transaction key: ").append(transactionKey);
-                message.append(" | User: ").append(null != SecurityContextHolder.getContext().getAuthentication() ? SecurityContextHolder.getContext().getAuthentication().getName() : "ANONYMOUS");
-            } catch (Exception exception) {
-                log.error(" | Unexpected exception: {} within aspect occurred due to: ", exception.getClass().getSimpleName(), exception.getCause());
-                throw exception;
-            }
-            result = proceedingJoinPoint.proceed();
-        } catch (Throwable throwable) {
-            message.append(" | Thrown exception: ").append(throwable);
-            log.error(message.toString(), throwable);
-            throw throwable;
+    private void register(TransactionStats transactionStats) {
+        if (activeTransactions.size() >= maxActiveTransactions) {
+            log.warn("Transaction: {} is not registered, since the limit of {} active transactions was reached.",
+                    transactionStats.getTransactionKey(), maxActiveTransactions);
+            return;
         }
+        activeTransactions.put(transactionStats.getTransactionKey(), transactionStats);
+    }
 
-        message.append(" | Returned ");
-        if (result != null) message.append(": ").append(result).append(".");
-        else message.append("no value.");
+    /**
+     * Removes statistics of the completed transaction from the active transactions.
+     *
+     * @param transactionStats Statistics of the completed transaction.
+     */
+    void unregister(TransactionStats transactionStats) {
+        activeTransactions.remove(transactionStats.getTransactionKey(), transactionStats);
+    }
 
-        log.info(message.toString());
+    /**
+     * Retrieves statistics of the transactions, which currently exist in the application.
+     *
+     * @return Unmodifiable view of the statistics of active transactions.
+     */
+    public Collection<TransactionStats> getActiveTransactions() {
+        return Collections.unmodifiableCollection(activeTransactions.values());
+    }
 
-        return result;
+    private static String callerIdentity() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "ANONYMOUS";
     }
 }
@@ -4,9 +4,14 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -111,6 +116,74 @@ public abstract class AbstractFacade<T> {
         }
     }
 
+    /**
+     * Forces a refresh on all elements in the list, using batched queries instead of refreshing each of them separately.
+     * Versions of all the entities are read from the database with a single query, and only entities which version
+     * differs from the one in the persistence context are refreshed, so the state used in optimistic locking is the same
+     * as after refreshing each of them. Given associations are fetched with one additional query.
+     *
+     * @param list       List of the entities to be refreshed.
+     * @param fetchJoins Associations (paths starting from the refreshed entity, for example "sector.parking")
+     *                   fetched for all the refreshed entities.
+     * @return List of the refreshed entities.
+     */
+    protected List<T> refreshAllInBatch(List<T> list, String... fetchJoins) throws ApplicationBaseException {
+        return refreshAllInBatch(entityClass, list, fetchJoins);
+    }
+
+    /**
+     * Forces a refresh on all elements in the list of entities of the given class, using batched queries.
+     *
+     * @param type       Class of the refreshed entities.
+     * @param list       List of the entities to be refreshed.
+     * @param fetchJoins Associations (paths starting from the refreshed entity) fetched for all the refreshed entities.
+     * @param <E>        Type of the refreshed entities.
+     * @return List of the refreshed entities.
+     * @see #refreshAllInBatch(List, String...)
+     */
+    protected <E> List<E> refreshAllInBatch(Class<E> type, List<E> list, String... fetchJoins) throws ApplicationBaseException {
+        if (list == null || list.isEmpty()) {
+            return list;
+        }
+
+        String entityName = getEntityManager().getMetamodel().entity(type).getName();
+        List<UUID> ids = new ArrayList<>(list.size());
+        for (E entity : list) {
+            if (!(entity instanceof AbstractEntity abstractEntity)) {
+                list.forEach(getEntityManager()::refresh);
+                return list;
+            }
+            ids.add(abstractEntity.getId());
+        }
+
+        Map<UUID, Long> versions = new HashMap<>();
+        getEntityManager().createQuery("SELECT e.id, e.version FROM " + entityName + " e WHERE e.id IN :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(row -> versions.put((UUID) row[0], (Long) row[1]));
+
+        for (E entity : list) {
+            AbstractEntity abstractEntity = (AbstractEntity) entity;
+            if (!Objects.equals(versions.get(abstractEntity.getId()), abstractEntity.getVersion())) {
+                getEntityManager().refresh(entity);
+            }
+        }
+
+        if (fetchJoins.length > 0) {
+            StringBuilder query = new StringBuilder("SELECT e FROM ").append(entityName).append(" e");
+            for (String fetchJoin : fetchJoins) {
+                int lastDot = fetchJoin.lastIndexOf('.');
+                String owner = lastDot < 0 ? "e" : "e_" + fetchJoin.substring(0, lastDot).replace('.', '_');
+                query.append(" LEFT JOIN FETCH ")
+                        .append(owner).append('.').append(fetchJoin.substring(lastDot + 1))
+                        .append(" e_").append(fetchJoin.replace('.', '_'));
+            }
+            query.append(" WHERE e.id IN :ids");
+            getEntityManager().createQuery(query.toString(), type).setParameter("ids", ids).getResultList();
+        }
+        return list;
+    }
+
     /**
      * Counts the number of the entities in the database.
      *
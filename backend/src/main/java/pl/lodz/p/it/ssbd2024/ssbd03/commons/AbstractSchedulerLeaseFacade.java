@@ -0,0 +1,87 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.commons;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.hibernate.LockMode;
+import org.hibernate.jpa.HibernateHints;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Basic facade used as a basis for the facades managing leases of the scheduled tasks in each module. Implementations
+ * differ only in the persistence unit and the roles allowed to call the methods.
+ *
+ * @see SchedulerLease
+ */
+public abstract class AbstractSchedulerLeaseFacade {
+
+    /**
+     * Retrieves an entity manager.
+     *
+     * @return Entity manager associated with the facade.
+     */
+    protected abstract EntityManager getEntityManager();
+
+    /**
+     * Tries to acquire (or renew) the lease of the scheduled task for given node. Row of the lease is locked with
+     * <code>FOR UPDATE SKIP LOCKED</code> until the end of the current transaction, so the node executing the task
+     * keeps the lease locked, and other nodes give up immediately instead of waiting for the lock.
+     * <p>
+     * Rows of the leases are inserted by the initialization scripts. When the row is missing (in the database
+     * created before), it is inserted by the first node executing the task. Node losing the race of the concurrent
+     * insert fails with the unique constraint violation, which rolls back its transaction, and the task is executed
+     * by the other node.
+     *
+     * @param name           Name of the scheduled task.
+     * @param owner          Identifier of the node.
+     * @param expirationTime Point in time, after which the acquired lease expires.
+     * @return Acquired lease, or empty Optional if the lease is held by another node.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    protected Optional<SchedulerLease> tryAcquire(String name, String owner, LocalDateTime expirationTime) throws ApplicationBaseException {
+        LocalDateTime now = LocalDateTime.now();
+        List<SchedulerLease> leases = getEntityManager().createNamedQuery("SchedulerLease.findByName", SchedulerLease.class)
+                .setParameter("name", name)
+                .setHint(HibernateHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED)
+                .getResultList();
+
+        if (leases.isEmpty()) {
+            // Lease is either locked by another node right now, or it was never inserted
+            if (getEntityManager().find(SchedulerLease.class, name) != null) return Optional.empty();
+            SchedulerLease lease = new SchedulerLease(name, owner, now, expirationTime);
+            getEntityManager().persist(lease);
+            getEntityManager().flush();
+            return Optional.of(lease);
+        }
+
+        SchedulerLease lease = leases.getFirst();
+        if (!lease.isAvailableFor(owner, now)) return Optional.empty();
+        lease.acquire(owner, now, expirationTime);
+        getEntityManager().flush();
+        return Optional.of(lease);
+    }
+
+    /**
+     * Renews the lease held by given node, at the beginning of the next chunk of the task. Row of the lease is locked
+     * until the end of the current transaction, so that the checkpoint stored in the lease is committed along with
+     * the processed chunk.
+     *
+     * @param name           Name of the scheduled task.
+     * @param owner          Identifier of the node.
+     * @param expirationTime Point in time, after which the renewed lease expires.
+     * @return Renewed lease, or empty Optional if the lease was taken over by another node.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    protected Optional<SchedulerLease> renew(String name, String owner, LocalDateTime expirationTime) throws ApplicationBaseException {
+        SchedulerLease lease = getEntityManager().find(SchedulerLease.class, name, LockModeType.PESSIMISTIC_WRITE);
+        if (lease == null || !lease.getOwner().equals(owner)) return Optional.empty();
+        lease.acquire(owner, LocalDateTime.now(), expirationTime);
+        return Optional.of(lease);
+    }
+}
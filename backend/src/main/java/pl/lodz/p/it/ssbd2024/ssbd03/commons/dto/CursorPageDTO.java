@@ -0,0 +1,31 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.commons.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+
+import java.util.List;
+
+/**
+ * Data transfer object used in returning single page of the list retrieved with keyset pagination.
+ *
+ * @param <T> Type of the elements on the page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@LoggerInterceptor
+public class CursorPageDTO<T> {
+
+    @Schema(description = "Elements on the retrieved page", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<T> content;
+
+    @Schema(description = "Opaque token used to retrieve the next page, absent when there are no more elements",
+            example = "MjAyNC0wNi0wMVQxMjowMAA3MzUzODAxNi0wOTVhLTQ1NjQtOTY1Yy05YTE3YzlkZWQzMzQ",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    private String nextToken;
+}
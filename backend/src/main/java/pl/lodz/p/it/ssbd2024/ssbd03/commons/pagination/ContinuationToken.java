@@ -0,0 +1,106 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.InvalidDataFormatException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque token used in keyset (seek) pagination. It holds the value of the sort key and of the tie-breaker
+ * (usually the identifier) of the last element returned on the previous page, so that the next page could be
+ * retrieved with a condition on the indexed columns, instead of skipping all the rows from the previous pages.
+ * <p>
+ * Token is passed to the client as an URL safe Base64 string, so that its content is not a part of the API contract.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ContinuationToken {
+
+    private static final String SEPARATOR = "\u0000";
+
+    private final String sortKey;
+    private final String tieBreaker;
+
+    /**
+     * Creates continuation token pointing after the element with given sort key and tie-breaker.
+     *
+     * @param sortKey    Value of the sort key of the last element on the page.
+     * @param tieBreaker Value of the unique tie-breaker of the last element on the page.
+     * @return Continuation token pointing after the given element.
+     */
+    public static ContinuationToken of(Object sortKey, Object tieBreaker) {
+        return new ContinuationToken(String.valueOf(sortKey), String.valueOf(tieBreaker));
+    }
+
+    /**
+     * Encodes the token into its opaque representation, which is passed to the client.
+     *
+     * @return URL safe Base64 representation of the token.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sortKey + SEPARATOR + tieBreaker).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the token received from the client.
+     *
+     * @param token Opaque representation of the token, previously returned by {@link #encode()}.
+     * @return Decoded continuation token, or null if no token was passed (first page is requested).
+     * @throws InvalidDataFormatException Thrown when the passed token could not be decoded.
+     */
+    public static ContinuationToken decode(String token) throws InvalidDataFormatException {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) throw new InvalidDataFormatException(I18n.CONTINUATION_TOKEN_INVALID_FORMAT_EXCEPTION);
+            return new ContinuationToken(decoded.substring(0, separatorIndex), decoded.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidDataFormatException(I18n.CONTINUATION_TOKEN_INVALID_FORMAT_EXCEPTION);
+        }
+    }
+
+    /**
+     * @return Sort key of the token interpreted as date and time.
+     * @throws InvalidDataFormatException Thrown when the sort key is not a valid date and time.
+     */
+    public LocalDateTime getSortKeyAsDateTime() throws InvalidDataFormatException {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (DateTimeParseException exception) {
+            throw new InvalidDataFormatException(I18n.CONTINUATION_TOKEN_INVALID_FORMAT_EXCEPTION);
+        }
+    }
+
+    /**
+     * @return Tie-breaker of the token interpreted as UUID identifier.
+     * @throws InvalidDataFormatException Thrown when the tie-breaker is not a valid UUID.
+     */
+    public UUID getTieBreakerAsUUID() throws InvalidDataFormatException {
+        try {
+            return UUID.fromString(tieBreaker);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidDataFormatException(I18n.CONTINUATION_TOKEN_INVALID_FORMAT_EXCEPTION);
+        }
+    }
+
+    /**
+     * @return Tie-breaker of the token interpreted as a number (for example version of the historical entry).
+     * @throws InvalidDataFormatException Thrown when the tie-breaker is not a valid number.
+     */
+    public Long getTieBreakerAsLong() throws InvalidDataFormatException {
+        try {
+            return Long.valueOf(tieBreaker);
+        } catch (NumberFormatException exception) {
+            throw new InvalidDataFormatException(I18n.CONTINUATION_TOKEN_INVALID_FORMAT_EXCEPTION);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.jmx.support.RegistrationPolicy;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration of the bulkheads, which asynchronous work of the application is executed in. Each kind of work
+ * has its own bounded bulkhead, so that a backlog of one of them could not exhaust resources needed by the others.
+ * Metrics of the bulkheads are exposed over JMX.
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+    public static final String AUDIT_EXECUTOR = "auditExecutor";
+    public static final String SCHEDULER_EXECUTOR = "schedulerExecutor";
+
+    private static final String BULKHEAD_OBJECT_NAME = "pl.lodz.p.it.ssbd2024.ssbd03:type=Bulkhead,name=";
+
+    @Value("${async.mail.max_concurrency}")
+    private int mailMaxConcurrency;
+
+    @Value("${async.mail.queue_capacity}")
+    private int mailQueueCapacity;
+
+    @Value("${async.audit.max_concurrency}")
+    private int auditMaxConcurrency;
+
+    @Value("${async.audit.queue_capacity}")
+    private int auditQueueCapacity;
+
+    @Value("${async.scheduler.max_concurrency}")
+    private int schedulerMaxConcurrency;
+
+    @Value("${async.scheduler.queue_capacity}")
+    private int schedulerQueueCapacity;
+
+    @Bean(MAIL_EXECUTOR)
+    public BulkheadExecutor mailExecutor() {
+        return new BulkheadExecutor("mail", mailMaxConcurrency, mailQueueCapacity);
+    }
+
+    @Bean(AUDIT_EXECUTOR)
+    public BulkheadExecutor auditExecutor() {
+        return new BulkheadExecutor("audit", auditMaxConcurrency, auditQueueCapacity);
+    }
+
+    @Bean(SCHEDULER_EXECUTOR)
+    public BulkheadExecutor schedulerExecutor() {
+        return new BulkheadExecutor("scheduler", schedulerMaxConcurrency, schedulerQueueCapacity);
+    }
+
+    @Bean
+    public MBeanExporter bulkheadMBeanExporter(List<BulkheadExecutor> bulkheads) {
+        Map<String, Object> beans = new LinkedHashMap<>();
+        bulkheads.forEach(bulkhead -> beans.put(BULKHEAD_OBJECT_NAME + bulkhead.getName(), bulkhead));
+
+        MBeanExporter exporter = new MBeanExporter();
+        exporter.setRegistrationPolicy(RegistrationPolicy.REPLACE_EXISTING);
+        exporter.setBeans(beans);
+        return exporter;
+    }
+
+    /**
+     * Methods annotated with {@link org.springframework.scheduling.annotation.Async} without the name of the executor
+     * are executed in the mail bulkhead, since sending e-mail messages was the only asynchronous work of the application.
+     * Other work should name its bulkhead explicitly.
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        return mailExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (exception, method, params) -> log.error("Exception: {} occurred in asynchronous method: {}. Cause: {}",
+                exception.getClass().getSimpleName(), method.getName(), exception.getMessage(), exception);
+    }
+}
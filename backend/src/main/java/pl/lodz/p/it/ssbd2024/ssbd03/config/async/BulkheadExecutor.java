@@ -0,0 +1,207 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded executor running each task on its own virtual thread. Number of tasks running at the same time is limited
+ * by the maximum concurrency of the bulkhead, and tasks exceeding it wait (parked on their virtual threads) in the
+ * queue of limited capacity. Tasks submitted when the queue is full are rejected with {@link TaskRejectedException},
+ * which gives the callers backpressure instead of an unbounded backlog. Security context of the submitting thread
+ * is propagated to the task.
+ */
+@Slf4j
+public class BulkheadExecutor implements AsyncTaskExecutor, BulkheadExecutorMXBean, DisposableBean {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final String name;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+
+    /**
+     * Permits of the tasks admitted to the bulkhead, either running or waiting in the queue.
+     */
+    private final Semaphore admitted;
+
+    /**
+     * Permits of the running tasks.
+     */
+    private final Semaphore running;
+
+    private final ExecutorService executor;
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalQueueWait = new LongAdder();
+    private final LongAdder totalExecution = new LongAdder();
+    private final AtomicLong maxQueueWait = new AtomicLong();
+    private final AtomicLong maxExecution = new AtomicLong();
+
+    /**
+     * Constructs new bulkhead.
+     *
+     * @param name           Name of the bulkhead, used as the prefix of the names of its threads.
+     * @param maxConcurrency Maximum number of tasks running at the same time.
+     * @param queueCapacity  Maximum number of tasks waiting for their turn.
+     */
+    public BulkheadExecutor(String name, int maxConcurrency, int queueCapacity) {
+        if (maxConcurrency < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Bulkhead: %s requires positive concurrency and non-negative queue capacity.".formatted(name));
+        }
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.admitted = new Semaphore(maxConcurrency + queueCapacity);
+        this.running = new Semaphore(maxConcurrency, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            rejectedCount.increment();
+            throw new TaskRejectedException("Bulkhead: %s is full, task: %s was rejected.".formatted(name, task));
+        }
+
+        Runnable securedTask = DelegatingSecurityContextRunnable.create(task, null);
+        long submissionTime = System.nanoTime();
+        queueDepth.incrementAndGet();
+        try {
+            executor.execute(() -> this.run(securedTask, submissionTime));
+            submittedCount.increment();
+        } catch (RejectedExecutionException exception) {
+            queueDepth.decrementAndGet();
+            admitted.release();
+            rejectedCount.increment();
+            throw new TaskRejectedException("Bulkhead: %s is shut down, task: %s was rejected.".formatted(name, task), exception);
+        }
+    }
+
+    private void run(Runnable task, long submissionTime) {
+        try {
+            running.acquire();
+        } catch (InterruptedException exception) {
+            queueDepth.decrementAndGet();
+            admitted.release();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        queueDepth.decrementAndGet();
+        activeCount.incrementAndGet();
+        long startTime = System.nanoTime();
+        record(startTime - submissionTime, totalQueueWait, maxQueueWait);
+        try {
+            task.run();
+            completedCount.increment();
+        } catch (RuntimeException exception) {
+            failedCount.increment();
+            log.error("Exception: {} occurred while executing task in the bulkhead: {}. Cause: {}",
+                    exception.getClass().getSimpleName(), name, exception.getMessage(), exception);
+        } finally {
+            record(System.nanoTime() - startTime, totalExecution, maxExecution);
+            activeCount.decrementAndGet();
+            running.release();
+            admitted.release();
+        }
+    }
+
+    private static void record(long nanos, LongAdder total, AtomicLong max) {
+        total.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Bulkhead: {} did not finish {} running and {} queued task(s) before shutdown.",
+                    name, activeCount.get(), queueDepth.get());
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public double getAverageQueueWaitMillis() {
+        long started = completedCount.sum() + failedCount.sum() + activeCount.get();
+        return started == 0 ? 0 : toMillis((double) totalQueueWait.sum() / started);
+    }
+
+    @Override
+    public double getMaxQueueWaitMillis() {
+        return toMillis(maxQueueWait.get());
+    }
+
+    @Override
+    public double getAverageExecutionMillis() {
+        long finished = completedCount.sum() + failedCount.sum();
+        return finished == 0 ? 0 : toMillis((double) totalExecution.sum() / finished);
+    }
+
+    @Override
+    public double getMaxExecutionMillis() {
+        return toMillis(maxExecution.get());
+    }
+}
@@ -0,0 +1,35 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.async;
+
+/**
+ * Management interface exposing the metrics of the bulkhead executor over JMX.
+ *
+ * @see BulkheadExecutor
+ */
+public interface BulkheadExecutorMXBean {
+
+    String getName();
+
+    int getMaxConcurrency();
+
+    int getQueueCapacity();
+
+    int getActiveCount();
+
+    int getQueueDepth();
+
+    long getSubmittedCount();
+
+    long getCompletedCount();
+
+    long getFailedCount();
+
+    long getRejectedCount();
+
+    double getAverageQueueWaitMillis();
+
+    double getMaxQueueWaitMillis();
+
+    double getAverageExecutionMillis();
+
+    double getMaxExecutionMillis();
+}
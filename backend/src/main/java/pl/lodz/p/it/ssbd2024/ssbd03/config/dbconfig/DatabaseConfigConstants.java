@@ -25,4 +25,14 @@ public class DatabaseConfigConstants {
 
     // Transaction managers
     public static final String TXM = "transactionManager";
+
+    // Second-level cache
+    public static final String CACHE_MANAGER_MOP = "cacheManagerMOP";
+    public static final String PARKING_CACHE_REGION = "ssbd03mop.parking";
+    public static final String PARKING_SECTORS_CACHE_REGION = "ssbd03mop.parking.sectors";
+    public static final String SECTOR_CACHE_REGION = "ssbd03mop.sector";
+
+    // Query space of the native statements modifying occupancy of a single sector, which does not match any cached
+    // entity, so that executing them does not invalidate whole region of the sectors.
+    public static final String SECTOR_OCCUPANCY_QUERY_SPACE = "sector_occupancy";
 }
\ No newline at end of file
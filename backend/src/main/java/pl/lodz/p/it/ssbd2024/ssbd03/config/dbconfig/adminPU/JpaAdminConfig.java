@@ -38,6 +38,7 @@ public class JpaAdminConfig {
         properties.put("hibernate.format_sql", formatSql);
         properties.put("hibernate.hbm2ddl.auto", hbm2ddlAuto);
         properties.put("hibernate.hbm2ddl.import_files", importFiles);
+        properties.put("hibernate.cache.use_second_level_cache", "false");
 
         return properties;
     }
@@ -31,6 +31,7 @@ public class JpaAuthConfig {
         properties.put("hibernate.dialect", dialect);
         properties.put("hibernate.show_sql", showSql);
         properties.put("hibernate.format_sql", formatSql);
+        properties.put("hibernate.cache.use_second_level_cache", "false");
 
         return properties;
     }
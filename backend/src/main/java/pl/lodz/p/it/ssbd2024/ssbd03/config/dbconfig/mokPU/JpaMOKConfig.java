@@ -26,12 +26,17 @@ public class JpaMOKConfig {
     private String showSql;
     @Value("${hibernate.format_sql}")
     private String formatSql;
+    @Value("${hibernate.jdbc.batch_size}")
+    private String batchSize;
 
     private Properties properties() {
         Properties properties = new Properties();
         properties.put("hibernate.dialect", dialect);
         properties.put("hibernate.show_sql", showSql);
         properties.put("hibernate.format_sql", formatSql);
+        properties.put("hibernate.jdbc.batch_size", batchSize);
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
 
         return properties;
     }
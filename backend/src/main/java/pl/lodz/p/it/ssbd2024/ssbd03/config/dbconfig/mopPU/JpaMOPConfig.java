@@ -1,5 +1,7 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.mopPU;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,8 +11,15 @@ import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
 
+import javax.cache.CacheManager;
+import javax.cache.Caching;
 import javax.sql.DataSource;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 
 @Configuration
@@ -26,24 +35,64 @@ public class JpaMOPConfig {
     private String showSql;
     @Value("${hibernate.format_sql}")
     private String formatSql;
+    @Value("${hibernate.jdbc.batch_size}")
+    private String batchSize;
+    @Value("${mop.cache.max.size}")
+    private long cacheMaxSize;
+    @Value("${mop.cache.ttl.minutes}")
+    private long cacheTTL;
 
     private Properties properties() {
         Properties properties = new Properties();
         properties.put("hibernate.dialect", dialect);
         properties.put("hibernate.show_sql", showSql);
         properties.put("hibernate.format_sql", formatSql);
+        properties.put("hibernate.jdbc.batch_size", batchSize);
+        properties.put("hibernate.order_inserts", "true");
+
+        properties.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "false");
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
 
         return properties;
     }
 
+    /**
+     * Creates the local cache manager holding the second-level cache regions of the MOP persistence unit. Each region
+     * is bounded in size, and its entries expire after the configured time, even though they are updated or evicted
+     * by Hibernate on every change made through this persistence unit. Changes made by other instances of the application
+     * are evicted by the handlers registered in {@link pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade}. Each manager has its own URI, so that every
+     * application context keeps separate regions.
+     *
+     * @return Cache manager with the regions of parking and sectors.
+     */
+    @Bean(name = DatabaseConfigConstants.CACHE_MANAGER_MOP, destroyMethod = "close")
+    public CacheManager cacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create(DatabaseConfigConstants.MOP_PU + ":" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : List.of(DatabaseConfigConstants.PARKING_CACHE_REGION,
+                DatabaseConfigConstants.PARKING_SECTORS_CACHE_REGION, DatabaseConfigConstants.SECTOR_CACHE_REGION)) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(cacheMaxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(cacheTTL)));
+            configuration.setStoreByValue(false);
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
     @Bean(DatabaseConfigConstants.EMF_MOP)
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(@Qualifier(DatabaseConfigConstants.DS_MOP) DataSource dataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(@Qualifier(DatabaseConfigConstants.DS_MOP) DataSource dataSource,
+                                                                       @Qualifier(DatabaseConfigConstants.CACHE_MANAGER_MOP) CacheManager cacheManager) {
         LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
         entityManagerFactory.setJtaDataSource(dataSource);
         entityManagerFactory.setPersistenceUnitName(DatabaseConfigConstants.MOP_PU);
         entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
         entityManagerFactory.setPackagesToScan(DatabaseConfigConstants.JPA_PACKAGE_TO_SCAN);
         entityManagerFactory.setJpaProperties(this.properties());
+        entityManagerFactory.getJpaPropertyMap().put("hibernate.javax.cache.cache_manager", cacheManager);
         return entityManagerFactory;
     }
-}
\ No newline at end of file
+}
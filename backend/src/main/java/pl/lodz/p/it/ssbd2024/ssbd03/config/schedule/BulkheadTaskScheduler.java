@@ -0,0 +1,89 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.async.BulkheadExecutor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Scheduler firing triggers of the scheduled tasks on its virtual thread, and executing every task in the scheduler
+ * bulkhead, so that the concurrency of the bulkhead limits all the scheduled work.
+ * <p>
+ * Tasks with the fixed rate or the trigger are handed over to the bulkhead. When the bulkhead is full, the execution
+ * is re-armed, and attempted again after the retry delay, instead of waiting for the next trigger. Tasks with
+ * the fixed delay are handed over to the bulkhead as well, but the scheduler thread waits for their completion,
+ * so that the delay is still measured from the end of the previous execution. Their execution rejected by the full
+ * bulkhead is skipped, since they are triggered again after the delay.
+ */
+@Slf4j
+public class BulkheadTaskScheduler extends SimpleAsyncTaskScheduler {
+
+    private final BulkheadExecutor bulkhead;
+    private final Duration rejectedRetryDelay;
+
+    /**
+     * Constructs the scheduler.
+     *
+     * @param bulkhead           Bulkhead, which the scheduled tasks are executed in.
+     * @param rejectedRetryDelay Delay, after which execution rejected by the full bulkhead is attempted again.
+     */
+    public BulkheadTaskScheduler(BulkheadExecutor bulkhead, Duration rejectedRetryDelay) {
+        this.bulkhead = bulkhead;
+        this.rejectedRetryDelay = rejectedRetryDelay;
+        this.setThreadNamePrefix("Scheduler-");
+        this.setVirtualThreads(true);
+        this.setTargetTaskExecutor(this::executeInBulkhead);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+        return super.scheduleWithFixedDelay(this.awaitInBulkhead(task), startTime, delay);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+        return super.scheduleWithFixedDelay(this.awaitInBulkhead(task), delay);
+    }
+
+    private void executeInBulkhead(Runnable task) {
+        try {
+            bulkhead.execute(task);
+        } catch (TaskRejectedException exception) {
+            log.warn("Execution of the scheduled task was rejected, it will be retried in {} s. Cause: {}",
+                    rejectedRetryDelay.toSeconds(), exception.getMessage());
+            try {
+                this.schedule(task, Instant.now().plus(rejectedRetryDelay));
+            } catch (TaskRejectedException shutdownException) {
+                log.warn("Execution of the scheduled task was not retried, since the scheduler is shut down.");
+            }
+        }
+    }
+
+    private Runnable awaitInBulkhead(Runnable task) {
+        return () -> {
+            Future<?> execution;
+            try {
+                execution = bulkhead.submit(task);
+            } catch (TaskRejectedException exception) {
+                log.warn("Execution of the scheduled task was skipped. Cause: {}", exception.getMessage());
+                return;
+            }
+
+            try {
+                execution.get();
+            } catch (InterruptedException exception) {
+                execution.cancel(true);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException exception) {
+                log.error("Exception: {} occurred while executing the scheduled task. Cause: {}",
+                        exception.getCause().getClass().getSimpleName(), exception.getCause().getMessage(), exception.getCause());
+            }
+        };
+    }
+}
@@ -1,9 +1,65 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.schedule;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.async.AsyncConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.async.BulkheadExecutor;
+
+import java.time.Duration;
 
 @Configuration
 @EnableScheduling
-public class ScheduleConfig {
+public class ScheduleConfig implements SchedulingConfigurer {
+
+    public static final String CACHE_INVALIDATION_SCHEDULER = "cacheInvalidationScheduler";
+
+    private final BulkheadExecutor schedulerExecutor;
+
+    @Value("${scheduler.rejected.retry.seconds}")
+    private long rejectedRetryDelay;
+
+    @Autowired
+    public ScheduleConfig(@Qualifier(AsyncConfig.SCHEDULER_EXECUTOR) BulkheadExecutor schedulerExecutor) {
+        this.schedulerExecutor = schedulerExecutor;
+    }
+
+    /**
+     * Every scheduled task is executed in the scheduler bulkhead, including the tasks with the fixed delay, which
+     * Spring would otherwise run on the scheduler thread. Tasks are not guarded against overlapping runs of themselves
+     * or of each other, so the concurrency of the scheduler bulkhead is kept at 1 by default, as with
+     * the single-threaded scheduler used before. Execution rejected by the full bulkhead is retried after
+     * <code>scheduler.rejected.retry.seconds</code>.
+     *
+     * @see BulkheadTaskScheduler
+     */
+    @Bean
+    public SimpleAsyncTaskScheduler taskScheduler() {
+        return new BulkheadTaskScheduler(schedulerExecutor, Duration.ofSeconds(rejectedRetryDelay));
+    }
+
+    /**
+     * Scheduler of the reads of the cache invalidations written by other nodes. It is kept outside the scheduler
+     * bulkhead, so that the invalidations are read on time even while the long-running scheduled tasks occupy it.
+     *
+     * @see pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator
+     */
+    @Bean(CACHE_INVALIDATION_SCHEDULER)
+    public SimpleAsyncTaskScheduler cacheInvalidationScheduler() {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setThreadNamePrefix("CacheInvalidation-");
+        scheduler.setVirtualThreads(true);
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setScheduler(taskScheduler());
+    }
 }
@@ -0,0 +1,37 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.schedule;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+/**
+ * Identity of this instance (node) of the application, used as the owner of the scheduler leases.
+ * Identifier is specified by <code>scheduler.node.id</code> property, and when it is left empty, it is generated
+ * from the name of the JVM process (process identifier and host name) and random suffix, so that it is unique
+ * even for the nodes restarted on the same host.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease
+ */
+@Slf4j
+@Getter
+@Component
+public class SchedulerNode {
+
+    private final String nodeId;
+
+    /**
+     * Constructs the identity of the node.
+     *
+     * @param nodeId Configured identifier of the node, or empty string if it should be generated.
+     */
+    public SchedulerNode(@Value("${scheduler.node.id:}") String nodeId) {
+        this.nodeId = nodeId == null || nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+        log.info("Scheduler node identifier: {}", this.nodeId);
+    }
+}
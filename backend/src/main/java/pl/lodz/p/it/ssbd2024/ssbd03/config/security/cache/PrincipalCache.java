@@ -0,0 +1,187 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the authenticated principals, used by the JWT authentication filter in order to avoid reading
+ * the account from the database on every request. Each entry holds the data of the account (read in given version)
+ * needed to authenticate the request, and lives no longer than the access token, that is
+ * <code>jwt.token.validity.period.length.minutes</code>.
+ * <p>
+ * Entries are invalidated by the services whenever the state of the account, which affects the authentication
+ * (blocking, suspending, changing user levels or password), is modified. Invalidation is repeated after the completion
+ * of the transaction, and principals read from the database before it are not cached. Invalidation is published to
+ * other instances of the application through {@link ClusterCacheInvalidator}. Moreover, principal older than
+ * the account version embedded in the access token is never used, so token issued by other instance after the change
+ * of the account is not authenticated with the principal cached before it.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.JWTAuthenticationFilter
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    /**
+     * Name of the cache used to publish its invalidations to other instances of the application.
+     */
+    public static final String REGION = "principal";
+
+    @Value("${jwt.token.validity.period.length.minutes}")
+    private long accessTokenTTL;
+
+    @Value("${principal.cache.max.size}")
+    private int maxSize;
+
+    /**
+     * Cached principals, identified by the account identifier.
+     */
+    private final Map<UUID, CachedPrincipal> principals = new ConcurrentHashMap<>();
+
+    /**
+     * Generation counter, incremented on every invalidation. Used to discard principals built from the data read
+     * before the account was modified.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ClusterCacheInvalidator clusterCacheInvalidator;
+
+    /**
+     * Autowired constructor for the component. Registers the handler of the invalidations published by other
+     * instances of the application.
+     *
+     * @param clusterCacheInvalidator Component propagating the invalidations between instances of the application.
+     */
+    @Autowired
+    public PrincipalCache(ClusterCacheInvalidator clusterCacheInvalidator) {
+        this.clusterCacheInvalidator = clusterCacheInvalidator;
+        clusterCacheInvalidator.register(REGION, accountId -> {
+            if (accountId == null) clear();
+            else evict(UUID.fromString(accountId));
+        });
+    }
+
+    /**
+     * Immutable principal of the authenticated account, stored in the cache.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedPrincipal {
+        private final UUID accountId;
+        private final Long accountVersion;
+        private final String login;
+        private final String password;
+        private final List<SimpleGrantedAuthority> authorities;
+        private final Instant expiresAt;
+    }
+
+    /**
+     * Retrieves the cached principal of the account.
+     *
+     * @param accountId      Identifier of the account.
+     * @param accountVersion Minimal version of the account, which the principal could be built from (the version
+     *                       embedded in the access token), or null if any version is accepted.
+     * @return Principal of the account, or null if it is not cached, has already expired or is older than given version.
+     */
+    public CachedPrincipal get(UUID accountId, Long accountVersion) {
+        CachedPrincipal principal = principals.get(accountId);
+        if (principal == null) return null;
+        if (principal.getExpiresAt().isBefore(Instant.now()) || isOlderThan(principal, accountVersion)) {
+            principals.remove(accountId, principal);
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Marks the beginning of reading the principal from the database.
+     *
+     * @return Generation, which should be passed to {@link #put(UUID, Long, String, String, List, long)}.
+     */
+    public long startRead() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the principal read from the database, unless any account was invalidated since the read started,
+     * the cache is full or it already holds the principal built from the newer version of the account.
+     *
+     * @param accountId      Identifier of the account.
+     * @param accountVersion Version of the account, which the principal was built from.
+     * @param login          Login of the account.
+     * @param password       Password (hash) of the account.
+     * @param authorities    Authorities granted to the account.
+     * @param readGeneration Generation returned by {@link #startRead()} before the account was read.
+     * @return Principal built from the given data (cached or not).
+     */
+    public CachedPrincipal put(UUID accountId, Long accountVersion, String login, String password,
+                               List<SimpleGrantedAuthority> authorities, long readGeneration) {
+        CachedPrincipal principal = new CachedPrincipal(accountId, accountVersion, login, password, List.copyOf(authorities),
+                Instant.now().plus(accessTokenTTL, ChronoUnit.MINUTES));
+        if (generation.get() != readGeneration) return principal;
+
+        if (principals.size() >= maxSize && !principals.containsKey(accountId)) {
+            Instant now = Instant.now();
+            principals.values().removeIf(cached -> cached.getExpiresAt().isBefore(now));
+            if (principals.size() >= maxSize) return principal;
+        }
+
+        CachedPrincipal cached = principals.merge(accountId, principal,
+                (current, read) -> isOlderThan(current, read.getAccountVersion()) ? read : current);
+        if (cached != principal) return principal;
+        if (generation.get() != readGeneration) principals.remove(accountId, principal);
+        return principal;
+    }
+
+    /**
+     * Removes the principal of the account from the cache. When called inside a transaction, the principal is
+     * removed again after the transaction is completed, so that it is not cached from the data read before the commit,
+     * and the invalidation is published to other instances of the application.
+     *
+     * @param accountId Identifier of the account, which was modified.
+     */
+    public void invalidate(UUID accountId) {
+        evict(accountId);
+        clusterCacheInvalidator.publish(REGION, accountId.toString());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(accountId);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID accountId) {
+        generation.incrementAndGet();
+        principals.remove(accountId);
+        log.debug("Principal of the account with id: {} was removed from the cache.", accountId);
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        principals.clear();
+        log.debug("All principals were removed from the cache.");
+    }
+
+    private static boolean isOlderThan(CachedPrincipal principal, Long accountVersion) {
+        return accountVersion != null && principal.getAccountVersion() != null && principal.getAccountVersion() < accountVersion;
+    }
+}
@@ -0,0 +1,157 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compact, in-memory list of the revoked access tokens, used to reject the tokens issued before the account was
+ * blocked, suspended, logged out or had its user levels changed, without reading the account from the database.
+ * <p>
+ * Each access token carries the epoch of the list and the token version, that is the value of the revocation counter
+ * at the moment the token was issued. Revoking the tokens of the account stores the next value of the counter under
+ * its login, and every token of that account with the lower version is rejected. Entries are removed once every token
+ * they could reject has expired, that is after <code>jwt.token.validity.period.length.minutes</code>. When the list
+ * is full even after removing them, it starts a new epoch, and the tokens issued in the previous one are no longer
+ * trusted by their claims (the account is read from the database instead).
+ * <p>
+ * The list is held in the memory of the application instance, so the tokens issued by other instances, or before
+ * the restart, have different epoch and are always authenticated with the account read from the database.
+ * Revocations are published to other instances through {@link ClusterCacheInvalidator}, so that the tokens issued
+ * by them in their current epoch are revoked as well.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.JWTAuthenticationFilter
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    /**
+     * Name of the list used to publish the revocations to other instances of the application.
+     */
+    public static final String REGION = "revocation";
+
+    @Value("${jwt.token.validity.period.length.minutes}")
+    private long accessTokenTTL;
+
+    @Value("${jwt.revocation.list.max.size}")
+    private int maxSize;
+
+    /**
+     * Versions below which the tokens are revoked, identified by the login of the account.
+     */
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private volatile String epoch = UUID.randomUUID().toString();
+
+    private final ClusterCacheInvalidator clusterCacheInvalidator;
+
+    private record Revocation(long version, Instant expiresAt) {
+    }
+
+    /**
+     * Autowired constructor for the component. Registers the handler of the revocations published by other
+     * instances of the application.
+     *
+     * @param clusterCacheInvalidator Component propagating the invalidations between instances of the application.
+     */
+    @Autowired
+    public TokenRevocationList(ClusterCacheInvalidator clusterCacheInvalidator) {
+        this.clusterCacheInvalidator = clusterCacheInvalidator;
+        clusterCacheInvalidator.register(REGION, login -> {
+            if (login == null) startNewEpoch();
+            else record(login);
+        });
+    }
+
+    /**
+     * @return Epoch of the list, which should be embedded in the issued access tokens.
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return Version, which should be embedded in the access tokens issued now.
+     */
+    public long getTokenVersion() {
+        return counter.get();
+    }
+
+    /**
+     * Checks whether the token was issued in the current epoch, so that it could be revoked by this list.
+     *
+     * @param tokenEpoch Epoch embedded in the token.
+     * @return True if the token was issued in the current epoch, false otherwise.
+     */
+    public boolean isCurrentEpoch(String tokenEpoch) {
+        return epoch.equals(tokenEpoch);
+    }
+
+    /**
+     * Checks whether the token was revoked. Tokens from other epochs could not be checked, and are never reported
+     * as revoked.
+     *
+     * @param login        Login of the account, which the token was issued for.
+     * @param tokenEpoch   Epoch embedded in the token.
+     * @param tokenVersion Version embedded in the token.
+     * @return True if the token was revoked, false otherwise.
+     */
+    public boolean isRevoked(String login, String tokenEpoch, Long tokenVersion) {
+        if (!isCurrentEpoch(tokenEpoch) || tokenVersion == null) return false;
+        Revocation revocation = revocations.get(login);
+        return revocation != null && tokenVersion < revocation.version();
+    }
+
+    /**
+     * Revokes every access token issued for the account until now. When called inside a transaction, the tokens
+     * are revoked again after the transaction is completed, so that the tokens issued from the data read before
+     * the commit are revoked as well, and the revocation is published to other instances of the application.
+     *
+     * @param login Login of the account, which tokens should be revoked.
+     */
+    public void revoke(String login) {
+        record(login);
+        clusterCacheInvalidator.publish(REGION, login);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    record(login);
+                }
+            });
+        }
+    }
+
+    private void record(String login) {
+        Instant now = Instant.now();
+        if (revocations.size() >= maxSize && !revocations.containsKey(login)) {
+            revocations.values().removeIf(revocation -> revocation.expiresAt().isBefore(now));
+            if (revocations.size() >= maxSize) {
+                startNewEpoch();
+                log.warn("Token revocation list is full, new epoch was started.");
+            }
+        }
+        revocations.put(login, new Revocation(counter.incrementAndGet(), now.plus(accessTokenTTL, ChronoUnit.MINUTES)));
+        log.debug("Access tokens of the account with login: {} were revoked.", login);
+    }
+
+    private void startNewEpoch() {
+        epoch = UUID.randomUUID().toString();
+        revocations.clear();
+        log.debug("New epoch of the token revocation list was started.");
+    }
+}
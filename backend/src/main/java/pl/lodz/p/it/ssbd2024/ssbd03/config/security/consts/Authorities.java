@@ -114,4 +114,7 @@ public class Authorities {
     public static final String MANAGE_ATTRIBUTES = "MANAGE_ATTRIBUTES";
     public static final String MANAGE_OWN_ATTRIBUTES = "MANAGE_OWN_ATTRIBUTES";
     public static final String GET_PARKING_HISTORICAL_DATA = "GET_PARKING_HISTORICAL_DATA";
+    public static final String ACQUIRE_SCHEDULER_LEASE = "ACQUIRE_SCHEDULER_LEASE";
+    public static final String DISPATCH_MAIL = "DISPATCH_MAIL";
+    public static final String POLL_CACHE_INVALIDATIONS = "POLL_CACHE_INVALIDATIONS";
 }
@@ -1,5 +1,6 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -19,6 +21,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.exception.ExceptionDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Roles;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.SecurityConstants;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.roles.RolesMapper;
@@ -30,6 +34,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.read.AccountNotFoundE
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AuthenticationFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.utils.JWTConsts;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
 
 import java.io.IOException;
@@ -43,17 +48,37 @@ import java.util.UUID;
 @LoggerInterceptor
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String DATABASE_MODE = "database";
+    public static final String CLAIMS_MODE = "claims";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final JWTProvider jwtProvider;
     private final AuthenticationFacade authenticationFacade;
     private final RolesMapper rolesMapper;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList tokenRevocationList;
+
+    /**
+     * Source of the authorities of the authenticated account, either <code>database</code> (account is read from
+     * the database, or the principal cache) or <code>claims</code> (authorities are built from the user levels
+     * embedded in the token, when the token could be checked against the token revocation list).
+     * Specified by <code>jwt.authorization.mode</code> property.
+     */
+    @Value("${jwt.authorization.mode:database}")
+    private String authorizationMode = DATABASE_MODE;
 
     @Autowired
     public JWTAuthenticationFilter(JWTProvider jwtProvider,
                                    AuthenticationFacade authenticationFacade,
-                                   RolesMapper rolesMapper) {
+                                   RolesMapper rolesMapper,
+                                   PrincipalCache principalCache,
+                                   TokenRevocationList tokenRevocationList) {
         this.jwtProvider = jwtProvider;
         this.authenticationFacade = authenticationFacade;
         this.rolesMapper = rolesMapper;
+        this.principalCache = principalCache;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
@@ -70,21 +95,25 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
             try {
                 if (SecurityContextHolder.getContext().getAuthentication() != null) filterChain.doFilter(request, response);
 
-                UUID accountId = jwtProvider.extractAccountId(jwtToken);
-                Account account = authenticationFacade.find(accountId).orElseThrow(AccountNotFoundException::new);
-                if (!jwtProvider.isTokenValid(jwtToken, account)) throw new TokenNotValidException();
-
-                List<SimpleGrantedAuthority> listOfAuthorities = new ArrayList<>();
-                for (UserLevel userLevel : account.getUserLevels()) {
-                    listOfAuthorities.addAll(
-                            rolesMapper.getAuthorities(
-                                    Roles.valueOf(userLevel.getClass().getSimpleName().toUpperCase())
-                            )
-                    );
+                DecodedJWT decodedJWT = jwtProvider.verifyToken(jwtToken);
+                UUID accountId = jwtProvider.extractAccountId(decodedJWT);
+                String tokenEpoch = decodedJWT.getClaim(JWTConsts.TOKEN_EPOCH).asString();
+                if (tokenRevocationList.isRevoked(decodedJWT.getSubject(), tokenEpoch, decodedJWT.getClaim(JWTConsts.TOKEN_VERSION).asLong())) {
+                    throw new TokenNotValidException();
                 }
-                listOfAuthorities.addAll(rolesMapper.getAuthorities(Roles.AUTHENTICATED));
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(account.getLogin(), account.getPassword(), listOfAuthorities);
+                UsernamePasswordAuthenticationToken authToken;
+                if (CLAIMS_MODE.equals(authorizationMode) && tokenRevocationList.isCurrentEpoch(tokenEpoch)) {
+                    if (decodedJWT.getSubject() == null || !jwtProvider.isTokenValid(decodedJWT, accountId, decodedJWT.getSubject())) {
+                        throw new TokenNotValidException();
+                    }
+                    authToken = new UsernamePasswordAuthenticationToken(decodedJWT.getSubject(), null, extractAuthorities(decodedJWT));
+                } else {
+                    PrincipalCache.CachedPrincipal principal = principalCache.get(accountId, decodedJWT.getClaim(JWTConsts.ACCOUNT_VERSION).asLong());
+                    if (principal == null) principal = loadPrincipal(accountId);
+                    if (!jwtProvider.isTokenValid(decodedJWT, principal.getAccountId(), principal.getLogin())) throw new TokenNotValidException();
+                    authToken = new UsernamePasswordAuthenticationToken(principal.getLogin(), principal.getPassword(), principal.getAuthorities());
+                }
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             } catch (ApplicationDatabaseException exception) {
@@ -107,4 +136,52 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Builds the authorities of the authenticated account from the user levels embedded in the verified token.
+     *
+     * @param decodedJWT Verified and decoded token.
+     * @return Authorities granted to the account.
+     * @throws ApplicationBaseException Thrown when the token contains no user levels, or an unknown one.
+     */
+    private List<SimpleGrantedAuthority> extractAuthorities(DecodedJWT decodedJWT) throws ApplicationBaseException {
+        List<String> userLevels = decodedJWT.getClaim(JWTConsts.USER_LEVELS).asList(String.class);
+        if (userLevels == null) throw new TokenNotValidException();
+
+        List<SimpleGrantedAuthority> listOfAuthorities = new ArrayList<>();
+        try {
+            for (String userLevel : userLevels) {
+                listOfAuthorities.addAll(rolesMapper.getAuthorities(Roles.valueOf(userLevel.substring(ROLE_PREFIX.length()))));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException exception) {
+            throw new TokenNotValidException();
+        }
+        listOfAuthorities.addAll(rolesMapper.getAuthorities(Roles.AUTHENTICATED));
+        return listOfAuthorities;
+    }
+
+    /**
+     * Reads the account from the database and builds its principal, which is then stored in the principal cache.
+     *
+     * @param accountId Identifier of the authenticated account.
+     * @return Principal of the authenticated account.
+     * @throws ApplicationBaseException Thrown when account could not be found or read from the database.
+     */
+    private PrincipalCache.CachedPrincipal loadPrincipal(UUID accountId) throws ApplicationBaseException {
+        long readGeneration = principalCache.startRead();
+        Account account = authenticationFacade.find(accountId).orElseThrow(AccountNotFoundException::new);
+
+        List<SimpleGrantedAuthority> listOfAuthorities = new ArrayList<>();
+        for (UserLevel userLevel : account.getUserLevels()) {
+            listOfAuthorities.addAll(
+                    rolesMapper.getAuthorities(
+                            Roles.valueOf(userLevel.getClass().getSimpleName().toUpperCase())
+                    )
+            );
+        }
+        listOfAuthorities.addAll(rolesMapper.getAuthorities(Roles.AUTHENTICATED));
+
+        return principalCache.put(account.getId(), account.getVersion(), account.getLogin(), account.getPassword(),
+                listOfAuthorities, readGeneration);
+    }
 }
@@ -22,44 +22,43 @@ import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashMap;
-import java.util.Map;
 
 @Slf4j
 @Component
 @LoggerInterceptor
 public class JWTRequiredFilter extends OncePerRequestFilter {
 
-    private static final String UUID_REGEX = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
+    /**
+     * Routes accessible without the JWT, compiled once when the class is loaded.
+     */
+    public static final RouteWhitelist WHITELIST = RouteWhitelist.builder()
+            // Other
+            .permitPrefix("/v3/api-docs")
+            .permitPrefix("/swagger-ui")
+            .permitPrefix("/swagger-resources")
+            .permitPrefix("/configuration/ui")
+            .permitPrefix("/configuration/security")
+            .permitPrefix("/favicon.ico")
 
-    private static final Map<String, String> WHITELIST_MAP = new HashMap<>() {{
-        // Other
-        put("^/v3/api-docs.*", null);
-        put("^/swagger-ui.*", null);
-        put("^/swagger-resources.*", null);
-        put("^/configuration/ui.*", null);
-        put("^/configuration/security.*", null);
-        put("^/swagger-ui.html.*", null);
-        put("^/favicon.ico.*", null);
-
-        // Endpoints
-        put("^/api/v1/auth/login-credentials", HttpMethod.POST.name());
-        put("^/api/v1/auth/login-auth-code", HttpMethod.POST.name());
-        put("^/api/v1/auth/random-image", HttpMethod.GET.name());
-        put("^/api/v1/register/client", HttpMethod.POST.name());
-        put("^/api/v1/accounts/forgot-password", HttpMethod.POST.name());
-        put("^/api/v1/accounts/change-password/.*", HttpMethod.POST.name());
-        put("^/api/v1/accounts/activate-account/.*", HttpMethod.POST.name());
-        put("^/api/v1/accounts/confirm-email/.*", HttpMethod.POST.name());
-        put("^/api/v1/accounts/restore-access", HttpMethod.POST.name());
-        put("^/api/v1/accounts/restore-token/.*", HttpMethod.POST.name());
-        put("^/api/v1/parking/sectors/get/%s".formatted(UUID_REGEX), HttpMethod.GET.name());
-        put("^/api/v1/parking/active", HttpMethod.GET.name());
-        put("^/api/v1/parking/reservations/%s/exit$".formatted(UUID_REGEX), HttpMethod.POST.name());
-        put("^/api/v1/parking/%s/enter$".formatted(UUID_REGEX), HttpMethod.POST.name());
-        put("^/api/v1/parking/get/%s$".formatted(UUID_REGEX), HttpMethod.GET.name());
-        put("^/api/v1/parking/client/sectors/%s$".formatted(UUID_REGEX), HttpMethod.GET.name());
-    }};
+            // Endpoints
+            .permit(HttpMethod.POST, "/api/v1/auth/login-credentials")
+            .permit(HttpMethod.POST, "/api/v1/auth/login-auth-code")
+            .permit(HttpMethod.GET, "/api/v1/auth/random-image")
+            .permit(HttpMethod.GET, "/api/v1/auth/jwks")
+            .permit(HttpMethod.POST, "/api/v1/register/client")
+            .permit(HttpMethod.POST, "/api/v1/accounts/forgot-password")
+            .permitPrefix(HttpMethod.POST, "/api/v1/accounts/change-password/")
+            .permitPrefix(HttpMethod.POST, "/api/v1/accounts/activate-account/")
+            .permitPrefix(HttpMethod.POST, "/api/v1/accounts/confirm-email/")
+            .permit(HttpMethod.POST, "/api/v1/accounts/restore-access")
+            .permitPrefix(HttpMethod.POST, "/api/v1/accounts/restore-token/")
+            .permit(HttpMethod.GET, "/api/v1/parking/sectors/get/{uuid}")
+            .permit(HttpMethod.GET, "/api/v1/parking/active")
+            .permit(HttpMethod.POST, "/api/v1/parking/reservations/{uuid}/exit")
+            .permit(HttpMethod.POST, "/api/v1/parking/{uuid}/enter")
+            .permit(HttpMethod.GET, "/api/v1/parking/get/{uuid}")
+            .permit(HttpMethod.GET, "/api/v1/parking/client/sectors/{uuid}")
+            .build();
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -81,16 +80,6 @@ public class JWTRequiredFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
-        UrlPathHelper urlPathHelper = new UrlPathHelper();
-        for (String key : WHITELIST_MAP.keySet()) {
-            String methodName = WHITELIST_MAP.get(key);
-//            log.debug("Path in the application: {}", urlPathHelper.getPathWithinApplication(request));
-//            log.debug("Key: {}", key);
-//            log.debug("Result: {}", urlPathHelper.getPathWithinApplication(request).matches(key));
-            if (urlPathHelper.getPathWithinApplication(request).matches(key) &&
-                    (methodName == null ||
-                    request.getMethod().equals(methodName))) return true;
-        }
-        return false;
+        return WHITELIST.matches(request.getMethod(), UrlPathHelper.defaultInstance.getPathWithinApplication(request));
     }
 }
@@ -0,0 +1,202 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters;
+
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled whitelist of the routes, which could be accessed without the JWT in the request. Routes are grouped by
+ * the HTTP method (or registered for any method) and compiled once into the list of path prefixes and a trie of path
+ * segments, where {@value #UUID_SEGMENT} segment matches any identifier in canonical, lower case form.
+ * Matching the request path neither evaluates any regular expression nor allocates any objects.
+ * <p>
+ * Instances of this class are immutable after being built, and therefore safe to be shared between threads.
+ *
+ * @see JWTRequiredFilter
+ */
+public class RouteWhitelist {
+
+    /**
+     * Path segment matching any UUID, e.g. <code>/api/v1/parking/get/{uuid}</code>.
+     */
+    public static final String UUID_SEGMENT = "{uuid}";
+
+    private static final String ANY_METHOD = "*";
+    private static final int UUID_LENGTH = 36;
+
+    /**
+     * Compiled routes, identified by the name of the HTTP method.
+     */
+    private final Map<String, Routes> routes;
+
+    private RouteWhitelist(Map<String, Routes> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Creates new builder of the route whitelist.
+     *
+     * @return Builder of the route whitelist.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Checks whether the request, identified by the HTTP method and path within the application, is whitelisted.
+     *
+     * @param method Name of the HTTP method of the request.
+     * @param path   Path of the request within the application.
+     * @return True if the route is whitelisted, false otherwise.
+     */
+    public boolean matches(String method, String path) {
+        if (path == null) return false;
+        Routes anyMethodRoutes = routes.get(ANY_METHOD);
+        if (anyMethodRoutes != null && anyMethodRoutes.matches(path)) return true;
+        Routes methodRoutes = method == null ? null : routes.get(method);
+        return methodRoutes != null && methodRoutes.matches(path);
+    }
+
+    /**
+     * Builder of the route whitelist.
+     */
+    public static class Builder {
+
+        private final Map<String, Routes> routes = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Whitelists every path starting with given prefix, regardless of the HTTP method.
+         *
+         * @param prefix Prefix of the path.
+         * @return This builder.
+         */
+        public Builder permitPrefix(String prefix) {
+            return permitPrefix(null, prefix);
+        }
+
+        /**
+         * Whitelists every path starting with given prefix, requested with given HTTP method.
+         *
+         * @param method HTTP method of the request, or null if any method is allowed.
+         * @param prefix Prefix of the path.
+         * @return This builder.
+         */
+        public Builder permitPrefix(HttpMethod method, String prefix) {
+            routesFor(method).prefixes.add(prefix);
+            return this;
+        }
+
+        /**
+         * Whitelists the path matching given pattern, requested with given HTTP method. Pattern consists of the
+         * literal segments, and {@value RouteWhitelist#UUID_SEGMENT} segments matching any identifier.
+         *
+         * @param method  HTTP method of the request, or null if any method is allowed.
+         * @param pattern Pattern of the path, starting with slash.
+         * @return This builder.
+         */
+        public Builder permit(HttpMethod method, String pattern) {
+            if (pattern == null || !pattern.startsWith("/")) {
+                throw new IllegalArgumentException("Route pattern must start with a slash: " + pattern);
+            }
+            Node node = routesFor(method).root;
+            for (String segment : pattern.substring(1).split("/", -1)) {
+                node = node.addChild(segment);
+            }
+            node.terminal = true;
+            return this;
+        }
+
+        /**
+         * Builds the whitelist of the routes.
+         *
+         * @return Precompiled route whitelist.
+         */
+        public RouteWhitelist build() {
+            return new RouteWhitelist(new HashMap<>(routes));
+        }
+
+        private Routes routesFor(HttpMethod method) {
+            return routes.computeIfAbsent(method == null ? ANY_METHOD : method.name(), key -> new Routes());
+        }
+    }
+
+    /**
+     * Routes whitelisted for single HTTP method.
+     */
+    private static class Routes {
+
+        private final List<String> prefixes = new ArrayList<>();
+        private final Node root = new Node();
+
+        private boolean matches(String path) {
+            for (int i = 0; i < prefixes.size(); i++) {
+                if (path.startsWith(prefixes.get(i))) return true;
+            }
+            return !path.isEmpty() && path.charAt(0) == '/' && root.matches(path, 1);
+        }
+    }
+
+    /**
+     * Node of the path segment trie.
+     */
+    private static class Node {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<Node> children = new ArrayList<>();
+        private Node uuidChild;
+        private boolean terminal;
+
+        private Node addChild(String segment) {
+            if (UUID_SEGMENT.equals(segment)) {
+                if (uuidChild == null) uuidChild = new Node();
+                return uuidChild;
+            }
+            int index = names.indexOf(segment);
+            if (index >= 0) return children.get(index);
+            Node child = new Node();
+            names.add(segment);
+            children.add(child);
+            return child;
+        }
+
+        /**
+         * Matches the remaining part of the path, starting at given index, against the subtree of this node.
+         */
+        private boolean matches(String path, int start) {
+            int end = path.indexOf('/', start);
+            boolean last = end < 0;
+            if (last) end = path.length();
+
+            int length = end - start;
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                if (name.length() == length && path.regionMatches(start, name, 0, length)
+                        && children.get(i).matchesRest(path, end, last)) return true;
+            }
+            return uuidChild != null && isUUID(path, start, end) && uuidChild.matchesRest(path, end, last);
+        }
+
+        private boolean matchesRest(String path, int end, boolean last) {
+            return last ? terminal : matches(path, end + 1);
+        }
+
+        private static boolean isUUID(String path, int start, int end) {
+            if (end - start != UUID_LENGTH) return false;
+            for (int i = 0; i < UUID_LENGTH; i++) {
+                char c = path.charAt(start + i);
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    if (c != '-') return false;
+                } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
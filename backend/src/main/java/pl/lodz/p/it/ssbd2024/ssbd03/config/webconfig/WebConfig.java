@@ -2,8 +2,6 @@ package pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.*;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
-import org.springframework.core.task.TaskExecutor;
 import org.springframework.hateoas.config.EnableHypermediaSupport;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
@@ -12,9 +10,6 @@ import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
 import org.springframework.retry.annotation.EnableRetry;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -31,7 +26,6 @@ import java.util.List;
         "classpath:properties/retry.properties",
         "classpath:properties/key.properties"
 })
-@EnableAsync
 @EnableRetry
 @EnableAspectJAutoProxy(proxyTargetClass = true)
 @EnableHypermediaSupport(type = EnableHypermediaSupport.HypermediaType.HAL)
@@ -45,13 +39,4 @@ public class WebConfig implements WebMvcConfigurer {
         converters.add(new ByteArrayHttpMessageConverter());
         converters.add(new MappingJackson2HttpMessageConverter(new ObjectMapper()));
     }
-
-    @Bean
-    public TaskExecutor taskExecutor() {
-        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
-        taskExecutor.setMaxPoolSize(1000);
-        taskExecutor.setThreadNamePrefix("Async-");
-        taskExecutor.initialize();
-        return new DelegatingSecurityContextAsyncTaskExecutor(taskExecutor);
-    }
 }
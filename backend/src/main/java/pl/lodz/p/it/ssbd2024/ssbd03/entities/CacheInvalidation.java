@@ -0,0 +1,104 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing invalidation of the entry in the cache held in the memory of each instance (node) of the
+ * application. Invalidation is persisted in the same transaction as the change of the cached data, so that it is
+ * visible to other nodes only if that transaction is committed. Other nodes read the invalidations periodically,
+ * and remove the invalidated entries from their caches, while the invalidations older than the retention time
+ * are removed from the database.
+ */
+@Entity
+@Table(
+        name = DatabaseConsts.CACHE_INVALIDATION_TABLE,
+        indexes = {
+                @Index(name = DatabaseConsts.CACHE_INVALIDATION_CREATION_TIMESTAMP_INDEX,
+                        columnList = DatabaseConsts.CREATION_TIMESTAMP)
+        }
+)
+@LoggerInterceptor
+@NoArgsConstructor
+@Getter
+@NamedQueries({
+        @NamedQuery(
+                name = "CacheInvalidation.findCreatedAfter",
+                query = """
+                        SELECT i FROM CacheInvalidation i
+                        WHERE i.creationTime > :since AND i.originNode <> :originNode
+                        ORDER BY i.creationTime"""
+        ),
+        @NamedQuery(
+                name = "CacheInvalidation.removeCreatedBefore",
+                query = """
+                        DELETE FROM CacheInvalidation i
+                        WHERE i.creationTime < :timestamp"""
+        )
+})
+public class CacheInvalidation extends AbstractEntity {
+
+    /**
+     * Name of the cache, which entry was invalidated.
+     */
+    @Column(name = DatabaseConsts.CACHE_INVALIDATION_REGION_COLUMN, length = 64, nullable = false, updatable = false)
+    private String region;
+
+    /**
+     * Key of the invalidated entry, or null if all entries of the cache were invalidated.
+     */
+    @Column(name = DatabaseConsts.CACHE_INVALIDATION_ENTRY_KEY_COLUMN, updatable = false)
+    private String entryKey;
+
+    /**
+     * Identifier of the node, which invalidated the entry. That node has already removed the entry from its cache.
+     */
+    @Column(name = DatabaseConsts.CACHE_INVALIDATION_ORIGIN_NODE_COLUMN, nullable = false, updatable = false)
+    private String originNode;
+
+    /**
+     * Time of the creation of the entity object in the database.
+     */
+    @Column(name = DatabaseConsts.CREATION_TIMESTAMP, nullable = false, updatable = false)
+    private LocalDateTime creationTime;
+
+    /**
+     * Constructs the invalidation of the cache entry.
+     *
+     * @param region     Name of the cache.
+     * @param entryKey   Key of the invalidated entry, or null if all entries are invalidated.
+     * @param originNode Identifier of the node, which invalidated the entry.
+     */
+    public CacheInvalidation(String region, String entryKey, String originNode) {
+        this.region = region;
+        this.entryKey = entryKey;
+        this.originNode = originNode;
+    }
+
+    /**
+     * Custom toString() method implementation that
+     * does not return any information relating to the business
+     * data.
+     *
+     * @return String representation of the CacheInvalidation object.
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append(super.toString())
+                .append("region", region)
+                .append("creationTime", creationTime)
+                .toString();
+    }
+
+    @PrePersist
+    private void beforePersistingToTheDatabase() {
+        this.creationTime = LocalDateTime.now();
+    }
+}
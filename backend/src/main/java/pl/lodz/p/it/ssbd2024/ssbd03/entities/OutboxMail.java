@@ -0,0 +1,145 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing e-mail message waiting in the transactional outbox. Message is persisted in the same
+ * transaction as the business operation it notifies about, so it is sent only if that transaction is committed,
+ * and it is not lost when sending fails. Messages are removed from the outbox once they are sent, and messages,
+ * which could not be sent after the maximum number of attempts, are kept without the time of the next attempt.
+ */
+@Entity
+@Table(
+        name = DatabaseConsts.OUTBOX_MAIL_TABLE,
+        indexes = {
+                @Index(name = DatabaseConsts.OUTBOX_MAIL_NEXT_ATTEMPT_TIME_INDEX,
+                        columnList = DatabaseConsts.OUTBOX_MAIL_NEXT_ATTEMPT_TIME_COLUMN)
+        }
+)
+@LoggerInterceptor
+@NoArgsConstructor
+@Getter
+@NamedQueries({
+        @NamedQuery(
+                name = "OutboxMail.findReady",
+                query = """
+                        SELECT m FROM OutboxMail m
+                        WHERE m.nextAttemptTime <= :now
+                        ORDER BY m.nextAttemptTime"""
+        ),
+        @NamedQuery(
+                name = "OutboxMail.removeByIds",
+                query = """
+                        DELETE FROM OutboxMail m
+                        WHERE m.id IN :ids"""
+        )
+})
+public class OutboxMail extends AbstractEntity {
+
+    /**
+     * E-mail address of the recipient of the message.
+     */
+    @Column(name = DatabaseConsts.OUTBOX_MAIL_RECIPIENT_COLUMN, nullable = false, updatable = false)
+    private String recipient;
+
+    /**
+     * Subject of the message.
+     */
+    @Column(name = DatabaseConsts.OUTBOX_MAIL_SUBJECT_COLUMN, nullable = false, updatable = false)
+    private String subject;
+
+    /**
+     * Rendered HTML content of the message.
+     */
+    @Column(name = DatabaseConsts.OUTBOX_MAIL_CONTENT_COLUMN, columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String content;
+
+    /**
+     * Number of attempts to send the message, that were already made.
+     */
+    @Column(name = DatabaseConsts.OUTBOX_MAIL_ATTEMPTS_COLUMN, nullable = false)
+    private int attempts = 0;
+
+    /**
+     * Point in time, after which the message could be sent, or null if no more attempts will be made.
+     */
+    @Column(name = DatabaseConsts.OUTBOX_MAIL_NEXT_ATTEMPT_TIME_COLUMN)
+    private LocalDateTime nextAttemptTime;
+
+    /**
+     * Description of the error, which occurred during the last attempt to send the message.
+     */
+    @Column(name = DatabaseConsts.OUTBOX_MAIL_LAST_ERROR_COLUMN, length = 512)
+    private String lastError;
+
+    /**
+     * Time of the creation of the entity object in the database.
+     */
+    @Column(name = DatabaseConsts.CREATION_TIMESTAMP, nullable = false, updatable = false)
+    private LocalDateTime creationTime;
+
+    /**
+     * Constructs new message, ready to be sent right after the transaction is committed.
+     *
+     * @param recipient E-mail address of the recipient.
+     * @param subject   Subject of the message.
+     * @param content   Rendered HTML content of the message.
+     */
+    public OutboxMail(String recipient, String subject, String content) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.content = content;
+    }
+
+    /**
+     * Claims the message for the dispatcher, counting the attempt to send it. Until the claim expires, the message
+     * is not returned to other dispatchers, so if the dispatcher fails before reporting the result, the message is
+     * sent again after the claim expires.
+     *
+     * @param claimExpirationTime Point in time, after which the message could be claimed again.
+     */
+    public void claim(LocalDateTime claimExpirationTime) {
+        this.attempts++;
+        this.nextAttemptTime = claimExpirationTime;
+    }
+
+    /**
+     * Records failed attempt to send the message.
+     *
+     * @param error           Description of the error.
+     * @param nextAttemptTime Point in time of the next attempt, or null if no more attempts should be made.
+     */
+    public void fail(String error, LocalDateTime nextAttemptTime) {
+        this.lastError = error == null || error.length() <= 512 ? error : error.substring(0, 512);
+        this.nextAttemptTime = nextAttemptTime;
+    }
+
+    /**
+     * Custom toString() method implementation that
+     * does not return any information relating to the business
+     * data.
+     *
+     * @return String representation of the OutboxMail object.
+     */
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append(super.toString())
+                .append("attempts", attempts)
+                .append("nextAttemptTime", nextAttemptTime)
+                .toString();
+    }
+
+    @PrePersist
+    private void beforePersistingToTheDatabase() {
+        this.creationTime = LocalDateTime.now();
+        if (this.nextAttemptTime == null) this.nextAttemptTime = this.creationTime;
+    }
+}
@@ -0,0 +1,105 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing lease of the scheduled task, shared by all instances (nodes) of the application. Node holding
+ * the unexpired lease is the leader of the task, and it is the only node executing it. Leader renews the lease with
+ * each execution of the task, while other nodes could acquire it only after it expires. Tasks processed in chunks
+ * store the checkpoint in the lease, so that the task interrupted by the failure of the node is resumed after
+ * the last committed chunk.
+ */
+@Entity
+@Table(name = DatabaseConsts.SCHEDULER_LEASE_TABLE)
+@LoggerInterceptor
+@NoArgsConstructor
+@Getter
+@ToString
+@NamedQueries({
+        @NamedQuery(
+                name = "SchedulerLease.findByName",
+                query = """
+                        SELECT l FROM SchedulerLease l
+                        WHERE l.name = :name"""
+        )
+})
+public class SchedulerLease {
+
+    /**
+     * Name of the scheduled task, identifying the lease.
+     */
+    @Id
+    @Column(name = DatabaseConsts.SCHEDULER_LEASE_NAME_COLUMN, length = 64, nullable = false, updatable = false)
+    private String name;
+
+    /**
+     * Identifier of the node holding the lease.
+     */
+    @Column(name = DatabaseConsts.SCHEDULER_LEASE_OWNER_COLUMN, nullable = false)
+    private String owner;
+
+    /**
+     * Point in time, at which the lease was acquired or renewed for the last time.
+     */
+    @Column(name = DatabaseConsts.SCHEDULER_LEASE_ACQUISITION_TIME_COLUMN, nullable = false)
+    private LocalDateTime acquisitionTime;
+
+    /**
+     * Point in time, after which the lease could be acquired by other nodes.
+     */
+    @Column(name = DatabaseConsts.SCHEDULER_LEASE_EXPIRATION_TIME_COLUMN, nullable = false)
+    private LocalDateTime expirationTime;
+
+    /**
+     * Key of the last item processed by the task, or null if the task is not in progress.
+     */
+    @Setter
+    @Column(name = DatabaseConsts.SCHEDULER_LEASE_CHECKPOINT_COLUMN)
+    private String checkpoint;
+
+    /**
+     * Constructs the lease, acquired by given node.
+     *
+     * @param name           Name of the scheduled task.
+     * @param owner          Identifier of the node acquiring the lease.
+     * @param now            Current point in time.
+     * @param expirationTime Point in time, after which the lease expires.
+     */
+    public SchedulerLease(String name, String owner, LocalDateTime now, LocalDateTime expirationTime) {
+        this.name = name;
+        acquire(owner, now, expirationTime);
+    }
+
+    /**
+     * Checks whether the lease could be acquired by given node, that is whether it is already held by that node
+     * or it has expired.
+     *
+     * @param owner Identifier of the node.
+     * @param now   Current point in time.
+     * @return True if the lease could be acquired, false otherwise.
+     */
+    public boolean isAvailableFor(String owner, LocalDateTime now) {
+        return this.owner.equals(owner) || !expirationTime.isAfter(now);
+    }
+
+    /**
+     * Acquires (or renews) the lease for given node.
+     *
+     * @param owner          Identifier of the node acquiring the lease.
+     * @param now            Current point in time.
+     * @param expirationTime Point in time, after which the lease expires.
+     */
+    public void acquire(String owner, LocalDateTime now, LocalDateTime expirationTime) {
+        this.owner = owner;
+        this.acquisitionTime = now;
+        this.expirationTime = expirationTime;
+    }
+}
@@ -32,7 +32,13 @@ import java.util.Set;
  * @see ActivityLog
  */
 @Entity
-@Table(name = DatabaseConsts.ACCOUNT_TABLE)
+@Table(
+        name = DatabaseConsts.ACCOUNT_TABLE,
+        indexes = {
+                @Index(name = DatabaseConsts.ACCOUNT_ACTIVE_CREATION_TIMESTAMP_INDEX,
+                        columnList = DatabaseConsts.ACCOUNT_ACTIVE_COLUMN + ", " + DatabaseConsts.CREATION_TIMESTAMP)
+        }
+)
 @SecondaryTable(name = DatabaseConsts.PERSONAL_DATA_TABLE,
         foreignKey = @ForeignKey(name = DatabaseConsts.PERSONAL_DATA_ACCOUNT_ID_FK),
         indexes = {
@@ -68,6 +74,15 @@ import java.util.Set;
                         """
         ),
 
+        @NamedQuery(
+                name = "Account.findAllAccountsAfterLogin",
+                query = """
+                        SELECT a FROM Account a
+                        WHERE a.login > :login
+                        ORDER BY a.login
+                        """
+        ),
+
         @NamedQuery(
                 name = "Account.findAllAccountsByActive",
                 query = """
@@ -107,6 +122,15 @@ import java.util.Set;
                         ORDER BY a.login
                         """
         ),
+        @NamedQuery(
+                name = "Account.findChunkOfAccountsMarkedForDeletion",
+                query = """
+                        SELECT a FROM Account a
+                        WHERE a.active = false AND a.creationTime < :timestamp
+                        AND a.login > :login
+                        ORDER BY a.login
+                        """
+        ),
 
         // Finding blocked accounts
         @NamedQuery(
@@ -135,6 +159,15 @@ import java.util.Set;
                         ORDER BY a.login ASC
                         """
         ),
+        @NamedQuery(
+                name = "Account.findChunkOfAccountsBlockedByLoginIncorrectly",
+                query = """
+                        SELECT a FROM Account a
+                        WHERE a.blocked = true AND a.blockedTime is not null AND a.blockedTime < :timestamp
+                        AND a.login > :login
+                        ORDER BY a.login ASC
+                        """
+        ),
 
         // Find accounts matching user first name
         @NamedQuery(
@@ -200,6 +233,19 @@ import java.util.Set;
                         ORDER BY a.login ASC
                         """
         ),
+        @NamedQuery(
+                name = "Account.findChunkOfAccountsWithoutAnyActivityFrom",
+                query = """
+                        SELECT a FROM Account a
+                        WHERE a.suspended = false
+                            AND (
+                                (a.activityLog.lastSuccessfulLoginTime IS NULL AND a.creationTime < :timestamp)
+                                OR (a.activationTime < :timestamp AND a.activityLog.lastSuccessfulLoginTime < :timestamp)
+                            )
+                            AND a.login > :login
+                        ORDER BY a.login ASC
+                        """
+        ),
 
         @NamedQuery(
                 name = "Account.countAccountsWithoutAnyActivityFrom",
@@ -23,7 +23,9 @@ import java.util.UUID;
         name = DatabaseConsts.ACCOUNT_HIST_TABLE,
         uniqueConstraints = @UniqueConstraint(columnNames = {DatabaseConsts.ACCOUNT_HIST_ID_COLUMN, DatabaseConsts.ACCOUNT_HIST_VERSION_COLUMN}),
         indexes = {
-                @Index(name = DatabaseConsts.ACCOUNT_HIST_ACCOUNT_ID_INDEX ,columnList = DatabaseConsts.ACCOUNT_HIST_MODIFIED_BY_COLUMN)
+                @Index(name = DatabaseConsts.ACCOUNT_HIST_ACCOUNT_ID_INDEX ,columnList = DatabaseConsts.ACCOUNT_HIST_MODIFIED_BY_COLUMN),
+                @Index(name = DatabaseConsts.ACCOUNT_HIST_ID_MODIFICATION_TIME_INDEX,
+                        columnList = DatabaseConsts.ACCOUNT_HIST_ID_COLUMN + ", " + DatabaseConsts.ACCOUNT_HIST_MODIFICATION_TIME_COLUMN + ", " + DatabaseConsts.ACCOUNT_HIST_VERSION_COLUMN)
         }
 )
 @LoggerInterceptor
@@ -40,6 +42,24 @@ import java.util.UUID;
                         ORDER BY a.modificationTime DESC
                         """
         ),
+        @NamedQuery(
+                name = "AccountHistoryData.findByAccountIdWithKeyset",
+                query = """
+                        SELECT a FROM AccountHistoryData a
+                        WHERE a.id = :id
+                        ORDER BY a.modificationTime DESC, a.version DESC
+                        """
+        ),
+        @NamedQuery(
+                name = "AccountHistoryData.findByAccountIdAfterKey",
+                query = """
+                        SELECT a FROM AccountHistoryData a
+                        WHERE a.id = :id
+                          AND (a.modificationTime < :modificationTime
+                               OR (a.modificationTime = :modificationTime AND a.version < :version))
+                        ORDER BY a.modificationTime DESC, a.version DESC
+                        """
+        ),
         @NamedQuery(
                 name = "AccountHistoryData.findAll",
                 query = """
@@ -21,7 +21,9 @@ import java.time.LocalDateTime;
 @Table(
         name = DatabaseConsts.TOKEN_TABLE,
         indexes = {
-                @Index(name = DatabaseConsts.TOKEN_ACCOUNT_ID_INDEX, columnList = DatabaseConsts.TOKEN_ACCOUNT_ID_COLUMN)
+                @Index(name = DatabaseConsts.TOKEN_ACCOUNT_ID_INDEX, columnList = DatabaseConsts.TOKEN_ACCOUNT_ID_COLUMN),
+                @Index(name = DatabaseConsts.TOKEN_TYPE_ACCOUNT_ID_INDEX,
+                        columnList = DatabaseConsts.TOKEN_TOKEN_TYPE_COLUMN + ", " + DatabaseConsts.TOKEN_ACCOUNT_ID_COLUMN)
         }
 )
 @LoggerInterceptor
@@ -46,6 +48,12 @@ import java.time.LocalDateTime;
                         DELETE FROM Token t
                         WHERE t.type = :tokenType AND t.account.id = :accountId"""
         ),
+        @NamedQuery(
+                name = "Token.removeByTypeAndAccounts",
+                query = """
+                        DELETE FROM Token t
+                        WHERE t.type = :tokenType AND t.account.id IN :accountIds"""
+        ),
         @NamedQuery(
                 name = "Token.findByTokenValue",
                 query = """
@@ -59,6 +67,15 @@ import java.time.LocalDateTime;
                 query = """
                         SELECT t FROM Token t
                         WHERE t.type = :tokenType"""
+        ),
+        @NamedQuery(
+                name = "Token.findChunkByTypeAndAccountCreatedBefore",
+                query = """
+                        SELECT t FROM Token t
+                        JOIN FETCH t.account a
+                        WHERE t.type = :tokenType AND a.creationTime < :timestamp
+                        AND a.login > :login
+                        ORDER BY a.login"""
         )
 })
 public class Token extends AbstractEntity {
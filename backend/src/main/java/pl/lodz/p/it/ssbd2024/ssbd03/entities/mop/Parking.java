@@ -9,9 +9,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.mop.ParkingConsts;
@@ -54,12 +57,15 @@ import static pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector.SectorType;
                         ORDER BY p.address.city"""
         ),
         @NamedQuery(
-                name = "Parking.findAllAvailableParking",
+                name = "Parking.findAllAvailableParkingIds",
                 query = """
-                        SELECT s.parking FROM Sector s
-                        WHERE (s.deactivationTime IS NULL OR s.deactivationTime > :deactivationMinimum)
-                        GROUP BY s.parking
-                        ORDER BY s.parking.address.city"""
+                        SELECT p.id FROM Parking p
+                        WHERE EXISTS (
+                            SELECT s.id FROM Sector s
+                            WHERE s.parking = p
+                            AND (s.deactivationTime IS NULL OR s.deactivationTime > :deactivationMinimum)
+                        )
+                        ORDER BY p.address.city"""
         ),
         @NamedQuery(
                 name = "Parking.findBySectorTypes",
@@ -70,12 +76,15 @@ import static pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector.SectorType;
                         ORDER BY s.parking.address.city, s.parking.address.city"""
         ),
         @NamedQuery(
-                name = "Parking.findWithAvailablePlaces",
+                name = "Parking.findIdsWithAvailablePlaces",
                 query = """
-                        SELECT s.parking FROM Sector s
-                        WHERE s.occupiedPlaces < s.maxPlaces AND (:showOnlyActive != true OR s.weight > 0)
-                        GROUP BY s.parking
-                        ORDER BY s.parking.address.city, s.parking.address.city"""
+                        SELECT p.id FROM Parking p
+                        WHERE EXISTS (
+                            SELECT s.id FROM Sector s
+                            WHERE s.parking = p
+                            AND s.occupiedPlaces < s.maxPlaces AND (:showOnlyActive != true OR s.weight > 0)
+                        )
+                        ORDER BY p.address.city"""
         ),
         @NamedQuery(
                 name = "Parking.removeParkingById",
@@ -85,6 +94,8 @@ import static pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector.SectorType;
         )
 })
 @Getter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DatabaseConfigConstants.PARKING_CACHE_REGION)
 public class Parking extends AbstractEntity {
 
     /**
@@ -108,6 +119,7 @@ public class Parking extends AbstractEntity {
     @Size(min = ParkingConsts.LIST_OF_SECTORS_MIN_SIZE, message = ParkingMessages.LIST_OF_SECTORS_EMPTY)
     @Size(max = ParkingConsts.LIST_OF_SECTORS_MAX_SIZE, message = ParkingMessages.LIST_OF_SECTORS_FULL)
     @OneToMany(mappedBy = DatabaseConsts.PARKING_TABLE, cascade = {CascadeType.PERSIST, CascadeType.REFRESH})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DatabaseConfigConstants.PARKING_SECTORS_CACHE_REGION)
     private List<Sector> sectors = new ArrayList<>();
 
     /**
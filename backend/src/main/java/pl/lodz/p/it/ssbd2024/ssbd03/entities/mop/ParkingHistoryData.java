@@ -29,7 +29,9 @@ import java.util.UUID;
         name = DatabaseConsts.PARKING_HIST_TABLE,
         uniqueConstraints = @UniqueConstraint(columnNames = {DatabaseConsts.PARKING_HIST_ID_COLUMN, DatabaseConsts.PARKING_HIST_VERSION_COLUMN}),
         indexes = {
-                @Index(name = DatabaseConsts.PARKING_HIST_ACCOUNT_ID_INDEX, columnList = DatabaseConsts.PARKING_HIST_MODIFIED_BY_COLUMN)
+                @Index(name = DatabaseConsts.PARKING_HIST_ACCOUNT_ID_INDEX, columnList = DatabaseConsts.PARKING_HIST_MODIFIED_BY_COLUMN),
+                @Index(name = DatabaseConsts.PARKING_HIST_ID_MODIFICATION_TIME_INDEX,
+                        columnList = DatabaseConsts.PARKING_HIST_ID_COLUMN + ", " + DatabaseConsts.PARKING_HIST_MODIFICATION_TIME_COLUMN + ", " + DatabaseConsts.PARKING_HIST_VERSION_COLUMN)
         }
 )
 @LoggerInterceptor
@@ -45,6 +47,24 @@ import java.util.UUID;
                         ORDER BY p.modificationTime DESC
                         """
         ),
+        @NamedQuery(
+                name = "ParkingHistoryData.findByParkingIdWithKeyset",
+                query = """
+                        SELECT p FROM ParkingHistoryData p
+                        WHERE p.id = :id
+                        ORDER BY p.modificationTime DESC, p.version DESC
+                        """
+        ),
+        @NamedQuery(
+                name = "ParkingHistoryData.findByParkingIdAfterKey",
+                query = """
+                        SELECT p FROM ParkingHistoryData p
+                        WHERE p.id = :id
+                          AND (p.modificationTime < :modificationTime
+                               OR (p.modificationTime = :modificationTime AND p.version < :version))
+                        ORDER BY p.modificationTime DESC, p.version DESC
+                        """
+        ),
         @NamedQuery(
                 name = "ParkingHistoryData.checkIfEntityExists",
                 query = """
@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
@@ -35,7 +36,14 @@ import java.util.List;
         name = DatabaseConsts.RESERVATION_TABLE,
         indexes = {
                 @Index(name = DatabaseConsts.RESERVATION_CLIENT_ID_INDEX, columnList = DatabaseConsts.RESERVATION_CLIENT_ID_COLUMN),
-                @Index(name = DatabaseConsts.RESERVATION_SECTOR_ID_INDEX, columnList = DatabaseConsts.RESERVATION_SECTOR_ID_COLUMN)
+                @Index(name = DatabaseConsts.RESERVATION_SECTOR_ID_INDEX, columnList = DatabaseConsts.RESERVATION_SECTOR_ID_COLUMN),
+                @Index(name = DatabaseConsts.RESERVATION_SECTOR_ID_BEGIN_TIME_END_TIME_INDEX,
+                        columnList = DatabaseConsts.RESERVATION_SECTOR_ID_COLUMN + ", " + DatabaseConsts.RESERVATION_BEGIN_TIME_COLUMN
+                                + ", " + DatabaseConsts.RESERVATION_END_TIME_COLUMN),
+                @Index(name = DatabaseConsts.RESERVATION_STATUS_VEHICLE_INSIDE_INDEX,
+                        columnList = DatabaseConsts.RESERVATION_STATUS_COLUMN + ", " + DatabaseConsts.RESERVATION_VEHICLE_INSIDE_COLUMN),
+                @Index(name = DatabaseConsts.RESERVATION_BEGIN_TIME_ID_INDEX,
+                        columnList = DatabaseConsts.RESERVATION_BEGIN_TIME_COLUMN + ", " + DatabaseConsts.PK_COLUMN)
         }
 )
 @LoggerInterceptor
@@ -50,6 +58,22 @@ import java.util.List;
                         ORDER BY r.beginTime
                         """
         ),
+        @NamedQuery(
+                name = "Reservation.findAllWithKeyset",
+                query = """
+                        SELECT r FROM Reservation r
+                        ORDER BY r.beginTime, r.id
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findAllAfterKey",
+                query = """
+                        SELECT r FROM Reservation r
+                        WHERE r.beginTime > :beginTime
+                           OR (r.beginTime = :beginTime AND r.id > :id)
+                        ORDER BY r.beginTime, r.id
+                        """
+        ),
         // Client reservations
         @NamedQuery(
                 name = "Reservation.findActiveReservationsByLogin",
@@ -91,7 +115,7 @@ import java.util.List;
                         SELECT r FROM Reservation r
                         WHERE r.beginTime < :timestamp
                         AND r.status = ReservationStatus.IN_PROGRESS
-                        AND MOD(SIZE(r.parkingEvents), 2) = 1
+                        AND r.vehicleInside = true
                         ORDER BY r.beginTime ASC
                         """
         ),
@@ -102,10 +126,135 @@ import java.util.List;
                         WHERE r.endTime < CURRENT_TIMESTAMP
                         AND (r.status = ReservationStatus.AWAITING
                         OR r.status = ReservationStatus.IN_PROGRESS)
-                        AND MOD(SIZE(r.parkingEvents), 2) = 0
+                        AND r.vehicleInside = false
+                        ORDER BY r.beginTime ASC
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findTransitionsMarkedForTermination",
+                query = """
+                        SELECT r.id, r.sector.id, r.status, r.client.id FROM Reservation r
+                        WHERE r.beginTime < :timestamp
+                        AND r.status = ReservationStatus.IN_PROGRESS
+                        AND r.vehicleInside = true
+                        ORDER BY r.beginTime ASC
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findTransitionsMarkedForCompleting",
+                query = """
+                        SELECT r.id, r.sector.id, r.status, r.client.id FROM Reservation r
+                        WHERE r.endTime < CURRENT_TIMESTAMP
+                        AND (r.status = ReservationStatus.AWAITING
+                        OR r.status = ReservationStatus.IN_PROGRESS)
+                        AND r.vehicleInside = false
                         ORDER BY r.beginTime ASC
                         """
         ),
+        @NamedQuery(
+                name = "Reservation.findTransitionsMarkedForTerminationByIds",
+                query = """
+                        SELECT r.id, r.sector.id, r.status, r.client.id FROM Reservation r
+                        WHERE r.id IN :reservationIds
+                        AND r.beginTime < :timestamp
+                        AND r.status = ReservationStatus.IN_PROGRESS
+                        AND r.vehicleInside = true
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findTransitionsMarkedForCompletingByIds",
+                query = """
+                        SELECT r.id, r.sector.id, r.status, r.client.id FROM Reservation r
+                        WHERE r.id IN :reservationIds
+                        AND r.endTime < CURRENT_TIMESTAMP
+                        AND (r.status = ReservationStatus.AWAITING
+                        OR r.status = ReservationStatus.IN_PROGRESS)
+                        AND r.vehicleInside = false
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findDeadlines",
+                query = """
+                        SELECT r.id, r.beginTime, r.endTime FROM Reservation r
+                        WHERE (r.status = ReservationStatus.AWAITING OR r.status = ReservationStatus.IN_PROGRESS)
+                        AND ((r.endTime > :from AND r.endTime <= :to)
+                        OR (r.beginTime > :terminationFrom AND r.beginTime <= :terminationTo))
+                        ORDER BY r.id
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findDeadlinesAfterKey",
+                query = """
+                        SELECT r.id, r.beginTime, r.endTime FROM Reservation r
+                        WHERE (r.status = ReservationStatus.AWAITING OR r.status = ReservationStatus.IN_PROGRESS)
+                        AND ((r.endTime > :from AND r.endTime <= :to)
+                        OR (r.beginTime > :terminationFrom AND r.beginTime <= :terminationTo))
+                        AND r.id > :id
+                        ORDER BY r.id
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.terminateInBulk",
+                query = """
+                        UPDATE Reservation r
+                        SET r.status = ReservationStatus.TERMINATED,
+                            r.vehicleInside = false,
+                            r.updateTime = :updateTime,
+                            r.updatedBy = :updatedBy,
+                            r.version = r.version + 1
+                        WHERE r.id IN :reservationIds
+                        AND r.status = ReservationStatus.IN_PROGRESS
+                        AND r.vehicleInside = true
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.completeInBulk",
+                query = """
+                        UPDATE Reservation r
+                        SET r.status = ReservationStatus.COMPLETED_AUTOMATICALLY,
+                            r.updateTime = :updateTime,
+                            r.updatedBy = :updatedBy,
+                            r.version = r.version + 1
+                        WHERE r.id IN :reservationIds
+                        AND r.status IN (ReservationStatus.AWAITING,
+                                         ReservationStatus.IN_PROGRESS)
+                        AND r.vehicleInside = false
+                        """
+        ),
+        // Backfilling vehicle inside flag
+        @NamedQuery(
+                name = "Reservation.markVehicleInsideByParkingEvents",
+                query = """
+                        UPDATE Reservation r
+                        SET r.vehicleInside = true,
+                            r.version = r.version + 1
+                        WHERE r.status IN (ReservationStatus.AWAITING,
+                                           ReservationStatus.IN_PROGRESS)
+                        AND r.vehicleInside = false
+                        AND MOD(SIZE(r.parkingEvents), 2) = 1
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.markVehicleOutsideByParkingEvents",
+                query = """
+                        UPDATE Reservation r
+                        SET r.vehicleInside = false,
+                            r.version = r.version + 1
+                        WHERE r.status IN (ReservationStatus.AWAITING,
+                                           ReservationStatus.IN_PROGRESS)
+                        AND r.vehicleInside = true
+                        AND MOD(SIZE(r.parkingEvents), 2) = 0
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findAllWithClientByIds",
+                query = """
+                        SELECT r FROM Reservation r
+                        JOIN FETCH r.client c
+                        JOIN FETCH c.account
+                        WHERE r.id IN :reservationIds
+                        """
+        ),
         // Find all parking events for reservation
         @NamedQuery(
                 name = "Reservation.findAllParkingEventsForGivenReservation",
@@ -143,39 +292,22 @@ import java.util.List;
                                            ReservationStatus.IN_PROGRESS)
                         """
         ),
+        // Sector occupancy index
         @NamedQuery(
-                name = "Reservation.countAllSectorReservationInTimeframe",
+                name = "Reservation.findActiveReservationClaimsInParking",
                 query = """
-                        SELECT COUNT(*) FROM Reservation r
-                        WHERE r.sector.id = :sectorId
-                        AND
-                        r.status != ReservationStatus.CANCELLED
-                        AND
-                        (
-                            (
-                                (r.beginTime BETWEEN :beginTimeMinusMaxReservationTime AND :beginTimePlusMaxReservationTime)
-                                AND
-                                (
-                                    (
-                                        r.endTime IS NULL
-                                        OR
-                                        (
-                                            r.endTime < :beginTime
-                                            AND
-                                            (
-                                                :current_timestamp < r.endTime
-                                                OR
-                                                MOD(SIZE(r.parkingEvents), 2) = 1
-                                            )
-                                        )
-                                    )
-                                    OR
-                                    r.endTime > :beginTime
-                                )
-                            )
-                            OR
-                            (r.beginTime BETWEEN :beginTime AND :beginTimePlusMaxReservationTime)
-                        )
+                        SELECT r.id, r.sector.id, r.beginTime, r.endTime, r.vehicleInside FROM Reservation r
+                        WHERE r.sector.parking.id = :parkingId
+                          AND r.status IN (ReservationStatus.AWAITING,
+                                           ReservationStatus.IN_PROGRESS)
+                        """
+        ),
+        @NamedQuery(
+                name = "Reservation.findActiveReservationTimeframes",
+                query = """
+                        SELECT r.sector.id, r.beginTime, r.endTime FROM Reservation r
+                        WHERE r.status IN (ReservationStatus.AWAITING,
+                                           ReservationStatus.IN_PROGRESS)
                         """
         ),
         @NamedQuery(
@@ -201,7 +333,7 @@ import java.util.List;
                                                 (
                                                     r.endTime < :currentTime
                                                     AND
-                                                    MOD(SIZE(r.parkingEvents), 2) = 1
+                                                    r.vehicleInside = true
                                                 )
                                             )
                                             OR
@@ -240,7 +372,7 @@ import java.util.List;
                                                 (
                                                     r.endTime < :currentTime
                                                     AND
-                                                    MOD(SIZE(r.parkingEvents), 2) = 1
+                                                    r.vehicleInside = true
                                                 )
                                             )
                                             OR
@@ -279,7 +411,7 @@ import java.util.List;
                                                 (
                                                     r.endTime < :currentTime
                                                     AND
-                                                    MOD(SIZE(r.parkingEvents), 2) = 1
+                                                    r.vehicleInside = true
                                                 )
                                             )
                                             OR
@@ -356,6 +488,15 @@ public class Reservation extends AbstractEntity implements Serializable {
     @Getter
     private final List<ParkingEvent> parkingEvents = new ArrayList<>();
 
+    /**
+     * Flag indicating whether the vehicle is currently inside the parking, that is whether the last parking event
+     * of this reservation is an entry. Maintained when adding parking events, so that it could be checked without
+     * loading the parking events.
+     */
+    @Column(name = DatabaseConsts.RESERVATION_VEHICLE_INSIDE_COLUMN, nullable = false)
+    @ColumnDefault("false")
+    private boolean vehicleInside = false;
+
     @NotNull(message = ReservationMessages.STATUS_NULL)
     @Column(name = DatabaseConsts.RESERVATION_STATUS_COLUMN, nullable = false)
     @Enumerated(EnumType.STRING)
@@ -427,6 +568,7 @@ public class Reservation extends AbstractEntity implements Serializable {
     public void addParkingEvent(ParkingEvent parkingEvent) {
         this.parkingEvents.add(parkingEvent);
         parkingEvent.setReservation(this);
+        this.vehicleInside = parkingEvent.getType() == ParkingEvent.EventType.ENTRY;
     }
 
     /**
@@ -14,9 +14,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.mop.SectorConsts;
@@ -46,6 +49,8 @@ import java.time.LocalDateTime;
 @LoggerInterceptor
 @NoArgsConstructor
 @Getter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DatabaseConfigConstants.SECTOR_CACHE_REGION)
 @NamedQueries({
         @NamedQuery(
                 name = "Sector.findAllInParking",
@@ -57,9 +62,18 @@ import java.time.LocalDateTime;
                         ORDER BY s.name"""
         ),
         @NamedQuery(
-                name = "Sector.findWithAvailablePlaces",
+                name = "Sector.findIdsInParking",
                 query = """
-                        SELECT s FROM Sector s
+                        SELECT s.id FROM Sector s
+                        WHERE s.parking.id = :parkingId
+                            AND (:showOnlyActive != true
+                            OR (s.deactivationTime IS NULL OR s.deactivationTime > :deactivationMinimum))
+                        ORDER BY s.name"""
+        ),
+        @NamedQuery(
+                name = "Sector.findIdsWithAvailablePlaces",
+                query = """
+                        SELECT s.id FROM Sector s
                         WHERE s.occupiedPlaces < s.maxPlaces AND s.parking.id = :parkingId AND (:showOnlyActive != true OR s.weight > 0)
                         ORDER BY s.name"""
         ),
@@ -70,11 +84,60 @@ import java.time.LocalDateTime;
                         WHERE s.type IN :sectorTypes AND :parkingId = s.parking AND (:showOnlyActive != true OR s.weight > 0)
                         ORDER BY s.parking.address.city, s.parking.address.city"""
         ),
+        @NamedQuery(
+                name = "Sector.findByIds",
+                query = """
+                        SELECT s FROM Sector s
+                        WHERE s.id IN :sectorIds"""
+        ),
+        @NamedQuery(
+                name = "Sector.findParkingIdsByIds",
+                query = """
+                        SELECT s.id, s.parking.id FROM Sector s
+                        WHERE s.id IN :sectorIds"""
+        ),
         @NamedQuery(
                 name = "Sector.findByParkingIdAndName",
                 query = """
                         SELECT s FROM Sector s
                         WHERE s.parking.id = :parkingId AND s.name = :name"""
+        ),
+        @NamedQuery(
+                name = "Sector.releaseOccupiedPlaces",
+                query = """
+                        UPDATE Sector s
+                        SET s.occupiedPlaces = CASE WHEN s.occupiedPlaces > :releasedPlaces
+                                                    THEN s.occupiedPlaces - :releasedPlaces
+                                                    ELSE 0 END,
+                            s.updateTime = :updateTime,
+                            s.updatedBy = :updatedBy,
+                            s.version = s.version + 1
+                        WHERE s.id = :sectorId
+                        """
+        )
+})
+@NamedNativeQueries({
+        @NamedNativeQuery(
+                name = "Sector.occupyPlace",
+                query = """
+                        UPDATE sector
+                        SET occupied_places = occupied_places + 1,
+                            update_timestamp = :updateTime,
+                            updated_by = :updatedBy,
+                            version = version + 1
+                        WHERE id = :sectorId AND occupied_places < max_places
+                        """
+        ),
+        @NamedNativeQuery(
+                name = "Sector.releasePlace",
+                query = """
+                        UPDATE sector
+                        SET occupied_places = occupied_places - 1,
+                            update_timestamp = :updateTime,
+                            updated_by = :updatedBy,
+                            version = version + 1
+                        WHERE id = :sectorId AND occupied_places > 0
+                        """
         )
 })
 public class Sector extends AbstractEntity implements Serializable {
@@ -0,0 +1,154 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.entities.mop;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.DatabaseConsts;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Entity representing single hour of the sector capacity, holding the number of places reserved in that hour.
+ * Reservation locks and increments only the slots covered by its timeframe, so that reservations of the same sector
+ * made for different hours do not conflict with each other. Slots are created on demand, by the first reservation
+ * covering them. Entry without reservation reserves the slots from the entry until the maximum reservation time, and
+ * the remaining ones are released when the vehicle leaves.
+ * <p>
+ * Slots cover whole hours, so reservations sharing only a part of the same hour are counted as concurrent, and
+ * some non-overlapping reservations are refused (in the sector with a single place, reservations from 10:30 to 12:30
+ * and from 12:30 to 14:30 both cover the slot beginning at 12:00).
+ *
+ * @see Sector
+ * @see Reservation
+ */
+@Entity
+@Table(
+        name = DatabaseConsts.SECTOR_CAPACITY_SLOT_TABLE,
+        indexes = {
+                @Index(name = DatabaseConsts.SECTOR_CAPACITY_SLOT_START_TIME_INDEX,
+                        columnList = DatabaseConsts.SECTOR_CAPACITY_SLOT_START_TIME_COLUMN)
+        }
+)
+@IdClass(SectorCapacitySlot.SlotId.class)
+@LoggerInterceptor
+@NoArgsConstructor
+@Getter
+@ToString
+@NamedQueries({
+        @NamedQuery(
+                name = "SectorCapacitySlot.findInTimeframe",
+                query = """
+                        SELECT s FROM SectorCapacitySlot s
+                        WHERE s.sectorId = :sectorId AND s.startTime BETWEEN :firstSlot AND :lastSlot
+                        ORDER BY s.startTime"""
+        ),
+        @NamedQuery(
+                name = "SectorCapacitySlot.releaseInTimeframe",
+                query = """
+                        UPDATE SectorCapacitySlot s
+                        SET s.reservedPlaces = s.reservedPlaces - 1
+                        WHERE s.sectorId = :sectorId AND s.startTime BETWEEN :firstSlot AND :lastSlot AND s.reservedPlaces > 0"""
+        ),
+        @NamedQuery(
+                name = "SectorCapacitySlot.removeBefore",
+                query = """
+                        DELETE FROM SectorCapacitySlot s
+                        WHERE s.startTime < :timestamp"""
+        ),
+        @NamedQuery(
+                name = "SectorCapacitySlot.removeBySector",
+                query = """
+                        DELETE FROM SectorCapacitySlot s
+                        WHERE s.sectorId = :sectorId"""
+        )
+})
+public class SectorCapacitySlot {
+
+    /**
+     * Composite identifier of the slot.
+     */
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class SlotId implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private UUID sectorId;
+        private LocalDateTime startTime;
+    }
+
+    /**
+     * Identifier of the sector, which capacity is held by the slot.
+     */
+    @Id
+    @Column(name = DatabaseConsts.SECTOR_CAPACITY_SLOT_SECTOR_ID_COLUMN, nullable = false, updatable = false)
+    private UUID sectorId;
+
+    /**
+     * Beginning of the hour covered by the slot.
+     */
+    @Id
+    @Column(name = DatabaseConsts.SECTOR_CAPACITY_SLOT_START_TIME_COLUMN, nullable = false, updatable = false)
+    private LocalDateTime startTime;
+
+    /**
+     * Number of places reserved in the sector in the hour covered by the slot.
+     */
+    @Column(name = DatabaseConsts.SECTOR_CAPACITY_SLOT_RESERVED_PLACES_COLUMN, nullable = false)
+    private int reservedPlaces;
+
+    /**
+     * Constructs empty slot of the sector.
+     *
+     * @param sectorId  Identifier of the sector.
+     * @param startTime Beginning of the hour covered by the slot.
+     */
+    public SectorCapacitySlot(UUID sectorId, LocalDateTime startTime) {
+        this.sectorId = sectorId;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Reserves single place in the slot.
+     */
+    public void reservePlace() {
+        this.reservedPlaces++;
+    }
+
+    /**
+     * Reserves given number of places in the slot.
+     *
+     * @param places Number of reserved places.
+     */
+    public void reservePlaces(int places) {
+        this.reservedPlaces += places;
+    }
+
+    /**
+     * Determines beginning of the slot covering given point in time.
+     *
+     * @param time Point in time.
+     * @return Beginning of the hour containing given point in time.
+     */
+    public static LocalDateTime slotOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Determines beginning of the last slot covered by the timeframe ending at given point in time (exclusive).
+     *
+     * @param endTime End of the timeframe.
+     * @return Beginning of the last hour covered by the timeframe.
+     */
+    public static LocalDateTime lastSlotOf(LocalDateTime endTime) {
+        return slotOf(endTime.minusNanos(1));
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.CursorPageDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.AttributeDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountInputDTO.AccountChangePasswordDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountInputDTO.AccountEmailDTO;
@@ -29,8 +30,10 @@ import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountHistoryDataMapper
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountListMapper;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AccountMapper;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mok.AttributeMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AttributeValue;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AttributeName;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
@@ -197,6 +200,21 @@ public class AccountController implements AccountControllerInterface {
         else return ResponseEntity.ok(accountList);
     }
 
+    @Override
+    @RolesAllowed(Authorities.GET_ALL_USER_ACCOUNTS)
+    @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"),
+            retryFor = {ApplicationDatabaseException.class, RollbackException.class})
+    public ResponseEntity<?> getAllUsersWithKeyset(String token, int pageSize) throws ApplicationBaseException {
+        List<Account> accounts = accountService.getAllAccountsWithKeyset(ContinuationToken.decode(token), pageSize);
+        if (accounts.isEmpty()) return ResponseEntity.noContent().build();
+
+        Account last = accounts.getLast();
+        String nextToken = accounts.size() < pageSize ? null : ContinuationToken.of(last.getLogin(), last.getId()).encode();
+        return ResponseEntity.ok(new CursorPageDTO<>(accounts.stream()
+                .map(AccountListMapper::toAccountListDTO)
+                .toList(), nextToken));
+    }
+
     @Override
     @RolesAllowed({Authorities.GET_ALL_USER_ACCOUNTS})
     @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"),
@@ -490,6 +508,25 @@ public class AccountController implements AccountControllerInterface {
         else return ResponseEntity.ok(accountList);
     }
 
+    @Override
+    @RolesAllowed({Authorities.GET_ACCOUNT_HISTORICAL_DATA})
+    @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"))
+    public ResponseEntity<?> getHistoryDataByAccountIdWithKeyset(String id, String token, int pageSize) throws ApplicationBaseException {
+        List<AccountHistoryData> historyData;
+        try {
+            historyData = accountService.getHistoryDataByAccountIdWithKeyset(UUID.fromString(id), ContinuationToken.decode(token), pageSize);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidDataFormatException(I18n.BAD_UUID_INVALID_FORMAT_EXCEPTION);
+        }
+        if (historyData.isEmpty()) return ResponseEntity.noContent().build();
+
+        AccountHistoryData last = historyData.getLast();
+        String nextToken = historyData.size() < pageSize ? null : ContinuationToken.of(last.getModificationTime(), last.getVersion()).encode();
+        return ResponseEntity.ok(new CursorPageDTO<>(historyData.stream()
+                .map(AccountHistoryDataMapper::toAccountHistoryDataOutputDto)
+                .toList(), nextToken));
+    }
+
     @Override
     @RolesAllowed({Authorities.MANAGE_OWN_ATTRIBUTES, Authorities.MANAGE_ATTRIBUTES})
     @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"))
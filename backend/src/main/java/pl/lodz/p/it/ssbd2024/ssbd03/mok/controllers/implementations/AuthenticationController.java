@@ -2,6 +2,7 @@ package pl.lodz.p.it.ssbd2024.ssbd03.mok.controllers.implementations;
 
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
+import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.persistence.RollbackException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +27,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.token.AccessAndRefreshTokens
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.authentication.AuthenticationLoginDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.authentication.AuthenticationCodeDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.token.RefreshTokenDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
@@ -38,6 +40,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.status.AccountNotActi
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.status.AccountSuspendedException;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.controllers.interfaces.AuthenticationControllerInterface;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.AuthenticationServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
 
 import java.time.LocalDateTime;
 import java.util.Base64;
@@ -66,18 +69,34 @@ public class AuthenticationController implements AuthenticationControllerInterfa
      */
     private final AuthenticationManager authenticationManager;
 
+    /**
+     * JWTProvider used to publish the public keys of the access tokens.
+     */
+    private final JWTProvider jwtProvider;
+
+    /**
+     * List of the revoked access tokens, fed when the user logs out.
+     */
+    private final TokenRevocationList tokenRevocationList;
+
     /**
      * Autowired constructor for the controller.
      *
      * @param authenticationService Service used for authentication purposes.
      * @param authenticationManager Spring Security component used to create Authentication object while authenticating
      *                              user in the application.
+     * @param jwtProvider           Component used for operations on JSON Web Tokens.
+     * @param tokenRevocationList   List of the revoked access tokens, used by the JWT authentication filter.
      */
     @Autowired
     public AuthenticationController(AuthenticationServiceInterface authenticationService,
-                                    AuthenticationManager authenticationManager) {
+                                    AuthenticationManager authenticationManager,
+                                    JWTProvider jwtProvider,
+                                    TokenRevocationList tokenRevocationList) {
         this.authenticationService = authenticationService;
         this.authenticationManager = authenticationManager;
+        this.jwtProvider = jwtProvider;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     // Login methods
@@ -189,6 +208,7 @@ public class AuthenticationController implements AuthenticationControllerInterfa
         String userName = SecurityContextHolder.getContext().getAuthentication().getName();
         SecurityContextLogoutHandler logoutHandler = new SecurityContextLogoutHandler();
         logoutHandler.logout(request, response, SecurityContextHolder.getContext().getAuthentication());
+        tokenRevocationList.revoke(userName);
         log.info("User: {} successfully logged out from the application at {} from IPv4: {}, ending their session in the application.",
                 userName, LocalDateTime.now(), sourceAddress);
         return ResponseEntity.noContent().build();
@@ -208,6 +228,16 @@ public class AuthenticationController implements AuthenticationControllerInterfa
                 .body(new String(Base64.getEncoder().encode(byteArray)));
     }
 
+    // Publish public keys of the access tokens
+
+    @Override
+    @PermitAll
+    public ResponseEntity<?> getJsonWebKeySet() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jwtProvider.getJsonWebKeySet());
+    }
+
     // Other private methods
 
     /**
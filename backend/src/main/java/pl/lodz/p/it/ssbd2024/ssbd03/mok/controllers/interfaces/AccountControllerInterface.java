@@ -187,6 +187,32 @@ public interface AccountControllerInterface {
                                   @RequestParam("pageSize") int pageSize)
             throws ApplicationBaseException;
 
+    /**
+     * This method retrieves user accounts from the system, ordered by login alphabetically, using keyset pagination.
+     * Instead of the page number, continuation token returned with the previous page is passed, so that retrieving
+     * further pages does not require skipping all the user accounts from the previous ones.
+     *
+     * @param token    Continuation token returned with the previous page. When not passed, the first page is returned.
+     * @param pageSize Number of user accounts per page.
+     * @return This method returns 200 OK as a response, where in response body a page of user accounts, along with
+     * the continuation token for the next page, is located in a JSON format. If the page is empty, this method
+     * would return 204 NO CONTENT as the response. 400 BAD REQUEST is returned when the continuation token is invalid.
+     * 500 INTERNAL SERVER ERROR is returned when other unexpected exception occurs.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown in this method or handled by
+     *                                  exception handling aspects from facade and service layers below.
+     */
+    @GetMapping(value = "/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get all users using continuation token", description = "The endpoint is used retrieve page of accounts of given size, placed after the continuation token.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of accounts placed after the continuation token is not empty."),
+            @ApiResponse(responseCode = "204", description = "Page of accounts placed after the continuation token is empty."),
+            @ApiResponse(responseCode = "400", description = "Passed continuation token is invalid."),
+            @ApiResponse(responseCode = "500", description = "Unknown error occurred while the request was being processed.")
+    })
+    ResponseEntity<?> getAllUsersWithKeyset(@RequestParam(value = "token", required = false) String token,
+                                            @RequestParam("pageSize") int pageSize)
+            throws ApplicationBaseException;
+
     /**
      * This method is used to retrieve user accounts that match specified criteria.
      *
@@ -672,6 +698,33 @@ public interface AccountControllerInterface {
                                                 @RequestParam("pageSize") int pageSize)
             throws ApplicationBaseException;
 
+    /**
+     * This method retrieves user account's history data from the system, ordered by modification time from the newest,
+     * using keyset pagination. Instead of the page number, continuation token returned with the previous page is passed.
+     *
+     * @param id       ID of the account which history data will be retrieved.
+     * @param token    Continuation token returned with the previous page. When not passed, the first page is returned.
+     * @param pageSize Number of user history data per page.
+     * @return This method returns 200 OK as a response, where in response body a page of user account's history data,
+     * along with the continuation token for the next page, is located in a JSON format. If the page is empty, this method
+     * would return 204 NO CONTENT as the response. 400 BAD REQUEST is returned when the id or the continuation token is invalid.
+     * 500 INTERNAL SERVER ERROR is returned when other unexpected exception occurs.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown in this method or handled by
+     *                                  exception handling aspects from facade and service layers below.
+     */
+    @GetMapping(value = "/{id}/history-data/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get history data of a account using continuation token", description = "The endpoint is used retrieve page of account history data of given size, placed after the continuation token.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of account's history data placed after the continuation token is not empty."),
+            @ApiResponse(responseCode = "204", description = "Page of account's history data placed after the continuation token is empty."),
+            @ApiResponse(responseCode = "400", description = "Passed account identifier or continuation token is invalid."),
+            @ApiResponse(responseCode = "500", description = "Unknown error occurred while the request was being processed.")
+    })
+    ResponseEntity<?> getHistoryDataByAccountIdWithKeyset(@PathVariable("id") String id,
+                                                          @RequestParam(value = "token", required = false) String token,
+                                                          @RequestParam("pageSize") int pageSize)
+            throws ApplicationBaseException;
+
     /**
      * This endpoint is used to retrieve all attribute names in the dynamic dictionary.
      *
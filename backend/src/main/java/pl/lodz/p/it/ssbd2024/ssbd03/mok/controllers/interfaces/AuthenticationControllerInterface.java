@@ -121,6 +121,22 @@ public interface AuthenticationControllerInterface {
     })
     ResponseEntity<?> getRandomImage();
 
+    // Get public keys
+
+    /**
+     * This method is used to get the public keys, which the access tokens could be verified with outside the
+     * application (for example by the API gateway), when the tokens are signed with ES256 keys.
+     *
+     * @return 200 OK HTTP Response is returned with the JSON Web Key Set of the public keys. Key set is empty
+     * when the tokens are signed with the secret key.
+     */
+    @GetMapping(value = "/jwks", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Public keys", description = "This endpoint is used to get the JSON Web Key Set of the public keys used to verify access tokens.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "JSON Web Key Set was returned successfully.")
+    })
+    ResponseEntity<?> getJsonWebKeySet();
+
     // Logout method
 
     /**
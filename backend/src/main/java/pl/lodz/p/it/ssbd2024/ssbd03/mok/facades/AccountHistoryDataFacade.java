@@ -18,6 +18,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -106,4 +107,37 @@ public class AccountHistoryDataFacade extends AbstractFacade<AccountHistoryData>
             return new ArrayList<>();
         }
     }
+
+    /**
+     * This method is used to find historical entries of the user account, using keyset pagination. Entries are ordered
+     * from the newest one, and the page is located by the modification time and version of the last entry from the previous page.
+     *
+     * @param id               ID of the searched account.
+     * @param modificationTime Modification time of the last entry from the previous page, or null for the first page.
+     * @param version          Version of the last entry from the previous page, or null for the first page.
+     * @param pageSize         Size of the page.
+     * @return If there are historic entries for the requested account, placed after the given entry, this method returns
+     * at most pageSize of them. Otherwise, empty list.
+     */
+    @RolesAllowed({Authorities.GET_OWN_HISTORICAL_DATA, Authorities.GET_ACCOUNT_HISTORICAL_DATA})
+    public List<AccountHistoryData> findByAccountIdWithKeyset(UUID id, LocalDateTime modificationTime, Long version, int pageSize)
+            throws ApplicationBaseException {
+        try {
+            TypedQuery<AccountHistoryData> findAccountHistory;
+            if (modificationTime == null || version == null) {
+                findAccountHistory = entityManager.createNamedQuery("AccountHistoryData.findByAccountIdWithKeyset", AccountHistoryData.class);
+            } else {
+                findAccountHistory = entityManager.createNamedQuery("AccountHistoryData.findByAccountIdAfterKey", AccountHistoryData.class);
+                findAccountHistory.setParameter("modificationTime", modificationTime);
+                findAccountHistory.setParameter("version", version);
+            }
+            findAccountHistory.setParameter("id", id);
+            findAccountHistory.setMaxResults(pageSize);
+            List<AccountHistoryData> list = findAccountHistory.getResultList();
+            super.refreshAll(list);
+            return list;
+        } catch (PersistenceException exception) {
+            return new ArrayList<>();
+        }
+    }
 }
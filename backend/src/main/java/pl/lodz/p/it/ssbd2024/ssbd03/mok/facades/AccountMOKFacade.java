@@ -124,8 +124,34 @@ public class AccountMOKFacade extends AbstractFacade<Account> {
             findAllAccounts.setFirstResult(pageNumber * pageSize);
             findAllAccounts.setMaxResults(pageSize);
             List<Account> list = findAllAccounts.getResultList();
-            super.refreshAll(list);
-            return list;
+            return refreshAllInBatch(list, "userLevels");
+        } catch (PersistenceException exception) {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * This method is used to retrieve user accounts ordered by the login, using keyset pagination. Since login is
+     * unique, the page is located with the unique index on login, instead of skipping accounts from the previous pages.
+     *
+     * @param login    Login of the last user account from the previous page, or null for the first page.
+     * @param pageSize Number of user accounts per page.
+     * @return List of user accounts, which login is placed after the given one.
+     * If a persistence exception is thrown, then empty list is returned.
+     */
+    @RolesAllowed({Authorities.GET_ALL_USER_ACCOUNTS})
+    public List<Account> findAllAccountsWithKeyset(String login, int pageSize) throws ApplicationBaseException {
+        try {
+            TypedQuery<Account> findAllAccounts;
+            if (login == null) {
+                findAllAccounts = entityManager.createNamedQuery("Account.findAllAccounts", Account.class);
+            } else {
+                findAllAccounts = entityManager.createNamedQuery("Account.findAllAccountsAfterLogin", Account.class);
+                findAllAccounts.setParameter("login", login);
+            }
+            findAllAccounts.setMaxResults(pageSize);
+            List<Account> list = findAllAccounts.getResultList();
+            return refreshAllInBatch(list, "userLevels");
         } catch (PersistenceException exception) {
             return new ArrayList<>();
         }
@@ -230,6 +256,63 @@ public class AccountMOKFacade extends AbstractFacade<Account> {
         }
     }
 
+    /**
+     * Retrieves the next chunk of accounts, that were not activated within specified time window since creating them,
+     * using keyset pagination on the login. Entities are read into the persistence context of the current transaction
+     * only, so that the chunks could be processed in separate transactions without accumulating them in memory.
+     *
+     * @param timestamp  Accounts created before this timestamp are marked for deletion.
+     * @param afterLogin Login of the last account from the previous chunk, or null for the first chunk.
+     * @param chunkSize  Maximum number of accounts in the chunk.
+     * @return List of accounts marked for deletion, ordered by the login.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.REMOVE_ACCOUNT})
+    public List<Account> findChunkOfAccountsMarkedForDeletion(LocalDateTime timestamp, String afterLogin, int chunkSize) throws ApplicationBaseException {
+        return findChunk("Account.findChunkOfAccountsMarkedForDeletion", timestamp, afterLogin, chunkSize);
+    }
+
+    /**
+     * Retrieves the next chunk of accounts, that were blocked by logging incorrectly certain amount of times before
+     * specified time, using keyset pagination on the login.
+     *
+     * @param timestamp  Accounts blocked before this timestamp are marked for unblocking.
+     * @param afterLogin Login of the last account from the previous chunk, or null for the first chunk.
+     * @param chunkSize  Maximum number of accounts in the chunk.
+     * @return List of accounts to be unblocked, ordered by the login.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.UNBLOCK_ACCOUNT})
+    public List<Account> findChunkOfAccountsBlockedByLoginIncorrectly(LocalDateTime timestamp, String afterLogin, int chunkSize) throws ApplicationBaseException {
+        return findChunk("Account.findChunkOfAccountsBlockedByLoginIncorrectly", timestamp, afterLogin, chunkSize);
+    }
+
+    /**
+     * Retrieves the next chunk of accounts without any activity since specified time, using keyset pagination
+     * on the login.
+     *
+     * @param lastSuccessfulLogin Accounts without successful login since this timestamp are marked for suspension.
+     * @param afterLogin          Login of the last account from the previous chunk, or null for the first chunk.
+     * @param chunkSize           Maximum number of accounts in the chunk.
+     * @return List of accounts to be suspended, ordered by the login.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.BLOCK_ACCOUNT})
+    public List<Account> findChunkOfAccountsWithoutRecentActivity(LocalDateTime lastSuccessfulLogin, String afterLogin, int chunkSize) throws ApplicationBaseException {
+        return findChunk("Account.findChunkOfAccountsWithoutAnyActivityFrom", lastSuccessfulLogin, afterLogin, chunkSize);
+    }
+
+    private List<Account> findChunk(String queryName, LocalDateTime timestamp, String afterLogin, int chunkSize) {
+        return entityManager.createNamedQuery(queryName, Account.class)
+                .setParameter("timestamp", timestamp)
+                .setParameter("login", afterLogin == null ? "" : afterLogin)
+                .setMaxResults(chunkSize)
+                .getResultList();
+    }
+
     /**
      * Retrieve accounts that match the given parameters.
      *
@@ -265,8 +348,7 @@ public class AccountMOKFacade extends AbstractFacade<Account> {
             findAllAccountsMatchingCriteriaQuery.setMaxResults(pageSize);
             findAllAccountsMatchingCriteriaQuery.setParameter("phrase", phrase);
             List<Account> list = findAllAccountsMatchingCriteriaQuery.getResultList();
-            super.refreshAll(list);
-            return list;
+            return refreshAllInBatch(list, "userLevels");
         } catch (PersistenceException exception) {
             return new ArrayList<>();
         }
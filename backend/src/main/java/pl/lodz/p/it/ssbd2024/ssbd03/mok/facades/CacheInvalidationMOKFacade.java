@@ -0,0 +1,80 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.facades;
+
+import jakarta.annotation.security.PermitAll;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.CacheInvalidation;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.CacheInvalidationLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository used to write invalidations of the cache entries in the transactions of the MOK module, and to read
+ * the invalidations written by other nodes.
+ *
+ * @see CacheInvalidation
+ */
+@Repository
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.MANDATORY)
+public class CacheInvalidationMOKFacade implements CacheInvalidationLog {
+
+    @PersistenceContext(unitName = DatabaseConfigConstants.MOK_PU)
+    private EntityManager entityManager;
+
+    @Override
+    @PermitAll
+    public boolean isUsedByCurrentTransaction() {
+        return TransactionSynchronizationManager.hasResource(entityManager.getEntityManagerFactory());
+    }
+
+    @Override
+    @PermitAll
+    public void record(CacheInvalidation invalidation) throws ApplicationBaseException {
+        entityManager.persist(invalidation);
+    }
+
+    /**
+     * Retrieves invalidations written by other nodes after given point in time, in the order of their creation.
+     *
+     * @param since      Point in time, after which the invalidations were written.
+     * @param originNode Identifier of this node, which invalidations are skipped.
+     * @return List of the invalidations written by other nodes.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.POLL_CACHE_INVALIDATIONS})
+    public List<CacheInvalidation> findCreatedAfter(LocalDateTime since, String originNode) throws ApplicationBaseException {
+        return entityManager.createNamedQuery("CacheInvalidation.findCreatedAfter", CacheInvalidation.class)
+                .setParameter("since", since)
+                .setParameter("originNode", originNode)
+                .getResultList();
+    }
+
+    /**
+     * Removes invalidations written before given point in time, with a single statement.
+     *
+     * @param timestamp Invalidations written before this point in time are removed.
+     * @return Number of removed invalidations.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.POLL_CACHE_INVALIDATIONS})
+    public int removeCreatedBefore(LocalDateTime timestamp) throws ApplicationBaseException {
+        return entityManager.createNamedQuery("CacheInvalidation.removeCreatedBefore")
+                .setParameter("timestamp", timestamp)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,42 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.facades;
+
+import jakarta.annotation.security.PermitAll;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailOutbox;
+
+/**
+ * Repository used to write e-mail messages to the outbox in the transactions of the authentication.
+ *
+ * @see OutboxMail
+ */
+@Repository
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxMailAuthFacade implements MailOutbox {
+
+    @PersistenceContext(unitName = DatabaseConfigConstants.AUTH_PU)
+    private EntityManager entityManager;
+
+    @Override
+    @PermitAll
+    public boolean isUsedByCurrentTransaction() {
+        return TransactionSynchronizationManager.hasResource(entityManager.getEntityManagerFactory());
+    }
+
+    @Override
+    @PermitAll
+    public void enqueue(OutboxMail mail) throws ApplicationBaseException {
+        entityManager.persist(mail);
+    }
+}
@@ -0,0 +1,100 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.facades;
+
+import jakarta.annotation.security.PermitAll;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.LockMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailOutbox;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository used to write e-mail messages to the outbox in the transactions of the MOK module, and to drain
+ * the outbox by the mail dispatcher.
+ *
+ * @see OutboxMail
+ */
+@Repository
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxMailMOKFacade implements MailOutbox {
+
+    @PersistenceContext(unitName = DatabaseConfigConstants.MOK_PU)
+    private EntityManager entityManager;
+
+    @Override
+    @PermitAll
+    public boolean isUsedByCurrentTransaction() {
+        return TransactionSynchronizationManager.hasResource(entityManager.getEntityManagerFactory());
+    }
+
+    @Override
+    @PermitAll
+    public void enqueue(OutboxMail mail) throws ApplicationBaseException {
+        entityManager.persist(mail);
+    }
+
+    /**
+     * Retrieves messages ready to be sent, in the order of their next attempt. Rows of the messages are locked with
+     * <code>FOR UPDATE SKIP LOCKED</code>, so that dispatchers running on multiple nodes claim disjoint batches.
+     *
+     * @param now       Current point in time.
+     * @param batchSize Maximum number of messages to be retrieved.
+     * @return List of messages ready to be sent.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.DISPATCH_MAIL})
+    public List<OutboxMail> findReady(LocalDateTime now, int batchSize) throws ApplicationBaseException {
+        return entityManager.createNamedQuery("OutboxMail.findReady", OutboxMail.class)
+                .setParameter("now", now)
+                .setMaxResults(batchSize)
+                .setHint(HibernateHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the message from the outbox.
+     *
+     * @param id Identifier of the message.
+     * @return If found returns Optional containing the message, otherwise returns Empty Optional.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.DISPATCH_MAIL})
+    public Optional<OutboxMail> find(UUID id) throws ApplicationBaseException {
+        return Optional.ofNullable(entityManager.find(OutboxMail.class, id));
+    }
+
+    /**
+     * Removes sent messages from the outbox, with a single statement.
+     *
+     * @param ids Identifiers of the sent messages.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.DISPATCH_MAIL})
+    public void removeByIds(Collection<UUID> ids) throws ApplicationBaseException {
+        if (ids.isEmpty()) return;
+        entityManager.createNamedQuery("OutboxMail.removeByIds")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,75 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.facades;
+
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.AbstractSchedulerLeaseFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository used to manage leases of the scheduled tasks of the MOK module.
+ *
+ * @see SchedulerLease
+ */
+@Repository
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.MANDATORY)
+public class SchedulerLeaseMOKFacade extends AbstractSchedulerLeaseFacade {
+
+    @PersistenceContext(unitName = DatabaseConfigConstants.MOK_PU)
+    private EntityManager entityManager;
+
+    /**
+     * Retrieves an entity manager.
+     *
+     * @return Entity manager associated with the facade.
+     */
+    @Override
+    protected EntityManager getEntityManager() {
+        return this.entityManager;
+    }
+
+    /**
+     * Tries to acquire (or renew) the lease of the scheduled task for given node.
+     *
+     * @param name           Name of the scheduled task.
+     * @param owner          Identifier of the node.
+     * @param expirationTime Point in time, after which the acquired lease expires.
+     * @return Acquired lease, or empty Optional if the lease is held by another node.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @Override
+    @RolesAllowed({Authorities.ACQUIRE_SCHEDULER_LEASE})
+    public Optional<SchedulerLease> tryAcquire(String name, String owner, LocalDateTime expirationTime) throws ApplicationBaseException {
+        return super.tryAcquire(name, owner, expirationTime);
+    }
+
+    /**
+     * Renews the lease held by given node, at the beginning of the next chunk of the task.
+     *
+     * @param name           Name of the scheduled task.
+     * @param owner          Identifier of the node.
+     * @param expirationTime Point in time, after which the renewed lease expires.
+     * @return Renewed lease, or empty Optional if the lease was taken over by another node.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @Override
+    @RolesAllowed({Authorities.ACQUIRE_SCHEDULER_LEASE})
+    public Optional<SchedulerLease> renew(String name, String owner, LocalDateTime expirationTime) throws ApplicationBaseException {
+        return super.renew(name, owner, expirationTime);
+    }
+}
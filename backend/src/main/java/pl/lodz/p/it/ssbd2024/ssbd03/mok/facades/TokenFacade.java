@@ -17,7 +17,9 @@ import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -156,6 +158,44 @@ public class TokenFacade extends AbstractFacade<Token> {
         }
     }
 
+    /**
+     * Retrieves the next chunk of tokens of a specified TokenType, associated with accounts created before given
+     * point in time, using keyset pagination on the login of the account. Accounts are fetched along with the tokens,
+     * so that accessing them does not issue a query per token.
+     *
+     * @param tokenType  Type of the tokens to be found.
+     * @param timestamp  Only tokens of accounts created before this timestamp are returned.
+     * @param afterLogin Login of the account of the last token from the previous chunk, or null for the first chunk.
+     * @param chunkSize  Maximum number of tokens in the chunk.
+     * @return List of tokens, ordered by the login of the associated account.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
+    public List<Token> findChunkByTypeAndAccountCreatedBefore(Token.TokenType tokenType, LocalDateTime timestamp,
+                                                              String afterLogin, int chunkSize) throws ApplicationBaseException {
+        return getEntityManager().createNamedQuery("Token.findChunkByTypeAndAccountCreatedBefore", Token.class)
+                .setParameter("tokenType", tokenType)
+                .setParameter("timestamp", timestamp)
+                .setParameter("login", afterLogin == null ? "" : afterLogin)
+                .setMaxResults(chunkSize)
+                .getResultList();
+    }
+
+    /**
+     * Persists new Tokens in the database. Tokens are flushed together, so that they are inserted in JDBC batches
+     * instead of a statement per token.
+     *
+     * @param tokens Tokens to be persisted.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
+    public void createAll(List<Token> tokens) throws ApplicationBaseException {
+        tokens.forEach(getEntityManager()::persist);
+        getEntityManager().flush();
+    }
+
     /**
      * Removes all Tokens associated with an Account.
      *
@@ -184,4 +224,21 @@ public class TokenFacade extends AbstractFacade<Token> {
                 .setParameter("accountId", accountId)
                 .executeUpdate();
     }
+
+    /**
+     * Removes all Tokens with a given Type associated with any of the given Accounts, with a single statement.
+     *
+     * @param tokenType  Type of Tokens to be removed.
+     * @param accountIds IDs of the Accounts which Tokens are to be removed.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
+    public void removeByTypeAndAccounts(Token.TokenType tokenType, Collection<UUID> accountIds) throws ApplicationBaseException {
+        if (accountIds.isEmpty()) return;
+        getEntityManager().createNamedQuery("Token.removeByTypeAndAccounts")
+                .setParameter("tokenType", tokenType)
+                .setParameter("accountIds", accountIds)
+                .executeUpdate();
+    }
 }
@@ -11,6 +11,9 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
@@ -118,6 +121,16 @@ public class AccountService implements AccountServiceInterface {
      */
     private final AttributeValueFacade attributeValueFacade;
 
+    /**
+     * Cache of the authenticated principals, invalidated when the account state affecting authentication is changed.
+     */
+    private final PrincipalCache principalCache;
+
+    /**
+     * List of the revoked access tokens, fed when the account is blocked or its user levels are changed.
+     */
+    private final TokenRevocationList tokenRevocationList;
+
     /**
      * Autowired constructor for the service.
      *
@@ -130,6 +143,8 @@ public class AccountService implements AccountServiceInterface {
      * @param userLevelFacade      It is used to create new tokens, remove them, etc.
      * @param attributeNameFacade  Facade for handling attribute names.
      * @param attributeValueFacade Facade for handling attribute values.
+     * @param principalCache       Cache of the authenticated principals, used by the JWT authentication filter.
+     * @param tokenRevocationList  List of the revoked access tokens, used by the JWT authentication filter.
      */
     @Autowired
     public AccountService(AccountMOKFacade accountFacade,
@@ -141,7 +156,9 @@ public class AccountService implements AccountServiceInterface {
                           TokenProvider tokenProvider,
                           UserLevelFacade userLevelFacade,
                           AttributeNameFacade attributeNameFacade,
-                          AttributeValueFacade attributeValueFacade) {
+                          AttributeValueFacade attributeValueFacade,
+                          PrincipalCache principalCache,
+                          TokenRevocationList tokenRevocationList) {
         this.accountFacade = accountFacade;
         this.historyDataFacade = historyDataFacade;
         this.passwordEncoder = passwordEncoder;
@@ -152,6 +169,8 @@ public class AccountService implements AccountServiceInterface {
         this.userLevelFacade = userLevelFacade;
         this.attributeNameFacade = attributeNameFacade;
         this.attributeValueFacade = attributeValueFacade;
+        this.principalCache = principalCache;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     // Register user account methods - Client, Staff, Admin
@@ -309,6 +328,7 @@ public class AccountService implements AccountServiceInterface {
         account.setPassword(hashedPassword);
 
         this.accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
         historyDataFacade.create(new AccountHistoryData(account,
                 OperationType.PASSWORD_CHANGE,
                 accountFacade.findByLogin(SecurityContextHolder
@@ -341,6 +361,7 @@ public class AccountService implements AccountServiceInterface {
         account.setPassword(newPasswordEncoded);
 
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
         historyDataFacade.create(new AccountHistoryData(account,
                 OperationType.PASSWORD_CHANGE,
                 accountFacade.findByLogin(SecurityContextHolder
@@ -363,6 +384,8 @@ public class AccountService implements AccountServiceInterface {
         account.blockAccount(true);
 
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
+        tokenRevocationList.revoke(account.getLogin());
         historyDataFacade.create(new AccountHistoryData(account,
                 OperationType.BLOCK,
                 accountFacade.findByLogin(SecurityContextHolder
@@ -387,6 +410,7 @@ public class AccountService implements AccountServiceInterface {
         account.unblockAccount();
 
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
         historyDataFacade.create(new AccountHistoryData(account,
                 OperationType.UNBLOCK,
                 accountFacade.findByLogin(SecurityContextHolder
@@ -570,6 +594,12 @@ public class AccountService implements AccountServiceInterface {
         return accountFacade.findAllAccountsWithPagination(pageNumber, pageSize);
     }
 
+    @Override
+    @RolesAllowed({Authorities.GET_ALL_USER_ACCOUNTS})
+    public List<Account> getAllAccountsWithKeyset(ContinuationToken token, int pageSize) throws ApplicationBaseException {
+        return accountFacade.findAllAccountsWithKeyset(token == null ? null : token.getSortKey(), pageSize);
+    }
+
     @Override
     @RolesAllowed({Authorities.GET_OWN_HISTORICAL_DATA, Authorities.GET_OWN_ACCOUNT, Authorities.CHANGE_OWN_MAIL})
     public Account getAccountByLogin(String login) throws ApplicationBaseException {
@@ -601,6 +631,8 @@ public class AccountService implements AccountServiceInterface {
         account.addUserLevel(clientUserLevel);
         userLevelFacade.create(clientUserLevel);
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
+        tokenRevocationList.revoke(account.getLogin());
 
         mailProvider.sendEmailNotificationAboutGrantedUserLevel(account.getName(),
                 account.getLastname(),
@@ -626,6 +658,8 @@ public class AccountService implements AccountServiceInterface {
         account.addUserLevel(staffUserLevel);
         userLevelFacade.create(staffUserLevel);
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
+        tokenRevocationList.revoke(account.getLogin());
 
         mailProvider.sendEmailNotificationAboutGrantedUserLevel(account.getName(),
                 account.getLastname(),
@@ -647,6 +681,8 @@ public class AccountService implements AccountServiceInterface {
         account.addUserLevel(adminUserLevel);
         userLevelFacade.create(adminUserLevel);
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
+        tokenRevocationList.revoke(account.getLogin());
 
         mailProvider.sendEmailNotificationAboutGrantedUserLevel(account.getName(),
                 account.getLastname(),
@@ -679,6 +715,8 @@ public class AccountService implements AccountServiceInterface {
 
         account.removeUserLevel(clientUserLevel);
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
+        tokenRevocationList.revoke(account.getLogin());
 
         userLevelFacade.remove(clientUserLevel);
 
@@ -711,6 +749,8 @@ public class AccountService implements AccountServiceInterface {
 
         account.removeUserLevel(staffUserLevel);
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
+        tokenRevocationList.revoke(account.getLogin());
 
         userLevelFacade.remove(staffUserLevel);
 
@@ -751,6 +791,8 @@ public class AccountService implements AccountServiceInterface {
 
         account.removeUserLevel(adminUserLevel);
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
+        tokenRevocationList.revoke(account.getLogin());
 
         userLevelFacade.remove(adminUserLevel);
 
@@ -806,6 +848,7 @@ public class AccountService implements AccountServiceInterface {
         account.activateAccount(false);
 
         accountFacade.edit(account);
+        principalCache.invalidate(account.getId());
         historyDataFacade.create(new AccountHistoryData(account,
                 OperationType.RESTORE_ACCESS,
                 accountFacade.findByLogin(SecurityContextHolder
@@ -856,6 +899,14 @@ public class AccountService implements AccountServiceInterface {
         return historyDataFacade.findByAccountId(id, pageNumber, pageSize);
     }
 
+    @Override
+    @RolesAllowed({Authorities.GET_OWN_HISTORICAL_DATA, Authorities.GET_ACCOUNT_HISTORICAL_DATA})
+    public List<AccountHistoryData> getHistoryDataByAccountIdWithKeyset(UUID id, ContinuationToken token, int pageSize)
+            throws ApplicationBaseException {
+        if (token == null) return historyDataFacade.findByAccountIdWithKeyset(id, null, null, pageSize);
+        return historyDataFacade.findByAccountIdWithKeyset(id, token.getSortKeyAsDateTime(), token.getTieBreakerAsLong(), pageSize);
+    }
+
     @Override
     @RolesAllowed({Authorities.MANAGE_OWN_ATTRIBUTES, Authorities.MANAGE_ATTRIBUTES})
     public List<AttributeName> getAllAttributesNames(int pageNumber, int pageSize) throws ApplicationBaseException {
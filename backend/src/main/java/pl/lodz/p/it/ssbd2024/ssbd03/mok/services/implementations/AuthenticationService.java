@@ -14,6 +14,8 @@ import org.springframework.transaction.annotation.Transactional;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.token.AccessAndRefreshTokensDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.*;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
@@ -92,6 +94,17 @@ public class AuthenticationService implements AuthenticationServiceInterface {
      */
     private final JWTProvider jwtProvider;
 
+    /**
+     * Cache of the authenticated principals, invalidated when the account is blocked.
+     */
+    private final PrincipalCache principalCache;
+
+    /**
+     * List of the revoked access tokens, fed when the account is blocked. Its epoch and token version are embedded
+     * in the issued access tokens.
+     */
+    private final TokenRevocationList tokenRevocationList;
+
     final TimeBasedOneTimePasswordGenerator totp = new TimeBasedOneTimePasswordGenerator(Duration.of(30, ChronoUnit.SECONDS), 8);
     private Key key;
 
@@ -104,6 +117,8 @@ public class AuthenticationService implements AuthenticationServiceInterface {
      * @param passwordEncoder      Component, responsible for generating hashes for given authentication code, and verifying them.
      * @param jwtProvider          Component, responsible for generating JWT tokens with given content, and for given amount of time.
      * @param mailProvider         Component used for sending e-mail messages.
+     * @param principalCache       Cache of the authenticated principals, used by the JWT authentication filter.
+     * @param tokenRevocationList  List of the revoked access tokens, used by the JWT authentication filter.
      */
     @Autowired
     public AuthenticationService(AuthenticationFacade authenticationFacade,
@@ -112,7 +127,9 @@ public class AuthenticationService implements AuthenticationServiceInterface {
                                  PasswordEncoder passwordEncoder,
                                  MailProvider mailProvider,
                                  JWTProvider jwtProvider,
-                                 TokenProvider tokenProvider) {
+                                 TokenProvider tokenProvider,
+                                 PrincipalCache principalCache,
+                                 TokenRevocationList tokenRevocationList) {
         this.authenticationFacade = authenticationFacade;
         this.historyDataFacade = historyDataFacade;
         this.tokenFacade = tokenFacade;
@@ -120,6 +137,8 @@ public class AuthenticationService implements AuthenticationServiceInterface {
         this.mailProvider = mailProvider;
         this.jwtProvider = jwtProvider;
         this.tokenProvider = tokenProvider;
+        this.principalCache = principalCache;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @PostConstruct
@@ -175,7 +194,8 @@ public class AuthenticationService implements AuthenticationServiceInterface {
         }
         tokenFacade.removeByTypeAndAccount(Token.TokenType.REFRESH_TOKEN, account.getId());
 
-        String accessToken = jwtProvider.generateJWTToken(account);
+        String accessToken = jwtProvider.generateJWTToken(account,
+                tokenRevocationList.getEpoch(), tokenRevocationList.getTokenVersion());
         Token refreshTokenObject = tokenProvider.generateRefreshToken(account);
         tokenFacade.create(refreshTokenObject);
 
@@ -215,6 +235,10 @@ public class AuthenticationService implements AuthenticationServiceInterface {
         }
 
         authenticationFacade.edit(account);
+        if (account.getBlocked()) {
+            principalCache.invalidate(account.getId());
+            tokenRevocationList.revoke(account.getLogin());
+        }
         historyDataFacade.create(new AccountHistoryData(account,
                 OperationType.LOGIN,
                 authenticationFacade.findByLogin(SecurityContextHolder
@@ -263,7 +287,8 @@ public class AuthenticationService implements AuthenticationServiceInterface {
 
         // Generate a new pair of access token and refresh token.
         Token newRefreshTokenObject = this.tokenProvider.generateRefreshToken(foundAccount);
-        String newAccessToken = this.jwtProvider.generateJWTToken(foundAccount);
+        String newAccessToken = this.jwtProvider.generateJWTToken(foundAccount,
+                tokenRevocationList.getEpoch(), tokenRevocationList.getTokenVersion());
 
         // Remove old refresh token from database and add new refresh token to database.
         tokenFacade.remove(refreshTokenObject);
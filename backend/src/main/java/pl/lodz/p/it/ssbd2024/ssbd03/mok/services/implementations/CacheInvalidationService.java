@@ -0,0 +1,56 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations;
+
+import jakarta.annotation.security.RolesAllowed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.RunAsSystem;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.CacheInvalidation;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.CacheInvalidationMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.CacheInvalidationServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service used by the cluster cache invalidator to read the invalidations written by other nodes.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator
+ */
+@Service
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = ApplicationBaseException.class)
+public class CacheInvalidationService implements CacheInvalidationServiceInterface {
+
+    private final CacheInvalidationMOKFacade cacheInvalidationFacade;
+
+    /**
+     * Autowired constructor for the service.
+     *
+     * @param cacheInvalidationFacade Facade used to read and remove the invalidations.
+     */
+    @Autowired
+    public CacheInvalidationService(CacheInvalidationMOKFacade cacheInvalidationFacade) {
+        this.cacheInvalidationFacade = cacheInvalidationFacade;
+    }
+
+    @Override
+    @RunAsSystem
+    @RolesAllowed({Authorities.POLL_CACHE_INVALIDATIONS})
+    public List<CacheInvalidation> findCreatedAfter(LocalDateTime since, String originNode) throws ApplicationBaseException {
+        return cacheInvalidationFacade.findCreatedAfter(since, originNode);
+    }
+
+    @Override
+    @RunAsSystem
+    @RolesAllowed({Authorities.POLL_CACHE_INVALIDATIONS})
+    public int removeCreatedBefore(LocalDateTime timestamp) throws ApplicationBaseException {
+        return cacheInvalidationFacade.removeCreatedBefore(timestamp);
+    }
+}
@@ -0,0 +1,118 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations;
+
+import jakarta.annotation.security.RolesAllowed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.RunAsSystem;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.OutboxMailMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.MailOutboxServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service used by the mail dispatcher to drain the outbox of the e-mail messages.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailDispatcher
+ */
+@Slf4j
+@Service
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = ApplicationBaseException.class)
+public class MailOutboxService implements MailOutboxServiceInterface {
+
+    private final OutboxMailMOKFacade outboxMailFacade;
+
+    /**
+     * Time in minutes, after which the message claimed by the dispatcher could be claimed again.
+     * Specified by <code>mail.outbox.claim.timeout.minutes</code> property.
+     */
+    @Value("${mail.outbox.claim.timeout.minutes}")
+    private long claimTimeout;
+
+    /**
+     * Maximum number of attempts to send the message.
+     * Specified by <code>mail.outbox.max_attempts</code> property.
+     */
+    @Value("${mail.outbox.max_attempts}")
+    private int maxAttempts;
+
+    /**
+     * Delay in seconds before the second attempt to send the message, doubled with each subsequent attempt.
+     * Specified by <code>mail.outbox.retry.base.seconds</code> property.
+     */
+    @Value("${mail.outbox.retry.base.seconds}")
+    private long retryBaseDelay;
+
+    /**
+     * Maximum delay in minutes between the attempts to send the message.
+     * Specified by <code>mail.outbox.retry.max.minutes</code> property.
+     */
+    @Value("${mail.outbox.retry.max.minutes}")
+    private long retryMaxDelay;
+
+    /**
+     * Autowired constructor for the service.
+     *
+     * @param outboxMailFacade Facade used to manage the messages in the outbox.
+     */
+    @Autowired
+    public MailOutboxService(OutboxMailMOKFacade outboxMailFacade) {
+        this.outboxMailFacade = outboxMailFacade;
+    }
+
+    @Override
+    @RunAsSystem
+    @RolesAllowed({Authorities.DISPATCH_MAIL})
+    public List<OutboxMail> claim(int batchSize) throws ApplicationBaseException {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMail> batch = outboxMailFacade.findReady(now, batchSize);
+        batch.forEach(mail -> mail.claim(now.plusMinutes(claimTimeout)));
+        return batch;
+    }
+
+    @Override
+    @RunAsSystem
+    @RolesAllowed({Authorities.DISPATCH_MAIL})
+    public void complete(Collection<UUID> sentIds, Map<UUID, String> failures) throws ApplicationBaseException {
+        outboxMailFacade.removeByIds(sentIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<UUID, String> failure : failures.entrySet()) {
+            OutboxMail mail = outboxMailFacade.find(failure.getKey()).orElse(null);
+            if (mail == null) continue;
+
+            if (mail.getAttempts() >= maxAttempts) {
+                log.error("E-mail message with id: {} could not be sent after {} attempts, and will not be sent again. Cause: {}",
+                        mail.getId(), mail.getAttempts(), failure.getValue());
+                mail.fail(failure.getValue(), null);
+            } else {
+                mail.fail(failure.getValue(), now.plusSeconds(backoff(mail.getAttempts())));
+            }
+        }
+    }
+
+    /**
+     * Computes the delay before the next attempt to send the message.
+     *
+     * @param attempts Number of attempts already made.
+     * @return Delay in seconds, doubled with each attempt up to the maximum delay.
+     */
+    private long backoff(int attempts) {
+        long delay = retryBaseDelay << Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(delay, retryMaxDelay * 60);
+    }
+}
@@ -0,0 +1,264 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations;
+
+import jakarta.annotation.security.RolesAllowed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.schedule.SchedulerNode;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.OperationType;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.SchedulerLeaseMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.ScheduleChunkServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service processing scheduled tasks of the MOK module in chunks. Each method is executed in a new transaction,
+ * so that the persistence context holds only the accounts of a single chunk, and the processed chunk is committed
+ * along with its checkpoint. When the node fails in the middle of the task, the next execution (on any node)
+ * resumes it after the last committed chunk.
+ *
+ * @see ScheduleService
+ */
+@Slf4j
+@Service
+@Profile("!test")
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = ApplicationBaseException.class)
+public class ScheduleChunkService implements ScheduleChunkServiceInterface {
+
+    private final AccountMOKFacade accountMOKFacade;
+    private final AccountHistoryDataFacade historyDataFacade;
+    private final TokenFacade tokenFacade;
+    private final MailProvider mailProvider;
+    private final TokenProvider tokenProvider;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final SchedulerLeaseMOKFacade schedulerLeaseFacade;
+    private final SchedulerNode schedulerNode;
+
+    /**
+     * Time in minutes, for which the lease of the task is acquired (and renewed with each chunk).
+     * Specified by <code>scheduler.lease.ttl.minutes</code> property.
+     */
+    @Value("${scheduler.lease.ttl.minutes}")
+    private long leaseTTL;
+
+    /**
+     * Maximum number of accounts processed in a single transaction.
+     * Specified by <code>scheduler.bulk_chunk_size</code> property.
+     */
+    @Value("${scheduler.bulk_chunk_size}")
+    private int chunkSize;
+
+    /**
+     * String value representing activation URL sent in the activation e-mail message
+     * used to activate newly created user account.
+     */
+    @Value("${mail.account.creation.confirmation.url}")
+    private String accountCreationConfirmationUrl;
+
+    /**
+     * Autowired constructor for the service.
+     *
+     * @param accountMOKFacade     Facade used for managing user accounts.
+     * @param historyDataFacade    Facade used for inserting information about account modifications to the database.
+     * @param tokenFacade          Facade used for managing tokens used for many account related activities.
+     * @param mailProvider         Component used for sending e-mail messages to e-mail addresses connected to certain
+     *                             user accounts.
+     * @param tokenProvider        Component used for automatic generation of action tokens.
+     * @param principalCache       Cache of the authenticated principals, used by the JWT authentication filter.
+     * @param tokenRevocationList  List of the revoked access tokens, used by the JWT authentication filter.
+     * @param schedulerLeaseFacade Facade used to acquire leases of the scheduled tasks.
+     * @param schedulerNode        Identity of this instance of the application.
+     */
+    @Autowired
+    public ScheduleChunkService(AccountMOKFacade accountMOKFacade,
+                                AccountHistoryDataFacade historyDataFacade,
+                                TokenFacade tokenFacade,
+                                MailProvider mailProvider,
+                                TokenProvider tokenProvider,
+                                PrincipalCache principalCache,
+                                TokenRevocationList tokenRevocationList,
+                                SchedulerLeaseMOKFacade schedulerLeaseFacade,
+                                SchedulerNode schedulerNode) {
+        this.accountMOKFacade = accountMOKFacade;
+        this.historyDataFacade = historyDataFacade;
+        this.tokenFacade = tokenFacade;
+        this.mailProvider = mailProvider;
+        this.tokenProvider = tokenProvider;
+        this.principalCache = principalCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.schedulerLeaseFacade = schedulerLeaseFacade;
+        this.schedulerNode = schedulerNode;
+    }
+
+    @Override
+    @RolesAllowed({Authorities.ACQUIRE_SCHEDULER_LEASE})
+    public Optional<SchedulerLease> acquireLease(String name) throws ApplicationBaseException {
+        return schedulerLeaseFacade.tryAcquire(name, schedulerNode.getNodeId(), LocalDateTime.now().plusMinutes(leaseTTL));
+    }
+
+    @Override
+    @RolesAllowed({Authorities.REMOVE_ACCOUNT})
+    public String deleteNotActivatedAccounts(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException {
+        Optional<SchedulerLease> lease = renewLease(name);
+        if (lease.isEmpty()) return null;
+
+        List<Account> inactiveAccounts = accountMOKFacade.findChunkOfAccountsMarkedForDeletion(timestamp, checkpoint, chunkSize);
+        if (!inactiveAccounts.isEmpty()) {
+            log.info("List of identifiers of accounts to be removed: {}", inactiveAccounts.stream().map(Account::getId).toList());
+        }
+
+        for (Account account : inactiveAccounts) {
+            tokenFacade.removeByAccount(account.getId());
+            accountMOKFacade.remove(account);
+
+            mailProvider.sendRemoveAccountInfoEmail(account.getName(), account.getLastname(), account.getEmail(), account.getAccountLanguage());
+        }
+
+        return saveCheckpoint(lease.get(), inactiveAccounts);
+    }
+
+    @Override
+    @RolesAllowed({Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
+    public String resendConfirmationEmails(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException {
+        Optional<SchedulerLease> lease = renewLease(name);
+        if (lease.isEmpty()) return null;
+
+        List<Account> accounts = tokenFacade.findChunkByTypeAndAccountCreatedBefore(Token.TokenType.REGISTER, timestamp, checkpoint, chunkSize)
+                .stream()
+                .map(Token::getAccount)
+                .toList();
+        if (accounts.isEmpty()) return saveCheckpoint(lease.get(), accounts);
+
+        log.info("List of identifiers of accounts with activation tokens to be swapped: {}", accounts.stream().map(Account::getId).toList());
+
+        // Swap activation tokens of the whole chunk with one delete statement and one batch of inserts
+        List<Token> newTokens = accounts.stream()
+                .map(tokenProvider::generateAccountActivationToken)
+                .toList();
+        tokenFacade.removeByTypeAndAccounts(Token.TokenType.REGISTER, accounts.stream().map(Account::getId).toList());
+        tokenFacade.createAll(newTokens);
+
+        for (Token token : newTokens) {
+            Account account = token.getAccount();
+            mailProvider.sendRegistrationConfirmEmail(account.getName(),
+                    account.getLastname(),
+                    account.getEmail(),
+                    accountCreationConfirmationUrl + token.getTokenValue(),
+                    account.getAccountLanguage());
+        }
+
+        return saveCheckpoint(lease.get(), accounts);
+    }
+
+    @Override
+    @RolesAllowed({Authorities.UNBLOCK_ACCOUNT})
+    public String unblockAccounts(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException {
+        Optional<SchedulerLease> lease = renewLease(name);
+        if (lease.isEmpty()) return null;
+
+        List<Account> blockedAccounts = accountMOKFacade.findChunkOfAccountsBlockedByLoginIncorrectly(timestamp, checkpoint, chunkSize);
+        if (blockedAccounts.isEmpty()) return saveCheckpoint(lease.get(), blockedAccounts);
+
+        log.info("List of identifiers of accounts to be unblocked: {}", blockedAccounts.stream().map(Account::getId).toList());
+
+        Account modifiedBy = accountMOKFacade.findByLogin(SecurityContextHolder
+                        .getContext()
+                        .getAuthentication()
+                        .getName())
+                .orElse(null);
+
+        for (Account account : blockedAccounts) {
+            account.unblockAccount();
+            accountMOKFacade.edit(account);
+            principalCache.invalidate(account.getId());
+            historyDataFacade.create(new AccountHistoryData(account, OperationType.UNBLOCK, modifiedBy));
+
+            mailProvider.sendUnblockAccountInfoEmail(account.getName(),
+                    account.getLastname(),
+                    account.getEmail(),
+                    account.getAccountLanguage());
+        }
+
+        return saveCheckpoint(lease.get(), blockedAccounts);
+    }
+
+    @Override
+    @RolesAllowed({Authorities.BLOCK_ACCOUNT})
+    public String suspendAccounts(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException {
+        Optional<SchedulerLease> lease = renewLease(name);
+        if (lease.isEmpty()) return null;
+
+        List<Account> accountsToSuspend = accountMOKFacade.findChunkOfAccountsWithoutRecentActivity(timestamp, checkpoint, chunkSize);
+        if (!accountsToSuspend.isEmpty()) {
+            log.info("List of identifiers of accounts to be suspended: {}", accountsToSuspend.stream().map(Account::getId).toList());
+        }
+
+        for (Account account : accountsToSuspend) {
+            account.setSuspended(true);
+            accountMOKFacade.edit(account);
+            principalCache.invalidate(account.getId());
+            tokenRevocationList.revoke(account.getLogin());
+            historyDataFacade.create(new AccountHistoryData(account, OperationType.SUSPEND, null));
+
+            mailProvider.sendSuspendAccountInfoEmail(account.getName(), account.getLastname(), account.getEmail(), account.getAccountLanguage());
+        }
+
+        return saveCheckpoint(lease.get(), accountsToSuspend);
+    }
+
+    /**
+     * Renews the lease of the task before processing the next chunk. Lease stays locked until the chunk is committed,
+     * so that the node, which took over the expired lease, could not process the same chunk concurrently.
+     *
+     * @param name Name of the scheduled task.
+     * @return Renewed lease, or empty Optional if the lease was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    private Optional<SchedulerLease> renewLease(String name) throws ApplicationBaseException {
+        Optional<SchedulerLease> lease = schedulerLeaseFacade.renew(name, schedulerNode.getNodeId(), LocalDateTime.now().plusMinutes(leaseTTL));
+        if (lease.isEmpty()) {
+            log.warn("Task: {} interrupted, since its lease was taken over by another instance.", name);
+        }
+        return lease;
+    }
+
+    /**
+     * Stores the checkpoint of the processed chunk in the lease of the task. Checkpoint is cleared, when the chunk
+     * is not full, as there are no more accounts to be processed.
+     *
+     * @param lease    Lease of the task, renewed in the current transaction.
+     * @param accounts Accounts processed in the chunk, ordered by the login.
+     * @return Checkpoint of the chunk, or null if the task is finished.
+     */
+    private String saveCheckpoint(SchedulerLease lease, List<Account> accounts) {
+        String checkpoint = accounts.size() < chunkSize ? null : accounts.getLast().getLogin();
+        lease.setCheckpoint(checkpoint);
+        return checkpoint;
+    }
+}
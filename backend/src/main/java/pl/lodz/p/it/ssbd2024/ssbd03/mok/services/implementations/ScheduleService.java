@@ -6,7 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,55 +13,35 @@ import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.RunAsSystem;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.OperationType;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
-import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataFacade;
-import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
-import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.ScheduleChunkServiceInterface;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.ScheduleServiceInterface;
-import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
-import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Service managing execution of scheduled tasks.
  * Configuration concerning tasks is set in consts.properties.
+ * When multiple instances of the application are running, each task is executed only by the instance holding
+ * its lease (the leader of the task), which is renewed with every execution. Tasks are processed in chunks of
+ * accounts, each of them committed in a separate transaction.
  */
 @Slf4j
 @Service
 @Profile("!test")
 @LoggerInterceptor
 @TxTracked
-@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = ApplicationBaseException.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class ScheduleService implements ScheduleServiceInterface {
 
     /**
-     * AccountMOKFacade used for operations on account entities.
+     * Service processing the tasks in chunks, each of them in a separate transaction.
      */
-    private final AccountMOKFacade accountMOKFacade;
-    private final AccountHistoryDataFacade historyDataFacade;
-
-    /**
-     * TokenFacade used for operations on then accounts.
-     */
-    private final TokenFacade tokenFacade;
-
-    /**
-     * MailProvider used for sending emails.
-     */
-    private final MailProvider mailProvider;
-
-    /**
-     * TokenProvider component used for automatic generation of action tokens.
-     */
-    private final TokenProvider tokenProvider;
+    private final ScheduleChunkServiceInterface scheduleChunkService;
 
     /**
      * String value that specifies time after which deletion will occur.
@@ -78,13 +57,6 @@ public class ScheduleService implements ScheduleServiceInterface {
     @Value("${scheduler.blocked_account_unblock_time}")
     private String unblockTime;
 
-    /**
-     * String value representing activation URL sent in the activation e-mail message
-     * used to activate newly created user account.
-     */
-    @Value("${mail.account.creation.confirmation.url}")
-    private String accountCreationConfirmationUrl;
-
     /**
      * Integer value representing number of hours, which the activation e-mail
      * message should be sent after.
@@ -102,24 +74,11 @@ public class ScheduleService implements ScheduleServiceInterface {
     /**
      * Autowired constructor for the service.
      *
-     * @param accountMOKFacade  Facade used for managing user accounts.
-     * @param historyDataFacade Facade used for inserting information about account modifications to the database.
-     * @param tokenFacade       Facade used for managing tokens used for many account related activities.
-     * @param tokenProvider     Component used for automatic generation of action tokens.
-     * @param mailProvider      Component used for sending e-mail messages to e-mail addresses connected to certain
-     *                          user accounts.
+     * @param scheduleChunkService Service processing the tasks in chunks.
      */
     @Autowired
-    public ScheduleService(AccountMOKFacade accountMOKFacade,
-                           AccountHistoryDataFacade historyDataFacade,
-                           TokenFacade tokenFacade,
-                           MailProvider mailProvider,
-                           TokenProvider tokenProvider) {
-        this.accountMOKFacade = accountMOKFacade;
-        this.historyDataFacade = historyDataFacade;
-        this.tokenFacade = tokenFacade;
-        this.mailProvider = mailProvider;
-        this.tokenProvider = tokenProvider;
+    public ScheduleService(ScheduleChunkServiceInterface scheduleChunkService) {
+        this.scheduleChunkService = scheduleChunkService;
     }
 
     @RunAsSystem
@@ -128,33 +87,9 @@ public class ScheduleService implements ScheduleServiceInterface {
     @RolesAllowed({Authorities.REMOVE_ACCOUNT})
     public void deleteNotActivatedAccounts() {
         log.info("Method: deleteNotActivatedAccount(), used for removing not activated accounts, was invoked.");
-
-        List<Account> inactiveAccounts = new ArrayList<>();
-        try {
-            inactiveAccounts = accountMOKFacade.findAllAccountsMarkedForDeletion(Long.parseLong(deleteTime), TimeUnit.HOURS);
-        } catch (NumberFormatException | ApplicationBaseException exception) {
-            log.error("Exception: {} occurred while searching for accounts to be removed. Cause: {}.",
-                    exception.getClass().getSimpleName(), exception.getMessage());
-        }
-
-        if (inactiveAccounts.isEmpty()) {
-            log.info("No accounts to be removed were found.");
-            return;
-        }
-
-        log.info("List of identifiers of accounts to be removed: {}", inactiveAccounts.stream().map(Account::getId).toList());
-
-        for (Account account : inactiveAccounts) {
-            try {
-                tokenFacade.removeByAccount(account.getId());
-                accountMOKFacade.remove(account);
-
-                mailProvider.sendRemoveAccountInfoEmail(account.getName(), account.getLastname(), account.getEmail(), account.getAccountLanguage());
-            } catch (ApplicationBaseException exception) {
-                log.error("Exception: {} occurred while removing account with id: {}. Cause: {}.",
-                        exception.getClass().getSimpleName(), account.getId(), exception.getMessage());
-            }
-        }
+        processInChunks("mok.deleteNotActivatedAccounts",
+                () -> LocalDateTime.now().minusHours(Long.parseLong(deleteTime)),
+                scheduleChunkService::deleteNotActivatedAccounts);
     }
 
     @RunAsSystem
@@ -163,41 +98,9 @@ public class ScheduleService implements ScheduleServiceInterface {
     @RolesAllowed({Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
     public void resendConfirmationEmail() {
         log.info("Method: resendConfirmationEmail(), used for sending account activation message, was invoked.");
-
-        List<Token> registerTokens = new ArrayList<>();
-        try {
-            registerTokens = tokenFacade.findByTokenType(Token.TokenType.REGISTER);
-        } catch (ApplicationBaseException exception) {
-            log.error("Exception: {} occurred while searching for account needing activation. Cause: {}.",
-                    exception.getClass().getSimpleName(), exception.getMessage());
-        }
-
-        if (registerTokens.isEmpty()) {
-            log.info("There are no activation e-mail messages to be sent right now.");
-            return;
-        }
-
-        for (Token token : registerTokens) {
-            try {
-                Account account = token.getAccount();
-                if (account.getCreationTime().isBefore(LocalDateTime.now().minusHours(resendRegistrationConfirmationEmailAfterHours))) {
-                    tokenFacade.removeByTypeAndAccount(Token.TokenType.REGISTER, account.getId());
-                    Token tokenObject = tokenProvider.generateAccountActivationToken(account);
-                    tokenFacade.create(tokenObject);
-
-                    String confirmationURL = accountCreationConfirmationUrl + tokenObject.getTokenValue();
-
-                    mailProvider.sendRegistrationConfirmEmail(account.getName(),
-                            account.getLastname(),
-                            account.getEmail(),
-                            confirmationURL,
-                            account.getAccountLanguage());
-                }
-            } catch (ApplicationBaseException exception) {
-                log.error("Exception: {} occurred while swapping activation token for account with id: {}. Cause: {}.",
-                        exception.getClass().getSimpleName(), token.getAccount().getId(), exception.getMessage());
-            }
-        }
+        processInChunks("mok.resendConfirmationEmail",
+                () -> LocalDateTime.now().minusHours(resendRegistrationConfirmationEmailAfterHours),
+                scheduleChunkService::resendConfirmationEmails);
     }
 
     @RunAsSystem
@@ -206,43 +109,9 @@ public class ScheduleService implements ScheduleServiceInterface {
     @RolesAllowed({Authorities.UNBLOCK_ACCOUNT})
     public void unblockAccount() {
         log.info("Method: unblockAccount(), used for unblocking accounts blocked by incorrect login attempts, was invoked.");
-
-        List<Account> blockedAccounts = new ArrayList<>();
-        try {
-            blockedAccounts = accountMOKFacade.findAllBlockedAccountsThatWereBlockedByLoginIncorrectlyCertainAmountOfTimes(Long.parseLong(unblockTime), TimeUnit.HOURS);
-        } catch (NumberFormatException | ApplicationBaseException exception) {
-            log.error("Exception: {} occurred while searching for accounts to be unblocked. Cause: {}.",
-                    exception.getClass().getSimpleName(), exception.getMessage());
-        }
-
-        if (blockedAccounts.isEmpty()) {
-            log.info("There are no account to be unblocked right now.");
-            return;
-        }
-
-        log.info("List of identifiers of accounts to be unblocked: {}", blockedAccounts.stream().map(Account::getId).toList());
-
-        blockedAccounts.forEach((account -> {
-            account.unblockAccount();
-            try {
-                accountMOKFacade.edit(account);
-                historyDataFacade.create(new AccountHistoryData(account,
-                        OperationType.UNBLOCK,
-                        accountMOKFacade.findByLogin(SecurityContextHolder
-                                        .getContext()
-                                        .getAuthentication()
-                                        .getName())
-                                .orElse(null)));
-            } catch (ApplicationBaseException exception) {
-                log.error("Exception of type: {} was throw while activating user: {} after it was blocked for {} hours.",
-                        exception.getClass().getSimpleName(), account.getLogin(), this.unblockTime);
-            }
-
-            mailProvider.sendUnblockAccountInfoEmail(account.getName(),
-                    account.getLastname(),
-                    account.getEmail(),
-                    account.getAccountLanguage());
-        }));
+        processInChunks("mok.unblockAccount",
+                () -> LocalDateTime.now().minusHours(Long.parseLong(unblockTime)),
+                scheduleChunkService::unblockAccounts);
     }
 
     @RunAsSystem
@@ -251,36 +120,52 @@ public class ScheduleService implements ScheduleServiceInterface {
     @RolesAllowed({Authorities.BLOCK_ACCOUNT})
     public void suspendAccountWithoutAuthenticationForSpecifiedTime() {
         log.info("Method: suspendAccountWithoutAuthenticationForSpecifiedTime() was invoked.");
+        processInChunks("mok.suspendAccountWithoutAuthenticationForSpecifiedTime",
+                () -> LocalDateTime.now().minusDays(Long.parseLong(maxDaysWithoutAuthentication)),
+                scheduleChunkService::suspendAccounts);
+    }
 
-        List<Account> accountsToSuspend = new ArrayList<>();
+    /**
+     * Executes the task chunk by chunk, each chunk in a separate transaction, until there are no more accounts
+     * to be processed. When the previous execution of the task was interrupted, it is resumed from the checkpoint
+     * stored in its lease. Failure of the chunk rolls back only that chunk, and the task is resumed from it
+     * with the next execution.
+     *
+     * @param name      Name of the scheduled task.
+     * @param timestamp Supplier of the point in time, determining accounts processed by the task.
+     * @param chunk     Method processing a single chunk of accounts, and returning its checkpoint.
+     */
+    private void processInChunks(String name, Supplier<LocalDateTime> timestamp, ChunkProcessor chunk) {
         try {
-            accountsToSuspend = accountMOKFacade.findAllAccountsWithoutRecentActivity(LocalDateTime.now().minus(Long.parseLong(maxDaysWithoutAuthentication), TimeUnit.DAYS.toChronoUnit()));
-        } catch (NumberFormatException | ApplicationBaseException exception) {
-            log.error("Exception: {} occurred while searching for accounts to be suspended. Cause: {}.",
-                    exception.getClass().getSimpleName(), exception.getMessage());
-        }
-
-        if (accountsToSuspend.isEmpty()) {
-            log.info("There are no account to be suspended right now.");
-            return;
-        }
-
-        log.info("List of identifiers of accounts to be suspended: {}", accountsToSuspend.stream().map(Account::getId).toList());
+            Optional<SchedulerLease> lease = scheduleChunkService.acquireLease(name);
+            if (lease.isEmpty()) {
+                log.info("Task: {} skipped, since its lease is held by another instance.", name);
+                return;
+            }
 
-        accountsToSuspend.forEach((account -> {
-            account.setSuspended(true);
-            try {
-                accountMOKFacade.edit(account);
-                historyDataFacade.create(new AccountHistoryData(account,
-                        OperationType.SUSPEND,
-                        null)
-                );
-            } catch (ApplicationBaseException exception) {
-                log.error("Exception of type: {} was throw while suspending user: {}.",
-                        exception.getClass().getSimpleName(), account.getLogin());
+            String checkpoint = lease.get().getCheckpoint();
+            if (checkpoint != null) {
+                log.info("Task: {} resumed after the account with login: {}.", name, checkpoint);
             }
 
-            mailProvider.sendSuspendAccountInfoEmail(account.getName(), account.getLastname(), account.getEmail(), account.getAccountLanguage());
-        }));
+            LocalDateTime from = timestamp.get();
+            int chunks = 0;
+            do {
+                checkpoint = chunk.process(name, from, checkpoint);
+                chunks++;
+            } while (checkpoint != null);
+            log.info("Task: {} finished after processing {} chunk(s).", name, chunks);
+        } catch (NumberFormatException | ApplicationBaseException exception) {
+            log.error("Exception: {} occurred while executing the task: {}. Cause: {}.",
+                    exception.getClass().getSimpleName(), name, exception.getMessage());
+        }
+    }
+
+    /**
+     * Single chunk of the scheduled task, processed in a separate transaction.
+     */
+    @FunctionalInterface
+    private interface ChunkProcessor {
+        String process(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException;
     }
 }
@@ -1,5 +1,6 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces;
 
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AttributeName;
@@ -230,6 +231,16 @@ public interface AccountServiceInterface {
      */
     List<Account> getAllAccounts(int pageNumber, int pageSize) throws ApplicationBaseException;
 
+    /**
+     * Retrieve accounts in the system, ordered by account login, using keyset pagination.
+     *
+     * @param token    Continuation token pointing after the last account from the previous page, or null for the first page.
+     * @param pageSize The number of results to return per page.
+     * @return A list of accounts placed after the one pointed by the continuation token.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
+     */
+    List<Account> getAllAccountsWithKeyset(ContinuationToken token, int pageSize) throws ApplicationBaseException;
+
     /**
      * Retrieves an Account by the login.
      *
@@ -348,6 +359,18 @@ public interface AccountServiceInterface {
     List<AccountHistoryData> getHistoryDataByAccountId(UUID id, int pageNumber, int pageSize)
             throws ApplicationBaseException;
 
+    /**
+     * Retrieve historic data of a given account, using keyset pagination.
+     *
+     * @param id       ID of the account which history data is requested.
+     * @param token    Continuation token pointing after the last entry from the previous page, or null for the first page.
+     * @param pageSize The number of results to return per page.
+     * @return A list history data entries, ordered by modification time from newest, placed after the one pointed by the token.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
+     */
+    List<AccountHistoryData> getHistoryDataByAccountIdWithKeyset(UUID id, ContinuationToken token, int pageSize)
+            throws ApplicationBaseException;
+
     /**
      * This method is used to retrieve all attribute names from the dynamic dictionary. This is performed
      * with pagination not to flood client with data.
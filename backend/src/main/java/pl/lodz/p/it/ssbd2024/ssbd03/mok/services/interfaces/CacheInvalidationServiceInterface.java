@@ -0,0 +1,35 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.CacheInvalidation;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interface used for reading the invalidations of the cache entries written by other nodes, and for removing
+ * the invalidations, which are no longer read by any node. Each operation is executed in a separate, short transaction.
+ */
+public interface CacheInvalidationServiceInterface {
+
+    /**
+     * Retrieves invalidations written by other nodes after given point in time.
+     *
+     * @param since      Point in time, after which the invalidations were written.
+     * @param originNode Identifier of this node, which invalidations are skipped.
+     * @return List of the invalidations in the order of their creation.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    List<CacheInvalidation> findCreatedAfter(LocalDateTime since, String originNode) throws ApplicationBaseException;
+
+    /**
+     * Removes invalidations written before given point in time.
+     *
+     * @param timestamp Invalidations written before this point in time are removed.
+     * @return Number of removed invalidations.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    int removeCreatedBefore(LocalDateTime timestamp) throws ApplicationBaseException;
+}
@@ -0,0 +1,39 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Interface used for draining the outbox of the e-mail messages. Messages are claimed and their results are reported
+ * in separate, short transactions, so that no transaction is kept open while the messages are sent.
+ */
+public interface MailOutboxServiceInterface {
+
+    /**
+     * Claims the next batch of messages ready to be sent. Claimed messages are not returned again until their claim
+     * expires, so the messages of the dispatcher, which failed before reporting the result, are sent again.
+     *
+     * @param batchSize Maximum number of messages in the batch.
+     * @return List of claimed messages.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    List<OutboxMail> claim(int batchSize) throws ApplicationBaseException;
+
+    /**
+     * Reports the result of sending the batch of messages. Sent messages are removed from the outbox, and failed
+     * messages are scheduled for the next attempt with exponential backoff, unless they reached the maximum number
+     * of attempts.
+     *
+     * @param sentIds  Identifiers of the sent messages.
+     * @param failures Descriptions of the errors, keyed by the identifiers of the messages, which could not be sent.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    void complete(Collection<UUID> sentIds, Map<UUID, String> failures) throws ApplicationBaseException;
+}
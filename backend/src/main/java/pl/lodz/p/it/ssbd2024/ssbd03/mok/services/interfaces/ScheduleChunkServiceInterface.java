@@ -0,0 +1,79 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Interface used for processing scheduled tasks of the MOK module in chunks, each of them in a separate transaction.
+ * Every chunk is read with keyset pagination on the login of the account, starting after the checkpoint of the
+ * previous chunk, and the checkpoint of the chunk is stored in the lease of the task along with the processed accounts.
+ */
+public interface ScheduleChunkServiceInterface {
+
+    /**
+     * Tries to acquire the lease of the scheduled task for this instance of the application.
+     *
+     * @param name Name of the scheduled task.
+     * @return Acquired lease, containing the checkpoint of the interrupted execution of the task, or empty Optional
+     * if the lease is held by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    Optional<SchedulerLease> acquireLease(String name) throws ApplicationBaseException;
+
+    /**
+     * Removes the next chunk of accounts, which have not finished registration before given point in time.
+     *
+     * @param name       Name of the scheduled task, identifying its lease.
+     * @param timestamp  Accounts created before this timestamp are removed.
+     * @param checkpoint Login of the last account processed in the previous chunk, or null for the first chunk.
+     * @return Checkpoint of the processed chunk, or null if there are no more accounts to be processed, or the lease
+     * was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    String deleteNotActivatedAccounts(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException;
+
+    /**
+     * Swaps activation tokens of the next chunk of accounts, which were created before given point in time and still
+     * have not been activated, and sends the activation e-mail messages with the new tokens again.
+     *
+     * @param name       Name of the scheduled task, identifying its lease.
+     * @param timestamp  Activation tokens of accounts created before this timestamp are swapped.
+     * @param checkpoint Login of the last account processed in the previous chunk, or null for the first chunk.
+     * @return Checkpoint of the processed chunk, or null if there are no more accounts to be processed, or the lease
+     * was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    String resendConfirmationEmails(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException;
+
+    /**
+     * Unblocks the next chunk of accounts, which were blocked by login incorrectly before given point in time.
+     *
+     * @param name       Name of the scheduled task, identifying its lease.
+     * @param timestamp  Accounts blocked before this timestamp are unblocked.
+     * @param checkpoint Login of the last account processed in the previous chunk, or null for the first chunk.
+     * @return Checkpoint of the processed chunk, or null if there are no more accounts to be processed, or the lease
+     * was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    String unblockAccounts(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException;
+
+    /**
+     * Suspends the next chunk of accounts, which were not authenticated since given point in time.
+     *
+     * @param name       Name of the scheduled task, identifying its lease.
+     * @param timestamp  Accounts without successful login since this timestamp are suspended.
+     * @param checkpoint Login of the last account processed in the previous chunk, or null for the first chunk.
+     * @return Checkpoint of the processed chunk, or null if there are no more accounts to be processed, or the lease
+     * was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    String suspendAccounts(String name, LocalDateTime timestamp, String checkpoint) throws ApplicationBaseException;
+}
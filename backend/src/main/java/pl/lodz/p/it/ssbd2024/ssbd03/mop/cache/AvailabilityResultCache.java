@@ -0,0 +1,242 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of the results of the queries listing available parking and sectors, holding identifiers of
+ * the found entities, so that the entities themselves could be read from the second-level cache. Results are identified
+ * by the name of the query, the parking (for the listings of sectors), the page and the flags of the query.
+ * <p>
+ * Results are invalidated by the facade after commit of the transaction, in which the occupancy of the sector,
+ * the sector or the parking was modified, and they expire after <code>availability.cache.ttl.seconds</code>, since
+ * some listings depend on the current time. Concurrent reads of the same missing result are served by a single
+ * query, and the transaction that has already modified the parking or the sectors always reads from the database.
+ * Changes are published to other instances of the application through {@link ClusterCacheInvalidator}, which
+ * invalidate all results concerning the changed parking.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade
+ */
+@Slf4j
+@Component
+public class AvailabilityResultCache {
+
+    /**
+     * Name of the cache used to publish its invalidations to other instances of the application.
+     */
+    public static final String REGION = "availability";
+
+    @Value("${availability.cache.ttl.seconds}")
+    private long resultTTL;
+
+    @Value("${availability.cache.max.size}")
+    private int maxSize;
+
+    /**
+     * Cached (or currently loaded) results, identified by the query key.
+     */
+    private final Map<Key, Result> results = new ConcurrentHashMap<>();
+
+    /**
+     * Generation counter, incremented on every committed change. Used to discard results read before the change
+     * was committed.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Key used to bind pending changes to the current transaction.
+     */
+    private final Object transactionResourceKey = new Object();
+
+    private final ClusterCacheInvalidator clusterCacheInvalidator;
+
+    /**
+     * Identifier of the cached result.
+     *
+     * @param queryName          Name of the executed query.
+     * @param parkingId          Identifier of the parking, which sectors are listed, or null for the listings of parking.
+     * @param pageNumber         Number of the page.
+     * @param pageSize           Size of the page.
+     * @param showOnlyActive     Flag of the query, indicating whether only active sectors are taken into account.
+     * @param dependsOnOccupancy Whether the result depends on the number of occupied places in the sectors.
+     */
+    public record Key(String queryName, UUID parkingId, int pageNumber, int pageSize,
+                      boolean showOnlyActive, boolean dependsOnOccupancy) {
+    }
+
+    /**
+     * Result of the query, completed by the thread that executes it.
+     */
+    private static class Result {
+        private final long generation;
+        private final CompletableFuture<List<UUID>> ids = new CompletableFuture<>();
+        private volatile long loadTime;
+
+        private Result(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Autowired constructor for the component. Registers the handler of the invalidations published by other
+     * instances of the application.
+     *
+     * @param clusterCacheInvalidator Component propagating the invalidations between instances of the application.
+     */
+    @Autowired
+    public AvailabilityResultCache(ClusterCacheInvalidator clusterCacheInvalidator) {
+        this.clusterCacheInvalidator = clusterCacheInvalidator;
+        clusterCacheInvalidator.register(REGION, parkingId -> invalidate(List.of(parkingId == null
+                ? key -> true
+                : affectedByParking(UUID.fromString(parkingId)))));
+    }
+
+    /**
+     * Retrieves the cached result of the query, or executes the query when the result is missing or expired.
+     * When the same result is already loaded by another thread, waits for it instead of executing the query again.
+     *
+     * @param key    Identifier of the result.
+     * @param loader Query returning identifiers of the found entities, executed in the current transaction.
+     * @return Identifiers of the found entities.
+     */
+    public List<UUID> get(Key key, Supplier<List<UUID>> loader) {
+        if (isChangedInCurrentTransaction()) return loader.get();
+
+        while (true) {
+            Result result = results.get(key);
+            if (result != null && isExpired(result)) {
+                results.remove(key, result);
+                result = null;
+            }
+            if (result == null) {
+                Result loading = new Result(generation.get());
+                makeRoom();
+                result = results.putIfAbsent(key, loading);
+                if (result == null) return load(key, loading, loader);
+            }
+
+            try {
+                return result.ids.join();
+            } catch (CompletionException | CancellationException exception) {
+                log.debug("Loading of the result: {} failed in another thread, it will be loaded again.", key);
+            }
+        }
+    }
+
+    /**
+     * Registers change of the parking or its sectors, which will invalidate the listings of parking and listings
+     * of sectors of that parking after commit of the current transaction.
+     *
+     * @param parkingId Identifier of the modified parking.
+     */
+    public void parkingChanged(UUID parkingId) {
+        afterCommit(affectedByParking(parkingId));
+        clusterCacheInvalidator.publish(REGION, parkingId.toString());
+    }
+
+    /**
+     * Registers change of the number of occupied places in the sectors, which will invalidate the listings depending
+     * on the occupancy after commit of the current transaction.
+     *
+     * @param parkingId Identifier of the parking, which sectors were modified, or null when the sectors may belong
+     *                  to any parking.
+     */
+    public void occupancyChanged(UUID parkingId) {
+        afterCommit(key -> key.dependsOnOccupancy() &&
+                (parkingId == null || key.parkingId() == null || key.parkingId().equals(parkingId)));
+        clusterCacheInvalidator.publish(REGION, parkingId == null ? null : parkingId.toString());
+    }
+
+    private static Predicate<Key> affectedByParking(UUID parkingId) {
+        return key -> key.parkingId() == null || key.parkingId().equals(parkingId);
+    }
+
+    private List<UUID> load(Key key, Result result, Supplier<List<UUID>> loader) {
+        List<UUID> ids;
+        try {
+            ids = List.copyOf(loader.get());
+        } catch (RuntimeException exception) {
+            results.remove(key, result);
+            result.ids.completeExceptionally(exception);
+            throw exception;
+        }
+
+        result.loadTime = System.nanoTime();
+        if (generation.get() != result.generation) results.remove(key, result);
+        result.ids.complete(ids);
+        return ids;
+    }
+
+    private boolean isExpired(Result result) {
+        return result.ids.isDone() && System.nanoTime() - result.loadTime > TimeUnit.SECONDS.toNanos(resultTTL);
+    }
+
+    private void makeRoom() {
+        if (results.size() < maxSize) return;
+        results.values().removeIf(this::isExpired);
+        if (results.size() >= maxSize) {
+            results.clear();
+            log.warn("Availability result cache is full, all results were removed.");
+        }
+    }
+
+    private void invalidate(List<Predicate<Key>> affected) {
+        generation.incrementAndGet();
+        results.keySet().removeIf(key -> affected.stream().anyMatch(predicate -> predicate.test(key)));
+    }
+
+    private void afterCommit(Predicate<Key> affected) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(List.of(affected));
+            return;
+        }
+
+        PendingChanges pendingChanges = (PendingChanges) TransactionSynchronizationManager.getResource(transactionResourceKey);
+        if (pendingChanges == null) {
+            pendingChanges = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(transactionResourceKey, pendingChanges);
+            TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+        }
+        pendingChanges.changes.add(affected);
+    }
+
+    private boolean isChangedInCurrentTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive() &&
+                TransactionSynchronizationManager.getResource(transactionResourceKey) != null;
+    }
+
+    /**
+     * Changes registered in the current transaction, invalidating the results only if the transaction is committed.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+        private final List<Predicate<Key>> changes = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            invalidate(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(transactionResourceKey);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timer wheel, holding a single deadline for each key. The wheel consists of the given number of levels,
+ * each of them divided into the given number of slots. Single slot of the lowest level spans one tick, and single slot
+ * of every next level spans the whole rotation of the level below. Deadline is placed on the lowest level, which
+ * rotation covers it, and is moved (cascaded) to the lower levels while the time passes, until it expires. Deadlines
+ * further than the rotation of the highest level are placed on that level, and are placed again with each cascade.
+ * <p>
+ * Scheduling and cancelling the deadline takes constant time, regardless of the number of held deadlines. Expired
+ * deadlines are kept in the queue until they are polled, so that they could be processed in small batches.
+ * <p>
+ * All operations are synchronized on the wheel object.
+ *
+ * @param <K> Type of the key, identifying the deadline.
+ */
+public class HierarchicalTimerWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+
+    /**
+     * Number of ticks spanned by single slot of each level.
+     */
+    private final long[] slotTicks;
+
+    /**
+     * Slots of each level, created when the first deadline is placed in them.
+     */
+    private final Set<Entry<K>>[][] slots;
+
+    /**
+     * Deadlines held in the wheel (or in the queue of the expired deadlines), identified by their keys.
+     */
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    /**
+     * Expired deadlines, in the order of their expiration. Cancelled deadlines are skipped when the queue is polled.
+     */
+    private final ArrayDeque<Entry<K>> expired = new ArrayDeque<>();
+
+    /**
+     * Last tick processed by the wheel.
+     */
+    private long currentTick;
+
+    /**
+     * Creates new timer wheel.
+     *
+     * @param tickMillis  Length of the single tick in milliseconds.
+     * @param wheelSize   Number of slots on each level.
+     * @param levels      Number of levels of the wheel.
+     * @param startMillis Point in time (in milliseconds since epoch), from which the wheel starts.
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimerWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Timer wheel requires positive tick, at least two slots and one level.");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.slotTicks = new long[levels];
+        this.slots = new Set[levels][wheelSize];
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            slotTicks[level] = ticks;
+            ticks = Math.multiplyExact(ticks, wheelSize);
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedules the deadline for given key, replacing the previous deadline of that key. Deadline, which is already
+     * in the past, expires immediately.
+     *
+     * @param key            Key identifying the deadline.
+     * @param deadlineMillis Point in time (in milliseconds since epoch), at which the deadline expires.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        Entry<K> entry = new Entry<>(key, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    /**
+     * Cancels the deadline of given key.
+     *
+     * @param key Key identifying the deadline.
+     * @return True if the deadline was held in the wheel, false otherwise.
+     */
+    public synchronized boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) return false;
+        if (entry.level >= 0) slots[entry.level][entry.slot].remove(entry);
+        return true;
+    }
+
+    /**
+     * Advances the wheel to given point in time and retrieves expired deadlines. When more than <code>limit</code>
+     * deadlines expired, the remaining ones are returned by the next calls.
+     *
+     * @param nowMillis Current point in time (in milliseconds since epoch).
+     * @param limit     Maximum number of returned keys.
+     * @return Keys of the expired deadlines, in the order of their expiration.
+     */
+    public synchronized List<K> poll(long nowMillis, int limit) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = slotTicks.length - 1; level > 0; level--) {
+                if (currentTick % slotTicks[level] == 0) cascade(level, slotIndex(level, currentTick));
+            }
+            cascade(0, slotIndex(0, currentTick));
+        }
+
+        List<K> keys = new ArrayList<>(Math.min(limit, expired.size()));
+        while (keys.size() < limit && !expired.isEmpty()) {
+            Entry<K> entry = expired.poll();
+            if (entries.remove(entry.key, entry)) keys.add(entry.key);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns number of deadlines held in the wheel, including the expired ones, which were not polled yet.
+     *
+     * @return Number of held deadlines.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Places the deadline in the slot of the lowest level, which rotation covers it, or in the queue of the expired
+     * deadlines, if it is not after the current tick.
+     */
+    private void place(Entry<K> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            entry.level = -1;
+            expired.add(entry);
+            return;
+        }
+        int level = 0;
+        while (level < slotTicks.length - 1 && delta >= slotTicks[level] * wheelSize) level++;
+        entry.level = level;
+        entry.slot = slotIndex(level, entry.deadlineTick);
+        Set<Entry<K>> slot = slots[level][entry.slot];
+        if (slot == null) slot = slots[level][entry.slot] = new LinkedHashSet<>();
+        slot.add(entry);
+    }
+
+    /**
+     * Empties the slot, placing all of its deadlines again with respect to the current tick.
+     */
+    private void cascade(int level, int index) {
+        Set<Entry<K>> slot = slots[level][index];
+        if (slot == null || slot.isEmpty()) return;
+        List<Entry<K>> cascaded = new ArrayList<>(slot);
+        slot.clear();
+        cascaded.forEach(this::place);
+    }
+
+    private int slotIndex(int level, long tick) {
+        return (int) Math.floorMod(tick / slotTicks[level], (long) wheelSize);
+    }
+
+    /**
+     * Deadline held in the wheel. Identity of the entry distinguishes it from the previous deadlines of the same key.
+     */
+    private static class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+        private int level;
+        private int slot;
+
+        private Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory schedule of the upcoming deadlines of the active reservations, held in the hierarchical timer wheel.
+ * Each active reservation has two deadlines: the completion deadline at its end time, and the termination deadline
+ * after <code>scheduler.maximum_reservation_time</code> hours since its beginning. Expired deadlines are processed by
+ * the MOP scheduler in small batches, shortly after they pass, and the status of the reservation is always verified
+ * against the database at that time.
+ * <p>
+ * Deadlines are loaded from the database incrementally, up to <code>scheduler.expiry.horizon.hours</code> ahead, and
+ * the loaded horizon is moved forward while the time passes. Changes of the reservations are applied by the facade
+ * after successful commit of the transaction; deadlines after the loaded horizon are skipped, since they will be
+ * loaded with the horizon. Until the first part of the horizon is loaded, the wheel holds no deadlines at all.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ReservationFacade
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations.ScheduleMOPService
+ */
+@Slf4j
+@Component
+public class ReservationExpiryWheel {
+
+    /**
+     * Kind of the reservation deadline.
+     */
+    public enum DeadlineType {
+        COMPLETION, TERMINATION
+    }
+
+    /**
+     * Key of the deadline in the wheel.
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    public static class Deadline {
+        private final UUID reservationId;
+        private final DeadlineType type;
+    }
+
+    @Value("${scheduler.maximum_reservation_time}")
+    private long maximumReservationHours;
+
+    @Value("${scheduler.expiry.horizon.hours}")
+    private long horizonHours;
+
+    @Value("${scheduler.expiry.retry.delay.seconds}")
+    private long retryDelaySeconds;
+
+    private final HierarchicalTimerWheel<Deadline> wheel;
+
+    /**
+     * Point in time, up to which deadlines were loaded from the database, or null if none were loaded yet.
+     */
+    private volatile LocalDateTime loadedUntil;
+
+    /**
+     * Creates the schedule with the wheel of 1 second ticks, which levels cover 64 seconds, about 68 minutes,
+     * about 3 days and about 6 months respectively.
+     */
+    public ReservationExpiryWheel() {
+        this.wheel = new HierarchicalTimerWheel<>(TimeUnit.SECONDS.toMillis(1), 64, 4, System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the part of the horizon, which should be loaded from the database next. Loaded horizon is moved forward
+     * before the deadlines are read, so that reservations changed in the meantime are scheduled by the facade.
+     *
+     * @param now Current point in time.
+     * @return Array with the beginning (exclusive) and the end (inclusive) of the timeframe, which deadlines should
+     * be loaded, or null if the loaded horizon is still sufficient.
+     */
+    public synchronized LocalDateTime[] extendHorizon(LocalDateTime now) {
+        LocalDateTime horizon = now.plusHours(horizonHours);
+        LocalDateTime previous = loadedUntil;
+        // Horizon is moved in steps of at least one tenth of its length, to avoid querying the database on every tick
+        if (previous != null && previous.isAfter(now.plusMinutes(TimeUnit.HOURS.toMinutes(horizonHours) * 9 / 10))) {
+            return null;
+        }
+        loadedUntil = horizon;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) restoreHorizon(horizon, previous);
+                }
+            });
+        }
+        return new LocalDateTime[]{previous != null ? previous : now.minusHours(maximumReservationHours), horizon};
+    }
+
+    /**
+     * Moves the loaded horizon back, when loading of its part failed, unless it was already moved again.
+     */
+    private synchronized void restoreHorizon(LocalDateTime horizon, LocalDateTime previous) {
+        if (horizon.equals(loadedUntil)) loadedUntil = previous;
+    }
+
+    /**
+     * Schedules deadlines of the reservation, loaded from the database.
+     *
+     * @param reservationId Identifier of the reservation.
+     * @param beginTime     Beginning of the reservation.
+     * @param endTime       End of the reservation, or null if the reservation has no end.
+     */
+    public void schedule(UUID reservationId, LocalDateTime beginTime, LocalDateTime endTime) {
+        LocalDateTime horizon = loadedUntil;
+        if (horizon == null) return;
+        schedule(new Deadline(reservationId, DeadlineType.COMPLETION), endTime, horizon);
+        schedule(new Deadline(reservationId, DeadlineType.TERMINATION),
+                beginTime != null ? beginTime.plusHours(maximumReservationHours) : null, horizon);
+    }
+
+    private void schedule(Deadline deadline, LocalDateTime time, LocalDateTime horizon) {
+        if (time != null && !time.isAfter(horizon)) {
+            wheel.schedule(deadline, toMillis(time));
+        } else {
+            wheel.cancel(deadline);
+        }
+    }
+
+    /**
+     * Registers change of the reservation, which will be applied to the wheel after commit of the current transaction.
+     * Deadlines of the reservation, which is neither awaiting nor in progress, are cancelled.
+     *
+     * @param reservation Created or modified reservation.
+     */
+    public void reservationChanged(Reservation reservation) {
+        UUID reservationId = reservation.getId();
+        if (reservation.getStatus() == Reservation.ReservationStatus.AWAITING ||
+                reservation.getStatus() == Reservation.ReservationStatus.IN_PROGRESS) {
+            LocalDateTime beginTime = reservation.getBeginTime();
+            LocalDateTime endTime = reservation.getEndTime();
+            afterCommit(() -> schedule(reservationId, beginTime, endTime));
+        } else {
+            afterCommit(() -> cancel(reservationId));
+        }
+    }
+
+    /**
+     * Registers removal of the reservation, which will be applied to the wheel after commit of the current transaction.
+     *
+     * @param reservation Removed reservation.
+     */
+    public void reservationRemoved(Reservation reservation) {
+        UUID reservationId = reservation.getId();
+        afterCommit(() -> cancel(reservationId));
+    }
+
+    /**
+     * Retrieves deadlines, which expired up to the given point in time. When the current transaction is rolled back,
+     * retrieved deadlines are scheduled again after <code>scheduler.expiry.retry.delay.seconds</code>, so that they
+     * are not lost.
+     *
+     * @param now   Current point in time.
+     * @param limit Maximum number of retrieved deadlines.
+     * @return Expired deadlines, in the order of their expiration.
+     */
+    public List<Deadline> pollExpired(LocalDateTime now, int limit) {
+        List<Deadline> deadlines = wheel.poll(toMillis(now), limit);
+        if (!deadlines.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) return;
+                    long retryTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(retryDelaySeconds);
+                    deadlines.forEach(deadline -> wheel.schedule(deadline, retryTime));
+                    log.warn("Processing of {} expired reservation deadlines was rolled back, retrying in {} seconds.",
+                            deadlines.size(), retryDelaySeconds);
+                }
+            });
+        }
+        return deadlines;
+    }
+
+    /**
+     * Returns number of deadlines held in the wheel.
+     *
+     * @return Number of held deadlines.
+     */
+    public int size() {
+        return wheel.size();
+    }
+
+    private void cancel(UUID reservationId) {
+        wheel.cancel(new Deadline(reservationId, DeadlineType.COMPLETION));
+        wheel.cancel(new Deadline(reservationId, DeadlineType.TERMINATION));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,526 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of the sector occupancy, kept separately for each parking. It holds the sectors of the parking
+ * together with all active (awaiting or in progress) reservations made for them, so that sectors available for
+ * entry without a reservation could be determined without executing any query on the database.
+ * <p>
+ * The index is updated by the facades after successful commit of the transaction, in which the reservation or
+ * the sector was modified. Snapshot of the parking is (re)built by the facade from the database, when it is missing,
+ * invalidated or older than <code>occupancy.index.snapshot.ttl.minutes</code>. Every change is published to other
+ * instances of the application through {@link ClusterCacheInvalidator}, which drop their snapshot of the parking.
+ * <p>
+ * Number of places taken in each sector is kept in the counters of the snapshot. Each reservation is taken into account
+ * in a fixed period of time, so the counters are moved forward in time by applying the changes scheduled up to
+ * the queried point in time, and availability of the sectors is determined without walking all the reservations.
+ *
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ReservationFacade
+ */
+@Slf4j
+@Component
+public class SectorOccupancyIndex {
+
+    /**
+     * Name of the index used to publish its invalidations to other instances of the application.
+     */
+    public static final String REGION = "occupancy";
+
+    @Value("${occupancy.index.snapshot.ttl.minutes}")
+    private long snapshotTTL;
+
+    @Value("${reservation.max_hours}")
+    private int reservationMaxHours;
+
+    /**
+     * Snapshots of the occupancy, identified by the parking identifier.
+     */
+    private final Map<UUID, ParkingSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Generation counters of each parking, incremented on every committed change. Used to discard snapshots
+     * built from the data read before the change was committed.
+     */
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Key used to bind pending changes to the current transaction.
+     */
+    private final Object transactionResourceKey = new Object();
+
+    private final ClusterCacheInvalidator clusterCacheInvalidator;
+
+    /**
+     * Autowired constructor for the component. Registers the handler of the invalidations published by other
+     * instances of the application.
+     *
+     * @param clusterCacheInvalidator Component propagating the invalidations between instances of the application.
+     */
+    @Autowired
+    public SectorOccupancyIndex(ClusterCacheInvalidator clusterCacheInvalidator) {
+        this.clusterCacheInvalidator = clusterCacheInvalidator;
+        clusterCacheInvalidator.register(REGION, parkingId -> {
+            if (parkingId == null) generations.keySet().forEach(id -> apply(id, null));
+            else apply(UUID.fromString(parkingId), null);
+        });
+    }
+
+    /**
+     * Immutable state of the sector, stored in the index.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SectorState {
+        private final UUID sectorId;
+        private final UUID parkingId;
+        private final Sector.SectorType type;
+        private final int maxPlaces;
+        private final LocalDateTime deactivationTime;
+
+        public static SectorState of(Sector sector) {
+            return new SectorState(sector.getId(), sector.getParking().getId(), sector.getType(),
+                    sector.getMaxPlaces(), sector.getDeactivationTime());
+        }
+    }
+
+    /**
+     * Immutable state of the active reservation (claim for a place in the sector), stored in the index.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ReservationClaim {
+        private final UUID reservationId;
+        private final UUID sectorId;
+        private final LocalDateTime beginTime;
+        private final LocalDateTime endTime;
+        private final boolean vehicleInside;
+    }
+
+    /**
+     * Claim stored in the snapshot together with the timeframe, which was added to the timeline of its sector,
+     * and the period, in which it takes a place in the sector when the vehicle enters without reservation.
+     * Both are computed once, when the claim is inserted, so that exactly the same timeframe is removed from
+     * the timeline and the same changes are removed from the counters, regardless of the time that passed
+     * in the meantime.
+     */
+    @AllArgsConstructor
+    private static class OccupiedClaim {
+        private final ReservationClaim claim;
+        private final LocalDateTime beginTime;
+        private final LocalDateTime endTime;
+        private final LocalDateTime countedFrom;
+        private final LocalDateTime countedUntil;
+
+        private boolean isCounted(LocalDateTime time) {
+            return countedFrom != null && !time.isBefore(countedFrom) && time.isBefore(countedUntil);
+        }
+    }
+
+    /**
+     * Change of the number of places taken in the sector, scheduled at the beginning or the end of the period,
+     * in which the claim takes a place.
+     */
+    private record CountChange(UUID reservationId, UUID sectorId, int delta) {
+    }
+
+    /**
+     * Occupancy of the single parking. All operations are synchronized on the snapshot object.
+     */
+    private class ParkingSnapshot {
+        private final long buildTime = System.nanoTime();
+        private final Map<UUID, SectorState> sectors = new HashMap<>();
+        private final Map<UUID, OccupiedClaim> claims = new HashMap<>();
+        private final Map<UUID, SectorTimeline> timelines = new HashMap<>();
+
+        /**
+         * Number of places taken in each sector at {@link #countTime}, which is null before the first query.
+         */
+        private final Map<UUID, Integer> takenPlaces = new HashMap<>();
+        private final TreeMap<LocalDateTime, List<CountChange>> scheduledChanges = new TreeMap<>();
+        private LocalDateTime countTime;
+
+        private void putClaim(ReservationClaim claim, LocalDateTime now) {
+            removeClaim(claim.getReservationId());
+            OccupiedClaim occupiedClaim = getOccupiedClaim(claim, now);
+            claims.put(claim.getReservationId(), occupiedClaim);
+            timelines.computeIfAbsent(claim.getSectorId(), id -> new SectorTimeline())
+                    .add(occupiedClaim.beginTime, occupiedClaim.endTime);
+            count(occupiedClaim);
+        }
+
+        private void removeClaim(UUID reservationId) {
+            OccupiedClaim occupiedClaim = claims.remove(reservationId);
+            if (occupiedClaim == null) return;
+            timelines.get(occupiedClaim.claim.getSectorId()).remove(occupiedClaim.beginTime, occupiedClaim.endTime);
+            uncount(occupiedClaim);
+        }
+
+        private void removeSector(UUID sectorId) {
+            List<UUID> reservationIds = claims.values().stream()
+                    .filter(occupiedClaim -> occupiedClaim.claim.getSectorId().equals(sectorId))
+                    .map(occupiedClaim -> occupiedClaim.claim.getReservationId())
+                    .toList();
+            reservationIds.forEach(this::removeClaim);
+            sectors.remove(sectorId);
+            timelines.remove(sectorId);
+            takenPlaces.remove(sectorId);
+        }
+
+        /**
+         * Moves the counters forward to the given point in time, applying the changes scheduled up to it. Counters
+         * are never moved back, so the point in time preceding the last one (passed by concurrent queries) is answered
+         * for the last one. Counters are initialized with the first query.
+         */
+        private void moveCounters(LocalDateTime time) {
+            if (countTime == null) {
+                countTime = time;
+                claims.values().forEach(this::count);
+                return;
+            }
+            if (!time.isAfter(countTime)) return;
+
+            countTime = time;
+            while (!scheduledChanges.isEmpty() && !scheduledChanges.firstKey().isAfter(time)) {
+                for (CountChange change : scheduledChanges.pollFirstEntry().getValue()) {
+                    takenPlaces.merge(change.sectorId(), change.delta(), Integer::sum);
+                }
+            }
+        }
+
+        private void count(OccupiedClaim occupiedClaim) {
+            if (countTime == null || occupiedClaim.countedFrom == null || !countTime.isBefore(occupiedClaim.countedUntil)) return;
+
+            if (occupiedClaim.isCounted(countTime)) {
+                takenPlaces.merge(occupiedClaim.claim.getSectorId(), 1, Integer::sum);
+            } else {
+                schedule(occupiedClaim.countedFrom, occupiedClaim, 1);
+            }
+            schedule(occupiedClaim.countedUntil, occupiedClaim, -1);
+        }
+
+        private void uncount(OccupiedClaim occupiedClaim) {
+            if (countTime == null || occupiedClaim.countedFrom == null) return;
+
+            if (occupiedClaim.isCounted(countTime)) {
+                takenPlaces.merge(occupiedClaim.claim.getSectorId(), -1, Integer::sum);
+            }
+            unschedule(occupiedClaim.countedFrom, occupiedClaim);
+            unschedule(occupiedClaim.countedUntil, occupiedClaim);
+        }
+
+        private void schedule(LocalDateTime time, OccupiedClaim occupiedClaim, int delta) {
+            scheduledChanges.computeIfAbsent(time, key -> new ArrayList<>())
+                    .add(new CountChange(occupiedClaim.claim.getReservationId(), occupiedClaim.claim.getSectorId(), delta));
+        }
+
+        private void unschedule(LocalDateTime time, OccupiedClaim occupiedClaim) {
+            List<CountChange> changes = scheduledChanges.get(time);
+            if (changes == null) return;
+            changes.removeIf(change -> change.reservationId().equals(occupiedClaim.claim.getReservationId()));
+            if (changes.isEmpty()) scheduledChanges.remove(time);
+        }
+    }
+
+    /**
+     * Determines sectors, in which a vehicle could be placed at the given point in time. Sector is available when it
+     * is not deactivated before given deactivation minimum, it is of one of given types and the number of active
+     * reservations which are taking place (or will take place) in the time window of <code>reservation.max_hours</code>
+     * before and after given point in time is lower than maximum number of places in the sector. Cost of the query
+     * depends on the number of sectors, and the number of reservations starting or ending since the previous query.
+     *
+     * @param parkingId           Identifier of the parking, which sectors are searched.
+     * @param sectorTypes         Types of the sectors that should be taken into account.
+     * @param now                 Point in time, for which the availability is determined.
+     * @param deactivationMinimum Sectors deactivated before this time are treated as unavailable.
+     * @return Identifiers of the available sectors or empty Optional, when the index does not hold a valid snapshot
+     * of given parking, and it should be rebuilt.
+     */
+    public Optional<List<UUID>> findAvailableSectors(UUID parkingId, Set<Sector.SectorType> sectorTypes, LocalDateTime now,
+                                                     LocalDateTime deactivationMinimum) {
+        ParkingSnapshot snapshot = getValidSnapshot(parkingId);
+        if (snapshot == null) return Optional.empty();
+
+        synchronized (snapshot) {
+            snapshot.moveCounters(now);
+
+            List<UUID> availableSectors = new ArrayList<>();
+            for (SectorState sector : snapshot.sectors.values()) {
+                if (!sectorTypes.contains(sector.getType())) continue;
+                if (sector.getDeactivationTime() != null && !sector.getDeactivationTime().isAfter(deactivationMinimum)) continue;
+                if (snapshot.takenPlaces.getOrDefault(sector.getSectorId(), 0) < sector.getMaxPlaces()) {
+                    availableSectors.add(sector.getSectorId());
+                }
+            }
+            return Optional.of(availableSectors);
+        }
+    }
+
+    /**
+     * Determines maximum number of active reservations of the sector, which are taking place at the same time in
+     * the given timeframe.
+     *
+     * @param parkingId Identifier of the parking, to which the sector belongs.
+     * @param sectorId  Identifier of the sector.
+     * @param beginTime Beginning of the timeframe.
+     * @param endTime   End of the timeframe.
+     * @return Maximum number of concurrent reservations or empty Optional, when the index does not hold a valid
+     * snapshot of given parking, and it should be rebuilt.
+     */
+    public Optional<Integer> findMaxConcurrentReservations(UUID parkingId, UUID sectorId, LocalDateTime beginTime, LocalDateTime endTime) {
+        ParkingSnapshot snapshot = getValidSnapshot(parkingId);
+        if (snapshot == null) return Optional.empty();
+
+        synchronized (snapshot) {
+            SectorTimeline timeline = snapshot.timelines.get(sectorId);
+            return Optional.of(timeline == null ? 0 : timeline.maxConcurrent(beginTime, endTime));
+        }
+    }
+
+    /**
+     * Determines maximum number of reservations of the sector, which are taking place at the same time in the given
+     * timeframe, using given reservations instead of the snapshot held in the index. Used when the snapshot could not
+     * be used, for example because the parking was modified in the current transaction.
+     *
+     * @param claims    Active reservations of the parking, read from the database.
+     * @param sectorId  Identifier of the sector.
+     * @param beginTime Beginning of the timeframe.
+     * @param endTime   End of the timeframe.
+     * @return Maximum number of concurrent reservations.
+     */
+    public int countMaxConcurrentReservations(List<ReservationClaim> claims, UUID sectorId, LocalDateTime beginTime, LocalDateTime endTime) {
+        LocalDateTime now = LocalDateTime.now();
+        SectorTimeline timeline = new SectorTimeline();
+        for (ReservationClaim claim : claims) {
+            if (!claim.getSectorId().equals(sectorId)) continue;
+            OccupiedClaim occupiedClaim = getOccupiedClaim(claim, now);
+            timeline.add(occupiedClaim.beginTime, occupiedClaim.endTime);
+        }
+        return timeline.maxConcurrent(beginTime, endTime);
+    }
+
+    /**
+     * Starts rebuilding of the parking snapshot. Returned generation must be passed to
+     * {@link #completeRebuild(UUID, long, List, List)}, and it must be obtained before reading the data from the database.
+     *
+     * @param parkingId Identifier of the parking to be rebuilt.
+     * @return Current generation of the parking.
+     */
+    public long startRebuild(UUID parkingId) {
+        return generations.computeIfAbsent(parkingId, id -> new AtomicLong()).get();
+    }
+
+    /**
+     * Installs new snapshot of the parking, unless any change for that parking was committed since
+     * {@link #startRebuild(UUID)} was called.
+     *
+     * @param parkingId  Identifier of the rebuilt parking.
+     * @param generation Generation returned by {@link #startRebuild(UUID)}.
+     * @param sectors    All sectors of the parking.
+     * @param claims     All active reservations made for the sectors of the parking.
+     */
+    public void completeRebuild(UUID parkingId, long generation, List<SectorState> sectors, List<ReservationClaim> claims) {
+        if (isChangedInCurrentTransaction(parkingId)) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        ParkingSnapshot snapshot = new ParkingSnapshot();
+        sectors.forEach(sector -> snapshot.sectors.put(sector.getSectorId(), sector));
+        claims.forEach(claim -> snapshot.putClaim(claim, now));
+
+        AtomicLong currentGeneration = generations.computeIfAbsent(parkingId, id -> new AtomicLong());
+        synchronized (currentGeneration) {
+            if (currentGeneration.get() == generation) {
+                snapshots.put(parkingId, snapshot);
+                log.debug("Occupancy snapshot of parking: {} rebuilt with {} sectors and {} active reservations.",
+                        parkingId, sectors.size(), claims.size());
+            }
+        }
+    }
+
+    /**
+     * Registers change of the reservation, which will be applied to the index after commit of the current transaction.
+     * Reservation that is neither awaiting nor in progress is removed from the index.
+     *
+     * @param reservation Created or modified reservation.
+     */
+    public void reservationChanged(Reservation reservation) {
+        UUID parkingId = reservation.getSector().getParking().getId();
+        UUID reservationId = reservation.getId();
+        if (reservation.getStatus() == Reservation.ReservationStatus.AWAITING ||
+                reservation.getStatus() == Reservation.ReservationStatus.IN_PROGRESS) {
+            ReservationClaim claim = new ReservationClaim(reservationId, reservation.getSector().getId(),
+                    reservation.getBeginTime(), reservation.getEndTime(), reservation.isVehicleInside());
+            afterCommit(parkingId, snapshot -> snapshot.putClaim(claim, LocalDateTime.now()));
+        } else {
+            afterCommit(parkingId, snapshot -> snapshot.removeClaim(reservationId));
+        }
+    }
+
+    /**
+     * Registers removal of the reservation, which will be applied to the index after commit of the current transaction.
+     *
+     * @param reservation Removed reservation.
+     */
+    public void reservationRemoved(Reservation reservation) {
+        UUID reservationId = reservation.getId();
+        afterCommit(reservation.getSector().getParking().getId(), snapshot -> snapshot.removeClaim(reservationId));
+    }
+
+    /**
+     * Registers creation or modification of the sector, which will be applied to the index after commit of the
+     * current transaction.
+     *
+     * @param sector Created or modified sector.
+     */
+    public void sectorChanged(Sector sector) {
+        SectorState state = SectorState.of(sector);
+        afterCommit(state.getParkingId(), snapshot -> snapshot.sectors.put(state.getSectorId(), state));
+    }
+
+    /**
+     * Registers removal of the sector, which will be applied to the index after commit of the current transaction.
+     *
+     * @param sector Removed sector.
+     */
+    public void sectorRemoved(Sector sector) {
+        UUID sectorId = sector.getId();
+        afterCommit(sector.getParking().getId(), snapshot -> snapshot.removeSector(sectorId));
+    }
+
+    /**
+     * Removes snapshot of the parking from the index after commit of the current transaction, forcing it to be
+     * rebuilt with the next read. Snapshot of the parking is removed from other instances of the application
+     * as well.
+     *
+     * @param parkingId Identifier of the parking.
+     */
+    public void invalidate(UUID parkingId) {
+        afterCommit(parkingId, null);
+    }
+
+    /**
+     * Determines the timeframe, in which the reservation occupies a place in the sector. Reservation without the end
+     * lasts for the maximum reservation time, and the place of a vehicle that stays inside after the end of its
+     * reservation remains occupied (the timeframe has no end) until the vehicle leaves or the reservation is terminated.
+     * <p>
+     * Reservation takes a place for the vehicle entering without reservation, when it begins no earlier and no later
+     * than maximum reservation time from the entry, and it has not ended yet (or the vehicle is still inside).
+     * Therefore, it is counted since maximum reservation time before its beginning, until maximum reservation time
+     * after its beginning or until its end, whichever comes first.
+     */
+    private OccupiedClaim getOccupiedClaim(ReservationClaim claim, LocalDateTime now) {
+        LocalDateTime endTime = claim.getEndTime() != null ? claim.getEndTime() : claim.getBeginTime().plusHours(reservationMaxHours);
+        if (claim.isVehicleInside() && !endTime.isAfter(now)) endTime = null;
+
+        if (claim.getBeginTime() == null) return new OccupiedClaim(claim, null, endTime, null, null);
+        LocalDateTime countedFrom = claim.getBeginTime().minusHours(reservationMaxHours);
+        LocalDateTime countedUntil = claim.getBeginTime().plusHours(reservationMaxHours).plusNanos(1);
+        if (!claim.isVehicleInside() && claim.getEndTime() != null) {
+            LocalDateTime takenUntil = claim.getEndTime().isAfter(claim.getBeginTime()) ? claim.getEndTime() : claim.getBeginTime().plusNanos(1);
+            if (takenUntil.isBefore(countedUntil)) countedUntil = takenUntil;
+        }
+        return new OccupiedClaim(claim, claim.getBeginTime(), endTime, countedFrom, countedUntil);
+    }
+
+    private ParkingSnapshot getValidSnapshot(UUID parkingId) {
+        if (isChangedInCurrentTransaction(parkingId)) return null;
+
+        ParkingSnapshot snapshot = snapshots.get(parkingId);
+        if (snapshot != null && System.nanoTime() - snapshot.buildTime > TimeUnit.MINUTES.toNanos(snapshotTTL)) {
+            snapshots.remove(parkingId, snapshot);
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Applies the change to the snapshot of the parking (or drops the snapshot, if the change is null) and increments
+     * generation of the parking. When there is no snapshot for the parking, only the generation is incremented.
+     */
+    private void apply(UUID parkingId, SnapshotChange change) {
+        AtomicLong generation = generations.computeIfAbsent(parkingId, id -> new AtomicLong());
+        synchronized (generation) {
+            generation.incrementAndGet();
+            ParkingSnapshot snapshot = snapshots.get(parkingId);
+            if (snapshot == null) return;
+            if (change == null) {
+                snapshots.remove(parkingId);
+                return;
+            }
+            synchronized (snapshot) {
+                change.apply(snapshot);
+            }
+        }
+    }
+
+    private void afterCommit(UUID parkingId, SnapshotChange change) {
+        clusterCacheInvalidator.publish(REGION, parkingId.toString());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(parkingId, change);
+            return;
+        }
+
+        PendingChanges pendingChanges = (PendingChanges) TransactionSynchronizationManager.getResource(transactionResourceKey);
+        if (pendingChanges == null) {
+            pendingChanges = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(transactionResourceKey, pendingChanges);
+            TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+        }
+        pendingChanges.parkingIds.add(parkingId);
+        pendingChanges.changes.add(() -> apply(parkingId, change));
+    }
+
+    private boolean isChangedInCurrentTransaction(UUID parkingId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return false;
+        PendingChanges pendingChanges = (PendingChanges) TransactionSynchronizationManager.getResource(transactionResourceKey);
+        return pendingChanges != null && pendingChanges.parkingIds.contains(parkingId);
+    }
+
+    @FunctionalInterface
+    private interface SnapshotChange {
+        void apply(ParkingSnapshot snapshot);
+    }
+
+    /**
+     * Changes registered in the current transaction, applied to the index only if the transaction is committed.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+        private final Set<UUID> parkingIds = new HashSet<>();
+        private final List<Runnable> changes = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            changes.forEach(Runnable::run);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(transactionResourceKey);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.cache;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timeline of the reservations made for a single sector, used to determine maximum number of reservations taking
+ * place at the same time in the given timeframe.
+ * <p>
+ * Each reservation is stored as two points on the timeline: +1 at its beginning and -1 at its end. Points are kept
+ * in a treap (randomized balanced binary search tree) ordered by time, in which each node is augmented with the sum
+ * of the subtree and maximum prefix sum of the subtree. Number of reservations taking place at given point in time is
+ * the sum of all points not after it, so the maximum occupancy in the timeframe is obtained from a single split of
+ * the tree, which makes both updates and queries O(log n).
+ * <p>
+ * This class is not thread-safe, it is guarded by the parking snapshot of {@link SectorOccupancyIndex}.
+ */
+public class SectorTimeline {
+
+    private static class Node {
+        private final LocalDateTime time;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int delta;
+        private int sum;
+        private int maxPrefix;
+        private Node left;
+        private Node right;
+
+        private Node(LocalDateTime time, int delta) {
+            this.time = time;
+            this.delta = delta;
+            update();
+        }
+
+        private void update() {
+            int leftSum = sum(left);
+            this.sum = leftSum + delta + sum(right);
+            this.maxPrefix = Math.max(maxPrefix(left), Math.max(leftSum + delta, leftSum + delta + maxPrefix(right)));
+        }
+    }
+
+    private Node root;
+
+    /**
+     * Adds reservation taking place in the given timeframe to the timeline.
+     *
+     * @param beginTime Beginning of the reservation.
+     * @param endTime   End of the reservation, or null if the reservation has no end.
+     */
+    public void add(LocalDateTime beginTime, LocalDateTime endTime) {
+        addPoint(beginTime, 1);
+        if (endTime != null) addPoint(endTime, -1);
+    }
+
+    /**
+     * Removes reservation previously added with {@link #add(LocalDateTime, LocalDateTime)} from the timeline.
+     *
+     * @param beginTime Beginning of the reservation.
+     * @param endTime   End of the reservation, or null if the reservation has no end.
+     */
+    public void remove(LocalDateTime beginTime, LocalDateTime endTime) {
+        addPoint(beginTime, -1);
+        if (endTime != null) addPoint(endTime, 1);
+    }
+
+    /**
+     * Determines maximum number of reservations taking place at the same time in the timeframe [beginTime, endTime).
+     *
+     * @param beginTime Beginning of the timeframe (inclusive).
+     * @param endTime   End of the timeframe (exclusive).
+     * @return Maximum number of concurrent reservations in the timeframe.
+     */
+    public int maxConcurrent(LocalDateTime beginTime, LocalDateTime endTime) {
+        Node[] beforeAndAfter = split(root, beginTime, true);
+        Node[] insideAndAfter = split(beforeAndAfter[1], endTime, false);
+        int result = sum(beforeAndAfter[0]) + maxPrefix(insideAndAfter[0]);
+        root = merge(beforeAndAfter[0], merge(insideAndAfter[0], insideAndAfter[1]));
+        return result;
+    }
+
+    private void addPoint(LocalDateTime time, int delta) {
+        Node[] lowerAndRest = split(root, time, false);
+        Node[] equalAndHigher = split(lowerAndRest[1], time, true);
+        Node point = equalAndHigher[0];
+        if (point == null) {
+            point = new Node(time, delta);
+        } else {
+            point.delta += delta;
+            point.update();
+            if (point.delta == 0) point = null;
+        }
+        root = merge(lowerAndRest[0], merge(point, equalAndHigher[1]));
+    }
+
+    /**
+     * Splits the tree into nodes before given time and the remaining ones. When inclusive is set, nodes with
+     * the time equal to the given time are placed in the first tree.
+     */
+    private static Node[] split(Node node, LocalDateTime time, boolean inclusive) {
+        if (node == null) return new Node[]{null, null};
+        boolean toLeft = inclusive ? !node.time.isAfter(time) : node.time.isBefore(time);
+        if (toLeft) {
+            Node[] parts = split(node.right, time, inclusive);
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        } else {
+            Node[] parts = split(node.left, time, inclusive);
+            node.left = parts[1];
+            node.update();
+            return new Node[]{parts[0], node};
+        }
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+    }
+
+    private static int sum(Node node) {
+        return node == null ? 0 : node.sum;
+    }
+
+    private static int maxPrefix(Node node) {
+        return node == null ? 0 : node.maxPrefix;
+    }
+}
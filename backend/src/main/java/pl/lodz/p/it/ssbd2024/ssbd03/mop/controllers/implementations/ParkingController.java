@@ -19,11 +19,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.CursorPageDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.parkingDTO.*;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.sectorDTO.*;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.*;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingHistoryData;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
@@ -368,4 +371,23 @@ public class ParkingController implements ParkingControllerInterface {
         if (parkingList.isEmpty()) return ResponseEntity.noContent().build();
         else return ResponseEntity.ok(parkingList);
     }
+
+    @Override
+    @RolesAllowed({Authorities.GET_PARKING_HISTORICAL_DATA})
+    @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"))
+    public ResponseEntity<?> getHistoryDataByParkingIdWithKeyset(String id, String token, int pageSize) throws ApplicationBaseException {
+        List<ParkingHistoryData> historyData;
+        try {
+            historyData = parkingService.getHistoryDataByParkingIdWithKeyset(UUID.fromString(id), ContinuationToken.decode(token), pageSize);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidDataFormatException(I18n.BAD_UUID_INVALID_FORMAT_EXCEPTION);
+        }
+        if (historyData.isEmpty()) return ResponseEntity.noContent().build();
+
+        ParkingHistoryData last = historyData.getLast();
+        String nextToken = historyData.size() < pageSize ? null : ContinuationToken.of(last.getModificationTime(), last.getVersion()).encode();
+        return ResponseEntity.ok(new CursorPageDTO<>(historyData.stream()
+                .map(ParkingHistoryDataMapper::toParkingHistoryDataOutputDto)
+                .toList(), nextToken));
+    }
 }
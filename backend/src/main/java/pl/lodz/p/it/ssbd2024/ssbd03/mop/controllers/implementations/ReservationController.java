@@ -15,12 +15,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.CursorPageDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.reservationDTO.ReservationParkingEventListDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.reservationDTO.UserReservationOutputDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.reservationDTO.MakeReservationDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mop.reservationDTO.ReservationOutputListDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.ReservationListMapper;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.mappers.mop.UserReservationMapper;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingEvent;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
@@ -139,6 +141,21 @@ public class ReservationController implements ReservationControllerInterface {
         else return ResponseEntity.ok(reservationList);
     }
 
+    @Override
+    @RolesAllowed({Authorities.GET_ALL_RESERVATIONS})
+    @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"),
+            retryFor = {ApplicationDatabaseException.class, RollbackException.class})
+    public ResponseEntity<?> getAllReservationsWithKeyset(String token, int pageSize) throws ApplicationBaseException {
+        List<Reservation> reservations = reservationService.getAllReservationsWithKeyset(ContinuationToken.decode(token), pageSize);
+        if (reservations.isEmpty()) return ResponseEntity.noContent().build();
+
+        Reservation last = reservations.getLast();
+        String nextToken = reservations.size() < pageSize ? null : ContinuationToken.of(last.getBeginTime(), last.getId()).encode();
+        return ResponseEntity.ok(new CursorPageDTO<>(reservations.stream()
+                .map(ReservationListMapper::toReservationListDTO)
+                .toList(), nextToken));
+    }
+
     @Override
     @RolesAllowed({Authorities.GET_OWN_RESERVATION_DETAILS})
     public ResponseEntity<?> getOwnReservationDetails(String reservationId, int pageNumber, int pageSize) throws ApplicationBaseException {
@@ -410,4 +410,31 @@ public interface ParkingControllerInterface {
                                                 @RequestParam("pageNumber") int pageNumber,
                                                 @RequestParam("pageSize") int pageSize)
             throws ApplicationBaseException;
+
+    /**
+     * This method retrieves parking's history data from the system, ordered by modification time from the newest,
+     * using keyset pagination. Instead of the page number, continuation token returned with the previous page is passed.
+     *
+     * @param id       ID of the parking which history data will be retrieved.
+     * @param token    Continuation token returned with the previous page. When not passed, the first page is returned.
+     * @param pageSize Number of parking history data per page.
+     * @return This method returns 200 OK as a response, where in response body a page of parking's history data,
+     * along with the continuation token for the next page, is located in a JSON format. If the page is empty, this method
+     * would return 204 NO CONTENT as the response. 400 BAD REQUEST is returned when the id or the continuation token is invalid.
+     * 500 INTERNAL SERVER ERROR is returned when other unexpected exception occurs.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown in this method or handled by
+     *                                  exception handling aspects from facade and service layers below.
+     */
+    @GetMapping(value = "/{id}/history-data/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get history data of a parking using continuation token", description = "The endpoint is used retrieve page of parking history data of given size, placed after the continuation token.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of parking's history data placed after the continuation token is not empty."),
+            @ApiResponse(responseCode = "204", description = "Page of parking's history data placed after the continuation token is empty."),
+            @ApiResponse(responseCode = "400", description = "Passed parking identifier or continuation token is invalid."),
+            @ApiResponse(responseCode = "500", description = "Unknown error occurred while the request was being processed.")
+    })
+    ResponseEntity<?> getHistoryDataByParkingIdWithKeyset(@PathVariable("id") String id,
+                                                          @RequestParam(value = "token", required = false) String token,
+                                                          @RequestParam("pageSize") int pageSize)
+            throws ApplicationBaseException;
 }
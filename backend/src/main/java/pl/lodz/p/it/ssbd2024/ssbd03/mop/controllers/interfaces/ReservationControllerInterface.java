@@ -121,6 +121,31 @@ public interface ReservationControllerInterface {
     ResponseEntity<?> getAllReservations(@RequestParam("pageNumber") int pageNumber,
                                          @RequestParam("pageSize") int pageSize) throws ApplicationBaseException;
 
+    /**
+     * This endpoint allows retrieving all reservations in the system, ordered by their beginning time, using keyset
+     * pagination. Instead of the page number, continuation token returned with the previous page is passed, so that
+     * retrieving further pages does not require skipping all the reservations from the previous ones.
+     *
+     * @param token    Continuation token returned with the previous page. When not passed, the first page is returned.
+     * @param pageSize Number of reservations per page.
+     * @return This method returns 200 OK as a response, where in response body a page of reservations, along with
+     * the continuation token for the next page, is located in a JSON format. If the page is empty,
+     * this method would return 204 NO CONTENT as the response. 400 BAD REQUEST is returned when the continuation
+     * token is invalid. 500 INTERNAL SERVER ERROR is returned when another unexpected exception occurs.
+     * @throws ApplicationBaseException Superclass for any application exception
+     *                                  thrown by exception handling aspects in the layer of facade and service components in the application.
+     */
+    @GetMapping(value = "/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get all reservations using continuation token", description = "The endpoint is used to retrieve all reservation by user with staff access level, using keyset pagination.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The page of reservations has been found and retrieved successfully."),
+            @ApiResponse(responseCode = "204", description = "There are no more reservations in the system."),
+            @ApiResponse(responseCode = "400", description = "Passed continuation token is invalid."),
+            @ApiResponse(responseCode = "500", description = "Unknown error occurred while the request was being processed.")
+    })
+    ResponseEntity<?> getAllReservationsWithKeyset(@RequestParam(value = "token", required = false) String token,
+                                                   @RequestParam("pageSize") int pageSize) throws ApplicationBaseException;
+
     /**
      * This method is used to retrieve reservation details (like all the parking events registered for the reservation)
      * by the user with client access level, which is the owner of the reservation.
@@ -0,0 +1,42 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.facades;
+
+import jakarta.annotation.security.PermitAll;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.CacheInvalidation;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.CacheInvalidationLog;
+
+/**
+ * Repository used to write invalidations of the cache entries in the transactions of the MOP module.
+ *
+ * @see CacheInvalidation
+ */
+@Repository
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.MANDATORY)
+public class CacheInvalidationMOPFacade implements CacheInvalidationLog {
+
+    @PersistenceContext(unitName = DatabaseConfigConstants.MOP_PU)
+    private EntityManager entityManager;
+
+    @Override
+    @PermitAll
+    public boolean isUsedByCurrentTransaction() {
+        return TransactionSynchronizationManager.hasResource(entityManager.getEntityManagerFactory());
+    }
+
+    @Override
+    @PermitAll
+    public void record(CacheInvalidation invalidation) throws ApplicationBaseException {
+        entityManager.persist(invalidation);
+    }
+}
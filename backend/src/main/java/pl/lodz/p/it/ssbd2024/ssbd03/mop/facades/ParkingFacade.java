@@ -6,10 +6,17 @@ import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.PersistenceException;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.AbstractFacade;
@@ -18,16 +25,29 @@ import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.SectorCapacitySlot;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.AvailabilityResultCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.SectorOccupancyIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
- * Repository used to manage Parking Entities.
+ * Repository used to manage Parking Entities. Changes of the parking and sectors are published to other instances
+ * of the application, which evict them from their second-level cache.
  */
 @Repository
 @LoggerInterceptor
@@ -41,11 +61,26 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     @PersistenceContext(unitName = DatabaseConfigConstants.MOP_PU)
     private EntityManager entityManager;
 
+    private final SectorOccupancyIndex sectorOccupancyIndex;
+    private final AvailabilityResultCache availabilityResultCache;
+    private final ClusterCacheInvalidator clusterCacheInvalidator;
+
     /**
-     * Constructs the facade.
+     * Constructs the facade, and registers the handlers of the second-level cache evictions published by other
+     * instances of the application.
+     *
+     * @param sectorOccupancyIndex    In-memory index of sector occupancy, used when entering the parking without reservation.
+     * @param availabilityResultCache In-memory cache of the results of the queries listing available parking and sectors.
+     * @param clusterCacheInvalidator Component propagating the invalidations between instances of the application.
      */
-    public ParkingFacade() {
+    public ParkingFacade(SectorOccupancyIndex sectorOccupancyIndex, AvailabilityResultCache availabilityResultCache,
+                         ClusterCacheInvalidator clusterCacheInvalidator) {
         super(Parking.class);
+        this.sectorOccupancyIndex = sectorOccupancyIndex;
+        this.availabilityResultCache = availabilityResultCache;
+        this.clusterCacheInvalidator = clusterCacheInvalidator;
+        clusterCacheInvalidator.register(DatabaseConfigConstants.PARKING_CACHE_REGION, this::evictParking);
+        clusterCacheInvalidator.register(DatabaseConfigConstants.SECTOR_CACHE_REGION, this::evictSector);
     }
 
     /**
@@ -69,6 +104,8 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     @RolesAllowed({Authorities.ADD_PARKING})
     public void create(Parking entity) throws ApplicationBaseException {
         super.create(entity);
+        publishParkingChanged(entity.getId());
+        availabilityResultCache.parkingChanged(entity.getId());
     }
 
     /**
@@ -86,6 +123,9 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     })
     public void edit(Parking entity) throws ApplicationBaseException {
         super.edit(entity);
+        publishParkingChanged(entity.getId());
+        sectorOccupancyIndex.invalidate(entity.getId());
+        availabilityResultCache.parkingChanged(entity.getId());
     }
 
     /**
@@ -107,6 +147,21 @@ public class ParkingFacade extends AbstractFacade<Parking> {
         return super.findAndRefresh(id);
     }
 
+    /**
+     * Retrieves a parking entity object by the ID, without forcing its refresh, so that it could be read from
+     * the second-level cache. It should be used only for reading the parking.
+     *
+     * @param id Identifier of the parking to be retrieved.
+     * @return If a Parking with the given ID was found returns an Optional containing the Parking, otherwise returns an empty Optional.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @Override
+    @RolesAllowed({Authorities.GET_PARKING, Authorities.EDIT_PARKING, Authorities.GET_ALL_SECTORS})
+    public Optional<Parking> find(UUID id) throws ApplicationBaseException {
+        return super.find(id);
+    }
+
     /**
      * This method is used to retrieve all parking entity objects from the database, taking into account
      * pagination settings.
@@ -126,13 +181,13 @@ public class ParkingFacade extends AbstractFacade<Parking> {
                 .setParameter("showOnlyActive", showOnlyActive)
                 .setMaxResults(pageSize)
                 .getResultList();
-        refreshAll(list);
-        return list;
+        return refreshAllInBatch(list, "sectors");
     }
 
     /**
      * This method is used to retrieve parking with active sectors that have available places for
-     * new reservations left.
+     * new reservations left. Identifiers of the found parking are cached until the occupancy of any sector or any
+     * parking is modified, and the parking are read from the second-level cache.
      *
      * @param pageNumber     Number of the page with parking entities to be returned.
      * @param pageSize       Number of the parking entries per page.
@@ -143,14 +198,15 @@ public class ParkingFacade extends AbstractFacade<Parking> {
      */
     @RolesAllowed({Authorities.RESERVE_PARKING_PLACE, Authorities.GET_ALL_AVAILABLE_PARKING})
     public List<Parking> findParkingWithAvailablePlaces(int pageNumber, int pageSize, boolean showOnlyActive) throws ApplicationBaseException {
-        var list = getEntityManager().
-                createNamedQuery("Parking.findWithAvailablePlaces", Parking.class)
+        var key = new AvailabilityResultCache.Key("Parking.findIdsWithAvailablePlaces", null,
+                pageNumber, pageSize, showOnlyActive, true);
+        var ids = availabilityResultCache.get(key, () -> getEntityManager()
+                .createNamedQuery("Parking.findIdsWithAvailablePlaces", UUID.class)
                 .setParameter("showOnlyActive", showOnlyActive)
                 .setFirstResult(pageNumber * pageSize)
                 .setMaxResults(pageSize)
-                .getResultList();
-        refreshAll(list);
-        return list;
+                .getResultList());
+        return findAllCachedByIds(Parking.class, ids);
     }
 
     /**
@@ -164,6 +220,9 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     @RolesAllowed({Authorities.DELETE_PARKING})
     public void remove(Parking entity) throws ApplicationBaseException {
         super.remove(entity);
+        publishParkingChanged(entity.getId());
+        sectorOccupancyIndex.invalidate(entity.getId());
+        availabilityResultCache.parkingChanged(entity.getId());
     }
 
     /**
@@ -179,12 +238,16 @@ public class ParkingFacade extends AbstractFacade<Parking> {
         getEntityManager().createNamedQuery("Parking.removeParkingById")
                 .setParameter("parkingId", parkingId)
                 .executeUpdate();
+        evictSectorsOfParking(parkingId);
+        publishParkingChanged(parkingId);
+        sectorOccupancyIndex.invalidate(parkingId);
+        availabilityResultCache.parkingChanged(parkingId);
     }
 
     // -- SECTORS --
 
     /**
-     * Retrieves a Sector by the ID.
+     * Retrieves a Sector by the ID, without forcing its refresh, so that it could be read from the second-level cache.
      *
      * @param id ID of the Sector to be retrieved.
      * @return If a Sector with the given ID was found returns an Optional containing the Sector, otherwise returns an empty Optional.
@@ -192,7 +255,7 @@ public class ParkingFacade extends AbstractFacade<Parking> {
      *                                  that could be thrown by aspects intercepting exceptions in the facade layer.
      */
     @RolesAllowed({Authorities.GET_SECTOR})
-    private Optional<Sector> findSectorById(UUID id) throws ApplicationBaseException {
+    public Optional<Sector> findSectorById(UUID id) throws ApplicationBaseException {
         return Optional.ofNullable(getEntityManager().find(Sector.class, id));
     }
 
@@ -229,15 +292,14 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     @RolesAllowed({Authorities.GET_ALL_SECTORS, Authorities.GET_PARKING})
     public List<Sector> findSectorsInParking(UUID parkingId, boolean active, int pageNumber, int pageSize)
             throws ApplicationBaseException {
-        var list = getEntityManager().createNamedQuery("Sector.findAllInParking", Sector.class)
+        var ids = getEntityManager().createNamedQuery("Sector.findIdsInParking", UUID.class)
                 .setParameter("parkingId", parkingId)
                 .setParameter("showOnlyActive", active)
                 .setParameter("deactivationMinimum", LocalDateTime.now().plusHours(this.reservationMaxLength))
                 .setFirstResult(pageNumber * pageSize)
                 .setMaxResults(pageSize)
                 .getResultList();
-        refreshAllSectors(list);
-        return list;
+        return findAllCachedByIds(Sector.class, ids);
     }
 
     /**
@@ -263,12 +325,13 @@ public class ParkingFacade extends AbstractFacade<Parking> {
                 .setFirstResult(pageNumber * pageSize)
                 .setMaxResults(pageSize)
                 .getResultList();
-        refreshAllSectors(list);
-        return list;
+        return refreshAllSectors(list);
     }
 
     /**
      * This method is used to find active sectors with available places, used when making new reservation.
+     * Identifiers of the found sectors are cached until the occupancy of any sector of the parking or the parking
+     * itself is modified, and the sectors are read from the second-level cache.
      *
      * @param parkingId      Identifier of the parking, which sectors are to be retrieved.
      * @param pageNumber     Number of the page with sectors entries to be returned.
@@ -282,14 +345,16 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     @RolesAllowed({Authorities.RESERVE_PARKING_PLACE})
     public List<Sector> findSectorInParkingWithAvailablePlaces(UUID parkingId, int pageNumber, int pageSize, boolean showOnlyActive)
             throws ApplicationBaseException {
-        var list = getEntityManager().createNamedQuery("Sector.findWithAvailablePlaces", Sector.class)
+        var key = new AvailabilityResultCache.Key("Sector.findIdsWithAvailablePlaces", parkingId,
+                pageNumber, pageSize, showOnlyActive, true);
+        var ids = availabilityResultCache.get(key, () -> getEntityManager()
+                .createNamedQuery("Sector.findIdsWithAvailablePlaces", UUID.class)
                 .setParameter("parkingId", parkingId)
                 .setParameter("showOnlyActive", showOnlyActive)
                 .setFirstResult(pageNumber * pageSize)
                 .setMaxResults(pageSize)
-                .getResultList();
-        refreshAllSectors(list);
-        return list;
+                .getResultList());
+        return findAllCachedByIds(Sector.class, ids);
     }
 
     /**
@@ -303,6 +368,10 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     public void createSector(Sector sector) throws ApplicationBaseException {
         getEntityManager().persist(sector);
         getEntityManager().flush();
+        evictSectorsOfParking(sector.getParking().getId());
+        publishParkingChanged(sector.getParking().getId());
+        sectorOccupancyIndex.sectorChanged(sector);
+        availabilityResultCache.parkingChanged(sector.getParking().getId());
     }
 
     /**
@@ -316,8 +385,15 @@ public class ParkingFacade extends AbstractFacade<Parking> {
      */
     @RolesAllowed({Authorities.DELETE_SECTOR})
     public void removeSector(Sector sector) throws ApplicationBaseException {
+        getEntityManager().createNamedQuery("SectorCapacitySlot.removeBySector")
+                .setParameter("sectorId", sector.getId())
+                .executeUpdate();
         getEntityManager().remove(sector);
         getEntityManager().flush();
+        evictSectorsOfParking(sector.getParking().getId());
+        publishParkingChanged(sector.getParking().getId());
+        sectorOccupancyIndex.sectorRemoved(sector);
+        availabilityResultCache.parkingChanged(sector.getParking().getId());
     }
 
     /**
@@ -329,26 +405,115 @@ public class ParkingFacade extends AbstractFacade<Parking> {
      */
     @RolesAllowed({
             Authorities.EDIT_SECTOR, Authorities.DEACTIVATE_SECTOR,
-            Authorities.ACTIVATE_SECTOR, Authorities.END_RESERVATION,
-            Authorities.ENTER_PARKING_WITHOUT_RESERVATION
+            Authorities.ACTIVATE_SECTOR, Authorities.END_RESERVATION
     })
     public void editSector(Sector sector) throws ApplicationBaseException {
         getEntityManager().merge(sector);
         getEntityManager().flush();
+        clusterCacheInvalidator.publish(DatabaseConfigConstants.SECTOR_CACHE_REGION, sector.getId().toString());
+        sectorOccupancyIndex.sectorChanged(sector);
+        availabilityResultCache.parkingChanged(sector.getParking().getId());
+    }
+
+    /**
+     * Releases places occupied in the sectors, decreasing number of occupied places (but not below zero) with
+     * single update statement per sector. Sectors are updated in the order of their identifiers, so that concurrent
+     * bulk operations lock them in the same order.
+     *
+     * @param releasedPlaces Number of places to be released, identified by the sector identifier.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public void releaseOccupiedPlaces(Map<UUID, Integer> releasedPlaces) throws ApplicationBaseException {
+        LocalDateTime now = LocalDateTime.now();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        for (Map.Entry<UUID, Integer> entry : new TreeMap<>(releasedPlaces).entrySet()) {
+            if (entry.getValue() <= 0) continue;
+            getEntityManager().createNamedQuery("Sector.releaseOccupiedPlaces")
+                    .setParameter("releasedPlaces", entry.getValue())
+                    .setParameter("updateTime", now)
+                    .setParameter("updatedBy", authentication != null ? authentication.getName() : null)
+                    .setParameter("sectorId", entry.getKey())
+                    .executeUpdate();
+            clusterCacheInvalidator.publish(DatabaseConfigConstants.SECTOR_CACHE_REGION, entry.getKey().toString());
+        }
+        availabilityResultCache.occupancyChanged(null);
     }
 
     /**
-     * Forces a refresh on all elements in the list.
+     * Occupies single place in the sector for the vehicle entering with reservation, with a single conditional update
+     * statement, which succeeds only when the sector is not full. Capacity of the reservation is already held in
+     * the capacity slots of the sector, reserved when the reservation was made. Concurrent vehicles entering the same
+     * sector are serialized by the row lock, instead of colliding on the version of the sector. Only the entry of
+     * the updated sector is evicted from the second-level cache, and when the sector is managed by the current
+     * persistence context, it is refreshed after the update.
+     *
+     * @param sector Sector, in which the place is occupied.
+     * @return True if the place was occupied, false if the sector is full.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.ENTER_PARKING_WITH_RESERVATION})
+    public boolean occupyPlace(Sector sector) throws ApplicationBaseException {
+        return this.updateOccupiedPlaces("Sector.occupyPlace", sector);
+    }
+
+    /**
+     * Releases single place in the sector with a single conditional update statement, which succeeds only when
+     * any place in the sector is occupied. Only the entry of the updated sector is evicted from the second-level
+     * cache, and when the sector is managed by the current persistence context, it is refreshed after the update.
+     *
+     * @param sector Sector, in which the place is released.
+     * @return True if the place was released, false if no place in the sector was occupied.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.EXIT_PARKING})
+    public boolean releasePlace(Sector sector) throws ApplicationBaseException {
+        return this.updateOccupiedPlaces("Sector.releasePlace", sector);
+    }
+
+    /**
+     * Executes native statement modifying number of occupied places in the sector. The statement is synchronized only
+     * with the occupancy query space, so that Hibernate does not invalidate whole region of the cached sectors, and
+     * the entry of the updated sector is evicted instead.
+     *
+     * @param queryName Name of the executed statement.
+     * @param sector    Sector to be updated.
+     * @return True if the sector was updated, false otherwise.
+     */
+    private boolean updateOccupiedPlaces(String queryName, Sector sector) {
+        getEntityManager().flush();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        int updated = getEntityManager().createNamedQuery(queryName)
+                .setParameter("updateTime", LocalDateTime.now())
+                .setParameter("updatedBy", authentication != null ? authentication.getName() : null)
+                .setParameter("sectorId", sector.getId())
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(DatabaseConfigConstants.SECTOR_OCCUPANCY_QUERY_SPACE)
+                .executeUpdate();
+        if (updated == 0) return false;
+
+        UUID sectorId = sector.getId();
+        evictAfterCompletion(cache -> cache.evictEntityData(Sector.class, sectorId));
+        clusterCacheInvalidator.publish(DatabaseConfigConstants.SECTOR_CACHE_REGION, sectorId.toString());
+        if (getEntityManager().contains(sector)) getEntityManager().refresh(sector);
+        availabilityResultCache.occupancyChanged(sector.getParking().getId());
+        return true;
+    }
+
+    /**
+     * Forces a refresh on all elements in the list, re-reading them from the database with a single query.
      *
      * @param list List of the Sectors to be refreshed.
+     * @return List of the refreshed sectors, in the same order as in the given list.
      * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
      *                                  facade exception handling aspect.
      */
     @RolesAllowed({Authorities.GET_ALL_SECTORS, Authorities.RESERVE_PARKING_PLACE})
-    protected void refreshAllSectors(List<Sector> list) throws ApplicationBaseException {
-        if (list != null && !list.isEmpty()) {
-            list.forEach(getEntityManager()::refresh);
-        }
+    protected List<Sector> refreshAllSectors(List<Sector> list) throws ApplicationBaseException {
+        return refreshAllInBatch(Sector.class, list);
     }
 
     /***
@@ -368,8 +533,7 @@ public class ParkingFacade extends AbstractFacade<Parking> {
             findAllParking.setFirstResult(pageNumber * pageSize);
             findAllParking.setMaxResults(pageSize);
             List<Parking> list = findAllParking.getResultList();
-            super.refreshAll(list);
-            return list;
+            return refreshAllInBatch(list, "sectors");
         } catch (PersistenceException exception) {
             return new ArrayList<>();
         }
@@ -377,7 +541,8 @@ public class ParkingFacade extends AbstractFacade<Parking> {
 
     /**
      * This method is to return all available parking, that is parking where there is at least one
-     * sector with available places.
+     * sector with available places. Identifiers of the found parking are cached until any parking or sector is
+     * modified (or the result expires), and the parking are read from the second-level cache.
      *
      * @param pageNumber Number of the page with parking entries, to be returned.
      * @param pageSize   Number of parking entries per page.
@@ -389,34 +554,188 @@ public class ParkingFacade extends AbstractFacade<Parking> {
     @RolesAllowed({Authorities.GET_ALL_AVAILABLE_PARKING})
     public List<Parking> findAllAvailableParkingWithPagination(int pageNumber, int pageSize) throws ApplicationBaseException {
         try {
-            TypedQuery<Parking> findAllAvailableParking = entityManager.createNamedQuery("Parking.findAllAvailableParking", Parking.class);
-            findAllAvailableParking.setFirstResult(pageNumber * pageSize);
-            findAllAvailableParking.setMaxResults(pageSize);
-            findAllAvailableParking.setParameter("deactivationMinimum", LocalDateTime.now().plusHours(this.reservationMaxLength));
-            List<Parking> list = findAllAvailableParking.getResultList();
-            super.refreshAll(list);
-            return list;
+            var key = new AvailabilityResultCache.Key("Parking.findAllAvailableParkingIds", null,
+                    pageNumber, pageSize, false, false);
+            List<UUID> ids = availabilityResultCache.get(key, () -> entityManager
+                    .createNamedQuery("Parking.findAllAvailableParkingIds", UUID.class)
+                    .setFirstResult(pageNumber * pageSize)
+                    .setMaxResults(pageSize)
+                    .setParameter("deactivationMinimum", LocalDateTime.now().plusHours(this.reservationMaxLength))
+                    .getResultList());
+            return findAllCachedByIds(Parking.class, ids);
         } catch (PersistenceException exception) {
             return new ArrayList<>();
         }
     }
 
     /**
-     * This method is used to force incrementing version field on the parking entity object
-     * for given sector. Used when updating the aggregate.
+     * Reserves single place in every hourly capacity slot of the sector covered by the given timeframe. Existing slots
+     * are locked in the order of their beginning, and missing ones are created, so only reservations (and entries
+     * without reservation) covering the same hours of the sector wait for each other. Concurrent creation of the same
+     * slot fails on its primary key, and the whole operation should be retried.
+     * <p>
+     * Slots cover whole hours, so reservations sharing only a part of the same hour are counted as concurrent. For
+     * example, in the sector with a single place, reservation from 12:30 to 14:30 is refused when there is another one
+     * from 10:30 to 12:30, even though they do not overlap, since both of them cover the slot beginning at 12:00.
      *
-     * @param sector Sector which causes version increment in the parking entity object.
+     * @param sector    Sector, in which the place is reserved.
+     * @param beginTime Beginning of the reservation.
+     * @param endTime   End of the reservation.
+     * @return True if the place was reserved, false if any of the slots is already full.
      * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
      *                                  facade exception handling aspect.
      */
     @RolesAllowed(Authorities.RESERVE_PARKING_PLACE)
-    public void forceVersionUpdate(Sector sector) throws ApplicationBaseException {
-        getEntityManager().lock(sector, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    public boolean reserveCapacity(Sector sector, LocalDateTime beginTime, LocalDateTime endTime) throws ApplicationBaseException {
+        return this.reserveSlots(sector, beginTime, endTime);
+    }
+
+    /**
+     * Occupies single place in the sector for the vehicle entering the parking without reservation. Place is reserved
+     * in every hourly capacity slot of the given timeframe first, in the same way as for the reservations made in
+     * advance, so the entry and the reservations covering the same hours are serialized on the locked slots, and
+     * the entry cannot take a place promised to an upcoming reservation. Then the place is occupied with the guarded
+     * update statement, and when the sector turns out to be full, reserved capacity is released.
+     *
+     * @param sector    Sector, in which the place is occupied.
+     * @param beginTime Point in time of the entry.
+     * @param endTime   End of the timeframe, in which the place is reserved for the entering vehicle.
+     * @return True if the place was occupied, false if any of the slots or the sector itself is full.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.ENTER_PARKING_WITHOUT_RESERVATION})
+    public boolean occupyPlaceInTimeframe(Sector sector, LocalDateTime beginTime, LocalDateTime endTime) throws ApplicationBaseException {
+        if (!this.reserveSlots(sector, beginTime, endTime)) return false;
+        if (this.updateOccupiedPlaces("Sector.occupyPlace", sector)) return true;
+        this.releaseSlots(sector.getId(), beginTime, endTime);
+        return false;
+    }
+
+    /**
+     * Releases single place in every hourly capacity slot of the sector covered by the given timeframe, with a single
+     * update statement.
+     *
+     * @param sectorId  Identifier of the sector, in which the place is released.
+     * @param beginTime Beginning of the released timeframe.
+     * @param endTime   End of the released timeframe.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.CANCEL_RESERVATION, Authorities.EXIT_PARKING, Authorities.DEACTIVATE_SECTOR})
+    public void releaseCapacity(UUID sectorId, LocalDateTime beginTime, LocalDateTime endTime) throws ApplicationBaseException {
+        this.releaseSlots(sectorId, beginTime, endTime);
+    }
+
+    /**
+     * Fills the capacity slots of the sectors with the active (awaiting or in progress) reservations. Reservations
+     * made before the capacity slots were introduced are not counted in any slot, so every slot from the current hour
+     * on is raised to the number of active reservations covering it, and missing slots are created. Slots, which
+     * already count at least as many places, are left unchanged, so running the backfill again does not modify
+     * anything. Reservation without the end (entry without reservation) covers the maximum reservation time.
+     *
+     * @return Number of created or raised slots.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int backfillCapacitySlots() throws ApplicationBaseException {
+        LocalDateTime currentSlot = SectorCapacitySlot.slotOf(LocalDateTime.now());
+        Map<UUID, TreeMap<LocalDateTime, Integer>> requiredPlaces = new TreeMap<>();
+        for (Object[] row : getEntityManager().createNamedQuery("Reservation.findActiveReservationTimeframes", Object[].class)
+                .getResultList()) {
+            LocalDateTime beginTime = (LocalDateTime) row[1];
+            LocalDateTime endTime = row[2] != null ? (LocalDateTime) row[2] : beginTime.plusHours(this.reservationMaxLength);
+            LocalDateTime firstSlot = SectorCapacitySlot.slotOf(beginTime);
+            for (LocalDateTime slotStart = firstSlot.isBefore(currentSlot) ? currentSlot : firstSlot;
+                 !slotStart.isAfter(SectorCapacitySlot.lastSlotOf(endTime)); slotStart = slotStart.plusHours(1)) {
+                requiredPlaces.computeIfAbsent((UUID) row[0], id -> new TreeMap<>()).merge(slotStart, 1, Integer::sum);
+            }
+        }
+
+        int changedSlots = 0;
+        for (Map.Entry<UUID, TreeMap<LocalDateTime, Integer>> sectorEntry : requiredPlaces.entrySet()) {
+            TreeMap<LocalDateTime, Integer> sectorPlaces = sectorEntry.getValue();
+            Map<LocalDateTime, SectorCapacitySlot> slots = new TreeMap<>();
+            this.findSlotsForUpdate(sectorEntry.getKey(), sectorPlaces.firstKey(), sectorPlaces.lastKey())
+                    .forEach(slot -> slots.put(slot.getStartTime(), slot));
+            for (Map.Entry<LocalDateTime, Integer> slotEntry : sectorPlaces.entrySet()) {
+                SectorCapacitySlot slot = slots.get(slotEntry.getKey());
+                if (slot == null) {
+                    slot = new SectorCapacitySlot(sectorEntry.getKey(), slotEntry.getKey());
+                    getEntityManager().persist(slot);
+                } else if (slot.getReservedPlaces() >= slotEntry.getValue()) {
+                    continue;
+                }
+                slot.reservePlaces(slotEntry.getValue() - slot.getReservedPlaces());
+                changedSlots++;
+            }
+        }
+        getEntityManager().flush();
+        return changedSlots;
+    }
+
+    private boolean reserveSlots(Sector sector, LocalDateTime beginTime, LocalDateTime endTime) {
+        LocalDateTime firstSlot = SectorCapacitySlot.slotOf(beginTime);
+        LocalDateTime lastSlot = SectorCapacitySlot.lastSlotOf(endTime);
+        List<SectorCapacitySlot> slots = this.findSlotsForUpdate(sector.getId(), firstSlot, lastSlot);
+
+        for (SectorCapacitySlot slot : slots) {
+            if (slot.getReservedPlaces() >= sector.getMaxPlaces()) return false;
+        }
+
+        Set<LocalDateTime> existingSlots = new HashSet<>();
+        slots.forEach(slot -> existingSlots.add(slot.getStartTime()));
+        List<SectorCapacitySlot> reservedSlots = new ArrayList<>(slots);
+        for (LocalDateTime slotStart = firstSlot; !slotStart.isAfter(lastSlot); slotStart = slotStart.plusHours(1)) {
+            if (existingSlots.contains(slotStart)) continue;
+            SectorCapacitySlot slot = new SectorCapacitySlot(sector.getId(), slotStart);
+            getEntityManager().persist(slot);
+            reservedSlots.add(slot);
+        }
+
+        reservedSlots.forEach(SectorCapacitySlot::reservePlace);
+        getEntityManager().flush();
+        return true;
     }
 
+    private List<SectorCapacitySlot> findSlotsForUpdate(UUID sectorId, LocalDateTime firstSlot, LocalDateTime lastSlot) {
+        return getEntityManager().createNamedQuery("SectorCapacitySlot.findInTimeframe", SectorCapacitySlot.class)
+                .setParameter("sectorId", sectorId)
+                .setParameter("firstSlot", firstSlot)
+                .setParameter("lastSlot", lastSlot)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private void releaseSlots(UUID sectorId, LocalDateTime beginTime, LocalDateTime endTime) {
+        getEntityManager().createNamedQuery("SectorCapacitySlot.releaseInTimeframe")
+                .setParameter("sectorId", sectorId)
+                .setParameter("firstSlot", SectorCapacitySlot.slotOf(beginTime))
+                .setParameter("lastSlot", SectorCapacitySlot.lastSlotOf(endTime))
+                .executeUpdate();
+    }
 
     /**
-     * Retrieves all sectors available for entry for given client type in a given parking.
+     * Removes capacity slots of all sectors, which ended before given point in time.
+     *
+     * @param timestamp Slots beginning before this point in time are removed.
+     * @return Number of removed slots.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int removeCapacitySlotsBefore(LocalDateTime timestamp) throws ApplicationBaseException {
+        return getEntityManager().createNamedQuery("SectorCapacitySlot.removeBefore")
+                .setParameter("timestamp", timestamp)
+                .executeUpdate();
+    }
+
+    /**
+     * Retrieves all sectors available for entry for given client type in a given parking. Availability is determined
+     * with the in-memory sector occupancy index, and only when it does not hold valid snapshot of the parking, the query
+     * is executed on the database and the snapshot is rebuilt.
+     *
      * @param clientType Client type determining type of sectors included.
      * @param parkingId ID of the parking searched.
      * @param now Time of entry to the parking. It needs to be passed to keep it the same as start of the reservation.
@@ -426,19 +745,183 @@ public class ParkingFacade extends AbstractFacade<Parking> {
      */
     @RolesAllowed({Authorities.ENTER_PARKING_WITHOUT_RESERVATION})
     public List<Sector> getAvailableSectorsNow(Client.ClientType clientType, UUID parkingId, LocalDateTime now, int maxReservationHours) throws ApplicationBaseException {
-        TypedQuery<Sector> query = entityManager.createNamedQuery("Reservation.getAvailableBasicSectorsNow", Sector.class)
-                .setParameter("deactivationMinimum", LocalDateTime.now().plusHours(this.reservationMaxLength));
-       if( clientType == Client.ClientType.STANDARD){
-            query = entityManager.createNamedQuery("Reservation.getAvailableStandardSectorsNow", Sector.class)
-                    .setParameter("deactivationMinimum", LocalDateTime.now().plusHours(this.reservationMaxLength));
-        } else if( clientType == Client.ClientType.PREMIUM){
-            query = entityManager.createNamedQuery("Reservation.getAvailablePremiumSectorsNow", Sector.class)
-                    .setParameter("deactivationMinimum", LocalDateTime.now().plusHours(this.reservationMaxLength));
+        LocalDateTime deactivationMinimum = LocalDateTime.now().plusHours(this.reservationMaxLength);
+        Optional<List<UUID>> availableSectorIds = sectorOccupancyIndex.findAvailableSectors(
+                parkingId, getSectorTypesForClient(clientType), now, deactivationMinimum);
+        if (availableSectorIds.isPresent()) {
+            if (availableSectorIds.get().isEmpty()) return new ArrayList<>();
+            return entityManager.createNamedQuery("Sector.findByIds", Sector.class)
+                    .setParameter("sectorIds", availableSectorIds.get())
+                    .getResultList();
         }
+
+        long generation = sectorOccupancyIndex.startRebuild(parkingId);
+        TypedQuery<Sector> query = entityManager.createNamedQuery("Reservation.getAvailableBasicSectorsNow", Sector.class);
+        if (clientType == Client.ClientType.STANDARD) {
+            query = entityManager.createNamedQuery("Reservation.getAvailableStandardSectorsNow", Sector.class);
+        } else if (clientType == Client.ClientType.PREMIUM) {
+            query = entityManager.createNamedQuery("Reservation.getAvailablePremiumSectorsNow", Sector.class);
+        }
+        query.setParameter("deactivationMinimum", deactivationMinimum);
         query.setParameter("parkingId", parkingId);
         query.setParameter("currentTime", now);
         query.setParameter("currentTimePlusReserve", now.plusHours(maxReservationHours));
         query.setParameter("currentTimeMinusReserve", now.minusHours(maxReservationHours));
-        return query.getResultList();
+        List<Sector> availableSectors = query.getResultList();
+
+        rebuildSectorOccupancy(parkingId, generation);
+        return availableSectors;
+    }
+
+    /**
+     * Determines maximum number of active reservations of the sector, which are taking place at the same time in the
+     * given timeframe. Value is obtained from the sector occupancy index, and only when it does not hold valid snapshot
+     * of the parking, active reservations are read from the database and the snapshot is rebuilt.
+     *
+     * @param sector    Sector, for which the reservations are counted.
+     * @param beginTime Beginning of the timeframe.
+     * @param endTime   End of the timeframe.
+     * @return Maximum number of reservations taking place at the same time in the given timeframe.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.RESERVE_PARKING_PLACE})
+    public long countMaxConcurrentSectorReservations(Sector sector, LocalDateTime beginTime, LocalDateTime endTime) throws ApplicationBaseException {
+        UUID parkingId = sector.getParking().getId();
+        Optional<Integer> maxConcurrentReservations = sectorOccupancyIndex.findMaxConcurrentReservations(
+                parkingId, sector.getId(), beginTime, endTime);
+        if (maxConcurrentReservations.isPresent()) return maxConcurrentReservations.get();
+
+        long generation = sectorOccupancyIndex.startRebuild(parkingId);
+        List<SectorOccupancyIndex.ReservationClaim> claims = rebuildSectorOccupancy(parkingId, generation);
+        return sectorOccupancyIndex.countMaxConcurrentReservations(claims, sector.getId(), beginTime, endTime);
+    }
+
+    /**
+     * Reads all sectors of the parking and active reservations made for them from the database, and passes them
+     * to the sector occupancy index as a new snapshot of the parking.
+     *
+     * @param parkingId  Identifier of the parking, which snapshot is rebuilt.
+     * @param generation Generation of the parking, obtained from the index before the data was read.
+     * @return Active reservations of the parking, read from the database.
+     */
+    private List<SectorOccupancyIndex.ReservationClaim> rebuildSectorOccupancy(UUID parkingId, long generation) {
+        List<SectorOccupancyIndex.SectorState> sectors = entityManager.createNamedQuery("Sector.findAllInParking", Sector.class)
+                .setParameter("parkingId", parkingId)
+                .setParameter("showOnlyActive", false)
+                .setParameter("deactivationMinimum", LocalDateTime.now())
+                .getResultList()
+                .stream()
+                .map(SectorOccupancyIndex.SectorState::of)
+                .toList();
+        List<SectorOccupancyIndex.ReservationClaim> claims = entityManager
+                .createNamedQuery("Reservation.findActiveReservationClaimsInParking", Object[].class)
+                .setParameter("parkingId", parkingId)
+                .getResultList()
+                .stream()
+                .map(row -> new SectorOccupancyIndex.ReservationClaim((UUID) row[0], (UUID) row[1],
+                        (LocalDateTime) row[2], (LocalDateTime) row[3], (Boolean) row[4]))
+                .toList();
+        sectorOccupancyIndex.completeRebuild(parkingId, generation, sectors, claims);
+        return claims;
+    }
+
+    /**
+     * Loads entities with given identifiers, looking them up in the second-level cache first, and reading only
+     * the missing ones from the database with a single query.
+     *
+     * @param type Class of the loaded entities.
+     * @param ids  Identifiers of the entities, in the order of the returned list.
+     * @param <E>  Type of the loaded entities.
+     * @return List of the entities, which still exist, in the order of given identifiers.
+     */
+    private <E> List<E> findAllCachedByIds(Class<E> type, List<UUID> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        return getEntityManager().unwrap(Session.class)
+                .byMultipleIds(type)
+                .multiLoad(ids)
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Evicts the cached list of sectors of the parking, which is not updated when the sector is created or removed
+     * without modifying the list in the parking entity.
+     *
+     * @param parkingId Identifier of the parking, which sectors were changed.
+     */
+    private void evictSectorsOfParking(UUID parkingId) {
+        evictAfterCompletion(cache -> cache.evictCollectionData(Parking.class.getName() + ".sectors", parkingId));
+    }
+
+    /**
+     * Publishes the change of the parking (or the list of its sectors) to other instances of the application.
+     *
+     * @param parkingId Identifier of the changed parking.
+     */
+    private void publishParkingChanged(UUID parkingId) {
+        clusterCacheInvalidator.publish(DatabaseConfigConstants.PARKING_CACHE_REGION, parkingId.toString());
+    }
+
+    /**
+     * Evicts the parking changed by other instance of the application from the second-level cache, along with
+     * the list of its sectors and all cached sectors, which could have been changed together with the parking.
+     *
+     * @param parkingId Identifier of the changed parking, or null if all the cached data should be evicted.
+     */
+    private void evictParking(String parkingId) {
+        Cache cache = getEntityManager().getEntityManagerFactory().getCache().unwrap(Cache.class);
+        if (parkingId == null) {
+            cache.evictAllRegions();
+            return;
+        }
+        cache.evictEntityData(Parking.class, UUID.fromString(parkingId));
+        cache.evictCollectionData(Parking.class.getName() + ".sectors", UUID.fromString(parkingId));
+        cache.evictEntityData(Sector.class);
+    }
+
+    /**
+     * Evicts the sector changed by other instance of the application from the second-level cache.
+     *
+     * @param sectorId Identifier of the changed sector, or null if all the cached sectors should be evicted.
+     */
+    private void evictSector(String sectorId) {
+        Cache cache = getEntityManager().getEntityManagerFactory().getCache().unwrap(Cache.class);
+        if (sectorId == null) cache.evictEntityData(Sector.class);
+        else cache.evictEntityData(Sector.class, UUID.fromString(sectorId));
+    }
+
+    /**
+     * Evicts data from the second-level cache. The data is evicted again after the transaction is completed,
+     * so that it could not be cached from the data read before the commit.
+     *
+     * @param eviction Eviction to be performed on the second-level cache.
+     */
+    private void evictAfterCompletion(Consumer<Cache> eviction) {
+        Cache cache = getEntityManager().getEntityManagerFactory().getCache().unwrap(Cache.class);
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.accept(cache);
+                }
+            });
+        }
+    }
+
+    /**
+     * Determines types of the sectors, that vehicle of the client with given type could be placed in.
+     *
+     * @param clientType Type of the client entering the parking.
+     * @return Set of sector types available for the client.
+     */
+    private Set<Sector.SectorType> getSectorTypesForClient(Client.ClientType clientType) {
+        return switch (clientType) {
+            case PREMIUM -> EnumSet.allOf(Sector.SectorType.class);
+            case STANDARD -> EnumSet.of(Sector.SectorType.UNCOVERED, Sector.SectorType.COVERED);
+            default -> EnumSet.of(Sector.SectorType.UNCOVERED);
+        };
     }
 }
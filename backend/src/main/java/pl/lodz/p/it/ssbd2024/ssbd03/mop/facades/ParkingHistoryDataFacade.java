@@ -16,6 +16,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingHistoryData;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -95,4 +96,37 @@ public class ParkingHistoryDataFacade extends AbstractFacade<ParkingHistoryData>
             return new ArrayList<>();
         }
     }
+
+    /**
+     * This method is used to find parking history versions by parking id, using keyset pagination. Entries are ordered
+     * from the newest one, and the page is located by the modification time and version of the last entry from the previous page.
+     *
+     * @param id               ID of the searched parking.
+     * @param modificationTime Modification time of the last entry from the previous page, or null for the first page.
+     * @param version          Version of the last entry from the previous page, or null for the first page.
+     * @param pageSize         Size of the page.
+     * @return If there are historic entries for the requested parking, placed after the given entry, this method returns
+     * at most pageSize of them. Otherwise, empty list.
+     */
+    @RolesAllowed(Authorities.GET_PARKING_HISTORICAL_DATA)
+    public List<ParkingHistoryData> findByParkingIdWithKeyset(UUID id, LocalDateTime modificationTime, Long version, int pageSize)
+            throws ApplicationBaseException {
+        try {
+            TypedQuery<ParkingHistoryData> findParkingHistoryQuery;
+            if (modificationTime == null || version == null) {
+                findParkingHistoryQuery = entityManager.createNamedQuery("ParkingHistoryData.findByParkingIdWithKeyset", ParkingHistoryData.class);
+            } else {
+                findParkingHistoryQuery = entityManager.createNamedQuery("ParkingHistoryData.findByParkingIdAfterKey", ParkingHistoryData.class);
+                findParkingHistoryQuery.setParameter("modificationTime", modificationTime);
+                findParkingHistoryQuery.setParameter("version", version);
+            }
+            findParkingHistoryQuery.setParameter("id", id);
+            findParkingHistoryQuery.setMaxResults(pageSize);
+            List<ParkingHistoryData> list = findParkingHistoryQuery.getResultList();
+            super.refreshAll(list);
+            return list;
+        } catch (PersistenceException exception) {
+            return new ArrayList<>();
+        }
+    }
 }
@@ -2,6 +2,12 @@ package pl.lodz.p.it.ssbd2024.ssbd03.mop.facades;
 
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.LockMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +19,8 @@ import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingEvent;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.ReservationExpiryWheel;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.SectorOccupancyIndex;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -35,11 +43,19 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
     @PersistenceContext(unitName = DatabaseConfigConstants.MOP_PU)
     private EntityManager entityManager;
 
+    private final SectorOccupancyIndex sectorOccupancyIndex;
+    private final ReservationExpiryWheel reservationExpiryWheel;
+
     /**
      * Invokes superclass constructor with Class object passed.
+     *
+     * @param sectorOccupancyIndex   In-memory index of sector occupancy, notified about every change of the reservation.
+     * @param reservationExpiryWheel In-memory schedule of reservation deadlines, notified about every change of the reservation.
      */
-    public ReservationFacade() {
+    public ReservationFacade(SectorOccupancyIndex sectorOccupancyIndex, ReservationExpiryWheel reservationExpiryWheel) {
         super(Reservation.class);
+        this.sectorOccupancyIndex = sectorOccupancyIndex;
+        this.reservationExpiryWheel = reservationExpiryWheel;
     }
 
     /**
@@ -64,6 +80,8 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
     @RolesAllowed({Authorities.RESERVE_PARKING_PLACE, Authorities.ENTER_PARKING_WITHOUT_RESERVATION})
     public void create(Reservation entity) throws ApplicationBaseException {
         super.create(entity);
+        sectorOccupancyIndex.reservationChanged(entity);
+        reservationExpiryWheel.reservationChanged(entity);
     }
 
     /**
@@ -81,6 +99,8 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
     })
     public void edit(Reservation entity) throws ApplicationBaseException {
         super.edit(entity);
+        sectorOccupancyIndex.reservationChanged(entity);
+        reservationExpiryWheel.reservationChanged(entity);
     }
 
     /**
@@ -94,6 +114,8 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
     @RolesAllowed({Authorities.END_RESERVATION})
     public void remove(Reservation entity) throws ApplicationBaseException {
         super.remove(entity);
+        sectorOccupancyIndex.reservationRemoved(entity);
+        reservationExpiryWheel.reservationRemoved(entity);
     }
 
     /**
@@ -131,8 +153,259 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
                 .setFirstResult(page * pageSize)
                 .setMaxResults(pageSize)
                 .getResultList();
-        refreshAll(list);
-        return list;
+        return refreshAllInBatch(list, "sector", "sector.parking");
+    }
+
+    /**
+     * Returns Reservation entities ordered by their beginning time, using keyset pagination. Instead of skipping
+     * reservations from the previous pages, the page is located by the beginning time and identifier of the last
+     * reservation from the previous page, which is backed by the index on these columns.
+     *
+     * @param beginTime Beginning time of the last reservation from the previous page, or null for the first page.
+     * @param id        Identifier of the last reservation from the previous page, or null for the first page.
+     * @param pageSize  Defines the maximum number of entities per page.
+     * @return Reservation entities placed after the given reservation.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.GET_ALL_RESERVATIONS})
+    public List<Reservation> findAllWithKeyset(LocalDateTime beginTime, UUID id, int pageSize) throws ApplicationBaseException {
+        TypedQuery<Reservation> findAllReservations;
+        if (beginTime == null || id == null) {
+            findAllReservations = getEntityManager().createNamedQuery("Reservation.findAllWithKeyset", Reservation.class);
+        } else {
+            findAllReservations = getEntityManager().createNamedQuery("Reservation.findAllAfterKey", Reservation.class)
+                    .setParameter("beginTime", beginTime)
+                    .setParameter("id", id);
+        }
+        var list = findAllReservations
+                .setMaxResults(pageSize)
+                .getResultList();
+        return refreshAllInBatch(list, "sector", "sector.parking");
+    }
+
+    /**
+     * Projection of the reservation, which status is changed by the scheduled bulk operations.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ReservationTransition {
+        private final UUID reservationId;
+        private final UUID sectorId;
+        private final UUID parkingId;
+        private final Reservation.ReservationStatus status;
+        private final UUID clientId;
+    }
+
+    /**
+     * Retrieves and locks the next chunk of reservations, that last more than given time and are not closed.
+     *
+     * @param timestamp Reservations beginning before this timestamp are marked for termination.
+     * @param chunkSize Maximum number of reservations in the chunk.
+     * @return List of the locked reservations marked for termination.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public List<ReservationTransition> findTransitionsMarkedForTermination(LocalDateTime timestamp, int chunkSize) throws ApplicationBaseException {
+        return findTransitions(getEntityManager().createNamedQuery("Reservation.findTransitionsMarkedForTermination", Object[].class)
+                .setParameter("timestamp", timestamp), chunkSize);
+    }
+
+    /**
+     * Retrieves and locks the next chunk of reservations, that ended and should be completed automatically.
+     *
+     * @param chunkSize Maximum number of reservations in the chunk.
+     * @return List of the locked reservations marked for completing.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public List<ReservationTransition> findTransitionsMarkedForCompleting(int chunkSize) throws ApplicationBaseException {
+        return findTransitions(getEntityManager().createNamedQuery("Reservation.findTransitionsMarkedForCompleting", Object[].class), chunkSize);
+    }
+
+    /**
+     * Retrieves and locks reservations with given identifiers, that last more than given time and are not closed.
+     * Used to verify deadlines expired in the reservation expiry wheel.
+     *
+     * @param timestamp      Reservations beginning before this timestamp are marked for termination.
+     * @param reservationIds Identifiers of the reservations, which termination deadline expired.
+     * @return List of the locked reservations marked for termination.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public List<ReservationTransition> findTransitionsMarkedForTerminationByIds(LocalDateTime timestamp, List<UUID> reservationIds) throws ApplicationBaseException {
+        if (reservationIds.isEmpty()) return new ArrayList<>();
+        return findTransitions(getEntityManager().createNamedQuery("Reservation.findTransitionsMarkedForTerminationByIds", Object[].class)
+                .setParameter("reservationIds", reservationIds)
+                .setParameter("timestamp", timestamp), reservationIds.size());
+    }
+
+    /**
+     * Retrieves and locks reservations with given identifiers, that ended and should be completed automatically.
+     * Used to verify deadlines expired in the reservation expiry wheel.
+     *
+     * @param reservationIds Identifiers of the reservations, which completion deadline expired.
+     * @return List of the locked reservations marked for completing.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public List<ReservationTransition> findTransitionsMarkedForCompletingByIds(List<UUID> reservationIds) throws ApplicationBaseException {
+        if (reservationIds.isEmpty()) return new ArrayList<>();
+        return findTransitions(getEntityManager().createNamedQuery("Reservation.findTransitionsMarkedForCompletingByIds", Object[].class)
+                .setParameter("reservationIds", reservationIds), reservationIds.size());
+    }
+
+    /**
+     * Schedules deadlines of the active reservations, which complete or should be terminated in the given timeframe,
+     * in the reservation expiry wheel. Reservations are read in chunks, using keyset pagination on their identifiers.
+     *
+     * @param from                    Beginning of the timeframe (exclusive).
+     * @param to                      End of the timeframe (inclusive).
+     * @param maximumReservationHours Time in hours, after which reservation in progress is terminated.
+     * @param chunkSize               Maximum number of reservations read with single query.
+     * @return Number of the loaded reservations.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int loadDeadlines(LocalDateTime from, LocalDateTime to, long maximumReservationHours, int chunkSize) throws ApplicationBaseException {
+        int loaded = 0;
+        UUID lastId = null;
+        List<Object[]> chunk;
+        do {
+            TypedQuery<Object[]> query = lastId == null
+                    ? getEntityManager().createNamedQuery("Reservation.findDeadlines", Object[].class)
+                    : getEntityManager().createNamedQuery("Reservation.findDeadlinesAfterKey", Object[].class).setParameter("id", lastId);
+            chunk = query.setParameter("from", from)
+                    .setParameter("to", to)
+                    .setParameter("terminationFrom", from.minusHours(maximumReservationHours))
+                    .setParameter("terminationTo", to.minusHours(maximumReservationHours))
+                    .setMaxResults(chunkSize)
+                    .getResultList();
+            for (Object[] row : chunk) {
+                reservationExpiryWheel.schedule((UUID) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2]);
+                lastId = (UUID) row[0];
+            }
+            loaded += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return loaded;
+    }
+
+    /**
+     * Terminates given reservations with a single update statement, and registers the exit of the vehicle
+     * for each of them (parking events are inserted in JDBC batches).
+     *
+     * @param transitions Reservations to be terminated, locked by findTransitionsMarkedForTermination.
+     * @return Number of terminated reservations.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int terminateInBulk(List<ReservationTransition> transitions) throws ApplicationBaseException {
+        if (transitions.isEmpty()) return 0;
+        List<UUID> reservationIds = transitions.stream().map(ReservationTransition::getReservationId).toList();
+        LocalDateTime now = LocalDateTime.now();
+        int updated = getEntityManager().createNamedQuery("Reservation.terminateInBulk")
+                .setParameter("reservationIds", reservationIds)
+                .setParameter("updateTime", now)
+                .setParameter("updatedBy", currentLogin())
+                .executeUpdate();
+
+        for (UUID reservationId : reservationIds) {
+            ParkingEvent exitEvent = new ParkingEvent(now, ParkingEvent.EventType.EXIT);
+            exitEvent.setReservation(getEntityManager().getReference(Reservation.class, reservationId));
+            getEntityManager().persist(exitEvent);
+        }
+        getEntityManager().flush();
+        transitions.stream().map(ReservationTransition::getParkingId).distinct().forEach(sectorOccupancyIndex::invalidate);
+        return updated;
+    }
+
+    /**
+     * Completes given reservations automatically with a single update statement.
+     *
+     * @param transitions Reservations to be completed, locked by findTransitionsMarkedForCompleting.
+     * @return Number of completed reservations.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int completeInBulk(List<ReservationTransition> transitions) throws ApplicationBaseException {
+        if (transitions.isEmpty()) return 0;
+        int updated = getEntityManager().createNamedQuery("Reservation.completeInBulk")
+                .setParameter("reservationIds", transitions.stream().map(ReservationTransition::getReservationId).toList())
+                .setParameter("updateTime", LocalDateTime.now())
+                .setParameter("updatedBy", currentLogin())
+                .executeUpdate();
+        transitions.stream().map(ReservationTransition::getParkingId).distinct().forEach(sectorOccupancyIndex::invalidate);
+        return updated;
+    }
+
+    /**
+     * Sets the vehicle inside flag of the awaiting and in progress reservations, based on the number of their
+     * parking events, where the flag does not match them. Used once at startup, to fill the flag in the databases
+     * created before it was introduced, since the column added to the existing table is set to false.
+     *
+     * @return Number of reservations, which flag was changed.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int backfillVehicleInside() throws ApplicationBaseException {
+        return getEntityManager().createNamedQuery("Reservation.markVehicleInsideByParkingEvents").executeUpdate()
+                + getEntityManager().createNamedQuery("Reservation.markVehicleOutsideByParkingEvents").executeUpdate();
+    }
+
+    /**
+     * Retrieves reservations with given identifiers, along with their clients and accounts.
+     *
+     * @param reservationIds Identifiers of the reservations made by the clients.
+     * @return List of the reservations with clients.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public List<Reservation> findAllWithClientByIds(List<UUID> reservationIds) throws ApplicationBaseException {
+        if (reservationIds.isEmpty()) return new ArrayList<>();
+        return getEntityManager().createNamedQuery("Reservation.findAllWithClientByIds", Reservation.class)
+                .setParameter("reservationIds", reservationIds)
+                .getResultList();
+    }
+
+    /**
+     * Claims the chunk of reservations, locking them with <code>FOR UPDATE SKIP LOCKED</code>. Reservations already
+     * claimed by another transaction (e.g. on another instance of the application) are skipped instead of waited for,
+     * so that concurrent schedulers process disjoint chunks, and the claimed reservation no longer matches the query
+     * once the other transaction commits.
+     * <p>
+     * The claiming query reads only the columns of the reservation table, so that no other table is joined, and
+     * the rows of the sectors are not locked along with the reservations. Parking of the sectors are read afterwards,
+     * with a separate query without any lock.
+     */
+    private List<ReservationTransition> findTransitions(TypedQuery<Object[]> query, int chunkSize) {
+        List<Object[]> rows = query.setMaxResults(chunkSize)
+                .setHint(HibernateHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED)
+                .getResultList();
+        if (rows.isEmpty()) return new ArrayList<>();
+
+        Map<UUID, UUID> parkingIds = new HashMap<>();
+        getEntityManager().createNamedQuery("Sector.findParkingIdsByIds", Object[].class)
+                .setParameter("sectorIds", rows.stream().map(row -> (UUID) row[1]).distinct().toList())
+                .getResultList()
+                .forEach(row -> parkingIds.put((UUID) row[0], (UUID) row[1]));
+        return rows.stream()
+                .map(row -> new ReservationTransition((UUID) row[0], (UUID) row[1], parkingIds.get((UUID) row[1]),
+                        (Reservation.ReservationStatus) row[2], (UUID) row[3]))
+                .toList();
+    }
+
+    private static String currentLogin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
     }
 
     /***
@@ -195,8 +468,7 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
                     .setFirstResult(pageNumber * pageSize)
                     .setMaxResults(pageSize)
                     .getResultList();
-            refreshAll(list);
-            return list;
+            return refreshAllInBatch(list, "sector", "sector.parking");
         } catch (PersistenceException exception) {
             return new ArrayList<>();
         }
@@ -222,8 +494,7 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
                     .setFirstResult(pageNumber * pageSize)
                     .setMaxResults(pageSize)
                     .getResultList();
-            refreshAll(list);
-            return list;
+            return refreshAllInBatch(list, "sector", "sector.parking");
         } catch (PersistenceException exception) {
             return new ArrayList<>();
         }
@@ -246,30 +517,6 @@ public class ReservationFacade extends AbstractFacade<Reservation> {
         return Objects.requireNonNullElse(countAllActiveUserReservationByLoginWithPaginationQuery.getSingleResult(), 0L);
     }
 
-    /**
-     * Counts all reservations for sector in the timeframe (beginTime - beginTime + maxReservationHours)
-     *
-     * @param sectorId            Sector identifier.
-     * @param beginTime           Start time of the reservation.
-     * @param maxReservationHours Maximum duration of the reservation, given in hours.
-     * @param benchmark           Value indicating the point in time from the perspective of which the query is executed.
-     * @return Count of Reservation entities for selected client (collapsed with login).
-     * If a persistence exception is thrown, then empty list is returned.
-     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
-     *                                  facade exception handling aspect.
-     */
-    @RolesAllowed({Authorities.RESERVE_PARKING_PLACE})
-    public long countAllSectorReservationInTimeframe(UUID sectorId, LocalDateTime beginTime, int maxReservationHours, LocalDateTime benchmark) throws ApplicationBaseException {
-        TypedQuery<Long> countAllSectorReservationInTimeframeQuery =
-                getEntityManager().createNamedQuery("Reservation.countAllSectorReservationInTimeframe", Long.class);
-        countAllSectorReservationInTimeframeQuery.setParameter("sectorId", sectorId);
-        countAllSectorReservationInTimeframeQuery.setParameter("beginTime", beginTime);
-        countAllSectorReservationInTimeframeQuery.setParameter("beginTimeMinusMaxReservationTime", beginTime.minusHours(maxReservationHours));
-        countAllSectorReservationInTimeframeQuery.setParameter("beginTimePlusMaxReservationTime", beginTime.plusHours(maxReservationHours));
-        countAllSectorReservationInTimeframeQuery.setParameter("current_timestamp", benchmark);
-        return Objects.requireNonNullElse(countAllSectorReservationInTimeframeQuery.getSingleResult(), 0L);
-    }
-
     /**
      * This method is used to retrieve all reservation that need to be cancelled because of the deactivation of the
      * sector for which they were made.
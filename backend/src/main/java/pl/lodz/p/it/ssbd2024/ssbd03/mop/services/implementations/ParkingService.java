@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
@@ -48,6 +49,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.utils.SectorDeterminationStrategy.SectorStra
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -138,7 +140,7 @@ public class ParkingService implements ParkingServiceInterface {
     @Override
     @RolesAllowed({Authorities.GET_SECTOR})
     public Sector getSectorById(UUID id) throws ApplicationBaseException {
-        return parkingFacade.findAndRefreshSectorById(id).orElseThrow(SectorNotFoundException::new);
+        return parkingFacade.findSectorById(id).orElseThrow(SectorNotFoundException::new);
     }
 
     // MOP.12 - Get parking
@@ -146,7 +148,7 @@ public class ParkingService implements ParkingServiceInterface {
     @Override
     @RolesAllowed({Authorities.GET_PARKING, Authorities.EDIT_PARKING})
     public Parking getParkingById(UUID id) throws ApplicationBaseException {
-        return parkingFacade.findAndRefresh(id).orElseThrow(ParkingNotFoundException::new);
+        return parkingFacade.find(id).orElseThrow(ParkingNotFoundException::new);
     }
 
     // MOP.9 - Activate sector
@@ -177,6 +179,7 @@ public class ParkingService implements ParkingServiceInterface {
         for (Reservation reservation : reservations) {
             reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
             this.reservationFacade.edit(reservation);
+            this.parkingFacade.releaseCapacity(sector.getId(), reservation.getBeginTime(), reservation.getEndTime());
 
             // Send a notification email
             mailProvider.sendAdministrativelyCancelledReservationInfoEmail(
@@ -197,7 +200,7 @@ public class ParkingService implements ParkingServiceInterface {
     @Override
     @RolesAllowed({Authorities.GET_ALL_SECTORS, Authorities.GET_PARKING})
     public List<Sector> getSectorsByParkingId(UUID id, boolean active, int pageNumber, int pageSize) throws ApplicationBaseException {
-        this.parkingFacade.findAndRefresh(id).orElseThrow(ParkingNotFoundException::new);
+        this.parkingFacade.find(id).orElseThrow(ParkingNotFoundException::new);
         return parkingFacade.findSectorsInParking(id, active, pageNumber, pageSize);
     }
 
@@ -241,23 +244,13 @@ public class ParkingService implements ParkingServiceInterface {
             throw new UserLevelMissingException(I18n.USER_NOT_RESERVATION_OWNER_EXCEPTION);
         }
 
-        // Check if the number of entry parking events is greater than the number of exit events
-        long entryEventsCount = reservation.getParkingEvents().stream()
-                .filter(event -> event.getType() == ParkingEvent.EventType.ENTRY)
-                .count();
-
-        long exitEventsCount = reservation.getParkingEvents().stream()
-                .filter(event -> event.getType() == ParkingEvent.EventType.EXIT)
-                .count();
-
-        // If the number of entry events is greater than the number of exit events,
-        // the user cannot enter the parking
-        if (entryEventsCount > exitEventsCount) {
+        // If the vehicle is already inside the parking, the user cannot enter the parking
+        if (reservation.isVehicleInside()) {
             throw new CannotEnterParkingException();
         }
 
         if (reservation.getStatus().equals(Reservation.ReservationStatus.AWAITING)) {
-            reservation.getSector().setOccupiedPlaces(reservation.getSector().getOccupiedPlaces() + 1);
+            if (!parkingFacade.occupyPlace(reservation.getSector())) throw new ReservationNoAvailablePlaceException();
             reservation.setStatus(Reservation.ReservationStatus.IN_PROGRESS);
         }
 
@@ -379,7 +372,15 @@ public class ParkingService implements ParkingServiceInterface {
             case MOST_OCCUPIED -> new MostOccupied();
             case LEAST_OCCUPIED_WEIGHTED -> new LeastOccupiedWeighted();
         };
-        Sector chosenSector = sectorStrategy.choose(result);
+        // Place is occupied (and its capacity reserved until the maximum reservation time) before the reservation
+        // is created, and when the chosen sector was filled up concurrently, the next sector is chosen from the remaining ones
+        List<Sector> candidates = new ArrayList<>(result);
+        Sector chosenSector = sectorStrategy.choose(candidates);
+        while (!parkingFacade.occupyPlaceInTimeframe(chosenSector, currentTime, currentTime.plusHours(reservationMaxHours))) {
+            candidates.remove(chosenSector);
+            if (candidates.isEmpty()) throw new ReservationNoAvailablePlaceException();
+            chosenSector = sectorStrategy.choose(candidates);
+        }
 
         Reservation reservation = new Reservation(client, chosenSector, currentTime);
         reservation.setStatus(Reservation.ReservationStatus.IN_PROGRESS);
@@ -387,9 +388,6 @@ public class ParkingService implements ParkingServiceInterface {
         reservation.addParkingEvent(parkingEvent);
         reservationFacade.create(reservation);
 
-        chosenSector.setOccupiedPlaces(chosenSector.getOccupiedPlaces() + 1);
-        parkingFacade.editSector(chosenSector);
-
         return reservation;
     }
 
@@ -408,31 +406,32 @@ public class ParkingService implements ParkingServiceInterface {
             }
         }
 
-        // Check if the number of entry parking events is greater than the number of exit events
-        long entryEventsCount = reservation.getParkingEvents().stream()
-                .filter(event -> event.getType() == ParkingEvent.EventType.ENTRY)
-                .count();
-
-        long exitEventsCount = reservation.getParkingEvents().stream()
-                .filter(event -> event.getType() == ParkingEvent.EventType.EXIT)
-                .count();
-
-        // If the number of entry events is less than or equal to the number of exit events,
-        // the user cannot exit the parking
-        if (entryEventsCount <= exitEventsCount) {
+        // If the vehicle is not inside the parking, the user cannot exit the parking
+        if (!reservation.isVehicleInside()) {
             throw new CannotExitParkingException();
         }
 
         // If reservation is made for anonymous user or the reservation needs to be finished
         if (reservation.getEndTime() == null || endReservation) {
+            // Entry without reservation holds the capacity until the maximum reservation time
+            LocalDateTime reservedEndTime = reservation.getEndTime() != null ? reservation.getEndTime()
+                    : reservation.getBeginTime().plusHours(reservationMaxHours);
             // Case for anonymous user - end time is being set
             if (reservation.getEndTime() == null) {
                 reservation.setEndTime(LocalDateTime.now());
             }
+            if (reservedEndTime.isAfter(LocalDateTime.now())) {
+                // Reservation ended early - capacity of the remaining hours is released
+                parkingFacade.releaseCapacity(reservation.getSector().getId(),
+                        SectorCapacitySlot.slotOf(LocalDateTime.now()).plusHours(1), reservedEndTime);
+            }
             if (reservation.getClient() != null) {
                 userLevelMOPFacade.clientTypeChangeCheck(reservation);
             }
-            reservation.getSector().setOccupiedPlaces(reservation.getSector().getOccupiedPlaces() - 1);
+            if (!parkingFacade.releasePlace(reservation.getSector())) {
+                log.warn("No place was occupied in the sector with id: {}, when reservation with id: {} was completed.",
+                        reservation.getSector().getId(), reservation.getId());
+            }
             reservation.setStatus(Reservation.ReservationStatus.COMPLETED_MANUALLY);
         }
 
@@ -447,4 +446,12 @@ public class ParkingService implements ParkingServiceInterface {
     public List<ParkingHistoryData> getHistoryDataByParkingId(UUID id, int pageNumber, int pageSize) throws ApplicationBaseException {
         return parkingHistoryDataFacade.findByParkingId(id, pageNumber, pageSize);
     }
+
+    @Override
+    @RolesAllowed({Authorities.GET_PARKING_HISTORICAL_DATA})
+    public List<ParkingHistoryData> getHistoryDataByParkingIdWithKeyset(UUID id, ContinuationToken token, int pageSize)
+            throws ApplicationBaseException {
+        if (token == null) return parkingHistoryDataFacade.findByParkingIdWithKeyset(id, null, null, pageSize);
+        return parkingHistoryDataFacade.findByParkingIdWithKeyset(id, token.getSortKeyAsDateTime(), token.getTieBreakerAsLong(), pageSize);
+    }
 }
@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
@@ -143,19 +144,14 @@ public class ReservationService implements ReservationServiceInterface {
         if (!sector.getActive(this.reservationMaxHours)) throw new ReservationSectorNonActiveException();
 
         // Check sector place availability
-        long numOfPlacesTaken = reservationFacade.countAllSectorReservationInTimeframe(
-                sectorId,
-                beginTime,
-                reservationMaxHours,
-                LocalDateTime.now()
-        );
+        long numOfPlacesTaken = parkingFacade.countMaxConcurrentSectorReservations(sector, beginTime, endTime);
         if (sector.getMaxPlaces() < numOfPlacesTaken + 1) throw new ReservationNoAvailablePlaceException();
 
         // Create reservation
         Reservation newReservation = new Reservation(client, sector, beginTime);
         newReservation.setEndTime(endTime);
 
-        parkingFacade.forceVersionUpdate(sector);
+        if (!parkingFacade.reserveCapacity(sector, beginTime, endTime)) throw new ReservationNoAvailablePlaceException();
 
         reservationFacade.create(newReservation);
 
@@ -208,6 +204,7 @@ public class ReservationService implements ReservationServiceInterface {
 
         reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
         reservationFacade.edit(reservation);
+        parkingFacade.releaseCapacity(reservation.getSector().getId(), reservation.getBeginTime(), reservation.getEndTime());
 
         // Send a notification email
         mailProvider.sendCancelledReservationInfoEmail(
@@ -227,6 +224,13 @@ public class ReservationService implements ReservationServiceInterface {
         return reservationFacade.findAllWithPagination(pageNumber, pageSize);
     }
 
+    @Override
+    @RolesAllowed({Authorities.GET_ALL_RESERVATIONS})
+    public List<Reservation> getAllReservationsWithKeyset(ContinuationToken token, int pageSize) throws ApplicationBaseException {
+        if (token == null) return reservationFacade.findAllWithKeyset(null, null, pageSize);
+        return reservationFacade.findAllWithKeyset(token.getSortKeyAsDateTime(), token.getTieBreakerAsUUID(), pageSize);
+    }
+
     // MOP.24 - Get own reservation
 
     @Override
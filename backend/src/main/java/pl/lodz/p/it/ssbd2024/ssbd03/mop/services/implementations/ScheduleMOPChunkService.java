@@ -0,0 +1,263 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations;
+
+import jakarta.annotation.security.RolesAllowed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.schedule.SchedulerNode;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.SectorCapacitySlot;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.ReservationExpiryWheel;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.ReservationExpiryWheel.Deadline;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.ReservationExpiryWheel.DeadlineType;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ReservationFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ReservationFacade.ReservationTransition;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.SchedulerLeaseMOPFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.UserLevelMOPFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces.ScheduleMOPChunkServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service processing scheduled tasks of the MOP module in chunks. Each method is executed in a new transaction,
+ * so that the reservations claimed by the chunk stay locked only until the chunk is committed, and the failure
+ * of the chunk rolls back only that chunk. Follow-up of each reservation is executed in its own transaction as well,
+ * after the chunk is committed.
+ *
+ * @see ScheduleMOPService
+ */
+@Slf4j
+@Service
+@Profile("!test")
+@LoggerInterceptor
+@TxTracked
+@Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = ApplicationBaseException.class)
+public class ScheduleMOPChunkService implements ScheduleMOPChunkServiceInterface {
+
+    /**
+     * String value that specifies time after which ending will occur.
+     * Ending time is specified by <code>scheduler.maximum_reservation_time</code> property.
+     */
+    @Value("${scheduler.maximum_reservation_time}")
+    private String endTime;
+
+    /**
+     * Maximum number of reservations changed with single set of bulk statements.
+     * Specified by <code>scheduler.bulk_chunk_size</code> property.
+     */
+    @Value("${scheduler.bulk_chunk_size}")
+    private int chunkSize;
+
+    /**
+     * Maximum number of expired deadlines processed with single tick of the reservation expiry wheel.
+     * Specified by <code>scheduler.expiry.batch_size</code> property.
+     */
+    @Value("${scheduler.expiry.batch_size}")
+    private int expiryBatchSize;
+
+    /**
+     * Time in minutes, for which the lease of the task is acquired.
+     * Specified by <code>scheduler.lease.ttl.minutes</code> property.
+     */
+    @Value("${scheduler.lease.ttl.minutes}")
+    private long leaseTTL;
+
+    private final ReservationFacade reservationFacade;
+    private final UserLevelMOPFacade userLevelFacade;
+    private final ParkingFacade parkingFacade;
+    private final MailProvider mailProvider;
+    private final ReservationExpiryWheel reservationExpiryWheel;
+    private final SchedulerLeaseMOPFacade schedulerLeaseFacade;
+    private final SchedulerNode schedulerNode;
+
+    /**
+     * Autowired constructor for the service.
+     *
+     * @param reservationFacade      Facade used to claim and change the reservations.
+     * @param userLevelFacade        Facade used to recalculate client types after completion of the reservations.
+     * @param parkingFacade          Facade used to release places occupied in the sectors.
+     * @param mailProvider           Provider used to notify clients about termination of their reservations.
+     * @param reservationExpiryWheel Wheel holding the deadlines of the reservations.
+     * @param schedulerLeaseFacade   Facade used to acquire and renew the leases of the tasks.
+     * @param schedulerNode          Identity of this instance of the application.
+     */
+    @Autowired
+    public ScheduleMOPChunkService(ReservationFacade reservationFacade,
+                                   UserLevelMOPFacade userLevelFacade,
+                                   ParkingFacade parkingFacade,
+                                   MailProvider mailProvider,
+                                   ReservationExpiryWheel reservationExpiryWheel,
+                                   SchedulerLeaseMOPFacade schedulerLeaseFacade,
+                                   SchedulerNode schedulerNode) {
+        this.reservationFacade = reservationFacade;
+        this.userLevelFacade = userLevelFacade;
+        this.parkingFacade = parkingFacade;
+        this.mailProvider = mailProvider;
+        this.reservationExpiryWheel = reservationExpiryWheel;
+        this.schedulerLeaseFacade = schedulerLeaseFacade;
+        this.schedulerNode = schedulerNode;
+    }
+
+    @Override
+    @RolesAllowed({Authorities.ACQUIRE_SCHEDULER_LEASE})
+    public boolean acquireLease(String name) throws ApplicationBaseException {
+        return schedulerLeaseFacade.tryAcquire(name, schedulerNode.getNodeId(), LocalDateTime.now().plusMinutes(leaseTTL)).isPresent();
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public ChunkResult processExpiredReservations() throws ApplicationBaseException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime[] timeframe = reservationExpiryWheel.extendHorizon(now);
+        if (timeframe != null) {
+            int loaded = reservationFacade.loadDeadlines(timeframe[0], timeframe[1], Long.parseLong(endTime), chunkSize);
+            log.info("Deadlines of {} reservations loaded into reservation expiry wheel, up to: {}.", loaded, timeframe[1]);
+        }
+
+        List<Deadline> deadlines = reservationExpiryWheel.pollExpired(now, expiryBatchSize);
+        if (deadlines.isEmpty()) return new ChunkResult(0, List.of(), List.of());
+
+        List<UUID> terminationIds = new ArrayList<>();
+        List<UUID> completionIds = new ArrayList<>();
+        for (Deadline deadline : deadlines) {
+            (deadline.getType() == DeadlineType.TERMINATION ? terminationIds : completionIds).add(deadline.getReservationId());
+        }
+
+        Map<UUID, Integer> releasedPlaces = new HashMap<>();
+        List<UUID> terminatedClientReservationIds = new ArrayList<>();
+        List<ReservationTransition> terminated = reservationFacade.findTransitionsMarkedForTerminationByIds(
+                now.minusHours(Long.parseLong(endTime)), terminationIds);
+        reservationFacade.terminateInBulk(terminated);
+        collectTransitions(terminated, releasedPlaces, terminatedClientReservationIds);
+
+        List<UUID> completedClientReservationIds = new ArrayList<>();
+        List<ReservationTransition> completed = reservationFacade.findTransitionsMarkedForCompletingByIds(completionIds);
+        reservationFacade.completeInBulk(completed);
+        collectTransitions(completed, releasedPlaces, completedClientReservationIds);
+
+        log.info("Expired reservation deadlines processed: {}, terminated reservations: {}, completed reservations: {}.",
+                deadlines.size(), terminated.size(), completed.size());
+        parkingFacade.releaseOccupiedPlaces(releasedPlaces);
+        return new ChunkResult(terminated.size() + completed.size(), terminatedClientReservationIds, completedClientReservationIds);
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public ChunkResult terminateReservations(String name, LocalDateTime timestamp) throws ApplicationBaseException {
+        if (!renewLease(name)) return new ChunkResult(0, List.of(), List.of());
+
+        List<ReservationTransition> chunk = reservationFacade.findTransitionsMarkedForTermination(timestamp, chunkSize);
+        reservationFacade.terminateInBulk(chunk);
+
+        Map<UUID, Integer> releasedPlaces = new HashMap<>();
+        List<UUID> clientReservationIds = new ArrayList<>();
+        collectTransitions(chunk, releasedPlaces, clientReservationIds);
+        parkingFacade.releaseOccupiedPlaces(releasedPlaces);
+        return new ChunkResult(chunk.size(), clientReservationIds, List.of());
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public ChunkResult completeReservations(String name) throws ApplicationBaseException {
+        if (!renewLease(name)) return new ChunkResult(0, List.of(), List.of());
+
+        List<ReservationTransition> chunk = reservationFacade.findTransitionsMarkedForCompleting(chunkSize);
+        reservationFacade.completeInBulk(chunk);
+
+        Map<UUID, Integer> releasedPlaces = new HashMap<>();
+        List<UUID> clientReservationIds = new ArrayList<>();
+        collectTransitions(chunk, releasedPlaces, clientReservationIds);
+        parkingFacade.releaseOccupiedPlaces(releasedPlaces);
+        return new ChunkResult(chunk.size(), List.of(), clientReservationIds);
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public void notifyAboutTermination(UUID reservationId) throws ApplicationBaseException {
+        for (Reservation reservation : reservationFacade.findAllWithClientByIds(List.of(reservationId))) {
+            mailProvider.sendSystemEndReservationInfoEmail(
+                    reservation.getClient().getAccount().getName(),
+                    reservation.getClient().getAccount().getLastname(),
+                    reservation.getClient().getAccount().getEmail(),
+                    reservation.getClient().getAccount().getAccountLanguage(),
+                    reservation.getId().toString()
+            );
+        }
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public void recalculateClientType(UUID reservationId) throws ApplicationBaseException {
+        for (Reservation reservation : reservationFacade.findAllWithClientByIds(List.of(reservationId))) {
+            Client client = reservation.getClient();
+            userLevelFacade.clientTypeChangeCheck(reservation);
+            userLevelFacade.edit(client);
+        }
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int removePastCapacitySlots() throws ApplicationBaseException {
+        return parkingFacade.removeCapacitySlotsBefore(SectorCapacitySlot.slotOf(LocalDateTime.now()));
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int backfillVehicleInside() throws ApplicationBaseException {
+        return reservationFacade.backfillVehicleInside();
+    }
+
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    public int backfillCapacitySlots() throws ApplicationBaseException {
+        return parkingFacade.backfillCapacitySlots();
+    }
+
+    /**
+     * Renews the lease of the task before processing the next chunk. Lease stays locked until the chunk is committed,
+     * so that the node, which took over the expired lease, could not process the task concurrently.
+     *
+     * @param name Name of the scheduled task.
+     * @return True if the lease was renewed, false if it was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    private boolean renewLease(String name) throws ApplicationBaseException {
+        if (schedulerLeaseFacade.renew(name, schedulerNode.getNodeId(), LocalDateTime.now().plusMinutes(leaseTTL)).isPresent()) {
+            return true;
+        }
+        log.warn("Task: {} interrupted, since its lease was taken over by another instance.", name);
+        return false;
+    }
+
+    /**
+     * Counts places released in each sector by the changed reservations, and collects identifiers of the
+     * reservations made by the clients. Only reservations in progress release the place, since awaiting
+     * reservations have never occupied it.
+     */
+    private static void collectTransitions(List<ReservationTransition> transitions, Map<UUID, Integer> releasedPlaces,
+                                           List<UUID> clientReservationIds) {
+        for (ReservationTransition transition : transitions) {
+            if (transition.getStatus() == Reservation.ReservationStatus.IN_PROGRESS) {
+                releasedPlaces.merge(transition.getSectorId(), 1, Integer::sum);
+            }
+            if (transition.getClientId() != null) clientReservationIds.add(transition.getReservationId());
+        }
+    }
+}
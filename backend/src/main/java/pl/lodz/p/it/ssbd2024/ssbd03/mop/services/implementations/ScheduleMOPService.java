@@ -6,6 +6,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -16,34 +20,36 @@ import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.TxTracked;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.util.RunAsSystem;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingEvent;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationOptimisticLockException;
-import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade;
-import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ReservationFacade;
-import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.UserLevelMOPFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.ReservationExpiryWheel;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces.ScheduleMOPChunkServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces.ScheduleMOPChunkServiceInterface.ChunkResult;
 import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces.ScheduleMOPServiceInterface;
-import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service managing execution of scheduled tasks.
  * Configuration concerning tasks is set in consts.properties.
+ * Reservations are completed and terminated close to their deadlines, held in the {@link ReservationExpiryWheel},
+ * while the hourly tasks only reconcile reservations missed by the wheel (e.g. changed by another instance).
+ * When multiple instances of the application are running, every instance processes its wheel, claiming reservations
+ * with <code>SKIP LOCKED</code>, while each hourly task is executed only by the instance holding its lease.
+ * Hourly tasks are processed in chunks of reservations, each of them committed in a separate transaction.
+ * Follow-up of the reservations made by the clients (notification about termination, recalculation of the client type)
+ * is executed after the chunk is committed, with separate transaction for each reservation.
  */
 @Slf4j
 @Service
 @Profile("!test")
 @LoggerInterceptor
 @TxTracked
-@Transactional(propagation = Propagation.REQUIRES_NEW)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class ScheduleMOPService implements ScheduleMOPServiceInterface {
 
     /**
@@ -53,20 +59,66 @@ public class ScheduleMOPService implements ScheduleMOPServiceInterface {
     @Value("${scheduler.maximum_reservation_time}")
     private String endTime;
 
-    private final ReservationFacade reservationFacade;
-    private final UserLevelMOPFacade userLevelFacade;
-    private final ParkingFacade parkingFacade;
-    private final MailProvider mailProvider;
+    /**
+     * Maximum number of reservations changed with single set of bulk statements.
+     * Specified by <code>scheduler.bulk_chunk_size</code> property.
+     */
+    @Value("${scheduler.bulk_chunk_size}")
+    private int chunkSize;
 
+    /**
+     * Service processing the tasks in chunks, each of them in a separate transaction.
+     */
+    private final ScheduleMOPChunkServiceInterface scheduleChunkService;
+
+    /**
+     * Flags set after the startup backfills succeeded, so that they are not repeated when the context is refreshed again.
+     * Flags are set only after success, so that the backfill is still repeated by the retry.
+     */
+    private final AtomicBoolean vehicleInsideBackfilled = new AtomicBoolean(false);
+    private final AtomicBoolean capacitySlotsBackfilled = new AtomicBoolean(false);
+
+    /**
+     * Autowired constructor for the service.
+     *
+     * @param scheduleChunkService Service processing the tasks in chunks.
+     */
     @Autowired
-    public ScheduleMOPService(ReservationFacade reservationFacade,
-                              UserLevelMOPFacade userLevelFacade,
-                              ParkingFacade parkingFacade,
-                              MailProvider mailProvider) {
-        this.reservationFacade = reservationFacade;
-        this.userLevelFacade = userLevelFacade;
-        this.parkingFacade = parkingFacade;
-        this.mailProvider = mailProvider;
+    public ScheduleMOPService(ScheduleMOPChunkServiceInterface scheduleChunkService) {
+        this.scheduleChunkService = scheduleChunkService;
+    }
+
+    @RunAsSystem
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(classes = ContextRefreshedEvent.class, condition = "#root.event.applicationContext.parent == null")
+    public void backfillVehicleInside() throws ApplicationBaseException {
+        if (vehicleInsideBackfilled.get()) return;
+        int changed = scheduleChunkService.backfillVehicleInside();
+        if (changed > 0) log.info("Vehicle inside flag was backfilled for {} reservations.", changed);
+        vehicleInsideBackfilled.set(true);
+    }
+
+    @RunAsSystem
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"),
+            retryFor = {ApplicationDatabaseException.class, RollbackException.class})
+    @EventListener(classes = ContextRefreshedEvent.class, condition = "#root.event.applicationContext.parent == null")
+    public void backfillCapacitySlots() throws ApplicationBaseException {
+        if (capacitySlotsBackfilled.get()) return;
+        int changed = scheduleChunkService.backfillCapacitySlots();
+        if (changed > 0) log.info("Capacity slots were backfilled with active reservations in {} slots.", changed);
+        capacitySlotsBackfilled.set(true);
+    }
+
+    @RunAsSystem
+    @Override
+    @RolesAllowed({Authorities.END_RESERVATION})
+    @Scheduled(fixedDelayString = "${scheduler.expiry.tick.seconds}", timeUnit = TimeUnit.SECONDS)
+    public void processExpiredReservations() throws ApplicationBaseException {
+        followUp(scheduleChunkService.processExpiredReservations());
     }
 
     @RunAsSystem
@@ -75,58 +127,33 @@ public class ScheduleMOPService implements ScheduleMOPServiceInterface {
     @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"),
             retryFor = {ApplicationDatabaseException.class, RollbackException.class, ApplicationOptimisticLockException.class})
     @Scheduled(fixedRate = 1L, timeUnit = TimeUnit.HOURS, initialDelay = -1L)
-    public void terminateReservation() {
+    public void terminateReservation() throws ApplicationBaseException {
         log.info("Method: endReservation(), used for terminating reservations which last more than scheduler.maximum_reservation_time value");
-        List<Reservation> reservationsToBeFinished = new ArrayList<>();
+        String name = "mop.terminateReservation";
+        if (!acquireLease(name)) return;
+        LocalDateTime timestamp;
         try {
-            reservationsToBeFinished = reservationFacade.findAllReservationsMarkedForTermination(Long.parseLong(endTime), TimeUnit.HOURS);
-        } catch (NumberFormatException | ApplicationBaseException exception) {
+            timestamp = LocalDateTime.now().minusHours(Long.parseLong(endTime));
+        } catch (NumberFormatException exception) {
             log.error("Exception: {} occurred while searching for reservation to be terminated. Cause: {}.",
                     exception.getClass().getSimpleName(), exception.getMessage());
-        }
-
-        if (reservationsToBeFinished.isEmpty()) {
-            log.info("No reservations to be terminated were found.");
             return;
         }
 
-        log.info("List of identifiers of reservations to be terminated: {}", reservationsToBeFinished.stream().map(Reservation::getId).toList());
+        int terminated = 0;
+        int chunk;
+        do {
+            ChunkResult result = scheduleChunkService.terminateReservations(name, timestamp);
+            followUp(result);
+            chunk = result.getClaimed();
+            terminated += chunk;
+        } while (chunk == chunkSize);
 
-        for (Reservation reservation : reservationsToBeFinished) {
-            try {
-                long numberOfEntries = reservation.getParkingEvents().stream()
-                        .filter(event -> event.getType() == ParkingEvent.EventType.ENTRY)
-                        .count();
-
-                long numberOfExits = reservation.getParkingEvents().stream()
-                        .filter(event -> event.getType() == ParkingEvent.EventType.EXIT)
-                        .count();
-
-                if (numberOfExits != numberOfEntries) {
-                    ParkingEvent exitEvent = new ParkingEvent(LocalDateTime.now(), ParkingEvent.EventType.EXIT);
-                    reservation.addParkingEvent(exitEvent);
-                    reservation.setStatus(Reservation.ReservationStatus.TERMINATED);
-                    this.reservationFacade.edit(reservation);
-                    Sector sector = reservation.getSector();
-                    sector.setOccupiedPlaces(sanitizeInteger(sector.getOccupiedPlaces() - 1));
-                    parkingFacade.editSector(sector);
-
-                    if (reservation.getClient() != null) {
-                        // Send mail notification
-                        mailProvider.sendSystemEndReservationInfoEmail(
-                                reservation.getClient().getAccount().getName(),
-                                reservation.getClient().getAccount().getLastname(),
-                                reservation.getClient().getAccount().getEmail(),
-                                reservation.getClient().getAccount().getAccountLanguage(),
-                                reservation.getId().toString()
-                        );
-                    }
-                }
-            } catch (Exception exception) {
-                log.error("Exception: {} occurred while terminating reservation with id: {}. Cause: {}.",
-                        exception.getClass().getSimpleName(), reservation.getId(), exception.getMessage());
-            }
+        if (terminated == 0) {
+            log.info("No reservations to be terminated were found.");
+            return;
         }
+        log.info("Number of terminated reservations: {}", terminated);
     }
 
     @RunAsSystem
@@ -135,44 +162,58 @@ public class ScheduleMOPService implements ScheduleMOPServiceInterface {
     @Retryable(maxAttemptsExpression = "${retry.max.attempts}", backoff = @Backoff(delayExpression = "${retry.max.delay}"),
             retryFor = {ApplicationDatabaseException.class, RollbackException.class, ApplicationOptimisticLockException.class})
     @Scheduled(fixedRate = 1L, timeUnit = TimeUnit.HOURS, initialDelay = -1L)
-    public void completeReservation() {
+    public void completeReservation() throws ApplicationBaseException {
         log.info("Method: completeReservation(), used for completing reservations");
-        List<Reservation> reservationsToEnd = new ArrayList<>();
-        try {
-            reservationsToEnd = reservationFacade.findAllReservationsMarkedForCompleting();
-        } catch (ApplicationBaseException exception) {
-            log.error("Exception: {} occurred while searching for reservation to be completed. Cause: {}.",
-                    exception.getClass().getSimpleName(), exception.getMessage());
-        }
-
-        if (reservationsToEnd.isEmpty()) {
+        String name = "mop.completeReservation";
+        if (!acquireLease(name)) return;
+        int removedSlots = scheduleChunkService.removePastCapacitySlots();
+        if (removedSlots > 0) log.info("Number of removed past capacity slots: {}", removedSlots);
+
+        int completed = 0;
+        int chunk;
+        do {
+            ChunkResult result = scheduleChunkService.completeReservations(name);
+            followUp(result);
+            chunk = result.getClaimed();
+            completed += chunk;
+        } while (chunk == chunkSize);
+
+        if (completed == 0) {
             log.info("No reservations to be completed were found.");
             return;
         }
+        log.info("Number of completed reservations: {}", completed);
+    }
 
-        log.info("List of identifiers of reservations to be completed: {}", reservationsToEnd.stream().map(Reservation::getId).toList());
-
-        for (Reservation reservation : reservationsToEnd) {
+    /**
+     * Follow-up stage of the committed chunk - failure of the follow-up is only logged, since it could not
+     * roll back the chunk, and it is not repeated by the next chunk.
+     */
+    private void followUp(ChunkResult result) {
+        for (UUID reservationId : result.getTerminatedClientReservationIds()) {
             try {
-                reservation.setStatus(Reservation.ReservationStatus.COMPLETED_AUTOMATICALLY);
-                reservationFacade.edit(reservation);
-
-                Sector sector = reservation.getSector();
-                sector.setOccupiedPlaces(sanitizeInteger(sector.getOccupiedPlaces() - 1));
-                parkingFacade.editSector(sector);
-
-                Client client = reservation.getClient();
-
-                userLevelFacade.clientTypeChangeCheck(reservation);
-                userLevelFacade.edit(client);
+                scheduleChunkService.notifyAboutTermination(reservationId);
             } catch (Exception exception) {
-                log.error("Exception: {} occurred while canceling reservation with id: {}. Cause: {}.",
-                        exception.getClass().getSimpleName(), reservation.getId(), exception.getMessage());
+                log.error("Exception: {} occurred while notifying about termination of reservation with id: {}. Cause: {}.",
+                        exception.getClass().getSimpleName(), reservationId, exception.getMessage());
+            }
+        }
+        for (UUID reservationId : result.getCompletedClientReservationIds()) {
+            try {
+                scheduleChunkService.recalculateClientType(reservationId);
+            } catch (Exception exception) {
+                log.error("Exception: {} occurred while recalculating client type for reservation with id: {}. Cause: {}.",
+                        exception.getClass().getSimpleName(), reservationId, exception.getMessage());
             }
         }
     }
 
-    private static int sanitizeInteger(int value) {
-        return Math.max(value, 0);
+    /**
+     * Tries to acquire the lease of the scheduled task for this instance of the application.
+     */
+    private boolean acquireLease(String name) throws ApplicationBaseException {
+        if (scheduleChunkService.acquireLease(name)) return true;
+        log.info("Task: {} skipped, since its lease is held by another instance.", name);
+        return false;
     }
 }
@@ -2,6 +2,7 @@ package pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces;
 
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingHistoryData;
@@ -104,6 +105,18 @@ public interface ParkingServiceInterface {
     List<ParkingHistoryData> getHistoryDataByParkingId(UUID id, int pageNumber, int pageSize)
             throws ApplicationBaseException;
 
+    /**
+     * Retrieve historic data of a given parking, using keyset pagination.
+     *
+     * @param id       ID of the parking which history data is requested.
+     * @param token    Continuation token pointing after the last entry from the previous page, or null for the first page.
+     * @param pageSize The number of results to return per page.
+     * @return A list history data entries, ordered by modification time from newest, placed after the one pointed by the token.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
+     */
+    List<ParkingHistoryData> getHistoryDataByParkingIdWithKeyset(UUID id, ContinuationToken token, int pageSize)
+            throws ApplicationBaseException;
+
     /**
      * Activates sector with given id, by setting active field to true.
      *
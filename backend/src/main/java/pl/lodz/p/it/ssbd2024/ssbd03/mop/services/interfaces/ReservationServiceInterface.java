@@ -1,5 +1,6 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces;
 
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingEvent;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
@@ -62,6 +63,15 @@ public interface ReservationServiceInterface {
      */
     List<Reservation> getAllReservations(int pageNumber, int pageSize) throws ApplicationBaseException;
 
+    /**
+     * Retrieve reservations in the system, ordered by their beginning time, using keyset pagination.
+     * @param token    Continuation token pointing after the last reservation from the previous page, or null for the first page.
+     * @param pageSize The number of results to return per page.
+     * @return A list of reservations placed after the one pointed by the continuation token.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
+     */
+    List<Reservation> getAllReservationsWithKeyset(ContinuationToken token, int pageSize) throws ApplicationBaseException;
+
     /**
      * Retrieve reservation from the database by its identifier.
      *
@@ -0,0 +1,117 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface used for processing scheduled tasks of the MOP module in chunks, each of them in a separate transaction.
+ * Every chunk claims the reservations with <code>SKIP LOCKED</code>, and it is committed along with the places
+ * released in the sectors, so that the claimed reservations no longer match the query of the next chunk.
+ * Follow-up of the reservations made by the clients is executed only after the chunk is committed, each reservation
+ * in a separate transaction, so that the failure of single follow-up could not roll back the chunk.
+ */
+public interface ScheduleMOPChunkServiceInterface {
+
+    /**
+     * Result of the committed chunk, holding identifiers of the reservations made by the clients, which require
+     * the follow-up.
+     */
+    @Getter
+    @AllArgsConstructor
+    class ChunkResult {
+        private final int claimed;
+        private final List<UUID> terminatedClientReservationIds;
+        private final List<UUID> completedClientReservationIds;
+    }
+
+    /**
+     * Tries to acquire the lease of the scheduled task for this instance of the application.
+     *
+     * @param name Name of the scheduled task.
+     * @return True if the lease was acquired, false if it is held by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    boolean acquireLease(String name) throws ApplicationBaseException;
+
+    /**
+     * Completes and terminates reservations, which deadlines expired in the reservation expiry wheel, processing
+     * single batch of the expired deadlines.
+     *
+     * @return Result of the chunk, holding the reservations, which require the follow-up.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    ChunkResult processExpiredReservations() throws ApplicationBaseException;
+
+    /**
+     * Terminates the next chunk of reservations, which began before given point in time and are still not closed.
+     *
+     * @param name      Name of the scheduled task, identifying its lease.
+     * @param timestamp Reservations beginning before this timestamp are terminated.
+     * @return Result of the chunk, claiming no reservations if the lease was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    ChunkResult terminateReservations(String name, LocalDateTime timestamp) throws ApplicationBaseException;
+
+    /**
+     * Completes the next chunk of reservations, which have already ended.
+     *
+     * @param name Name of the scheduled task, identifying its lease.
+     * @return Result of the chunk, claiming no reservations if the lease was taken over by another instance.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    ChunkResult completeReservations(String name) throws ApplicationBaseException;
+
+    /**
+     * Notifies the client about termination of the reservation. Follow-up stage of the termination.
+     *
+     * @param reservationId Identifier of the terminated reservation made by the client.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    void notifyAboutTermination(UUID reservationId) throws ApplicationBaseException;
+
+    /**
+     * Recalculates type of the client, who made the reservation. Follow-up stage of the completion.
+     *
+     * @param reservationId Identifier of the completed reservation made by the client.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    void recalculateClientType(UUID reservationId) throws ApplicationBaseException;
+
+    /**
+     * Removes capacity slots of the sectors, which have already passed.
+     *
+     * @return Number of removed capacity slots.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    int removePastCapacitySlots() throws ApplicationBaseException;
+
+    /**
+     * Fills the vehicle inside flag of the active reservations, based on their parking events.
+     *
+     * @return Number of reservations, which flag was changed.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    int backfillVehicleInside() throws ApplicationBaseException;
+
+    /**
+     * Fills the capacity slots of the sectors with the active reservations, which are not counted in them yet.
+     *
+     * @return Number of created or raised capacity slots.
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by exception handling aspects
+     *                                  on facade and service layer components.
+     */
+    int backfillCapacitySlots() throws ApplicationBaseException;
+}
@@ -1,17 +1,53 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces;
 
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
 /**
  * Interface used for managing execution of scheduled tasks on behalf of module MOP.
  */
 public interface ScheduleMOPServiceInterface {
 
+    /**
+     * This method is used to complete and terminate reservations shortly after their deadlines expire in the
+     * reservation expiry wheel, processing them in small batches. Periodic termination and completion of the
+     * reservations are kept as the reconciliation of the reservations missed by the wheel.
+     *
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
+     */
+    void processExpiredReservations() throws ApplicationBaseException;
+
     /***
      *This method is used to terminate reservation when the time of reservation has run out.
+     *
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
      */
-    void terminateReservation();
+    void terminateReservation() throws ApplicationBaseException;
 
     /**
      *This method is used to complete reservation automatically
+     *
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
+     */
+    void completeReservation() throws ApplicationBaseException;
+
+    /**
+     * This method is used to fill the vehicle inside flag of the active reservations, based on their parking events,
+     * before any scheduled task is started. Flag added to the existing database is set to false for all reservations,
+     * so without the backfill the reservations with the vehicle inside would be completed instead of terminated.
+     * Backfill is executed only once, on the first refresh of the top-level application context.
+     *
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
+     */
+    void backfillVehicleInside() throws ApplicationBaseException;
+
+    /**
+     * This method is used to fill the capacity slots of the sectors with the active reservations at startup.
+     * Database upgraded with the schema update contains reservations, which were made before the capacity slots
+     * were introduced, so without the backfill their places would not be counted in any slot, and they would be
+     * released from the slots filled by other reservations when cancelled.
+     * Backfill is executed only once, on the first refresh of the top-level application context.
+     *
+     * @throws ApplicationBaseException General superclass for all exceptions thrown by aspects intercepting this method.
      */
-    void completeReservation();
+    void backfillCapacitySlots() throws ApplicationBaseException;
 }
@@ -2,12 +2,17 @@ package pl.lodz.p.it.ssbd2024.ssbd03.utils;
 
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 
-import java.util.Locale;
+import java.util.List;
 import java.util.ResourceBundle;
 
 @LoggerInterceptor
 public class I18n {
 
+    public static final String MESSAGES_BUNDLE = "Messages";
+    public static final List<String> SUPPORTED_LANGUAGES = List.of("pl", "en");
+
+    private static volatile MessageCatalog catalog = MessageCatalog.load(MESSAGES_BUNDLE, SUPPORTED_LANGUAGES);
+
     // Account exceptions
     public static final String ACCOUNT_CONSTRAINT_VIOLATION = "account.constraint.violation.exception";
     public static final String ACCOUNT_EMAIL_NOT_FOUND = "account.with.given.email.not.found.exception";
@@ -118,6 +123,7 @@ public class I18n {
     public static final String ATTRIBUTE_NOT_FOUND_EXCEPTION = "attribute.not.found.exception";
     public static final String ATTRIBUTE_REPEATED_EXCEPTION = "attribute.repeated.exception";
     public static final String BAD_UUID_INVALID_FORMAT_EXCEPTION = "uuid.invalid.format.exception";
+    public static final String CONTINUATION_TOKEN_INVALID_FORMAT_EXCEPTION = "continuation.token.invalid.format.exception";
 
     // Mail provider
     public static final String CONFIRM_REGISTER_GREETING_MESSAGE = "mail.confirm.register.greeting.message";
@@ -236,9 +242,23 @@ public class I18n {
     public static final String STAFF_USER_LEVEL = "user.level.staff";
     public static final String ADMIN_USER_LEVEL = "user.level.admin";
 
+    /**
+     * Retrieves the message from the catalog preloaded from the resource bundles.
+     *
+     * @param messageKey Key of the message.
+     * @param language   Language of the message. Unsupported languages fall back to the base bundle.
+     * @return Message in given language.
+     */
     public static String getMessage(String messageKey, String language) {
-        Locale locale = new Locale.Builder().setLanguage(language).build();
-        ResourceBundle resourceBundle = ResourceBundle.getBundle("Messages", locale);
-        return resourceBundle.getString(messageKey);
+        return catalog.getMessage(messageKey, language);
+    }
+
+    /**
+     * Reloads the catalog from the resource bundles. Lookups in progress use the previous catalog, and subsequent
+     * lookups use the new one.
+     */
+    public static void reload() {
+        ResourceBundle.clearCache();
+        catalog = MessageCatalog.load(MESSAGES_BUNDLE, SUPPORTED_LANGUAGES);
     }
 }
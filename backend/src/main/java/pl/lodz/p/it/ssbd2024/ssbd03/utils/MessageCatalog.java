@@ -0,0 +1,109 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils;
+
+import java.util.*;
+
+/**
+ * Immutable catalog of the localized messages, resolved from the resource bundles once, when the catalog is loaded.
+ * Each message key is assigned an index, and the messages of each supported language are kept in a flat array under
+ * the indexes of their keys, so the lookup takes a single hash lookup of the key and two array reads. Messages missing
+ * in the bundle of given language are resolved from the base bundle, and languages that are not supported use
+ * the base bundle only.
+ */
+public final class MessageCatalog {
+
+    private final String baseName;
+    private final Map<String, Integer> keyIndexes;
+    private final String[] languages;
+    private final String[][] languageMessages;
+    private final String[] defaultMessages;
+
+    private MessageCatalog(String baseName, Map<String, Integer> keyIndexes, String[] languages,
+                           String[][] languageMessages, String[] defaultMessages) {
+        this.baseName = baseName;
+        this.keyIndexes = keyIndexes;
+        this.languages = languages;
+        this.languageMessages = languageMessages;
+        this.defaultMessages = defaultMessages;
+    }
+
+    /**
+     * Loads the catalog from the resource bundles.
+     *
+     * @param baseName  Base name of the resource bundles.
+     * @param languages Supported languages, each of them having its own bundle.
+     * @return Catalog containing messages of every supported language.
+     * @throws MissingResourceException Thrown when the base bundle could not be found.
+     */
+    public static MessageCatalog load(String baseName, List<String> languages) {
+        ResourceBundle.Control control = ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+        ResourceBundle defaultBundle = ResourceBundle.getBundle(baseName, Locale.ROOT, control);
+        List<ResourceBundle> bundles = languages.stream()
+                .map(language -> ResourceBundle.getBundle(baseName, new Locale.Builder().setLanguage(language).build(), control))
+                .toList();
+
+        Map<String, Integer> keyIndexes = new HashMap<>();
+        for (ResourceBundle bundle : bundles) {
+            bundle.keySet().forEach(key -> keyIndexes.putIfAbsent(key.intern(), keyIndexes.size()));
+        }
+        defaultBundle.keySet().forEach(key -> keyIndexes.putIfAbsent(key.intern(), keyIndexes.size()));
+
+        String[][] languageMessages = new String[languages.size()][];
+        for (int i = 0; i < languages.size(); i++) {
+            languageMessages[i] = resolve(bundles.get(i), keyIndexes);
+        }
+        return new MessageCatalog(baseName, Map.copyOf(keyIndexes), languages.toArray(String[]::new),
+                languageMessages, resolve(defaultBundle, keyIndexes));
+    }
+
+    private static String[] resolve(ResourceBundle bundle, Map<String, Integer> keyIndexes) {
+        String[] messages = new String[keyIndexes.size()];
+        keyIndexes.forEach((key, index) -> {
+            if (bundle.containsKey(key)) messages[index] = bundle.getString(key);
+        });
+        return messages;
+    }
+
+    /**
+     * Retrieves the message in given language.
+     *
+     * @param messageKey Key of the message.
+     * @param language   Language of the message. Messages of the unsupported languages are taken from the base bundle.
+     * @return Message in given language.
+     * @throws MissingResourceException Thrown when the message is missing in both given language and the base bundle.
+     */
+    public String getMessage(String messageKey, String language) {
+        Integer index = keyIndexes.get(messageKey);
+        String message = null;
+        if (index != null) {
+            String[] messages = messagesOf(language);
+            message = messages[index] != null ? messages[index] : defaultMessages[index];
+        }
+        if (message == null) {
+            throw new MissingResourceException("Message with key: %s was not found in bundle: %s for language: %s."
+                    .formatted(messageKey, baseName, language), baseName, messageKey);
+        }
+        return message;
+    }
+
+    /**
+     * Checks whether given language has its own bundle in the catalog.
+     *
+     * @param language Language to be checked.
+     * @return True if the language is supported, false otherwise.
+     */
+    public boolean isSupported(String language) {
+        return indexOf(language) >= 0;
+    }
+
+    private String[] messagesOf(String language) {
+        int index = indexOf(language);
+        return index >= 0 ? languageMessages[index] : defaultMessages;
+    }
+
+    private int indexOf(String language) {
+        for (int i = 0; i < languages.length; i++) {
+            if (languages[i].equalsIgnoreCase(language)) return i;
+        }
+        return -1;
+    }
+}
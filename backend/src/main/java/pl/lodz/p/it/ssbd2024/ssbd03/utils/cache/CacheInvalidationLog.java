@@ -0,0 +1,31 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.cache;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.CacheInvalidation;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+/**
+ * Log of the invalidations of the cache entries, backed by the persistence unit of a single module. Invalidation has
+ * to be written with the persistence unit used by the current transaction, since the data sources of the persistence
+ * units do not take part in two-phase commit, and only then the invalidation is committed atomically with the change
+ * of the cached data.
+ *
+ * @see CacheInvalidation
+ */
+public interface CacheInvalidationLog {
+
+    /**
+     * Checks whether the persistence unit of the log is used by the current transaction.
+     *
+     * @return True if the entity manager of the log is bound to the current transaction, false otherwise.
+     */
+    boolean isUsedByCurrentTransaction();
+
+    /**
+     * Writes the invalidation to the log in the current transaction.
+     *
+     * @param invalidation Invalidation read by other nodes after the transaction is committed.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    void record(CacheInvalidation invalidation) throws ApplicationBaseException;
+}
@@ -0,0 +1,195 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.schedule.ScheduleConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.schedule.SchedulerNode;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.CacheInvalidation;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.CacheInvalidationAuthFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.CacheInvalidationMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.CacheInvalidationServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.CacheInvalidationMOPFacade;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Component propagating invalidations of the caches held in the memory of each instance (node) of the application
+ * to the other nodes. Cache publishes the invalidation of its entry in the transaction, which changes the cached data,
+ * and the invalidation is written to the database along with that change. Every node reads the invalidations written
+ * by other nodes every <code>cache.invalidation.poll.seconds</code>, and passes them to the handlers registered
+ * by its caches, so that the entry stays stale on other nodes no longer than a single period.
+ * <p>
+ * Invalidations are read again with the overlap of <code>cache.invalidation.overlap.seconds</code>, which covers
+ * the transactions committed after the invalidation was read by the previous poll, as well as the difference between
+ * the clocks of the nodes. Node, which was not able to read the invalidations for longer than
+ * <code>cache.invalidation.retention.minutes</code> (after which they are removed), clears its caches entirely.
+ *
+ * @see CacheInvalidation
+ */
+@Slf4j
+@Component
+public class ClusterCacheInvalidator {
+
+    /**
+     * Time in seconds, by which the invalidations are read again by the next poll.
+     * Specified by <code>cache.invalidation.overlap.seconds</code> property.
+     */
+    @Value("${cache.invalidation.overlap.seconds}")
+    private long overlap;
+
+    /**
+     * Time in minutes, after which the invalidations are removed from the database.
+     * Specified by <code>cache.invalidation.retention.minutes</code> property.
+     */
+    @Value("${cache.invalidation.retention.minutes}")
+    private long retention;
+
+    private final CacheInvalidationServiceInterface cacheInvalidationService;
+
+    private final SchedulerNode schedulerNode;
+
+    /**
+     * Logs backed by the persistence units of the modules. The last one is used when none of the persistence
+     * units is used by the current transaction yet.
+     */
+    private final List<CacheInvalidationLog> invalidationLogs;
+
+    /**
+     * Handlers of the invalidations, identified by the name of the cache. Handler receives the key of the invalidated
+     * entry, or null if all entries should be removed.
+     */
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * Invalidations already passed to the handlers, which could be read again due to the overlap. Accessed only by
+     * the poll, which is never executed concurrently.
+     */
+    private final Map<UUID, LocalDateTime> appliedInvalidations = new HashMap<>();
+
+    /**
+     * Key used to bind invalidations published in the current transaction.
+     */
+    private final Object transactionResourceKey = new Object();
+
+    private LocalDateTime lastPollTime = LocalDateTime.now();
+
+    private LocalDateTime lastCleanupTime = LocalDateTime.now();
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param cacheInvalidationService    Service used to read the invalidations written by other nodes.
+     * @param schedulerNode               Identity of this instance of the application.
+     * @param cacheInvalidationMOPFacade  Log backed by the persistence unit of the MOP module.
+     * @param cacheInvalidationAuthFacade Log backed by the persistence unit of the authentication module.
+     * @param cacheInvalidationMOKFacade  Log backed by the persistence unit of the MOK module.
+     */
+    @Autowired
+    public ClusterCacheInvalidator(CacheInvalidationServiceInterface cacheInvalidationService,
+                                   SchedulerNode schedulerNode,
+                                   CacheInvalidationMOPFacade cacheInvalidationMOPFacade,
+                                   CacheInvalidationAuthFacade cacheInvalidationAuthFacade,
+                                   CacheInvalidationMOKFacade cacheInvalidationMOKFacade) {
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.schedulerNode = schedulerNode;
+        this.invalidationLogs = List.of(cacheInvalidationMOPFacade, cacheInvalidationAuthFacade, cacheInvalidationMOKFacade);
+    }
+
+    /**
+     * Registers the handler of the invalidations of the cache, published by other nodes.
+     *
+     * @param region  Name of the cache.
+     * @param handler Handler removing the entry with given key from the cache, or all entries if the key is null.
+     */
+    public void register(String region, Consumer<String> handler) {
+        handlers.put(region, handler);
+    }
+
+    /**
+     * Writes the invalidation of the cache entry in the current transaction, so that it is read by other nodes after
+     * the transaction is committed. Invalidation of the same entry is written only once per transaction, and nothing
+     * is written outside the transaction.
+     *
+     * @param region   Name of the cache.
+     * @param entryKey Key of the invalidated entry, or null if all entries of the cache are invalidated.
+     */
+    @SuppressWarnings("unchecked")
+    public void publish(String region, String entryKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        Set<String> published = (Set<String>) TransactionSynchronizationManager.getResource(transactionResourceKey);
+        if (published == null) {
+            published = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(transactionResourceKey, published);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionResourceKey);
+                }
+            });
+        }
+        if (!published.add(region + ":" + entryKey)) return;
+
+        CacheInvalidationLog invalidationLog = invalidationLogs.stream()
+                .filter(CacheInvalidationLog::isUsedByCurrentTransaction)
+                .findFirst()
+                .orElse(invalidationLogs.getLast());
+        try {
+            invalidationLog.record(new CacheInvalidation(region, entryKey, schedulerNode.getNodeId()));
+        } catch (ApplicationBaseException | RuntimeException exception) {
+            log.error("Exception: {} occurred while publishing invalidation of the cache: {}. Cause: {}.",
+                    exception.getClass().getSimpleName(), region, exception.getMessage());
+        }
+    }
+
+    /**
+     * Periodically reads the invalidations written by other nodes, and passes them to the handlers of the caches.
+     * Period is specified by <code>cache.invalidation.poll.seconds</code> property. Polls are executed by their own
+     * scheduler, outside the scheduler bulkhead.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll.seconds}", initialDelayString = "${cache.invalidation.poll.seconds}",
+            timeUnit = TimeUnit.SECONDS, scheduler = ScheduleConfig.CACHE_INVALIDATION_SCHEDULER)
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (lastPollTime.isBefore(now.minusMinutes(retention))) {
+                log.warn("Invalidations of the caches were not read since: {}, all caches are cleared.", lastPollTime);
+                handlers.values().forEach(handler -> handler.accept(null));
+                appliedInvalidations.clear();
+            } else {
+                LocalDateTime since = lastPollTime.minusSeconds(overlap);
+                for (CacheInvalidation invalidation : cacheInvalidationService.findCreatedAfter(since, schedulerNode.getNodeId())) {
+                    if (appliedInvalidations.putIfAbsent(invalidation.getId(), invalidation.getCreationTime()) != null) continue;
+                    Consumer<String> handler = handlers.get(invalidation.getRegion());
+                    if (handler != null) handler.accept(invalidation.getEntryKey());
+                }
+                appliedInvalidations.values().removeIf(creationTime -> !creationTime.isAfter(since));
+            }
+            lastPollTime = now;
+
+            if (lastCleanupTime.isBefore(now.minusSeconds(overlap))) {
+                int removed = cacheInvalidationService.removeCreatedBefore(now.minusMinutes(retention));
+                if (removed > 0) log.debug("Number of removed expired cache invalidations: {}", removed);
+                lastCleanupTime = now;
+            }
+        } catch (ApplicationBaseException | RuntimeException exception) {
+            log.error("Exception: {} occurred while reading invalidations of the caches. Cause: {}.",
+                    exception.getClass().getSimpleName(), exception.getMessage());
+        }
+    }
+}
@@ -20,8 +20,39 @@ public class DatabaseConsts {
     public static final String TOKEN_ACCOUNT_ID_COLUMN = "account_id";
 
     public static final String TOKEN_ACCOUNT_ID_INDEX = "idx_token_account_id";
+    public static final String TOKEN_TYPE_ACCOUNT_ID_INDEX = "idx_token_type_account_id";
     public static final String TOKEN_ACCOUNT_ID_FK = "token_account_id_fk";
 
+    // public.outbox_mail table
+
+    public static final String OUTBOX_MAIL_TABLE = "outbox_mail";
+    public static final String OUTBOX_MAIL_RECIPIENT_COLUMN = "recipient";
+    public static final String OUTBOX_MAIL_SUBJECT_COLUMN = "subject";
+    public static final String OUTBOX_MAIL_CONTENT_COLUMN = "content";
+    public static final String OUTBOX_MAIL_ATTEMPTS_COLUMN = "attempts";
+    public static final String OUTBOX_MAIL_NEXT_ATTEMPT_TIME_COLUMN = "next_attempt_timestamp";
+    public static final String OUTBOX_MAIL_LAST_ERROR_COLUMN = "last_error";
+
+    public static final String OUTBOX_MAIL_NEXT_ATTEMPT_TIME_INDEX = "idx_outbox_mail_next_attempt_timestamp";
+
+    // public.scheduler_lease table
+
+    public static final String SCHEDULER_LEASE_TABLE = "scheduler_lease";
+    public static final String SCHEDULER_LEASE_NAME_COLUMN = "name";
+    public static final String SCHEDULER_LEASE_OWNER_COLUMN = "owner";
+    public static final String SCHEDULER_LEASE_ACQUISITION_TIME_COLUMN = "acquisition_timestamp";
+    public static final String SCHEDULER_LEASE_EXPIRATION_TIME_COLUMN = "expiration_timestamp";
+    public static final String SCHEDULER_LEASE_CHECKPOINT_COLUMN = "checkpoint";
+
+    // public.cache_invalidation table
+
+    public static final String CACHE_INVALIDATION_TABLE = "cache_invalidation";
+    public static final String CACHE_INVALIDATION_REGION_COLUMN = "region";
+    public static final String CACHE_INVALIDATION_ENTRY_KEY_COLUMN = "entry_key";
+    public static final String CACHE_INVALIDATION_ORIGIN_NODE_COLUMN = "origin_node";
+
+    public static final String CACHE_INVALIDATION_CREATION_TIMESTAMP_INDEX = "idx_cache_invalidation_creation_timestamp";
+
     // MOK
 
     // public.account table
@@ -46,6 +77,8 @@ public class DatabaseConsts {
     public static final String ACCOUNT_LAST_UNSUCCESSFUL_LOGIN_IP = "last_unsuccessful_login_ip";
     public static final String UNSUCCESSFUL_LOGIN_COUNTER = "unsuccessful_login_counter";
 
+    public static final String ACCOUNT_ACTIVE_CREATION_TIMESTAMP_INDEX = "idx_account_active_creation_timestamp";
+
     // public.account_attribute
 
     public static final String ACCOUNT_ATTRIBUTES = "account_attributes";
@@ -114,6 +147,7 @@ public class DatabaseConsts {
     public static final String ACCOUNT_HIST_MODIFICATION_TIME_COLUMN = "modification_time";
 
     public static final String ACCOUNT_HIST_ACCOUNT_ID_INDEX = "idx_account_hist_account_id";
+    public static final String ACCOUNT_HIST_ID_MODIFICATION_TIME_INDEX = "idx_account_hist_id_modification_time";
     public static final String ACCOUNT_HIST_ACCOUNT_ID_FK = "account_hist_account_id_fk";
 
     // public.past_password table
@@ -201,6 +235,7 @@ public class DatabaseConsts {
     public static final String PARKING_HIST_MODIFIED_BY_COLUMN = "modified_by";
 
     public static final String PARKING_HIST_ACCOUNT_ID_INDEX = "idx_parking_history_account_id";
+    public static final String PARKING_HIST_ID_MODIFICATION_TIME_INDEX = "idx_parking_history_id_modification_time";
     public static final String PARKING_HIST_ACCOUNT_ID_FK = "parking_history_account_id_fk";
 
     // public.parking_event table
@@ -223,6 +258,7 @@ public class DatabaseConsts {
     public static final String RESERVATION_BEGIN_TIME_COLUMN = "begin_time";
     public static final String RESERVATION_END_TIME_COLUMN = "end_time";
     public static final String RESERVATION_STATUS_COLUMN = "status";
+    public static final String RESERVATION_VEHICLE_INSIDE_COLUMN = "vehicle_inside";
 
     public static final String RESERVATION_SECTOR_ID_INDEX = "idx_reservation_sector_id";
     public static final String RESERVATION_SECTOR_ID_FK = "reservation_sector_id_fk";
@@ -230,6 +266,10 @@ public class DatabaseConsts {
     public static final String RESERVATION_CLIENT_ID_INDEX = "idx_reservation_client_id";
     public static final String RESERVATION_CLIENT_ID_FK = "reservation_client_id_fk";
 
+    public static final String RESERVATION_STATUS_VEHICLE_INSIDE_INDEX = "idx_reservation_status_vehicle_inside";
+    public static final String RESERVATION_BEGIN_TIME_ID_INDEX = "idx_reservation_begin_time_id";
+    public static final String RESERVATION_SECTOR_ID_BEGIN_TIME_END_TIME_INDEX = "idx_reservation_sector_id_begin_time_end_time";
+
     // public.sector table
 
     public static final String SECTOR_TABLE = "sector";
@@ -247,6 +287,16 @@ public class DatabaseConsts {
 
     public static final String SECTOR_NAME_PARKING_ID_UNIQUE_KEY = "sector_name_parking_id_key";
 
+    // public.sector_capacity_slot table
+
+    public static final String SECTOR_CAPACITY_SLOT_TABLE = "sector_capacity_slot";
+
+    public static final String SECTOR_CAPACITY_SLOT_SECTOR_ID_COLUMN = "sector_id";
+    public static final String SECTOR_CAPACITY_SLOT_START_TIME_COLUMN = "slot_start_timestamp";
+    public static final String SECTOR_CAPACITY_SLOT_RESERVED_PLACES_COLUMN = "reserved_places";
+
+    public static final String SECTOR_CAPACITY_SLOT_START_TIME_INDEX = "idx_sector_capacity_slot_start_timestamp";
+
     // public.entry_code
 
     public static final String ENTRY_CODE_TABLE = "entry_code";
@@ -5,7 +5,10 @@ public class JWTConsts {
     public static final String TOKEN_ISSUER = "Eldorado";
 
     public static final String ACCOUNT_ID = "account_id";
+    public static final String ACCOUNT_VERSION = "account_version";
     public static final String USER_LEVELS = "user_levels";
+    public static final String TOKEN_EPOCH = "epoch";
+    public static final String TOKEN_VERSION = "token_version";
     public static final String EMAIL = "email";
     public static final String CODE_VALUE = "code";
 }
@@ -1,8 +1,7 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.SignatureVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
@@ -22,6 +21,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenDataExtractionExce
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.token.TokenNotValidException;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.utils.JWTConsts;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.jwt.JWTKeys;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -29,10 +29,14 @@ import java.util.Base64;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
- * Component used for all operations connected with JSON Web Tokens.
+ * Component used for all operations connected with JSON Web Tokens. Algorithms and verifiers are built once,
+ * on the first use, and each token could be verified once, with its decoded form passed to the subsequent checks.
+ *
+ * @see JWTKeys
  */
 @Slf4j
 @Component
@@ -49,12 +53,31 @@ public class JWTProvider {
     @Value("${secret.key}")
     private String secretKey;
 
+    /**
+     * Algorithm used to sign the tokens, either <code>HS256</code> or <code>ES256</code>.
+     * Specified by <code>jwt.signing.algorithm</code> property.
+     */
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String signingAlgorithm = JWTKeys.HS256;
+
+    @Value("${jwt.es256.active.key.id:}")
+    private String activeKeyId;
+
+    @Value("${jwt.es256.private.key:}")
+    private String privateKey;
+
+    @Value("${jwt.es256.public.keys:}")
+    private String publicKeys;
+
+    private volatile JWTKeys keys;
+
     /**
      * Generates new JSON Web Token used to keep track of user session.
      * Token payload includes:
      * <ul>
      *     <li>sub - Login of the Account for which the token was issued</li>
      *     <li>account_id - ID of the Account for which the token was issued</li>
+     *     <li>account_version - Version of the Account, from which the token was issued</li>
      *     <li>user_levels - List of Account user levels</li>
      *     <li>iat - Issue time of the token</li>
      *     <li>exp - Expiry time of the token</li>
@@ -66,17 +89,43 @@ public class JWTProvider {
      */
     @RolesAllowed({Authorities.LOGIN, Authorities.REFRESH_SESSION})
     public String generateJWTToken(Account account) {
+        return this.createJWTToken(account).sign(this.getKeys().getTokenAlgorithm());
+    }
+
+    /**
+     * Generates new JSON Web Token used to keep track of user session, which could be revoked with the token
+     * revocation list. Besides the claims described in {@link #generateJWTToken(Account)}, token payload includes:
+     * <ul>
+     *     <li>epoch - Epoch of the token revocation list</li>
+     *     <li>token_version - Version of the token in the token revocation list</li>
+     * </ul>
+     *
+     * @param account      Account used to create the payload.
+     * @param epoch        Epoch of the token revocation list.
+     * @param tokenVersion Version of the token in the token revocation list.
+     * @return Returns new JSON Web Token.
+     * @see pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList
+     */
+    @RolesAllowed({Authorities.LOGIN, Authorities.REFRESH_SESSION})
+    public String generateJWTToken(Account account, String epoch, long tokenVersion) {
+        return this.createJWTToken(account)
+                .withClaim(JWTConsts.TOKEN_EPOCH, epoch)
+                .withClaim(JWTConsts.TOKEN_VERSION, tokenVersion)
+                .sign(this.getKeys().getTokenAlgorithm());
+    }
+
+    private JWTCreator.Builder createJWTToken(Account account) {
         List<String> listOfRoles = new LinkedList<>();
         account.getUserLevels().forEach(userLevel -> listOfRoles.add("ROLE_" + userLevel.getClass().getSimpleName().toUpperCase()));
 
         return JWT.create()
                 .withSubject(account.getLogin())
                 .withClaim(JWTConsts.ACCOUNT_ID, account.getId().toString())
+                .withClaim(JWTConsts.ACCOUNT_VERSION, account.getVersion())
                 .withClaim(JWTConsts.USER_LEVELS, listOfRoles)
                 .withIssuedAt(Instant.now())
                 .withExpiresAt(Instant.now().plus(this.accessTokenTTL, ChronoUnit.MINUTES))
-                .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(this.getSignInKey()));
+                .withIssuer(JWTConsts.TOKEN_ISSUER);
     }
 
     /**
@@ -95,7 +144,7 @@ public class JWTProvider {
                 .withIssuedAt(Instant.now())
                 .withExpiresAt(Instant.now().plus(tokenTTL, chronoUnit))
                 .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(this.getSignInKey()));
+                .sign(this.getKeys().getTokenAlgorithm());
     }
 
     /**
@@ -114,7 +163,24 @@ public class JWTProvider {
                 .withIssuedAt(Instant.now())
                 .withExpiresAt(Instant.now().plus(tokenTTL, ChronoUnit.HOURS))
                 .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(this.getSignInKey()));
+                .sign(this.getKeys().getTokenAlgorithm());
+    }
+
+    /**
+     * Verifies the signature, the issuer and the expiry time of the token, and decodes it. Decoded token could be
+     * passed to the subsequent checks and extractions, so that the token is verified only once.
+     *
+     * @param jwtToken Token to be verified.
+     * @return Decoded token.
+     * @throws TokenDataExtractionException Thrown when the token could not be verified.
+     */
+    @PermitAll
+    public DecodedJWT verifyToken(String jwtToken) throws TokenDataExtractionException {
+        try {
+            return this.getKeys().getTokenVerifier().verify(jwtToken);
+        } catch (JWTVerificationException exception) {
+            throw new TokenDataExtractionException();
+        }
     }
 
     /**
@@ -125,11 +191,22 @@ public class JWTProvider {
      */
     @PermitAll
     public UUID extractAccountId(String jwtToken) throws TokenDataExtractionException {
+        return this.extractAccountId(this.verifyToken(jwtToken));
+    }
+
+    /**
+     * Extracts AccountID from the already verified Token.
+     *
+     * @param decodedJWT Verified and decoded token.
+     * @return Returns AccountID from the Token.
+     */
+    @PermitAll
+    public UUID extractAccountId(DecodedJWT decodedJWT) throws TokenDataExtractionException {
+        String accountId = decodedJWT.getClaim(JWTConsts.ACCOUNT_ID).asString();
         try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey())).build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
-            return UUID.fromString(decodedJWT.getClaim(JWTConsts.ACCOUNT_ID).asString());
-        } catch (JWTVerificationException exception) {
+            if (accountId == null) throw new TokenDataExtractionException();
+            return UUID.fromString(accountId);
+        } catch (IllegalArgumentException exception) {
             throw new TokenDataExtractionException();
         }
     }
@@ -141,13 +218,7 @@ public class JWTProvider {
      * @return Returns username from the Token.
      */
     private String extractUsername(String jwtToken) throws TokenDataExtractionException {
-        try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey())).build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
-            return decodedJWT.getSubject();
-        } catch (JWTVerificationException exception) {
-            throw new TokenDataExtractionException();
-        }
+        return this.verifyToken(jwtToken).getSubject();
     }
 
     /**
@@ -158,13 +229,7 @@ public class JWTProvider {
      */
     @RolesAllowed({Authorities.CONFIRM_EMAIL_CHANGE, Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
     public String extractEmail(String jwtToken) throws TokenDataExtractionException {
-        try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey())).build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
-            return decodedJWT.getClaim(JWTConsts.EMAIL).asString();
-        } catch (JWTVerificationException exception) {
-            throw new TokenDataExtractionException();
-        }
+        return this.verifyToken(jwtToken).getClaim(JWTConsts.EMAIL).asString();
     }
 
     /**
@@ -176,19 +241,42 @@ public class JWTProvider {
      */
     @PermitAll
     public boolean isTokenValid(String jwtToken, Account account) {
+        return isTokenValid(jwtToken, account.getId(), account.getLogin());
+    }
+
+    /**
+     * Checks validity of the token.
+     *
+     * @param jwtToken  Token to be checked.
+     * @param accountId Identifier of the account for which the token was issued.
+     * @param login     Login of the account for which the token was issued.
+     * @return Returns true if token is valid, otherwise returns false.
+     */
+    @PermitAll
+    public boolean isTokenValid(String jwtToken, UUID accountId, String login) {
         try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey()))
-                    .withSubject(account.getLogin())
-                    .withClaim(JWTConsts.ACCOUNT_ID, account.getId().toString())
-                    .withIssuer(JWTConsts.TOKEN_ISSUER)
-                    .build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
-            return decodedJWT.getExpiresAt().after(new Date());
-        } catch (JWTVerificationException exception) {
+            return isTokenValid(this.verifyToken(jwtToken), accountId, login);
+        } catch (TokenDataExtractionException exception) {
             return false;
         }
     }
 
+    /**
+     * Checks whether the already verified token was issued for given account.
+     *
+     * @param decodedJWT Verified and decoded token.
+     * @param accountId  Identifier of the account for which the token was issued.
+     * @param login      Login of the account for which the token was issued.
+     * @return Returns true if token is valid, otherwise returns false.
+     */
+    @PermitAll
+    public boolean isTokenValid(DecodedJWT decodedJWT, UUID accountId, String login) {
+        return login.equals(decodedJWT.getSubject())
+                && accountId.toString().equals(decodedJWT.getClaim(JWTConsts.ACCOUNT_ID).asString())
+                && decodedJWT.getExpiresAt() != null
+                && decodedJWT.getExpiresAt().after(new Date());
+    }
+
     // Multifactor Auth
 
     /**
@@ -203,14 +291,13 @@ public class JWTProvider {
                 .withIssuedAt(Instant.now())
                 .withExpiresAt(Instant.now().plus(this.authenticationCodeValidityLength, ChronoUnit.MINUTES))
                 .withIssuer(JWTConsts.TOKEN_ISSUER)
-                .sign(Algorithm.HMAC256(this.getSignInKey()));
+                .sign(this.getKeys().getTokenAlgorithm());
     }
 
     @RolesAllowed(Authorities.LOGIN)
     public String extractHashedCodeValueFromToken(String token) throws TokenDataExtractionException, TokenNotValidException {
         try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey())).build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(token);
+            DecodedJWT decodedJWT = this.getKeys().getTokenVerifier().verify(token);
             return decodedJWT.getClaim(JWTConsts.CODE_VALUE).asString();
         } catch (SignatureVerificationException exception) {
             throw new TokenDataExtractionException();
@@ -222,16 +309,23 @@ public class JWTProvider {
     @RolesAllowed(Authorities.LOGIN)
     public boolean isMultiFactorAuthTokenValid(String multiFactorAuthToken) {
         try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(this.getSignInKey()))
-                    .withIssuer(JWTConsts.TOKEN_ISSUER)
-                    .build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(multiFactorAuthToken);
+            DecodedJWT decodedJWT = this.getKeys().getTokenVerifier().verify(multiFactorAuthToken);
             return decodedJWT.getExpiresAt().after(new Date());
         } catch (JWTVerificationException exception) {
             return false;
         }
     }
 
+    /**
+     * Retrieves the public keys accepted during verification of the tokens.
+     *
+     * @return JSON Web Key Set of the public keys, empty when the tokens are signed with the secret key.
+     */
+    @PermitAll
+    public Map<String, Object> getJsonWebKeySet() {
+        return this.getKeys().getJsonWebKeySet();
+    }
+
     /**
      * Decodes the key to String format and returns it.
      *
@@ -242,6 +336,27 @@ public class JWTProvider {
         return new String(keyBytes);
     }
 
+    /**
+     * Retrieves the prebuilt algorithms and verifiers, building them on the first use.
+     *
+     * @return Keys used to sign and verify the tokens.
+     */
+    private JWTKeys getKeys() {
+        JWTKeys jwtKeys = this.keys;
+        if (jwtKeys == null) {
+            synchronized (this) {
+                jwtKeys = this.keys;
+                if (jwtKeys == null) {
+                    jwtKeys = JWTKeys.ES256.equalsIgnoreCase(signingAlgorithm)
+                            ? JWTKeys.ecdsa(this.getSignInKey(), activeKeyId, privateKey, publicKeys)
+                            : JWTKeys.hmac(this.getSignInKey());
+                    this.keys = jwtKeys;
+                }
+            }
+        }
+        return jwtKeys;
+    }
+
     //=================================================JWS==========================================================\\
 
     /**
@@ -258,6 +373,6 @@ public class JWTProvider {
         return JWT
                 .create()
                 .withPayload(signableDTO.getSigningFields())
-                .sign(Algorithm.HMAC256(this.getSignInKey()));
+                .sign(this.getKeys().getSignatureAlgorithm());
     }
 }
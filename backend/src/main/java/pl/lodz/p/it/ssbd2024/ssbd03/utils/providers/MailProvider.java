@@ -2,61 +2,71 @@ package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers;
 
 import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.security.RolesAllowed;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.env.Environment;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import pl.lodz.p.it.ssbd2024.ssbd03.aspects.logging.LoggerInterceptor;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.EmailTemplateNotFoundException;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.ImageNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.OutboxMailAuthFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.OutboxMailMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.OutboxMailMOPFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
-import pl.lodz.p.it.ssbd2024.ssbd03.utils.messages.log.MailProviderMessages;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailDispatcher;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailOutbox;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailTemplate.Placeholder;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailTemplateRegistry;
 
-import java.io.*;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Base64;
-import java.util.Optional;
+import java.util.List;
 
 /**
- * Component used for sending e-mail messages.
+ * Component used for sending e-mail messages. Messages are rendered and written to the outbox in the current
+ * transaction (or in a new one, if there is none), and sent by the mail dispatcher only after that transaction
+ * is committed.
+ *
+ * @see MailDispatcher
  */
 @Slf4j
 @Component
-@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Transactional(propagation = Propagation.REQUIRED)
 @LoggerInterceptor
 public class MailProvider {
 
-    @Value("${mail.sender.email}")
-    private String senderEmail;
+    private final MailTemplateRegistry mailTemplateRegistry;
 
-    private final JavaMailSenderImpl mailSender;
+    private final MailDispatcher mailDispatcher;
 
-    private final Environment env;
+    /**
+     * Outboxes backed by the persistence units of the modules. The last one is used when none of the persistence
+     * units is used by the current transaction yet.
+     */
+    private final List<MailOutbox> mailOutboxes;
 
     /**
      * Autowired constructor for the component.
      *
-     * @param javaMailSender Component from Spring framework, used to send e-mail messages to certain
-     *                       e-mail addresses.
+     * @param mailTemplateRegistry Registry of the compiled e-mail message templates.
+     * @param mailDispatcher       Component sending the messages from the outbox.
+     * @param outboxMailMOPFacade  Outbox backed by the persistence unit of the MOP module.
+     * @param outboxMailAuthFacade Outbox backed by the persistence unit of the authentication module.
+     * @param outboxMailMOKFacade  Outbox backed by the persistence unit of the MOK module.
      */
     @Autowired
-    public MailProvider(JavaMailSenderImpl javaMailSender, Environment env) {
-        this.mailSender = javaMailSender;
-        this.env = env;
+    public MailProvider(MailTemplateRegistry mailTemplateRegistry,
+                        MailDispatcher mailDispatcher,
+                        OutboxMailMOPFacade outboxMailMOPFacade,
+                        OutboxMailAuthFacade outboxMailAuthFacade,
+                        OutboxMailMOKFacade outboxMailMOKFacade) {
+        this.mailTemplateRegistry = mailTemplateRegistry;
+        this.mailDispatcher = mailDispatcher;
+        this.mailOutboxes = List.of(outboxMailMOPFacade, outboxMailAuthFacade, outboxMailMOKFacade);
     }
 
     /**
@@ -68,26 +78,24 @@ public class MailProvider {
      * @param confirmationURL URL used to confirm the account creation.
      * @param language        Language of the message.
      */
-    @Async
 //    @RolesAllowed({
 //            Authorities.REGISTER_CLIENT, Authorities.REGISTER_USER, Authorities.RESEND_EMAIL_CONFIRMATION_MAIL
 //    })
     @PermitAll
     public void sendRegistrationConfirmEmail(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CONFIRM_REGISTER_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CONFIRM_REGISTER_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.CONFIRM_REGISTER_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.CONFIRM_REGISTER_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CONFIRM_REGISTER_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.LINK_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.CONFIRM_REGISTER_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.CONFIRM_REGISTER_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.CONFIRM_REGISTER_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.ACTION_LINK, confirmationURL)
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.CONFIRM_REGISTER_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.CONFIRM_REGISTER_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending account activation e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -104,24 +112,22 @@ public class MailProvider {
      * @param confirmationURL URL used to restore access to the account creation.
      * @param language        Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.RESTORE_ACCOUNT_ACCESS})
     @PermitAll
     public void sendAccountAccessRestoreEmailMessage(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.RESTORE_ACCESS_CODE_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.RESTORE_ACCESS_CODE_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.LINK_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CODE_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CODE_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CODE_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.ACTION_LINK, confirmationURL)
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CODE_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CODE_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending account access restore message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -137,23 +143,21 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.RESTORE_ACCOUNT_ACCESS})
     @PermitAll
     public void sendAccountAccessRestoreInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.RESTORE_ACCESS_CONFIRM_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CONFIRM_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CONFIRM_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CONFIRM_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CONFIRM_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.RESTORE_ACCESS_CONFIRM_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending account access restore e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -168,25 +172,23 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.BLOCK_ACCOUNT, Authorities.LOGIN})
     @PermitAll
     public void sendBlockAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language, boolean adminLock) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.BLOCK_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message",
-                            I18n.getMessage(adminLock ? I18n.BLOCK_ACCOUNT_RESULT_MESSAGE_ADMIN : I18n.BLOCK_ACCOUNT_RESULT_MESSAGE_AUTO, language))
-                    .replace("$action_description",
-                            I18n.getMessage(adminLock ? I18n.BLOCK_ACCOUNT_ACTION_DESCRIPTION_ADMIN : I18n.BLOCK_ACCOUNT_ACTION_DESCRIPTION_AUTO, language))
-                    .replace("$note_title", I18n.getMessage(I18n.BLOCK_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.BLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.BLOCK_ACCOUNT_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE,
+                            mailTemplateRegistry.getMessage(adminLock ? I18n.BLOCK_ACCOUNT_RESULT_MESSAGE_ADMIN : I18n.BLOCK_ACCOUNT_RESULT_MESSAGE_AUTO, language))
+                    .with(Placeholder.ACTION_DESCRIPTION,
+                            mailTemplateRegistry.getMessage(adminLock ? I18n.BLOCK_ACCOUNT_ACTION_DESCRIPTION_ADMIN : I18n.BLOCK_ACCOUNT_ACTION_DESCRIPTION_AUTO, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.BLOCK_ACCOUNT_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.BLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending account block e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -201,23 +203,21 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.UNBLOCK_ACCOUNT})
     @PermitAll
     public void sendUnblockAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.UNBLOCK_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.UNBLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.UNBLOCK_ACCOUNT_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.UNBLOCK_ACCOUNT_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.UNBLOCK_ACCOUNT_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.UNBLOCK_ACCOUNT_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.UNBLOCK_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending account unblock e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -232,23 +232,21 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.REMOVE_ACCOUNT})
     @PermitAll
     public void sendRemoveAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.REMOVE_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.REMOVE_ACCOUNT_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.REMOVE_ACCOUNT_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.REMOVE_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.REMOVE_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.REMOVE_ACCOUNT_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.REMOVE_ACCOUNT_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.REMOVE_ACCOUNT_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.REMOVE_ACCOUNT_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.REMOVE_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending remove access level e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -263,23 +261,21 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.BLOCK_ACCOUNT})
     @PermitAll
     public void sendSuspendAccountInfoEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.SUSPEND_ACCOUNT_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.SUSPEND_ACCOUNT_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.SUSPEND_ACCOUNT_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.SUSPEND_ACCOUNT_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.SUSPEND_ACCOUNT_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.SUSPEND_ACCOUNT_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.SUSPEND_ACCOUNT_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.SUSPEND_ACCOUNT_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.SUSPEND_ACCOUNT_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.SUSPEND_ACCOUNT_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending account suspension e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -295,24 +291,22 @@ public class MailProvider {
      * @param confirmationURL URL used to confirm the e-mail address.
      * @param language        Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.CHANGE_USER_MAIL, Authorities.CHANGE_OWN_MAIL, Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
     @PermitAll
     public void sendEmailConfirmEmail(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CONFIRM_EMAIL_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CONFIRM_EMAIL_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.CONFIRM_EMAIL_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.CONFIRM_EMAIL_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CONFIRM_EMAIL_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.LINK_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.CONFIRM_EMAIL_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.CONFIRM_EMAIL_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.CONFIRM_EMAIL_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.ACTION_LINK, confirmationURL)
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.CONFIRM_EMAIL_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.CONFIRM_EMAIL_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending e-mail change confirmation message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -329,24 +323,22 @@ public class MailProvider {
      * @param confirmationURL URL used to confirm the account creation.
      * @param language        Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.RESET_PASSWORD, Authorities.CHANGE_USER_PASSWORD})
     @PermitAll
     public void sendPasswordResetEmail(String firstName, String lastName, String emailReceiver, String confirmationURL, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("link-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.PASSWORD_RESET_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.PASSWORD_RESET_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.PASSWORD_RESET_ACTION_DESCRIPTION, language))
-                    .replace("$action_link", confirmationURL)
-                    .replace("$note_title", I18n.getMessage(I18n.PASSWORD_RESET_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.PASSWORD_RESET_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.LINK_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.PASSWORD_RESET_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.PASSWORD_RESET_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.PASSWORD_RESET_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.ACTION_LINK, confirmationURL)
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.PASSWORD_RESET_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.PASSWORD_RESET_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending password reset e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -363,24 +355,22 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.LOGIN})
     @PermitAll
     public void sendTwoFactorAuthCode(String firstName, String lastName, String authCode, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("code-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_ACTION_DESCRIPTION, language))
-                    .replace("$code", authCode)
-                    .replace("$note_title", I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.CODE_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.CODE, authCode)
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.LOGIN_AUTHENTICATION_CODE_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending two factor auth code e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -395,23 +385,21 @@ public class MailProvider {
      * @param emailReceiver E-mail address to which the message will be sent.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.CONFIRM_ACCOUNT_CREATION})
     @PermitAll
     public void sendActivationConfirmationEmail(String firstName, String lastName, String emailReceiver, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.CONFIRM_ACCOUNT_ACTIVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending successful account activation e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -427,24 +415,22 @@ public class MailProvider {
      * @param userLevel     Internationalization key indicating the user level that was granted to the user account.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.ADD_USER_LEVEL})
     @PermitAll
     public void sendEmailNotificationAboutGrantedUserLevel(String firstName, String lastName, String emailReceiver, String userLevel, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_RESULT_MESSAGE, language))
-                    .replace("$USER_LEVEL", I18n.getMessage(userLevel, language))
-                    .replace("$action_description", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.ACCESS_LEVEL_GRANTED_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_GRANTED_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_GRANTED_RESULT_MESSAGE, language)
+                            .replace("$USER_LEVEL", mailTemplateRegistry.getMessage(userLevel, language)))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_GRANTED_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_GRANTED_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_GRANTED_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending e-mail notification message about granted user level, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -460,24 +446,22 @@ public class MailProvider {
      * @param userLevel     Internationalization key indicating the user level connected to the account that was revoked.
      * @param language      Language of the message.
      */
-    @Async
     // @RolesAllowed({Authorities.REMOVE_USER_LEVEL})
     @PermitAll
     public void sendEmailNotificationAboutRevokedUserLevel(String firstName, String lastName, String emailReceiver, String userLevel, String language) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_RESULT_MESSAGE, language))
-                    .replace("$USER_LEVEL", I18n.getMessage(userLevel, language))
-                    .replace("$action_description", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_ACTION_DESCRIPTION, language))
-                    .replace("$note_title", I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.ACCESS_LEVEL_REVOKED_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_REVOKED_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_REVOKED_RESULT_MESSAGE, language)
+                            .replace("$USER_LEVEL", mailTemplateRegistry.getMessage(userLevel, language)))
+                    .with(Placeholder.ACTION_DESCRIPTION, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_REVOKED_ACTION_DESCRIPTION, language))
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_REVOKED_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.ACCESS_LEVEL_REVOKED_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending e-mail notification message about revoked user level, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -495,30 +479,28 @@ public class MailProvider {
      * @param sector        Sector in which a place has been reserved.
      * @param timeframe     Reservation timeframe.
      */
-    @Async
     // @RolesAllowed(Authorities.RESERVE_PARKING_PLACE)
     @PermitAll
     public void sendMadeReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                              String language, String address, String sector, String timeframe) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.MADE_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.MADE_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.MADE_RESERVATION_ACTION_DESCRIPTION, language),
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.MADE_RESERVATION_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.MADE_RESERVATION_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION,
+                            String.format(mailTemplateRegistry.getMessage(I18n.MADE_RESERVATION_ACTION_DESCRIPTION, language),
                                     address,
                                     sector,
                                     timeframe
                             )
                     )
-                    .replace("$note_title", I18n.getMessage(I18n.MADE_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.MADE_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.MADE_RESERVATION_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.MADE_RESERVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending a new reservation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -534,28 +516,26 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param reservationId Identifier of the reservation.
      */
-    @Async
     // @RolesAllowed(Authorities.CANCEL_RESERVATION)
     @PermitAll
     public void sendCancelledReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                                   String language, String reservationId) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CANCELLED_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CANCELLED_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.CANCELLED_RESERVATION_ACTION_DESCRIPTION, language),
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.CANCELLED_RESERVATION_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.CANCELLED_RESERVATION_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION,
+                            String.format(mailTemplateRegistry.getMessage(I18n.CANCELLED_RESERVATION_ACTION_DESCRIPTION, language),
                                     reservationId
                             )
                     )
-                    .replace("$note_title", I18n.getMessage(I18n.CANCELLED_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CANCELLED_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.CANCELLED_RESERVATION_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.CANCELLED_RESERVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending a cancellation reservation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -571,28 +551,26 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param reservationId Identifier of the reservation.
      */
-    @Async
     // @RolesAllowed(Authorities.DEACTIVATE_SECTOR)
     @PermitAll
     public void sendAdministrativelyCancelledReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                                   String language, String reservationId) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_ACTION_DESCRIPTION, language),
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION,
+                            String.format(mailTemplateRegistry.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_ACTION_DESCRIPTION, language),
                                     reservationId
                             )
                     )
-                    .replace("$note_title", I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.ADMINISTRATIVELY_CANCELLED_RESERVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending the administrative reservation cancellation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -608,28 +586,26 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param reservationId Identifier of the reservation.
      */
-    @Async
     // @RolesAllowed(Authorities.END_RESERVATION)
     @PermitAll
     public void sendSystemEndReservationInfoEmail(String firstName, String lastName, String emailReceiver,
                                                                   String language, String reservationId) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.SYSTEM_END_RESERVATION_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.SYSTEM_END_RESERVATION_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.SYSTEM_END_RESERVATION_ACTION_DESCRIPTION, language),
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.SYSTEM_END_RESERVATION_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.SYSTEM_END_RESERVATION_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION,
+                            String.format(mailTemplateRegistry.getMessage(I18n.SYSTEM_END_RESERVATION_ACTION_DESCRIPTION, language),
                                     reservationId
                             )
                     )
-                    .replace("$note_title", I18n.getMessage(I18n.SYSTEM_END_RESERVATION_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.SYSTEM_END_RESERVATION_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.SYSTEM_END_RESERVATION_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.SYSTEM_END_RESERVATION_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending the system end reservation notification e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -645,28 +621,26 @@ public class MailProvider {
      * @param language      Language of the message.
      * @param newClientTypeName Name of the granted client type.
      */
-    @Async
     // @RolesAllowed({Authorities.EXIT_PARKING, Authorities.END_RESERVATION})
     @PermitAll
     public void sendChangedClientTypeInfoEmail(String firstName, String lastName, String emailReceiver,
                                                   String language, String newClientTypeName) {
         try {
-            String logo = this.loadImage("eldorado.png").orElseThrow(() -> new ImageNotFoundException("Given image could not be found!"));
-            String emailContent = this.loadTemplate("default-template.html").orElseThrow(() -> new EmailTemplateNotFoundException("Given email template not found!"))
-                    .replace("$firstname", firstName)
-                    .replace("$lastname", lastName)
-                    .replace("$greeting_message", I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_GREETING_MESSAGE, language))
-                    .replace("$result_message", I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_RESULT_MESSAGE, language))
-                    .replace("$action_description",
-                            String.format(I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_ACTION_DESCRIPTION, language),
+            String emailContent = mailTemplateRegistry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE).newRenderer()
+                    .with(Placeholder.FIRSTNAME, firstName)
+                    .with(Placeholder.LASTNAME, lastName)
+                    .with(Placeholder.GREETING_MESSAGE, mailTemplateRegistry.getMessage(I18n.CHANGED_CLIENT_TYPE_GREETING_MESSAGE, language))
+                    .with(Placeholder.RESULT_MESSAGE, mailTemplateRegistry.getMessage(I18n.CHANGED_CLIENT_TYPE_RESULT_MESSAGE, language))
+                    .with(Placeholder.ACTION_DESCRIPTION,
+                            String.format(mailTemplateRegistry.getMessage(I18n.CHANGED_CLIENT_TYPE_ACTION_DESCRIPTION, language),
                                     newClientTypeName
                             )
                     )
-                    .replace("$note_title", I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_NOTE_TITLE, language))
-                    .replace("$note_message", I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
-                    .replace("$eldorado_logo", "data:image/png;base64," + logo);
-            this.sendEmail(emailContent, emailReceiver, senderEmail, I18n.getMessage(I18n.CHANGED_CLIENT_TYPE_MESSAGE_SUBJECT, language));
-        } catch (EmailTemplateNotFoundException | ImageNotFoundException | MessagingException |
+                    .with(Placeholder.NOTE_TITLE, mailTemplateRegistry.getMessage(I18n.CHANGED_CLIENT_TYPE_NOTE_TITLE, language))
+                    .with(Placeholder.NOTE_MESSAGE, mailTemplateRegistry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language))
+                    .render();
+            this.sendEmail(emailContent, emailReceiver, mailTemplateRegistry.getMessage(I18n.CHANGED_CLIENT_TYPE_MESSAGE_SUBJECT, language));
+        } catch (EmailTemplateNotFoundException | ImageNotFoundException | ApplicationBaseException |
                  NullPointerException exception) {
             log.error("Exception of type: {} was throw while sending the granted new client type notification e-mail message, due to the exception: {} being thrown. Reason: {}",
                     exception.getClass().getSimpleName(), exception.getCause().getClass().getSimpleName(), exception.getMessage());
@@ -674,13 +648,14 @@ public class MailProvider {
     }
 
     /**
-     * This method is used to send the user e-mail address.
+     * This method is used to write the e-mail message to the outbox, so that it is sent to the user e-mail address
+     * after the current transaction is committed.
      *
      * @param emailContent  E-mail content that will be sent to the user e-mail address (in HTML format).
      * @param emailReceiver E-mail address of the user, which the mail is sent to.
-     * @param senderEmail   E-mail address of the sender - that is the Eldorado application.
      * @param emailSubject  Topic of the e-mail message.
-     * @throws MessagingException Exception thrown while the e-mail message is being sent.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
      */
 //    @RolesAllowed({
 //            Authorities.REGISTER_CLIENT, Authorities.REGISTER_USER,
@@ -692,60 +667,18 @@ public class MailProvider {
 //            Authorities.REMOVE_USER_LEVEL
 //    })
     @PermitAll
-    private void sendEmail(String emailContent, String emailReceiver, String senderEmail, String emailSubject) throws MessagingException {
-        if (!Arrays.asList(env.getActiveProfiles()).contains("test")) {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            mimeMessage.setHeader("Content-Type", "text/plain; charset=\"utf-8\"");
-            MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            messageHelper.setTo(emailReceiver);
+    private void sendEmail(String emailContent, String emailReceiver, String emailSubject) throws ApplicationBaseException {
+        MailOutbox outbox = mailOutboxes.stream()
+                .filter(MailOutbox::isUsedByCurrentTransaction)
+                .findFirst()
+                .orElse(mailOutboxes.getLast());
+        outbox.enqueue(new OutboxMail(emailReceiver, emailSubject, emailContent));
 
-            messageHelper.setSubject(emailSubject);
-            messageHelper.setText(emailContent, true);
-            messageHelper.setFrom(senderEmail);
-            this.mailSender.send(mimeMessage);
-        }
-    }
-
-    /**
-     * Loads e-mail template from the /resources/templates folder.
-     *
-     * @param templateName Name of the template file.
-     * @return Returns a String containing the loaded template.
-     * If an exception occurs while reading the template file it will return everything read up to this point.
-     */
-    private Optional<String> loadTemplate(String templateName) {
-        StringBuilder builder = new StringBuilder();
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("templates/" + templateName);
-             BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            String placeHolder;
-            while ((placeHolder = bufferedReader.readLine()) != null) {
-                builder.append(placeHolder);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mailDispatcher.wakeUp();
             }
-        } catch (IOException | NullPointerException exception) {
-            log.error("Exception: {} thrown while reading template: {} from a file. Cause: {}. Make sure that the file containing the template is located in the templates/ folder.",
-                    exception.getClass().getSimpleName(), templateName, exception.getMessage());
-        }
-        return Optional.of(builder.toString());
-    }
-
-    /**
-     * Loads an image from the /resources/templates/images folder.
-     *
-     * @param imageName Name of the image file.
-     * @return Returns a String containing the loaded image.
-     * If an exception occurs while reading the image file it will return everything read up to this point.
-     */
-    private Optional<String> loadImage(String imageName) {
-        StringBuilder builder = new StringBuilder();
-        try {
-            URL imagePath = getClass().getClassLoader().getResource("templates/images/" + imageName);
-            byte[] imageContent = Files.readAllBytes(Path.of(imagePath.toURI()));
-            builder.append(new String(Base64.getEncoder().encode(imageContent)));
-        } catch (IOException | URISyntaxException | NullPointerException exception) {
-            log.error("Exception: {} thrown while reading image: {} from a file. Cause: {}. Make sure that the file containing the image is located in the templates/images/ folder.",
-                    exception.getClass().getSimpleName(), imageName, exception.getMessage());
-        }
-        return Optional.of(builder.toString());
+        });
     }
 }
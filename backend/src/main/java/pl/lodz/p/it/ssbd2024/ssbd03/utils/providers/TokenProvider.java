@@ -64,7 +64,7 @@ public class TokenProvider {
         return new Token(tokenValue, account, Token.TokenType.CHANGE_OVERWRITTEN_PASSWORD);
     }
 
-    @RolesAllowed({Authorities.REGISTER_CLIENT, Authorities.REGISTER_USER})
+    @RolesAllowed({Authorities.REGISTER_CLIENT, Authorities.REGISTER_USER, Authorities.RESEND_EMAIL_CONFIRMATION_MAIL})
     public Token generateAccountActivationToken(Account account) {
         String tokenValue = jwtProvider.generateActionToken(account, accountActivationTokenTTL, ChronoUnit.HOURS);
         return new Token(tokenValue, account, Token.TokenType.REGISTER);
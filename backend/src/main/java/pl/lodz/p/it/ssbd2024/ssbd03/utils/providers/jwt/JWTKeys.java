@@ -0,0 +1,149 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.utils.JWTConsts;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+
+/**
+ * Immutable set of the prebuilt algorithms and verifiers used by the JWT provider, built once from the configured
+ * keys. Tokens are signed either with HMAC SHA-256 and the secret key (default), or with ECDSA P-256 (ES256) and
+ * the active private key, identified by the <code>kid</code> header of the token. In the latter case tokens are
+ * verified with the public key matching their <code>kid</code>, so the keys could be rotated by adding the new
+ * public key, switching the active private key, and removing the old public key after the tokens signed with it
+ * expire. Public keys are published as the JSON Web Key Set, so the tokens could be verified outside the application,
+ * for example by the API gateway. Signatures of the objects (used as ETag values) are always computed with HMAC,
+ * since they are never verified outside the application.
+ */
+public final class JWTKeys {
+
+    public static final String HS256 = "HS256";
+    public static final String ES256 = "ES256";
+
+    private static final int P256_COORDINATE_LENGTH = 32;
+
+    private final Algorithm tokenAlgorithm;
+    private final Algorithm signatureAlgorithm;
+    private final JWTVerifier tokenVerifier;
+    private final Map<String, ECPublicKey> publicKeys;
+
+    private JWTKeys(Algorithm tokenAlgorithm, Algorithm signatureAlgorithm, Map<String, ECPublicKey> publicKeys) {
+        this.tokenAlgorithm = tokenAlgorithm;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.tokenVerifier = JWT.require(tokenAlgorithm).withIssuer(JWTConsts.TOKEN_ISSUER).build();
+        this.publicKeys = publicKeys;
+    }
+
+    /**
+     * Builds the keys signing the tokens with HMAC SHA-256.
+     *
+     * @param secret Decoded secret key.
+     * @return Keys using the secret key for both tokens and signatures of the objects.
+     */
+    public static JWTKeys hmac(String secret) {
+        Algorithm algorithm = Algorithm.HMAC256(secret);
+        return new JWTKeys(algorithm, algorithm, Map.of());
+    }
+
+    /**
+     * Builds the keys signing the tokens with ECDSA P-256.
+     *
+     * @param secret      Decoded secret key, used for the signatures of the objects.
+     * @param activeKeyId Identifier of the key, which new tokens are signed with.
+     * @param privateKey  Base64 encoded PKCS#8 private key of the active key.
+     * @param publicKeys  Comma separated list of the public keys accepted during verification, each of them in
+     *                    the <code>kid:base64 encoded X.509 public key</code> format.
+     * @return Keys using the active private key for tokens, and the secret key for signatures of the objects.
+     * @throws IllegalArgumentException Thrown when the keys could not be parsed, or the public key of the active key
+     *                                  is missing.
+     */
+    public static JWTKeys ecdsa(String secret, String activeKeyId, String privateKey, String publicKeys) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            Map<String, ECPublicKey> parsedPublicKeys = new LinkedHashMap<>();
+            for (String entry : publicKeys.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2) throw new IllegalArgumentException("Public key: %s has no key identifier.".formatted(entry));
+                parsedPublicKeys.put(parts[0], (ECPublicKey) keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(parts[1]))));
+            }
+            if (!parsedPublicKeys.containsKey(activeKeyId)) {
+                throw new IllegalArgumentException("Public key of the active key: %s is missing.".formatted(activeKeyId));
+            }
+            ECPrivateKey parsedPrivateKey = (ECPrivateKey) keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKey)));
+
+            Map<String, ECPublicKey> keys = Collections.unmodifiableMap(parsedPublicKeys);
+            Algorithm algorithm = Algorithm.ECDSA256(new ECDSAKeyProvider() {
+                @Override
+                public ECPublicKey getPublicKeyById(String keyId) {
+                    return keyId == null ? null : keys.get(keyId);
+                }
+
+                @Override
+                public ECPrivateKey getPrivateKey() {
+                    return parsedPrivateKey;
+                }
+
+                @Override
+                public String getPrivateKeyId() {
+                    return activeKeyId;
+                }
+            });
+            return new JWTKeys(algorithm, Algorithm.HMAC256(secret), keys);
+        } catch (GeneralSecurityException | ClassCastException exception) {
+            throw new IllegalArgumentException("ES256 keys could not be parsed.", exception);
+        }
+    }
+
+    public Algorithm getTokenAlgorithm() {
+        return tokenAlgorithm;
+    }
+
+    public Algorithm getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public JWTVerifier getTokenVerifier() {
+        return tokenVerifier;
+    }
+
+    /**
+     * Builds the JSON Web Key Set (RFC 7517) of the public keys accepted during verification.
+     *
+     * @return Key set, empty when the tokens are signed with the secret key.
+     */
+    public Map<String, Object> getJsonWebKeySet() {
+        List<Map<String, String>> keys = new ArrayList<>();
+        publicKeys.forEach((keyId, publicKey) -> {
+            Map<String, String> key = new LinkedHashMap<>();
+            key.put("kty", "EC");
+            key.put("crv", "P-256");
+            key.put("use", "sig");
+            key.put("alg", ES256);
+            key.put("kid", keyId);
+            key.put("x", encodeCoordinate(publicKey.getW().getAffineX()));
+            key.put("y", encodeCoordinate(publicKey.getW().getAffineY()));
+            keys.add(key);
+        });
+        return Map.of("keys", keys);
+    }
+
+    private static String encodeCoordinate(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixedLength = new byte[P256_COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, P256_COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixedLength, P256_COORDINATE_LENGTH - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixedLength);
+    }
+}
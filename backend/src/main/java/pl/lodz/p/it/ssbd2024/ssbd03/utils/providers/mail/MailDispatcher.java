@@ -0,0 +1,193 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.async.AsyncConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.MailOutboxServiceInterface;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Component sending the e-mail messages from the outbox. Outbox is drained in the mail bulkhead, in batches,
+ * each of them sent over a single connection to the SMTP server. Dispatcher is woken up after the commit of each
+ * transaction, which wrote messages to the outbox, and periodically, in order to retry failed messages and to pick up
+ * messages written by other instances of the application. Wake-ups received while the outbox is being drained are
+ * coalesced into a single subsequent run.
+ *
+ * @see OutboxMail
+ * @see MailOutboxServiceInterface
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+
+    private final MailOutboxServiceInterface mailOutboxService;
+
+    private final JavaMailSenderImpl mailSender;
+
+    private final Environment env;
+
+    private final TaskExecutor mailExecutor;
+
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    @Value("${mail.sender.email}")
+    private String senderEmail;
+
+    /**
+     * Maximum number of messages claimed from the outbox and sent over a single connection.
+     * Specified by <code>mail.outbox.batch_size</code> property.
+     */
+    @Value("${mail.outbox.batch_size}")
+    private int batchSize;
+
+    /**
+     * Autowired constructor for the component.
+     *
+     * @param mailOutboxService Service used to claim messages from the outbox, and to report the results of sending them.
+     * @param javaMailSender    Component from Spring framework, used to send e-mail messages to certain
+     *                          e-mail addresses.
+     * @param env               Environment of the application, used to check its active profiles.
+     * @param mailExecutor      Bulkhead executing the work related to e-mail messages.
+     */
+    @Autowired
+    public MailDispatcher(MailOutboxServiceInterface mailOutboxService,
+                          JavaMailSenderImpl javaMailSender,
+                          Environment env,
+                          @Qualifier(AsyncConfig.MAIL_EXECUTOR) TaskExecutor mailExecutor) {
+        this.mailOutboxService = mailOutboxService;
+        this.mailSender = javaMailSender;
+        this.env = env;
+        this.mailExecutor = mailExecutor;
+    }
+
+    /**
+     * Schedules draining of the outbox in the mail bulkhead, unless it is already scheduled. When the bulkhead
+     * is full, messages stay in the outbox until the next wake-up.
+     */
+    public void wakeUp() {
+        if (!pending.compareAndSet(false, true)) return;
+        try {
+            mailExecutor.execute(() -> {
+                pending.set(false);
+                drain();
+            });
+        } catch (RejectedExecutionException exception) {
+            pending.set(false);
+            log.warn("Draining of the outbox was not scheduled, messages will be sent on the next wake-up. Cause: {}",
+                    exception.getMessage());
+        }
+    }
+
+    /**
+     * Periodically wakes up the dispatcher.
+     * Period is specified by <code>mail.outbox.poll.seconds</code> property.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll.seconds}", initialDelayString = "${mail.outbox.poll.seconds}", timeUnit = TimeUnit.SECONDS)
+    public void poll() {
+        this.wakeUp();
+    }
+
+    /**
+     * Sends messages from the outbox, batch by batch, until there are no more messages ready to be sent.
+     * Each batch is claimed and completed in separate, short transactions, so that no transaction or database lock
+     * is held while the messages are sent.
+     */
+    public void drain() {
+        try {
+            List<OutboxMail> batch;
+            do {
+                batch = mailOutboxService.claim(batchSize);
+                if (batch.isEmpty()) return;
+
+                Map<UUID, String> failures = this.sendBatch(batch);
+                List<UUID> sentIds = batch.stream()
+                        .map(OutboxMail::getId)
+                        .filter(id -> !failures.containsKey(id))
+                        .toList();
+                mailOutboxService.complete(sentIds, failures);
+
+                if (!failures.isEmpty()) {
+                    log.warn("{} of {} e-mail message(s) could not be sent, and will be retried.", failures.size(), batch.size());
+                }
+            } while (batch.size() == batchSize);
+        } catch (ApplicationBaseException | RuntimeException exception) {
+            log.error("Exception: {} occurred while draining the outbox of the e-mail messages. Cause: {}.",
+                    exception.getClass().getSimpleName(), exception.getMessage());
+        }
+    }
+
+    /**
+     * Sends the batch of messages over a single connection to the SMTP server.
+     *
+     * @param batch Messages to be sent.
+     * @return Descriptions of the errors, keyed by the identifiers of the messages, which could not be sent.
+     */
+    private Map<UUID, String> sendBatch(List<OutboxMail> batch) {
+        Map<UUID, String> failures = new HashMap<>();
+        if (Arrays.asList(env.getActiveProfiles()).contains("test")) return failures;
+
+        Map<MimeMessage, UUID> messages = new LinkedHashMap<>();
+        for (OutboxMail mail : batch) {
+            try {
+                messages.put(this.createMessage(mail), mail.getId());
+            } catch (MessagingException exception) {
+                failures.put(mail.getId(), describe(exception));
+            }
+        }
+        if (messages.isEmpty()) return failures;
+
+        try {
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException exception) {
+            if (exception.getFailedMessages().isEmpty()) {
+                messages.values().forEach(id -> failures.put(id, describe(exception)));
+            } else {
+                exception.getFailedMessages().forEach((message, cause) -> failures.put(messages.get(message), describe(cause)));
+            }
+        } catch (MailException exception) {
+            messages.values().forEach(id -> failures.put(id, describe(exception)));
+        }
+        return failures;
+    }
+
+    /**
+     * Creates MIME message from the message stored in the outbox.
+     *
+     * @param mail Message stored in the outbox.
+     * @return MIME message ready to be sent.
+     * @throws MessagingException Exception thrown when the message could not be created.
+     */
+    private MimeMessage createMessage(OutboxMail mail) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        mimeMessage.setHeader("Content-Type", "text/plain; charset=\"utf-8\"");
+        MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+        messageHelper.setTo(mail.getRecipient());
+        messageHelper.setSubject(mail.getSubject());
+        messageHelper.setText(mail.getContent(), true);
+        messageHelper.setFrom(senderEmail);
+        return mimeMessage;
+    }
+
+    private static String describe(Exception exception) {
+        return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+    }
+}
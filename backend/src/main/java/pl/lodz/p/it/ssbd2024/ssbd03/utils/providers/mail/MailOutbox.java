@@ -0,0 +1,30 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail;
+
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+
+/**
+ * Outbox of the e-mail messages, backed by the persistence unit of a single module. Message has to be written
+ * with the persistence unit used by the current transaction, since the data sources of the persistence units
+ * do not take part in two-phase commit, and only then the message is committed atomically with the business data.
+ *
+ * @see OutboxMail
+ */
+public interface MailOutbox {
+
+    /**
+     * Checks whether the persistence unit of the outbox is used by the current transaction.
+     *
+     * @return True if the entity manager of the outbox is bound to the current transaction, false otherwise.
+     */
+    boolean isUsedByCurrentTransaction();
+
+    /**
+     * Writes the message to the outbox in the current transaction.
+     *
+     * @param mail Message to be sent after the transaction is committed.
+     * @throws ApplicationBaseException General superclass of all the exceptions thrown by the
+     *                                  facade exception handling aspect.
+     */
+    void enqueue(OutboxMail mail) throws ApplicationBaseException;
+}
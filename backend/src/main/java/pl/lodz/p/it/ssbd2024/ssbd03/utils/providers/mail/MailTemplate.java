@@ -0,0 +1,183 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * E-mail message template, parsed once into the literal segments separated by placeholder slots, so that rendering
+ * the message requires single pass over the segments. Templates are immutable and therefore safe to be shared
+ * between threads.
+ *
+ * @see MailTemplateRegistry
+ */
+public class MailTemplate {
+
+    /**
+     * Placeholders, which could be used in the e-mail message templates.
+     */
+    @Getter
+    public enum Placeholder {
+        FIRSTNAME("$firstname"),
+        LASTNAME("$lastname"),
+        GREETING_MESSAGE("$greeting_message"),
+        RESULT_MESSAGE("$result_message"),
+        ACTION_DESCRIPTION("$action_description"),
+        ACTION_LINK("$action_link"),
+        CODE("$code"),
+        NOTE_TITLE("$note_title"),
+        NOTE_MESSAGE("$note_message"),
+        ELDORADO_LOGO("$eldorado_logo");
+
+        private final String token;
+
+        Placeholder(String token) {
+            this.token = token;
+        }
+    }
+
+    private static final Placeholder[] PLACEHOLDERS = Placeholder.values();
+
+    /**
+     * Initial capacity of the per-thread render buffer, enough for the templates with inlined logo.
+     */
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+
+    /**
+     * Maximal capacity of the buffer kept by the thread between renders.
+     */
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 256 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(BUFFER_CAPACITY));
+
+    /**
+     * Literal segments of the template. There is always one more segment than there are slots.
+     */
+    private final String[] segments;
+
+    /**
+     * Placeholders located between consecutive literal segments.
+     */
+    private final Placeholder[] slots;
+
+    private MailTemplate(String[] segments, Placeholder[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Parses the template content into the literal segments and placeholder slots.
+     *
+     * @param content Content of the template.
+     * @return Compiled template.
+     */
+    public static MailTemplate compile(String content) {
+        List<String> segments = new ArrayList<>();
+        List<Placeholder> slots = new ArrayList<>();
+
+        int segmentStart = 0;
+        int index = content.indexOf('$');
+        while (index >= 0) {
+            Placeholder placeholder = placeholderAt(content, index);
+            if (placeholder != null) {
+                segments.add(content.substring(segmentStart, index));
+                slots.add(placeholder);
+                segmentStart = index + placeholder.getToken().length();
+                index = content.indexOf('$', segmentStart);
+            } else {
+                index = content.indexOf('$', index + 1);
+            }
+        }
+        segments.add(content.substring(segmentStart));
+        return new MailTemplate(segments.toArray(String[]::new), slots.toArray(Placeholder[]::new));
+    }
+
+    /**
+     * Replaces given placeholder with the constant value, producing new template with fewer slots.
+     * Used to inline values, which are the same for every message, like the logo.
+     *
+     * @param placeholder Placeholder to be replaced.
+     * @param value       Value of the placeholder.
+     * @return Template with the placeholder replaced.
+     */
+    public MailTemplate bind(Placeholder placeholder, String value) {
+        List<String> boundSegments = new ArrayList<>();
+        List<Placeholder> boundSlots = new ArrayList<>();
+
+        StringBuilder segment = new StringBuilder(segments[0]);
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == placeholder) {
+                segment.append(value).append(segments[i + 1]);
+            } else {
+                boundSegments.add(segment.toString());
+                boundSlots.add(slots[i]);
+                segment = new StringBuilder(segments[i + 1]);
+            }
+        }
+        boundSegments.add(segment.toString());
+        return new MailTemplate(boundSegments.toArray(String[]::new), boundSlots.toArray(Placeholder[]::new));
+    }
+
+    /**
+     * Creates new renderer of the message based on this template.
+     *
+     * @return Renderer of the message.
+     */
+    public Renderer newRenderer() {
+        return new Renderer();
+    }
+
+    private static Placeholder placeholderAt(String content, int index) {
+        Placeholder match = null;
+        for (Placeholder placeholder : PLACEHOLDERS) {
+            String token = placeholder.getToken();
+            if (content.startsWith(token, index) && (match == null || token.length() > match.getToken().length())) {
+                match = placeholder;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Renderer of the single message, collecting values of the placeholders. Placeholders without any value
+     * are rendered as they are in the template.
+     */
+    public class Renderer {
+
+        private final String[] values = new String[PLACEHOLDERS.length];
+
+        private Renderer() {
+        }
+
+        /**
+         * Sets the value of given placeholder.
+         *
+         * @param placeholder Placeholder in the template.
+         * @param value       Value of the placeholder.
+         * @return This renderer.
+         */
+        public Renderer with(Placeholder placeholder, String value) {
+            values[placeholder.ordinal()] = value;
+            return this;
+        }
+
+        /**
+         * Renders the message in single pass over the template, using buffer reused by the current thread.
+         *
+         * @return Content of the message.
+         */
+        public String render() {
+            StringBuilder buffer = BUFFER.get();
+            buffer.setLength(0);
+            buffer.append(segments[0]);
+            for (int i = 0; i < slots.length; i++) {
+                String value = values[slots[i].ordinal()];
+                buffer.append(value != null ? value : slots[i].getToken()).append(segments[i + 1]);
+            }
+            String content = buffer.toString();
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) BUFFER.remove();
+            return content;
+        }
+    }
+}
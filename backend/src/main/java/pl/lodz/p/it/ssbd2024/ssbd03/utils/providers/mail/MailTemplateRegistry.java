@@ -0,0 +1,99 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.EmailTemplateNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.ImageNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.messages.log.MailProviderMessages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the compiled e-mail message templates. Each template is read from the templates/ folder and compiled
+ * once, on the first use, with the Eldorado logo (read and encoded once as well) inlined into it. Messages
+ * are retrieved from the catalog preloaded by {@link I18n}.
+ *
+ * @see MailTemplate
+ * @see pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider
+ */
+@Slf4j
+@Component
+public class MailTemplateRegistry {
+
+    public static final String DEFAULT_TEMPLATE = "default-template.html";
+    public static final String LINK_TEMPLATE = "link-template.html";
+    public static final String CODE_TEMPLATE = "code-template.html";
+
+    private static final String LOGO_IMAGE = "eldorado.png";
+
+    private final Map<String, MailTemplate> templates = new ConcurrentHashMap<>();
+
+    private volatile String logo;
+
+    /**
+     * Retrieves the compiled template, compiling it on the first use.
+     *
+     * @param templateName Name of the template file in the templates/ folder.
+     * @return Compiled template, with the logo inlined.
+     * @throws EmailTemplateNotFoundException Thrown when the template could not be read.
+     * @throws ImageNotFoundException         Thrown when the logo could not be read.
+     */
+    public MailTemplate getTemplate(String templateName) throws EmailTemplateNotFoundException, ImageNotFoundException {
+        MailTemplate template = templates.get(templateName);
+        if (template == null) {
+            template = MailTemplate.compile(loadTemplate(templateName))
+                    .bind(MailTemplate.Placeholder.ELDORADO_LOGO, "data:image/png;base64," + getLogo());
+            MailTemplate existingTemplate = templates.putIfAbsent(templateName, template);
+            if (existingTemplate != null) template = existingTemplate;
+        }
+        return template;
+    }
+
+    /**
+     * Retrieves the message from the preloaded message catalog.
+     *
+     * @param messageKey Key of the message.
+     * @param language   Language of the message.
+     * @return Message in given language.
+     */
+    public String getMessage(String messageKey, String language) {
+        return I18n.getMessage(messageKey, language);
+    }
+
+    private String getLogo() throws ImageNotFoundException {
+        String encodedLogo = logo;
+        if (encodedLogo == null) {
+            encodedLogo = Base64.getEncoder().encodeToString(readResource("templates/images/" + LOGO_IMAGE,
+                    new ImageNotFoundException(MailProviderMessages.IMAGE_NOT_FOUND_EXCEPTION)));
+            logo = encodedLogo;
+        }
+        return encodedLogo;
+    }
+
+    /**
+     * Reads the template, joining its lines without line terminators.
+     */
+    private String loadTemplate(String templateName) throws EmailTemplateNotFoundException {
+        String content = new String(readResource("templates/" + templateName,
+                new EmailTemplateNotFoundException(MailProviderMessages.EMAIL_TEMPLATE_NOT_FOUND_EXCEPTION)), StandardCharsets.UTF_8);
+        return content.replace("\r", "").replace("\n", "");
+    }
+
+    private <E extends IOException> byte[] readResource(String resourceName, E notFoundException) throws E {
+        byte[] content = null;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourceName)) {
+            if (inputStream != null) content = inputStream.readAllBytes();
+        } catch (IOException exception) {
+            log.error("Exception: {} thrown while reading resource: {}. Cause: {}. Make sure that the file is located in the templates/ folder.",
+                    exception.getClass().getSimpleName(), resourceName, exception.getMessage());
+        }
+        if (content == null) throw notFoundException;
+        return content;
+    }
+}
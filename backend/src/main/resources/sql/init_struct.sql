@@ -194,6 +194,7 @@ CREATE TABLE personal_data (
 --
 
 CREATE TABLE reservation (
+    vehicle_inside boolean DEFAULT false NOT NULL,
     begin_time timestamp,
     creation_timestamp timestamp NOT NULL,
     end_time timestamp,
@@ -265,6 +266,57 @@ CREATE TABLE user_level (
     created_by character varying(255)
 );
 
+--
+-- Name: outbox_mail; Type: TABLE; Schema: public
+--
+
+CREATE TABLE outbox_mail (
+    attempts integer NOT NULL,
+    creation_timestamp timestamp NOT NULL,
+    next_attempt_timestamp timestamp,
+    version bigint NOT NULL,
+    id binary(16) NOT NULL,
+    recipient character varying(255) NOT NULL,
+    subject character varying(255) NOT NULL,
+    last_error character varying(512),
+    content text NOT NULL
+);
+
+--
+-- Name: cache_invalidation; Type: TABLE; Schema: public
+--
+
+CREATE TABLE cache_invalidation (
+    creation_timestamp timestamp NOT NULL,
+    version bigint NOT NULL,
+    id binary(16) NOT NULL,
+    region character varying(64) NOT NULL,
+    entry_key character varying(255),
+    origin_node character varying(255) NOT NULL
+);
+
+--
+-- Name: scheduler_lease; Type: TABLE; Schema: public
+--
+
+CREATE TABLE scheduler_lease (
+    name character varying(64) NOT NULL,
+    owner character varying(255) NOT NULL,
+    acquisition_timestamp timestamp NOT NULL,
+    expiration_timestamp timestamp NOT NULL,
+    checkpoint character varying(255)
+);
+
+--
+-- Name: sector_capacity_slot; Type: TABLE; Schema: public
+--
+
+CREATE TABLE sector_capacity_slot (
+    sector_id binary(16) NOT NULL,
+    slot_start_timestamp timestamp NOT NULL,
+    reserved_places integer NOT NULL
+);
+
 --
 -- Name: account_attributes account_attributes_pkey; Type: CONSTRAINT; Schema: public
 --
@@ -472,6 +524,42 @@ ALTER TABLE user_level
 ALTER TABLE user_level
     ADD CONSTRAINT user_level_pkey PRIMARY KEY (id);
 
+--
+-- Name: outbox_mail outbox_mail_pkey; Type: CONSTRAINT; Schema: public
+--
+
+ALTER TABLE outbox_mail
+    ADD CONSTRAINT outbox_mail_pkey PRIMARY KEY (id);
+
+
+--
+-- Name: cache_invalidation cache_invalidation_pkey; Type: CONSTRAINT; Schema: public
+--
+
+ALTER TABLE cache_invalidation
+    ADD CONSTRAINT cache_invalidation_pkey PRIMARY KEY (id);
+
+--
+-- Name: scheduler_lease scheduler_lease_pkey; Type: CONSTRAINT; Schema: public
+--
+
+ALTER TABLE scheduler_lease
+    ADD CONSTRAINT scheduler_lease_pkey PRIMARY KEY (name);
+
+--
+-- Name: sector_capacity_slot sector_capacity_slot_pkey; Type: CONSTRAINT; Schema: public
+--
+
+ALTER TABLE sector_capacity_slot
+    ADD CONSTRAINT sector_capacity_slot_pkey PRIMARY KEY (sector_id, slot_start_timestamp);
+
+
+--
+-- Name: idx_account_active_creation_timestamp; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_account_active_creation_timestamp ON account (active, creation_timestamp);
+
 
 --
 -- Name: idx_account_attribute_account_id; Type: INDEX; Schema: public
@@ -494,6 +582,13 @@ CREATE INDEX idx_account_attribute_attribute_name_id ON account_attributes (attr
 CREATE INDEX idx_account_hist_account_id ON account_history (modified_by);
 
 
+--
+-- Name: idx_account_hist_id_modification_time; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_account_hist_id_modification_time ON account_history (id, modification_time, version);
+
+
 --
 -- Name: idx_account_id; Type: INDEX; Schema: public
 --
@@ -536,6 +631,27 @@ CREATE INDEX idx_attribute_value_attribute_name_id ON attribute_value (attribute
 CREATE INDEX idx_client_data_user_level_id ON client_data (id);
 
 
+--
+-- Name: idx_outbox_mail_next_attempt_timestamp; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_outbox_mail_next_attempt_timestamp ON outbox_mail (next_attempt_timestamp);
+
+
+--
+-- Name: idx_cache_invalidation_creation_timestamp; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_cache_invalidation_creation_timestamp ON cache_invalidation (creation_timestamp);
+
+
+--
+-- Name: idx_sector_capacity_slot_start_timestamp; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_sector_capacity_slot_start_timestamp ON sector_capacity_slot (slot_start_timestamp);
+
+
 --
 -- Name: idx_parking_event_reservation_id; Type: INDEX; Schema: public
 --
@@ -550,6 +666,13 @@ CREATE INDEX idx_parking_event_reservation_id ON parking_event (reservation_id);
 CREATE INDEX idx_parking_history_account_id ON parking_history (modified_by);
 
 
+--
+-- Name: idx_parking_history_id_modification_time; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_parking_history_id_modification_time ON parking_history (id, modification_time, version);
+
+
 --
 -- Name: idx_reservation_client_id; Type: INDEX; Schema: public
 --
@@ -557,6 +680,27 @@ CREATE INDEX idx_parking_history_account_id ON parking_history (modified_by);
 CREATE INDEX idx_reservation_client_id ON reservation (client_id);
 
 
+--
+-- Name: idx_reservation_status_vehicle_inside; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_reservation_status_vehicle_inside ON reservation (status, vehicle_inside);
+
+
+--
+-- Name: idx_reservation_begin_time_id; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_reservation_begin_time_id ON reservation (begin_time, id);
+
+
+--
+-- Name: idx_reservation_sector_id_begin_time_end_time; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_reservation_sector_id_begin_time_end_time ON reservation (sector_id, begin_time, end_time);
+
+
 --
 -- Name: idx_reservation_sector_id; Type: INDEX; Schema: public
 --
@@ -585,6 +729,13 @@ CREATE INDEX idx_staff_data_user_level_id ON staff_data (id);
 CREATE INDEX idx_token_account_id ON token (account_id);
 
 
+--
+-- Name: idx_token_type_account_id; Type: INDEX; Schema: public
+--
+
+CREATE INDEX idx_token_type_account_id ON token (type, account_id);
+
+
 --
 -- Name: idx_user_level_account_id; Type: INDEX; Schema: public
 --
@@ -745,6 +896,9 @@ GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE staff_data             TO 'ssbd03m
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE admin_data             TO 'ssbd03mok'@'localhost';
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE token                  TO 'ssbd03mok'@'localhost';
 GRANT SELECT, INSERT                 ON TABLE account_history        TO 'ssbd03mok'@'localhost';
+GRANT SELECT, INSERT, UPDATE         ON TABLE scheduler_lease        TO 'ssbd03mok'@'localhost';
+GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE outbox_mail            TO 'ssbd03mok'@'localhost';
+GRANT SELECT, INSERT, DELETE         ON TABLE cache_invalidation     TO 'ssbd03mok'@'localhost';
 
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE account_attributes     TO 'ssbd03mok'@'localhost';
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE attribute_association  TO 'ssbd03mok'@'localhost';
@@ -759,6 +913,7 @@ GRANT SELECT                         ON TABLE attribute_value        TO 'ssbd03a
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE reservation            TO 'ssbd03mop'@'localhost';
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE parking                TO 'ssbd03mop'@'localhost';
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE sector                 TO 'ssbd03mop'@'localhost';
+GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE sector_capacity_slot   TO 'ssbd03mop'@'localhost';
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE parking_event          TO 'ssbd03mop'@'localhost';
 GRANT SELECT                         ON TABLE account                TO 'ssbd03mop'@'localhost';
 GRANT SELECT                         ON TABLE personal_data          TO 'ssbd03mop'@'localhost';
@@ -767,6 +922,9 @@ GRANT SELECT                , UPDATE ON TABLE client_data            TO 'ssbd03m
 GRANT SELECT                         ON TABLE admin_data             TO 'ssbd03mop'@'localhost';
 GRANT SELECT                         ON TABLE staff_data             TO 'ssbd03mop'@'localhost';
 GRANT SELECT, INSERT                 ON TABLE parking_history        TO 'ssbd03mop'@'localhost';
+GRANT SELECT, INSERT, UPDATE         ON TABLE scheduler_lease        TO 'ssbd03mop'@'localhost';
+GRANT         INSERT                 ON TABLE outbox_mail            TO 'ssbd03mop'@'localhost';
+GRANT         INSERT                 ON TABLE cache_invalidation     TO 'ssbd03mop'@'localhost';
 
 GRANT SELECT                         ON TABLE account_attributes     TO 'ssbd03mop'@'localhost';
 GRANT SELECT                         ON TABLE attribute_association  TO 'ssbd03mop'@'localhost';
@@ -781,4 +939,6 @@ GRANT SELECT                         ON TABLE client_data            TO 'ssbd03a
 GRANT SELECT                         ON TABLE staff_data             TO 'ssbd03auth'@'localhost';
 GRANT SELECT                         ON TABLE admin_data             TO 'ssbd03auth'@'localhost';
 GRANT SELECT, INSERT, DELETE         ON TABLE token                  TO 'ssbd03auth'@'localhost';
-GRANT SELECT, INSERT                 ON TABLE account_history        TO 'ssbd03auth'@'localhost';
\ No newline at end of file
+GRANT SELECT, INSERT                 ON TABLE account_history        TO 'ssbd03auth'@'localhost';
+GRANT         INSERT                 ON TABLE outbox_mail            TO 'ssbd03auth'@'localhost';
+GRANT         INSERT                 ON TABLE cache_invalidation     TO 'ssbd03auth'@'localhost';
\ No newline at end of file
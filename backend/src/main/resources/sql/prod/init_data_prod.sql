@@ -234,4 +234,15 @@ INSERT INTO reservation (id, creation_timestamp, begin_time, end_time, client_id
 INSERT INTO reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES (UUID_TO_BIN('d92e7d7b-9f82-4391-8d36-27cb92e140cf'), current_timestamp, TIMESTAMP '2024-06-14 10:30:00', TIMESTAMP '2024-06-14 21:00:00', UUID_TO_BIN('9428fadf-191c-4dd7-8626-01c3e0ff603c'), UUID_TO_BIN('6113f6d0-f74b-48ff-ac8c-99c2827b72b0'), 0, 'IN_PROGRESS');
 INSERT INTO reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES (UUID_TO_BIN('62f21719-9470-4c75-8980-87eb835968dc'), current_timestamp, TIMESTAMP '2024-06-14 10:30:00', TIMESTAMP '2024-06-14 21:00:00', UUID_TO_BIN('69507c7f-4c03-4087-85e6-3ae3b6fc2201'), UUID_TO_BIN('6113f6d0-f74b-48ff-ac8c-99c2827b72b0'), 0, 'IN_PROGRESS');
 
-INSERT INTO reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES (UUID_TO_BIN('fbec4998-23fa-4e11-9d18-cd8c066a4530'), current_timestamp, TIMESTAMP '2024-06-14 10:30:00', TIMESTAMP '2024-06-14 21:00:00', UUID_TO_BIN('900cbc37-2a95-4bd6-96f2-897c12155f85'), UUID_TO_BIN('2dda962e-0fbe-4c9c-9dd5-59b945b7764f'), 0, 'IN_PROGRESS');
\ No newline at end of file
+INSERT INTO reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES (UUID_TO_BIN('fbec4998-23fa-4e11-9d18-cd8c066a4530'), current_timestamp, TIMESTAMP '2024-06-14 10:30:00', TIMESTAMP '2024-06-14 21:00:00', UUID_TO_BIN('900cbc37-2a95-4bd6-96f2-897c12155f85'), UUID_TO_BIN('2dda962e-0fbe-4c9c-9dd5-59b945b7764f'), 0, 'IN_PROGRESS');
+
+-- vehicle inside flag, derived from the parking events
+UPDATE reservation r SET r.vehicle_inside = ((SELECT COUNT(*) FROM parking_event p WHERE p.reservation_id = r.id) % 2 = 1);
+
+-- scheduler leases, expired until acquired by the first node executing the task
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.deleteNotActivatedAccounts', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.resendConfirmationEmail', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.unblockAccount', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.suspendAccountWithoutAuthenticationForSpecifiedTime', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mop.terminateReservation', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mop.completeReservation', '', current_timestamp, current_timestamp);
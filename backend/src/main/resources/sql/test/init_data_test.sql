@@ -319,3 +319,14 @@ INSERT INTO sector (id, creation_timestamp, occupied_places, max_places, weight,
 
 -- michalkowal
 INSERT INTO reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES (UUID_TO_BIN('91c6cd8b-8f04-4ca5-a156-c695b4ba1cec'), current_timestamp, current_timestamp - interval 1 hour, current_timestamp + interval 7 hour, UUID_TO_BIN('69507c7f-4c03-4087-85e6-3ae3b6fc2201'), UUID_TO_BIN('b9f5bb0c-d19f-4101-ac57-d758e063ac3e'), 0, 'IN_PROGRESS');
+
+-- vehicle inside flag, derived from the parking events
+UPDATE reservation r SET r.vehicle_inside = ((SELECT COUNT(*) FROM parking_event p WHERE p.reservation_id = r.id) % 2 = 1);
+
+-- scheduler leases, expired until acquired by the first node executing the task
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.deleteNotActivatedAccounts', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.resendConfirmationEmail', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.unblockAccount', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mok.suspendAccountWithoutAuthenticationForSpecifiedTime', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mop.terminateReservation', '', current_timestamp, current_timestamp);
+INSERT INTO scheduler_lease (name, owner, acquisition_timestamp, expiration_timestamp) VALUES ('mop.completeReservation', '', current_timestamp, current_timestamp);
@@ -0,0 +1,73 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.integration.mok;
+
+import com.atomikos.jdbc.AtomikosDataSourceBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+import pl.lodz.p.it.ssbd2024.ssbd03.TestcontainersConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig.WebConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.SchedulerLeaseMOKFacade;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@ContextConfiguration(classes = WebConfig.class)
+public class SchedulerLeaseMOKFacadeIT extends TestcontainersConfig {
+
+    private static final String LEASE = "mok.testTask";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private SchedulerLeaseMOKFacade schedulerLeaseFacade;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("jdbc.ssbd03.url", () -> String.format("jdbc:postgresql://localhost:%s/ssbd03", postgres.getFirstMappedPort()));
+    }
+
+    @AfterEach
+    void teardown() {
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceAdmin")).close();
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceAuth")).close();
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceMOP")).close();
+        ((AtomikosDataSourceBean) webApplicationContext.getBean("dataSourceMOK")).close();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.ACQUIRE_SCHEDULER_LEASE})
+    public void schedulerLeaseFacadeAcquireHeldLeaseTest() throws ApplicationBaseException {
+        LocalDateTime expirationTime = LocalDateTime.now().plusHours(1);
+
+        assertTrue(schedulerLeaseFacade.tryAcquire(LEASE, "node-1", expirationTime).isPresent());
+        assertFalse(schedulerLeaseFacade.tryAcquire(LEASE, "node-2", expirationTime).isPresent());
+        assertTrue(schedulerLeaseFacade.tryAcquire(LEASE, "node-1", expirationTime.plusHours(1)).isPresent());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.ACQUIRE_SCHEDULER_LEASE})
+    public void schedulerLeaseFacadeAcquireExpiredLeaseTest() throws ApplicationBaseException {
+        assertTrue(schedulerLeaseFacade.tryAcquire(LEASE, "node-1", LocalDateTime.now().minusMinutes(1)).isPresent());
+        assertTrue(schedulerLeaseFacade.tryAcquire(LEASE, "node-2", LocalDateTime.now().plusHours(1)).isPresent());
+        assertFalse(schedulerLeaseFacade.tryAcquire(LEASE, "node-1", LocalDateTime.now().plusHours(1)).isPresent());
+    }
+}
@@ -1,21 +1,31 @@
 package pl.lodz.p.it.ssbd2024.ssbd03.integration.mop;
 
 import com.atomikos.jdbc.AtomikosDataSourceBean;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 import pl.lodz.p.it.ssbd2024.ssbd03.TestcontainersConfig;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.security.consts.Authorities;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig.WebConfig;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
@@ -32,6 +42,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,6 +76,12 @@ public class ParkingFacadeIT extends TestcontainersConfig {
     ParkingFacade parkingFacade;
     @Autowired
     ReservationFacade reservationFacade;
+    @PersistenceUnit(unitName = DatabaseConfigConstants.MOP_PU)
+    EntityManagerFactory entityManagerFactory;
+    @PersistenceContext(unitName = DatabaseConfigConstants.MOP_PU)
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
 
     private Address address;
     private Parking parking;
@@ -289,6 +311,163 @@ public class ParkingFacadeIT extends TestcontainersConfig {
         assertEquals(1, parkingNo1.getSectors().size());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.ADD_PARKING, Authorities.ENTER_PARKING_WITH_RESERVATION, Authorities.EXIT_PARKING})
+    public void parkingFacadeOccupyAndReleasePlaceTest() throws ApplicationBaseException {
+        Address addressNo1 = new Address("GateCity", "90-000", "Pomorska");
+        Parking parkingNo1 = new Parking(addressNo1, Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        parkingNo1.addSector("SO-01", Sector.SectorType.COVERED, 1, 100);
+        parkingFacade.create(parkingNo1);
+        Sector sectorNo1 = parkingNo1.getSectors().getFirst();
+        Long version = sectorNo1.getVersion();
+
+        assertTrue(parkingFacade.occupyPlace(sectorNo1));
+        assertEquals(1, sectorNo1.getOccupiedPlaces());
+        assertTrue(sectorNo1.getVersion() > version);
+        assertFalse(parkingFacade.occupyPlace(sectorNo1));
+        assertEquals(1, sectorNo1.getOccupiedPlaces());
+
+        assertTrue(parkingFacade.releasePlace(sectorNo1));
+        assertEquals(0, sectorNo1.getOccupiedPlaces());
+        assertFalse(parkingFacade.releasePlace(sectorNo1));
+        assertEquals(0, sectorNo1.getOccupiedPlaces());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.ADD_PARKING, Authorities.RESERVE_PARKING_PLACE, Authorities.CANCEL_RESERVATION})
+    public void parkingFacadeReserveAndReleaseCapacityTest() throws ApplicationBaseException {
+        Address addressNo1 = new Address("SlotCity", "90-000", "Pomorska");
+        Parking parkingNo1 = new Parking(addressNo1, Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        parkingNo1.addSector("SC-01", Sector.SectorType.COVERED, 1, 100);
+        parkingFacade.create(parkingNo1);
+        Sector sectorNo1 = parkingNo1.getSectors().getFirst();
+        LocalDateTime day = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+        assertTrue(parkingFacade.reserveCapacity(sectorNo1, day.withHour(10), day.withHour(12)));
+        assertFalse(parkingFacade.reserveCapacity(sectorNo1, day.withHour(11).withMinute(30), day.withHour(13)));
+        assertTrue(parkingFacade.reserveCapacity(sectorNo1, day.withHour(12), day.withHour(14)));
+
+        parkingFacade.releaseCapacity(sectorNo1.getId(), day.withHour(10), day.withHour(12));
+        assertTrue(parkingFacade.reserveCapacity(sectorNo1, day.withHour(11), day.withHour(12)));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.ADD_PARKING, Authorities.RESERVE_PARKING_PLACE, Authorities.DEACTIVATE_SECTOR})
+    public void parkingFacadeReleaseCapacityReturnsSlotsToZeroTest() throws ApplicationBaseException {
+        Address addressNo1 = new Address("SlotCity", "90-000", "Pomorska");
+        Parking parkingNo1 = new Parking(addressNo1, Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        parkingNo1.addSector("SC-02", Sector.SectorType.COVERED, 5, 100);
+        parkingFacade.create(parkingNo1);
+        Sector sectorNo1 = parkingNo1.getSectors().getFirst();
+        LocalDateTime day = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+        assertTrue(parkingFacade.reserveCapacity(sectorNo1, day.withHour(10), day.withHour(13)));
+        assertTrue(parkingFacade.reserveCapacity(sectorNo1, day.withHour(11), day.withHour(12)));
+        assertEquals(List.of(1, 2, 1), findReservedPlaces(sectorNo1));
+
+        parkingFacade.releaseCapacity(sectorNo1.getId(), day.withHour(10), day.withHour(13));
+        parkingFacade.releaseCapacity(sectorNo1.getId(), day.withHour(11), day.withHour(12));
+        assertEquals(List.of(0, 0, 0), findReservedPlaces(sectorNo1));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.ADD_PARKING, Authorities.RESERVE_PARKING_PLACE, Authorities.END_RESERVATION})
+    public void parkingFacadeBackfillCapacitySlotsTest() throws ApplicationBaseException {
+        Address addressNo1 = new Address("BackfillCity", "90-000", "Pomorska");
+        Parking parkingNo1 = new Parking(addressNo1, Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        parkingNo1.addSector("BF-01", Sector.SectorType.COVERED, 5, 100);
+        parkingFacade.create(parkingNo1);
+        Sector sectorNo1 = parkingNo1.getSectors().getFirst();
+        LocalDateTime day = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+        // Reservation made before the capacity slots were introduced
+        Reservation legacyReservation = new Reservation(sectorNo1, day.withHour(10));
+        legacyReservation.setEndTime(day.withHour(12));
+        reservationFacade.create(legacyReservation);
+        Reservation reservationNo1 = new Reservation(sectorNo1, day.withHour(11));
+        reservationNo1.setEndTime(day.withHour(13));
+        assertTrue(parkingFacade.reserveCapacity(sectorNo1, reservationNo1.getBeginTime(), reservationNo1.getEndTime()));
+        reservationFacade.create(reservationNo1);
+
+        parkingFacade.backfillCapacitySlots();
+        assertEquals(List.of(1, 2, 1), findReservedPlaces(sectorNo1));
+        assertEquals(0, parkingFacade.backfillCapacitySlots());
+    }
+
+    @Test
+    public void parkingFacadeEntryWithoutReservationAndReservationDoNotOverbookSectorTest() throws Exception {
+        Sector sectorNo1 = executeInTransaction(List.of(Authorities.ADD_PARKING), () -> {
+            Parking parkingNo1 = new Parking(new Address("RaceCity", "90-000", "Pomorska"), Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+            parkingNo1.addSector("RC-01", Sector.SectorType.COVERED, 1, 100);
+            parkingFacade.create(parkingNo1);
+            return parkingNo1.getSectors().getFirst();
+        });
+        LocalDateTime now = LocalDateTime.now();
+
+        int attempts = 8;
+        CyclicBarrier barrier = new CyclicBarrier(attempts);
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            boolean entry = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                barrier.await();
+                try {
+                    return entry
+                            ? executeInTransaction(List.of(Authorities.ENTER_PARKING_WITHOUT_RESERVATION),
+                                    () -> parkingFacade.occupyPlaceInTimeframe(sectorNo1, now, now.plusHours(24)))
+                            : executeInTransaction(List.of(Authorities.RESERVE_PARKING_PLACE),
+                                    () -> parkingFacade.reserveCapacity(sectorNo1, now.plusHours(1), now.plusHours(3)));
+                } catch (Exception exception) {
+                    // Concurrent creation of the same slot fails, and the request would be retried
+                    return false;
+                }
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) succeeded++;
+        }
+        assertEquals(1, succeeded);
+        assertTrue(executeInTransaction(List.of(), () -> findReservedPlaces(sectorNo1)).stream()
+                .allMatch(reservedPlaces -> reservedPlaces <= 1));
+        Sector foundSector = executeInTransaction(List.of(Authorities.GET_SECTOR),
+                () -> parkingFacade.findAndRefreshSectorById(sectorNo1.getId()).orElseThrow());
+        assertTrue(foundSector.getOccupiedPlaces() <= 1);
+    }
+
+    private <T> T executeInTransaction(List<String> roles, Callable<T> action) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("test", null,
+                roles.stream().map(role -> "ROLE_" + role).toArray(String[]::new)));
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                try {
+                    return action.call();
+                } catch (Exception exception) {
+                    throw new IllegalStateException(exception);
+                }
+            });
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private List<Integer> findReservedPlaces(Sector sector) {
+        return entityManager.createQuery("""
+                        SELECT s.reservedPlaces FROM SectorCapacitySlot s
+                        WHERE s.sectorId = :sectorId
+                        ORDER BY s.startTime""", Integer.class)
+                .setParameter("sectorId", sector.getId())
+                .getResultList();
+    }
+
     @Test
     @Transactional(propagation = Propagation.REQUIRED)
     @WithMockUser(roles = {Authorities.DELETE_SECTOR})
@@ -298,6 +477,20 @@ public class ParkingFacadeIT extends TestcontainersConfig {
         assertEquals(listOfSectors, parking.getSectors());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.RESERVE_PARKING_PLACE, Authorities.ENTER_PARKING_WITHOUT_RESERVATION})
+    public void countMaxConcurrentSectorReservationsTest() throws ApplicationBaseException {
+        Sector sector = parkingFacade.findAndRefreshSectorById(UUID.fromString("3e6a85db-d751-4549-bbb7-9705f0b2fa6b")).orElseThrow();
+        long numOfReservations = parkingFacade.countMaxConcurrentSectorReservations(
+                sector,
+                LocalDateTime.of(2024, 12, 12, 12, 0, 0),
+                LocalDateTime.of(2024, 12, 12, 14, 0, 0)
+        );
+
+        assertEquals(5, numOfReservations);
+    }
+
     @Test
     @Transactional(propagation = Propagation.REQUIRED)
     @WithMockUser(roles = {Authorities.ENTER_PARKING_WITHOUT_RESERVATION})
@@ -428,4 +621,19 @@ public class ParkingFacadeIT extends TestcontainersConfig {
 //        assertEquals(0, listOfSectorsNo1.size());
 //        assertEquals(0, listOfSectorsNo2.size());
 //    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.GET_PARKING})
+    public void parkingFacadeFindReadsThroughSecondLevelCacheTest() throws ApplicationBaseException {
+        UUID parkingId = UUID.fromString("96a36faa-f2a2-41b8-9c3c-b6bef04ce6d1");
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Parking.class, parkingId);
+
+        Parking cachedParking = parkingFacade.find(parkingId).orElseThrow();
+
+        assertTrue(cache.contains(Parking.class, parkingId));
+        assertFalse(cachedParking.getSectors().isEmpty());
+        cachedParking.getSectors().forEach(cachedSector -> assertTrue(cache.contains(Sector.class, cachedSector.getId())));
+    }
 }
@@ -23,6 +23,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade;
 import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ReservationFacade;
 
 import java.time.LocalDateTime;
@@ -31,6 +32,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -58,6 +60,9 @@ public class ReservationFacadeIT extends TestcontainersConfig {
     @Autowired
     ReservationFacade reservationFacade;
 
+    @Autowired
+    ParkingFacade parkingFacade;
+
     private Address address;
     private Parking parking;
     private Sector sector;
@@ -107,15 +112,34 @@ public class ReservationFacadeIT extends TestcontainersConfig {
 
     @Test
     @Transactional(propagation = Propagation.REQUIRED)
-    @WithMockUser(roles = {Authorities.RESERVE_PARKING_PLACE})
-    public void countAllSectorReservationInTimeframeTest() throws ApplicationBaseException {
-        long numOfReservations = reservationFacade.countAllSectorReservationInTimeframe(
-                UUID.fromString("3e6a85db-d751-4549-bbb7-9705f0b2fa6b"),
-                LocalDateTime.of(2024, 12, 12, 12, 0, 0),
-                24,
-                LocalDateTime.of(2024, 12, 12, 8, 0, 0)
-        );
-
-        assertEquals(8, numOfReservations);
+    @WithMockUser(roles = {Authorities.GET_ALL_RESERVATIONS})
+    public void reservationFacadeFindAllReservationsWithKeysetTest() throws ApplicationBaseException {
+        List<Reservation> firstPage = reservationFacade.findAllWithKeyset(null, null, 20);
+        assertEquals(20, firstPage.size());
+
+        Reservation last = firstPage.getLast();
+        List<Reservation> secondPage = reservationFacade.findAllWithKeyset(last.getBeginTime(), last.getId(), 20);
+        assertEquals(15, secondPage.size());
+        assertTrue(secondPage.stream().noneMatch(firstPage::contains));
+        assertFalse(secondPage.getFirst().getBeginTime().isBefore(last.getBeginTime()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.REQUIRED)
+    @WithMockUser(roles = {Authorities.ADD_PARKING, Authorities.RESERVE_PARKING_PLACE,
+            Authorities.ENTER_PARKING_WITHOUT_RESERVATION, Authorities.DEACTIVATE_SECTOR})
+    public void reservationFacadeFindReservationsToCancelBeforeDeactivationTest() throws ApplicationBaseException {
+        Parking deactivatedParking = new Parking(new Address("DeactivationCity", "90-000", "Zgierska"), Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        deactivatedParking.addSector("RG-01", Sector.SectorType.COVERED, 1, 100);
+        parkingFacade.create(deactivatedParking);
+        Sector deactivatedSector = deactivatedParking.getSectors().get(0);
+
+        LocalDateTime now = LocalDateTime.now();
+        Reservation overlappingReservation = new Reservation(deactivatedSector, now.plusHours(1));
+        overlappingReservation.setEndTime(now.plusHours(3));
+        reservationFacade.create(overlappingReservation);
+
+        assertEquals(List.of(overlappingReservation), reservationFacade.getAllReservationsToCancelBeforeDeactivation(deactivatedSector.getId(), now));
+        assertTrue(reservationFacade.getAllReservationsToCancelBeforeDeactivation(deactivatedSector.getId(), now.plusHours(2)).isEmpty());
     }
 }
@@ -0,0 +1,101 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.async.BulkheadExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadExecutorTest {
+
+    private BulkheadExecutor bulkhead;
+
+    @BeforeEach
+    public void createBulkhead() {
+        bulkhead = new BulkheadExecutor("test", 1, 1);
+    }
+
+    @AfterEach
+    public void destroyBulkhead() throws Exception {
+        SecurityContextHolder.clearContext();
+        bulkhead.destroy();
+    }
+
+    @Test
+    public void executeRunsTaskOnVirtualThreadTestPositive() throws Exception {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+
+        bulkhead.submit(() -> thread.set(Thread.currentThread())).get(5, TimeUnit.SECONDS);
+
+        assertTrue(thread.get().isVirtual());
+        assertTrue(thread.get().getName().startsWith("test-"));
+        assertEquals(1, bulkhead.getSubmittedCount());
+    }
+
+    @Test
+    public void executePropagatesSecurityContextTestPositive() throws Exception {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("login", null);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        AtomicReference<Authentication> propagated = new AtomicReference<>();
+
+        bulkhead.submit(() -> propagated.set(SecurityContextHolder.getContext().getAuthentication())).get(5, TimeUnit.SECONDS);
+
+        assertSame(authentication, propagated.get());
+    }
+
+    @Test
+    public void executeQueuesTasksBeyondConcurrencyAndRejectsWhenFullTestNegative() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch queuedFinished = new CountDownLatch(1);
+        AtomicInteger finished = new AtomicInteger();
+        Runnable blocking = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            finished.incrementAndGet();
+        };
+
+        bulkhead.execute(blocking);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        bulkhead.execute(() -> {
+            finished.incrementAndGet();
+            queuedFinished.countDown();
+        });
+
+        assertThrows(TaskRejectedException.class, () -> bulkhead.execute(finished::incrementAndGet));
+        assertEquals(1, bulkhead.getActiveCount());
+        assertEquals(1, bulkhead.getQueueDepth());
+        assertEquals(1, bulkhead.getRejectedCount());
+
+        release.countDown();
+        assertTrue(queuedFinished.await(5, TimeUnit.SECONDS));
+
+        assertEquals(2, finished.get());
+        assertEquals(0, bulkhead.getQueueDepth());
+        assertTrue(bulkhead.getMaxQueueWaitMillis() > 0);
+    }
+
+    @Test
+    public void executeCountsFailedTasksTestNegative() throws Exception {
+        bulkhead.execute(() -> {
+            throw new IllegalStateException("Failure");
+        });
+        bulkhead.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, bulkhead.getFailedCount());
+    }
+}
@@ -0,0 +1,114 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.async.BulkheadExecutor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.schedule.BulkheadTaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadTaskSchedulerTest {
+
+    private BulkheadExecutor bulkhead;
+    private BulkheadTaskScheduler scheduler;
+
+    @BeforeEach
+    public void createScheduler() {
+        bulkhead = new BulkheadExecutor("test", 1, 0);
+        scheduler = new BulkheadTaskScheduler(bulkhead, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    public void destroyScheduler() throws Exception {
+        scheduler.close();
+        bulkhead.destroy();
+    }
+
+    @Test
+    public void scheduleWithFixedDelayRunsTaskInBulkheadTestPositive() throws Exception {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        CountDownLatch executed = new CountDownLatch(1);
+
+        ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(() -> {
+            thread.compareAndSet(null, Thread.currentThread());
+            executed.countDown();
+        }, Duration.ofHours(1));
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+        assertTrue(thread.get().getName().startsWith("test-"));
+        assertEquals(1, bulkhead.getSubmittedCount());
+    }
+
+    @Test
+    public void scheduleRetriesExecutionRejectedByFullBulkheadTestNegative() throws Exception {
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.execute(() -> {
+            blocking.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch executed = new CountDownLatch(1);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        scheduler.schedule(() -> {
+            thread.set(Thread.currentThread());
+            executed.countDown();
+        }, Instant.now());
+
+        while (bulkhead.getRejectedCount() == 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, executed.getCount());
+        release.countDown();
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        assertTrue(thread.get().getName().startsWith("test-"));
+        assertTrue(bulkhead.getRejectedCount() >= 1);
+    }
+
+    @Test
+    public void scheduleWithFixedDelaySkipsExecutionRejectedByFullBulkheadTestNegative() throws Exception {
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        bulkhead.execute(() -> {
+            blocking.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocking.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch executed = new CountDownLatch(1);
+        ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(() -> {
+            executions.incrementAndGet();
+            executed.countDown();
+        }, Duration.ofMillis(20));
+
+        while (bulkhead.getRejectedCount() < 2) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executions.get());
+        release.countDown();
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+    }
+}
@@ -0,0 +1,267 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.AvailabilityResultCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AvailabilityResultCacheTest {
+
+    private AvailabilityResultCache cache;
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+    private final UUID parkingIdNo1 = UUID.randomUUID();
+    private final UUID parkingIdNo2 = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final AvailabilityResultCache.Key availableParking =
+            new AvailabilityResultCache.Key("Parking.findAllAvailableParkingIds", null, 0, 10, false, false);
+    private final AvailabilityResultCache.Key parkingWithPlaces =
+            new AvailabilityResultCache.Key("Parking.findIdsWithAvailablePlaces", null, 0, 10, true, true);
+    private final AvailabilityResultCache.Key sectorsOfParkingNo1 =
+            new AvailabilityResultCache.Key("Sector.findIdsWithAvailablePlaces", parkingIdNo1, 0, 10, true, true);
+    private final AvailabilityResultCache.Key sectorsOfParkingNo2 =
+            new AvailabilityResultCache.Key("Sector.findIdsWithAvailablePlaces", parkingIdNo2, 0, 10, true, true);
+
+    @BeforeEach
+    public void init() throws Exception {
+        clusterCacheInvalidator = mock(ClusterCacheInvalidator.class);
+        cache = new AvailabilityResultCache(clusterCacheInvalidator);
+        setField(cache, "resultTTL", 30L);
+        setField(cache, "maxSize", 100);
+    }
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Supplier<List<UUID>> loader(UUID... ids) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(ids);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String> remoteInvalidationHandler() {
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(clusterCacheInvalidator).register(eq(AvailabilityResultCache.REGION), handler.capture());
+        return handler.getValue();
+    }
+
+    @Test
+    public void getCachesResultOfQueryTestPositive() {
+        UUID parkingId = UUID.randomUUID();
+
+        assertEquals(List.of(parkingId), cache.get(availableParking, loader(parkingId)));
+        assertEquals(List.of(parkingId), cache.get(availableParking, loader(parkingId)));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void getLoadsDifferentPagesSeparatelyTestPositive() {
+        AvailabilityResultCache.Key secondPage =
+                new AvailabilityResultCache.Key("Parking.findAllAvailableParkingIds", null, 1, 10, false, false);
+
+        cache.get(availableParking, loader(UUID.randomUUID()));
+        cache.get(secondPage, loader(UUID.randomUUID()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getLoadsExpiredResultAgainTestPositive() throws Exception {
+        setField(cache, "resultTTL", 0L);
+
+        cache.get(availableParking, loader());
+        Thread.sleep(1);
+        cache.get(availableParking, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void parkingChangedInvalidatesListingsOfParkingAndItsSectorsTestPositive() {
+        cache.get(availableParking, loader());
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+
+        cache.parkingChanged(parkingIdNo1);
+
+        cache.get(availableParking, loader());
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void occupancyChangedKeepsListingsIndependentOfOccupancyTestPositive() {
+        cache.get(availableParking, loader());
+        cache.get(parkingWithPlaces, loader());
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+
+        cache.occupancyChanged(parkingIdNo2);
+
+        cache.get(availableParking, loader());
+        cache.get(parkingWithPlaces, loader());
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    public void occupancyChangedInUnknownParkingInvalidatesEverySectorListingTestPositive() {
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+
+        cache.occupancyChanged(null);
+
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void getLoadsMissingResultOnceForConcurrentReadersTestPositive() throws Exception {
+        UUID parkingId = UUID.randomUUID();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<List<UUID>> blockingLoader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(parkingId);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List<UUID>> first = executor.submit(() -> cache.get(availableParking, blockingLoader));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<List<UUID>>> waiting = List.of(
+                    executor.submit(() -> cache.get(availableParking, blockingLoader)),
+                    executor.submit(() -> cache.get(availableParking, blockingLoader)),
+                    executor.submit(() -> cache.get(availableParking, blockingLoader))
+            );
+            release.countDown();
+
+            assertEquals(List.of(parkingId), first.get(5, TimeUnit.SECONDS));
+            for (Future<List<UUID>> result : waiting) {
+                assertEquals(List.of(parkingId), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void getDoesNotCacheFailedQueryTestNegative() {
+        assertThrows(IllegalStateException.class, () -> cache.get(availableParking, () -> {
+            throw new IllegalStateException("Failure");
+        }));
+
+        cache.get(availableParking, loader());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void getDiscardsResultLoadedBeforeChangeWasCommittedTestNegative() {
+        cache.get(availableParking, () -> {
+            cache.parkingChanged(parkingIdNo1);
+            return List.of();
+        });
+
+        cache.get(availableParking, loader());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void changesAreAppliedAfterCommitAndBypassCacheInTransactionTestPositive() {
+        cache.get(availableParking, loader());
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.parkingChanged(parkingIdNo1);
+        cache.get(availableParking, loader());
+        cache.get(availableParking, loader());
+        assertEquals(3, loads.get());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        cache.get(availableParking, loader());
+        cache.get(availableParking, loader());
+        assertEquals(4, loads.get());
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @Test
+    public void changesArePublishedToOtherNodesTestPositive() {
+        cache.parkingChanged(parkingIdNo1);
+        cache.occupancyChanged(null);
+
+        verify(clusterCacheInvalidator).publish(AvailabilityResultCache.REGION, parkingIdNo1.toString());
+        verify(clusterCacheInvalidator).publish(AvailabilityResultCache.REGION, null);
+    }
+
+    @Test
+    public void remoteInvalidationOfParkingTestPositive() {
+        cache.get(availableParking, loader());
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+
+        remoteInvalidationHandler().accept(parkingIdNo1.toString());
+        cache.get(availableParking, loader());
+        cache.get(sectorsOfParkingNo1, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void remoteInvalidationOfAllResultsTestPositive() {
+        cache.get(availableParking, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+
+        remoteInvalidationHandler().accept(null);
+        cache.get(availableParking, loader());
+        cache.get(sectorsOfParkingNo2, loader());
+
+        assertEquals(4, loads.get());
+    }
+}
@@ -0,0 +1,117 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.schedule.SchedulerNode;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.CacheInvalidation;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.CacheInvalidationAuthFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.CacheInvalidationMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.CacheInvalidationServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.CacheInvalidationMOPFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ClusterCacheInvalidatorTest {
+
+    private static final String REGION = "region";
+
+    private final CacheInvalidationServiceInterface cacheInvalidationService = mock(CacheInvalidationServiceInterface.class);
+    private final CacheInvalidationMOPFacade cacheInvalidationMOPFacade = mock(CacheInvalidationMOPFacade.class);
+    private final CacheInvalidationAuthFacade cacheInvalidationAuthFacade = mock(CacheInvalidationAuthFacade.class);
+    private final CacheInvalidationMOKFacade cacheInvalidationMOKFacade = mock(CacheInvalidationMOKFacade.class);
+
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+    private final List<String> handledKeys = new ArrayList<>();
+
+    @BeforeEach
+    public void init() throws Exception {
+        clusterCacheInvalidator = new ClusterCacheInvalidator(cacheInvalidationService, new SchedulerNode("node-1"),
+                cacheInvalidationMOPFacade, cacheInvalidationAuthFacade, cacheInvalidationMOKFacade);
+        setField(clusterCacheInvalidator, ClusterCacheInvalidator.class, "overlap", 120L);
+        setField(clusterCacheInvalidator, ClusterCacheInvalidator.class, "retention", 10L);
+        clusterCacheInvalidator.register(REGION, handledKeys::add);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            new ArrayList<>(TransactionSynchronizationManager.getResourceMap().keySet()).forEach(TransactionSynchronizationManager::unbindResource);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void setField(Object target, Class<?> clazz, String name, Object value) throws Exception {
+        Field field = clazz.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+        field.setAccessible(false);
+    }
+
+    private static CacheInvalidation invalidation(String entryKey) throws Exception {
+        CacheInvalidation invalidation = new CacheInvalidation(REGION, entryKey, "node-2");
+        setField(invalidation, AbstractEntity.class, "id", UUID.randomUUID());
+        setField(invalidation, CacheInvalidation.class, "creationTime", LocalDateTime.now());
+        return invalidation;
+    }
+
+    @Test
+    public void publishOutsideTransactionTestNegative() throws Exception {
+        clusterCacheInvalidator.publish(REGION, "key");
+
+        verify(cacheInvalidationMOKFacade, never()).record(any());
+    }
+
+    @Test
+    public void publishWithLogOfCurrentTransactionTestPositive() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        when(cacheInvalidationAuthFacade.isUsedByCurrentTransaction()).thenReturn(true);
+
+        clusterCacheInvalidator.publish(REGION, "key");
+        clusterCacheInvalidator.publish(REGION, "key");
+
+        ArgumentCaptor<CacheInvalidation> recorded = ArgumentCaptor.forClass(CacheInvalidation.class);
+        verify(cacheInvalidationAuthFacade, times(1)).record(recorded.capture());
+        verify(cacheInvalidationMOKFacade, never()).record(any());
+        assertEquals("key", recorded.getValue().getEntryKey());
+        assertEquals("node-1", recorded.getValue().getOriginNode());
+    }
+
+    @Test
+    public void pollAppliesEachInvalidationOnceTestPositive() throws Exception {
+        CacheInvalidation first = invalidation("key-1");
+        CacheInvalidation second = invalidation("key-2");
+        when(cacheInvalidationService.findCreatedAfter(any(), eq("node-1")))
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(first, second));
+
+        clusterCacheInvalidator.poll();
+        clusterCacheInvalidator.poll();
+
+        assertEquals(List.of("key-1", "key-2"), handledKeys);
+    }
+
+    @Test
+    public void pollAfterRetentionClearsCachesTestPositive() throws Exception {
+        setField(clusterCacheInvalidator, ClusterCacheInvalidator.class, "lastPollTime", LocalDateTime.now().minusMinutes(11));
+
+        clusterCacheInvalidator.poll();
+
+        assertEquals(1, handledKeys.size());
+        assertNull(handledKeys.getFirst());
+        verify(cacheInvalidationService, never()).findCreatedAfter(any(), any());
+    }
+}
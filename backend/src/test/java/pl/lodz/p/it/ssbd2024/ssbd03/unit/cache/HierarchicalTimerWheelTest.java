@@ -0,0 +1,110 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.HierarchicalTimerWheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HierarchicalTimerWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    private HierarchicalTimerWheel<String> wheel;
+
+    @BeforeEach
+    public void init() {
+        wheel = new HierarchicalTimerWheel<>(1000L, 8, 3, START);
+    }
+
+    @Test
+    public void pollDeadlineOnLowestLevelTestPositive() {
+        wheel.schedule("a", START + 3_000L);
+
+        assertTrue(wheel.poll(START + 2_999L, 10).isEmpty());
+        assertEquals(List.of("a"), wheel.poll(START + 3_000L, 10));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void pollCascadedDeadlineTestPositive() {
+        wheel.schedule("a", START + 100_000L);
+        wheel.schedule("b", START + 20_000L);
+
+        assertTrue(wheel.poll(START + 19_000L, 10).isEmpty());
+        assertEquals(List.of("b"), wheel.poll(START + 99_999L, 10));
+        assertEquals(List.of("a"), wheel.poll(START + 100_000L, 10));
+    }
+
+    @Test
+    public void pollDeadlineBeyondHighestLevelTestPositive() {
+        // Highest level covers 512 ticks
+        wheel.schedule("a", START + 2_000_000L);
+
+        assertTrue(wheel.poll(START + 1_999_000L, 10).isEmpty());
+        assertEquals(List.of("a"), wheel.poll(START + 2_000_000L, 10));
+    }
+
+    @Test
+    public void pollPastDeadlineTestPositive() {
+        wheel.schedule("a", START - 5_000L);
+
+        assertEquals(List.of("a"), wheel.poll(START, 10));
+    }
+
+    @Test
+    public void pollWithLimitTestPositive() {
+        for (int i = 0; i < 5; i++) wheel.schedule("key" + i, START + 1_000L);
+
+        assertEquals(List.of("key0", "key1", "key2"), wheel.poll(START + 5_000L, 3));
+        assertEquals(List.of("key3", "key4"), wheel.poll(START + 5_000L, 3));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelDeadlineTestPositive() {
+        wheel.schedule("a", START + 50_000L);
+        wheel.schedule("b", START - 1_000L);
+
+        assertTrue(wheel.cancel("a"));
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("c"));
+        assertTrue(wheel.poll(START + 100_000L, 10).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void rescheduleDeadlineTestPositive() {
+        wheel.schedule("a", START + 5_000L);
+        wheel.schedule("a", START + 60_000L);
+
+        assertTrue(wheel.poll(START + 59_000L, 10).isEmpty());
+        assertEquals(List.of("a"), wheel.poll(START + 60_000L, 10));
+    }
+
+    @Test
+    public void pollRandomDeadlinesTestPositive() {
+        Random random = new Random(7);
+        long[] deadlines = new long[500];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = START + random.nextInt(1_500_000);
+            wheel.schedule("key" + i, deadlines[i]);
+        }
+
+        List<String> polled = new ArrayList<>();
+        for (long now = START; now <= START + 1_500_000L; now += 7_000L) {
+            for (String key : wheel.poll(now, Integer.MAX_VALUE)) {
+                long deadline = deadlines[Integer.parseInt(key.substring(3))];
+                assertTrue(deadline <= now, "Deadline expired too early");
+                assertTrue(now - deadline < 8_000L, "Deadline expired too late");
+                polled.add(key);
+            }
+        }
+        polled.addAll(wheel.poll(START + 1_600_000L, Integer.MAX_VALUE));
+        assertEquals(deadlines.length, polled.size());
+    }
+}
@@ -0,0 +1,57 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.DatabaseConfigConstants;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.dbconfig.mopPU.JpaMOPConfig;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.lang.reflect.Field;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MOPCacheManagerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cacheManagerCreatesBoundedRegionsTestPositive() throws Exception {
+        try (CacheManager cacheManager = createConfig().cacheManager()) {
+            for (String region : new String[]{DatabaseConfigConstants.PARKING_CACHE_REGION,
+                    DatabaseConfigConstants.PARKING_SECTORS_CACHE_REGION, DatabaseConfigConstants.SECTOR_CACHE_REGION}) {
+                Cache<Object, Object> cache = cacheManager.getCache(region);
+                assertNotNull(cache);
+                CaffeineConfiguration<Object, Object> configuration = cache.getConfiguration(CaffeineConfiguration.class);
+                assertEquals(OptionalLong.of(100), configuration.getMaximumSize());
+                assertEquals(OptionalLong.of(TimeUnit.MINUTES.toNanos(5)), configuration.getExpireAfterWrite());
+                assertFalse(configuration.isStoreByValue());
+            }
+        }
+    }
+
+    @Test
+    public void cacheManagersOfDifferentContextsAreSeparateTestPositive() throws Exception {
+        JpaMOPConfig config = createConfig();
+        try (CacheManager first = config.cacheManager(); CacheManager second = config.cacheManager()) {
+            assertNotSame(first, second);
+            first.getCache(DatabaseConfigConstants.PARKING_CACHE_REGION).put("key", "value");
+
+            assertNull(second.getCache(DatabaseConfigConstants.PARKING_CACHE_REGION).get("key"));
+        }
+    }
+
+    private static JpaMOPConfig createConfig() throws Exception {
+        JpaMOPConfig config = new JpaMOPConfig();
+        setField(config, "cacheMaxSize", 100L);
+        setField(config, "cacheTTL", 5L);
+        return config;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,156 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class PrincipalCacheTest {
+
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_LOGIN"));
+
+    private PrincipalCache principalCache;
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+    private final UUID accountIdNo1 = UUID.randomUUID();
+    private final UUID accountIdNo2 = UUID.randomUUID();
+
+    @BeforeEach
+    public void init() throws Exception {
+        clusterCacheInvalidator = mock(ClusterCacheInvalidator.class);
+        principalCache = new PrincipalCache(clusterCacheInvalidator);
+        setField("accessTokenTTL", 15L);
+        setField("maxSize", 1);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = PrincipalCache.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(principalCache, value);
+        field.setAccessible(false);
+    }
+
+    private PrincipalCache.CachedPrincipal put(UUID accountId) {
+        return put(accountId, 0L);
+    }
+
+    private PrincipalCache.CachedPrincipal put(UUID accountId, Long accountVersion) {
+        return principalCache.put(accountId, accountVersion, "login", "password", AUTHORITIES, principalCache.startRead());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String> remoteInvalidationHandler() {
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(clusterCacheInvalidator).register(eq(PrincipalCache.REGION), handler.capture());
+        return handler.getValue();
+    }
+
+    @Test
+    public void getNotCachedPrincipalTestNegative() {
+        assertNull(principalCache.get(accountIdNo1, null));
+    }
+
+    @Test
+    public void putAndGetPrincipalTestPositive() {
+        PrincipalCache.CachedPrincipal principal = put(accountIdNo1);
+
+        assertSame(principal, principalCache.get(accountIdNo1, null));
+        assertEquals("login", principal.getLogin());
+        assertEquals(AUTHORITIES, principal.getAuthorities());
+    }
+
+    @Test
+    public void invalidatePrincipalTestPositive() {
+        put(accountIdNo1);
+        principalCache.invalidate(accountIdNo1);
+
+        assertNull(principalCache.get(accountIdNo1, null));
+    }
+
+    @Test
+    public void putPrincipalReadBeforeInvalidationTestNegative() {
+        long readGeneration = principalCache.startRead();
+        principalCache.invalidate(accountIdNo1);
+
+        PrincipalCache.CachedPrincipal principal = principalCache.put(accountIdNo1, 0L, "login", "password", AUTHORITIES, readGeneration);
+
+        assertNotNull(principal);
+        assertNull(principalCache.get(accountIdNo1, null));
+    }
+
+    @Test
+    public void putPrincipalToFullCacheTestNegative() {
+        put(accountIdNo1);
+        put(accountIdNo2);
+
+        assertNotNull(principalCache.get(accountIdNo1, null));
+        assertNull(principalCache.get(accountIdNo2, null));
+    }
+
+    @Test
+    public void getExpiredPrincipalTestNegative() throws Exception {
+        setField("accessTokenTTL", -1L);
+        put(accountIdNo1);
+
+        assertNull(principalCache.get(accountIdNo1, null));
+    }
+
+    @Test
+    public void getPrincipalOlderThanTokenTestNegative() {
+        put(accountIdNo1, 1L);
+
+        assertNotNull(principalCache.get(accountIdNo1, 1L));
+        assertNull(principalCache.get(accountIdNo1, 2L));
+        assertNull(principalCache.get(accountIdNo1, null));
+    }
+
+    @Test
+    public void putPrincipalOlderThanCachedTestNegative() {
+        PrincipalCache.CachedPrincipal newer = put(accountIdNo1, 2L);
+        put(accountIdNo1, 1L);
+
+        assertSame(newer, principalCache.get(accountIdNo1, null));
+    }
+
+    @Test
+    public void invalidatePrincipalPublishesInvalidationTestPositive() {
+        principalCache.invalidate(accountIdNo1);
+
+        verify(clusterCacheInvalidator).publish(PrincipalCache.REGION, accountIdNo1.toString());
+    }
+
+    @Test
+    public void remoteInvalidationOfPrincipalTestPositive() throws Exception {
+        setField("maxSize", 2);
+        put(accountIdNo1);
+        put(accountIdNo2);
+
+        remoteInvalidationHandler().accept(accountIdNo1.toString());
+
+        assertNull(principalCache.get(accountIdNo1, null));
+        assertNotNull(principalCache.get(accountIdNo2, null));
+    }
+
+    @Test
+    public void remoteInvalidationOfAllPrincipalsTestPositive() throws Exception {
+        setField("maxSize", 2);
+        put(accountIdNo1);
+        put(accountIdNo2);
+
+        remoteInvalidationHandler().accept(null);
+
+        assertNull(principalCache.get(accountIdNo1, null));
+        assertNull(principalCache.get(accountIdNo2, null));
+    }
+}
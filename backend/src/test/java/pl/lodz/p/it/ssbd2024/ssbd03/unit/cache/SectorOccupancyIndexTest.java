@@ -0,0 +1,271 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.SectorOccupancyIndex;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SectorOccupancyIndexTest {
+
+    private static final int MAX_HOURS = 24;
+    private static final Set<Sector.SectorType> ALL_TYPES = EnumSet.allOf(Sector.SectorType.class);
+
+    private SectorOccupancyIndex index;
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+    private final UUID parkingId = UUID.randomUUID();
+    private final UUID sectorIdNo1 = UUID.randomUUID();
+    private final UUID sectorIdNo2 = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    public void init() throws Exception {
+        clusterCacheInvalidator = mock(ClusterCacheInvalidator.class);
+        index = new SectorOccupancyIndex(clusterCacheInvalidator);
+        Field snapshotTTL = SectorOccupancyIndex.class.getDeclaredField("snapshotTTL");
+        snapshotTTL.setAccessible(true);
+        snapshotTTL.set(index, 5L);
+        snapshotTTL.setAccessible(false);
+
+        Field reservationMaxHours = SectorOccupancyIndex.class.getDeclaredField("reservationMaxHours");
+        reservationMaxHours.setAccessible(true);
+        reservationMaxHours.set(index, MAX_HOURS);
+        reservationMaxHours.setAccessible(false);
+    }
+
+    private List<SectorOccupancyIndex.SectorState> sectors() {
+        return List.of(
+                new SectorOccupancyIndex.SectorState(sectorIdNo1, parkingId, Sector.SectorType.UNCOVERED, 1, null),
+                new SectorOccupancyIndex.SectorState(sectorIdNo2, parkingId, Sector.SectorType.COVERED, 2, null)
+        );
+    }
+
+    private Optional<List<UUID>> find(Set<Sector.SectorType> types) {
+        return find(types, now);
+    }
+
+    private Optional<List<UUID>> find(Set<Sector.SectorType> types, LocalDateTime time) {
+        return index.findAvailableSectors(parkingId, types, time, now.plusHours(MAX_HOURS));
+    }
+
+    private Reservation reservation(UUID reservationId, LocalDateTime beginTime, LocalDateTime endTime,
+                                    Reservation.ReservationStatus status) {
+        Reservation reservation = mock(Reservation.class, RETURNS_DEEP_STUBS);
+        when(reservation.getId()).thenReturn(reservationId);
+        when(reservation.getSector().getId()).thenReturn(sectorIdNo1);
+        when(reservation.getSector().getParking().getId()).thenReturn(parkingId);
+        when(reservation.getBeginTime()).thenReturn(beginTime);
+        when(reservation.getEndTime()).thenReturn(endTime);
+        when(reservation.getStatus()).thenReturn(status);
+        return reservation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String> remoteInvalidationHandler() {
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(clusterCacheInvalidator).register(eq(SectorOccupancyIndex.REGION), handler.capture());
+        return handler.getValue();
+    }
+
+    @Test
+    public void findAvailableSectorsWithoutSnapshotTestNegative() {
+        assertTrue(find(ALL_TYPES).isEmpty());
+    }
+
+    @Test
+    public void findAvailableSectorsAfterRebuildTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of(
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo1, now.minusHours(1), now.plusHours(1), true)
+        ));
+
+        Optional<List<UUID>> result = find(ALL_TYPES);
+        assertTrue(result.isPresent());
+        assertEquals(List.of(sectorIdNo2), result.get());
+    }
+
+    @Test
+    public void findAvailableSectorsFiltersSectorTypesTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of());
+
+        Optional<List<UUID>> result = find(EnumSet.of(Sector.SectorType.UNCOVERED));
+        assertTrue(result.isPresent());
+        assertEquals(List.of(sectorIdNo1), result.get());
+    }
+
+    @Test
+    public void findAvailableSectorsIgnoresEndedReservationWithVehicleOutsideTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of(
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo1, now.minusHours(3), now.minusHours(1), false)
+        ));
+
+        Optional<List<UUID>> result = find(EnumSet.of(Sector.SectorType.UNCOVERED));
+        assertTrue(result.isPresent());
+        assertEquals(List.of(sectorIdNo1), result.get());
+    }
+
+    @Test
+    public void findAvailableSectorsSkipsDeactivatedSectorTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, List.of(
+                new SectorOccupancyIndex.SectorState(sectorIdNo1, parkingId, Sector.SectorType.UNCOVERED, 1, now.plusHours(1))
+        ), List.of());
+
+        Optional<List<UUID>> result = find(ALL_TYPES);
+        assertTrue(result.isPresent());
+        assertTrue(result.get().isEmpty());
+    }
+
+    @Test
+    public void completeRebuildAfterConcurrentChangeTestNegative() {
+        long generation = index.startRebuild(parkingId);
+        index.invalidate(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of());
+
+        assertTrue(find(ALL_TYPES).isEmpty());
+    }
+
+    @Test
+    public void invalidateDropsSnapshotTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of());
+        assertTrue(find(ALL_TYPES).isPresent());
+
+        index.invalidate(parkingId);
+        assertTrue(find(ALL_TYPES).isEmpty());
+    }
+
+    @Test
+    public void findMaxConcurrentReservationsTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of(
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo2, now.plusHours(1), now.plusHours(3), false),
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo2, now.plusHours(2), now.plusHours(4), false),
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo2, now.plusHours(4), now.plusHours(5), false)
+        ));
+
+        assertEquals(Optional.of(2), index.findMaxConcurrentReservations(parkingId, sectorIdNo2, now, now.plusHours(6)));
+        assertEquals(Optional.of(1), index.findMaxConcurrentReservations(parkingId, sectorIdNo2, now.plusHours(3), now.plusHours(6)));
+        assertEquals(Optional.of(0), index.findMaxConcurrentReservations(parkingId, sectorIdNo1, now, now.plusHours(6)));
+    }
+
+    @Test
+    public void countMaxConcurrentReservationsWithVehicleOverstayingTestPositive() {
+        List<SectorOccupancyIndex.ReservationClaim> claims = List.of(
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo1, now.minusHours(5), now.minusHours(1), true),
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo1, now.plusHours(1), now.plusHours(2), false)
+        );
+
+        assertEquals(2, index.countMaxConcurrentReservations(claims, sectorIdNo1, now.plusHours(1), now.plusHours(2)));
+        assertEquals(0, index.countMaxConcurrentReservations(claims, sectorIdNo2, now.plusHours(1), now.plusHours(2)));
+    }
+
+    @Test
+    public void reservationRemovedAfterItsEndPassedTestPositive() throws Exception {
+        UUID reservationId = UUID.randomUUID();
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of(
+                new SectorOccupancyIndex.ReservationClaim(reservationId, sectorIdNo1, now.minusHours(1),
+                        LocalDateTime.now().plusNanos(50_000_000), true)
+        ));
+        Thread.sleep(100);
+
+        Reservation reservation = mock(Reservation.class, RETURNS_DEEP_STUBS);
+        when(reservation.getId()).thenReturn(reservationId);
+        when(reservation.getSector().getParking().getId()).thenReturn(parkingId);
+        index.reservationRemoved(reservation);
+
+        assertEquals(Optional.of(0), index.findMaxConcurrentReservations(parkingId, sectorIdNo1, now.minusHours(1), now.plusHours(6)));
+    }
+
+    @Test
+    public void findAvailableSectorsAsTimePassesTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of(
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo1, now.plusHours(MAX_HOURS + 1),
+                        now.plusHours(MAX_HOURS + 2), false),
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo2, now.minusHours(1), now.plusHours(1), false)
+        ));
+
+        assertEquals(Optional.of(List.of(sectorIdNo1)), find(Set.of(Sector.SectorType.UNCOVERED)));
+        assertEquals(Optional.of(List.of()), find(Set.of(Sector.SectorType.UNCOVERED), now.plusHours(2)));
+        assertEquals(Optional.of(List.of(sectorIdNo1)), find(Set.of(Sector.SectorType.UNCOVERED), now.plusHours(MAX_HOURS + 2)));
+    }
+
+    @Test
+    public void findAvailableSectorsAfterReservationChangesTestPositive() {
+        UUID reservationId = UUID.randomUUID();
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of());
+        assertEquals(Optional.of(List.of(sectorIdNo1)), find(Set.of(Sector.SectorType.UNCOVERED)));
+
+        index.reservationChanged(reservation(reservationId, now.plusHours(1), now.plusHours(2), Reservation.ReservationStatus.AWAITING));
+        assertEquals(Optional.of(List.of()), find(Set.of(Sector.SectorType.UNCOVERED)));
+
+        index.reservationChanged(reservation(reservationId, now.plusHours(1), now.plusHours(2), Reservation.ReservationStatus.CANCELLED));
+        assertEquals(Optional.of(List.of(sectorIdNo1)), find(Set.of(Sector.SectorType.UNCOVERED)));
+    }
+
+    @Test
+    public void findAvailableSectorsAfterSectorRemovedTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of(
+                new SectorOccupancyIndex.ReservationClaim(UUID.randomUUID(), sectorIdNo1, now.minusHours(1), now.plusHours(1), false)
+        ));
+        assertEquals(Optional.of(List.of(sectorIdNo2)), find(ALL_TYPES));
+
+        Sector sector = mock(Sector.class, RETURNS_DEEP_STUBS);
+        when(sector.getId()).thenReturn(sectorIdNo1);
+        when(sector.getParking().getId()).thenReturn(parkingId);
+        index.sectorRemoved(sector);
+
+        assertEquals(Optional.of(List.of(sectorIdNo2)), find(ALL_TYPES, now.plusHours(2)));
+    }
+
+    @Test
+    public void changesArePublishedToOtherNodesTestPositive() {
+        index.invalidate(parkingId);
+
+        verify(clusterCacheInvalidator).publish(SectorOccupancyIndex.REGION, parkingId.toString());
+    }
+
+    @Test
+    public void remoteInvalidationDropsSnapshotTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of());
+        long staleGeneration = index.startRebuild(parkingId);
+
+        remoteInvalidationHandler().accept(parkingId.toString());
+        assertTrue(find(ALL_TYPES).isEmpty());
+
+        index.completeRebuild(parkingId, staleGeneration, sectors(), List.of());
+        assertTrue(find(ALL_TYPES).isEmpty());
+    }
+
+    @Test
+    public void remoteInvalidationOfAllSnapshotsTestPositive() {
+        long generation = index.startRebuild(parkingId);
+        index.completeRebuild(parkingId, generation, sectors(), List.of());
+
+        remoteInvalidationHandler().accept(null);
+
+        assertTrue(find(ALL_TYPES).isEmpty());
+    }
+}
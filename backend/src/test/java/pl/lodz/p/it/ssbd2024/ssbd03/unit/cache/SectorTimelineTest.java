@@ -0,0 +1,67 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.cache.SectorTimeline;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SectorTimelineTest {
+
+    private final LocalDateTime base = LocalDateTime.of(2024, 12, 12, 0, 0);
+
+    @Test
+    public void maxConcurrentOfEmptyTimelineTestPositive() {
+        SectorTimeline timeline = new SectorTimeline();
+        assertEquals(0, timeline.maxConcurrent(base, base.plusHours(24)));
+    }
+
+    @Test
+    public void maxConcurrentOfOverlappingReservationsTestPositive() {
+        SectorTimeline timeline = new SectorTimeline();
+        timeline.add(base.plusHours(1), base.plusHours(5));
+        timeline.add(base.plusHours(2), base.plusHours(3));
+        timeline.add(base.plusHours(3), base.plusHours(4));
+        timeline.add(base.plusHours(6), null);
+
+        assertEquals(2, timeline.maxConcurrent(base, base.plusHours(24)));
+        assertEquals(0, timeline.maxConcurrent(base.plusHours(5), base.plusHours(6)));
+        assertEquals(1, timeline.maxConcurrent(base.plusHours(5), base.plusHours(7)));
+        assertEquals(1, timeline.maxConcurrent(base.plusHours(10), base.plusHours(11)));
+        assertEquals(0, timeline.maxConcurrent(base, base.plusHours(1)));
+    }
+
+    @Test
+    public void maxConcurrentAfterRemovalTestPositive() {
+        SectorTimeline timeline = new SectorTimeline();
+        timeline.add(base.plusHours(1), base.plusHours(3));
+        timeline.add(base.plusHours(2), base.plusHours(4));
+        timeline.remove(base.plusHours(1), base.plusHours(3));
+
+        assertEquals(1, timeline.maxConcurrent(base, base.plusHours(24)));
+        assertEquals(0, timeline.maxConcurrent(base, base.plusHours(2)));
+    }
+
+    @Test
+    public void maxConcurrentMatchesBruteForceTestPositive() {
+        Random random = new Random(42);
+        SectorTimeline timeline = new SectorTimeline();
+        int[] occupancy = new int[48];
+        for (int i = 0; i < 200; i++) {
+            int begin = random.nextInt(47);
+            int end = begin + 1 + random.nextInt(47 - begin);
+            timeline.add(base.plusHours(begin), base.plusHours(end));
+            for (int hour = begin; hour < end; hour++) occupancy[hour]++;
+        }
+
+        for (int i = 0; i < 100; i++) {
+            int begin = random.nextInt(47);
+            int end = begin + 1 + random.nextInt(47 - begin);
+            int expected = 0;
+            for (int hour = begin; hour < end; hour++) expected = Math.max(expected, occupancy[hour]);
+            assertEquals(expected, timeline.maxConcurrent(base.plusHours(begin), base.plusHours(end)));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.cache.ClusterCacheInvalidator;
+
+import java.lang.reflect.Field;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class TokenRevocationListTest {
+
+    private TokenRevocationList tokenRevocationList;
+    private ClusterCacheInvalidator clusterCacheInvalidator;
+
+    @BeforeEach
+    public void init() throws Exception {
+        clusterCacheInvalidator = mock(ClusterCacheInvalidator.class);
+        tokenRevocationList = new TokenRevocationList(clusterCacheInvalidator);
+        setField("accessTokenTTL", 15L);
+        setField("maxSize", 1);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = TokenRevocationList.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(tokenRevocationList, value);
+        field.setAccessible(false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String> remoteRevocationHandler() {
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(clusterCacheInvalidator).register(eq(TokenRevocationList.REGION), handler.capture());
+        return handler.getValue();
+    }
+
+    @Test
+    public void tokenNotRevokedTestPositive() {
+        String epoch = tokenRevocationList.getEpoch();
+        long version = tokenRevocationList.getTokenVersion();
+
+        assertTrue(tokenRevocationList.isCurrentEpoch(epoch));
+        assertFalse(tokenRevocationList.isRevoked("login", epoch, version));
+    }
+
+    @Test
+    public void revokeTokensIssuedBeforeTestPositive() {
+        String epoch = tokenRevocationList.getEpoch();
+        long oldVersion = tokenRevocationList.getTokenVersion();
+
+        tokenRevocationList.revoke("login");
+        long newVersion = tokenRevocationList.getTokenVersion();
+
+        assertTrue(tokenRevocationList.isRevoked("login", epoch, oldVersion));
+        assertFalse(tokenRevocationList.isRevoked("login", epoch, newVersion));
+        assertFalse(tokenRevocationList.isRevoked("otherLogin", epoch, oldVersion));
+    }
+
+    @Test
+    public void tokenFromOtherEpochIsNotCheckedTestNegative() {
+        tokenRevocationList.revoke("login");
+
+        assertFalse(tokenRevocationList.isCurrentEpoch("otherEpoch"));
+        assertFalse(tokenRevocationList.isRevoked("login", "otherEpoch", 0L));
+        assertFalse(tokenRevocationList.isRevoked("login", tokenRevocationList.getEpoch(), null));
+    }
+
+    @Test
+    public void revokeWhenListIsFullStartsNewEpochTestNegative() {
+        String epoch = tokenRevocationList.getEpoch();
+        long version = tokenRevocationList.getTokenVersion();
+
+        tokenRevocationList.revoke("login");
+        tokenRevocationList.revoke("otherLogin");
+
+        assertFalse(tokenRevocationList.isCurrentEpoch(epoch));
+        assertTrue(tokenRevocationList.isRevoked("otherLogin", tokenRevocationList.getEpoch(), version));
+        assertFalse(tokenRevocationList.isRevoked("login", tokenRevocationList.getEpoch(), version));
+    }
+
+    @Test
+    public void revokeTokensPublishesRevocationTestPositive() {
+        tokenRevocationList.revoke("login");
+
+        verify(clusterCacheInvalidator).publish(TokenRevocationList.REGION, "login");
+    }
+
+    @Test
+    public void remoteRevocationOfTokensTestPositive() {
+        String epoch = tokenRevocationList.getEpoch();
+        long version = tokenRevocationList.getTokenVersion();
+
+        remoteRevocationHandler().accept("login");
+
+        assertTrue(tokenRevocationList.isCurrentEpoch(epoch));
+        assertTrue(tokenRevocationList.isRevoked("login", epoch, version));
+    }
+
+    @Test
+    public void remoteRevocationOfAllTokensStartsNewEpochTestPositive() {
+        String epoch = tokenRevocationList.getEpoch();
+
+        remoteRevocationHandler().accept(null);
+
+        assertFalse(tokenRevocationList.isCurrentEpoch(epoch));
+    }
+}
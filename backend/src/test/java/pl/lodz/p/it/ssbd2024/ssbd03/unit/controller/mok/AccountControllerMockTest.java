@@ -24,6 +24,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountInputDTO.AccountChang
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountInputDTO.AccountEmailDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.accountInputDTO.AccountPasswordDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.exception.ExceptionDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig.SpringWebInitializer;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
@@ -68,6 +69,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith({MockitoExtension.class, SpringExtension.class})
@@ -154,6 +156,48 @@ public class AccountControllerMockTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void getAllUsersWithKeysetTestSuccessfulEmpty() throws Exception {
+        int pageSize = 3;
+        when(accountService.getAllAccountsWithKeyset(null, pageSize)).thenReturn(new ArrayList<>());
+        mockMvc.perform(
+                        get("/api/v1/accounts/cursor")
+                                .param("pageSize", Integer.toString(pageSize))
+                                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void getAllUsersWithKeysetTestSuccessful() throws Exception {
+        Account testAccount1 = new Account("anotherLogin", "TestPassword", "firstName", "lastName", "test1@email.com", "123123123");
+        int pageSize = 2;
+        String token = ContinuationToken.of("login0", UUID.randomUUID()).encode();
+        when(accountService.getAllAccountsWithKeyset(any(ContinuationToken.class), eq(pageSize))).thenReturn(List.of(testAccount1, testAccount));
+        mockMvc.perform(
+                        get("/api/v1/accounts/cursor")
+                                .param("token", token)
+                                .param("pageSize", Integer.toString(pageSize))
+                                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.nextToken").value(ContinuationToken.of("login", testId).encode()));
+
+        ArgumentCaptor<ContinuationToken> tokenCaptor = ArgumentCaptor.forClass(ContinuationToken.class);
+        verify(accountService).getAllAccountsWithKeyset(tokenCaptor.capture(), eq(pageSize));
+        assertEquals("login0", tokenCaptor.getValue().getSortKey());
+    }
+
+    @Test
+    public void getAllUsersWithKeysetTestInvalidToken() throws Exception {
+        mockMvc.perform(
+                        get("/api/v1/accounts/cursor")
+                                .param("token", "not a token")
+                                .param("pageSize", "3")
+                                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+        verify(accountService, never()).getAllAccountsWithKeyset(any(), anyInt());
+    }
+
 
     @Test
     public void resendEmailConfirmationTestSuccessful() throws Exception {
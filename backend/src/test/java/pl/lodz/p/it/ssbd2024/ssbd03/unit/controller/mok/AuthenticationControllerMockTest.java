@@ -28,6 +28,7 @@ import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.authentication.Authenticatio
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.exception.ExceptionDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.token.AccessAndRefreshTokensDTO;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.token.RefreshTokenDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
 import pl.lodz.p.it.ssbd2024.ssbd03.config.webconfig.SpringWebInitializer;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.mok.account.status.AccountNotActivatedException;
@@ -52,6 +53,8 @@ public class AuthenticationControllerMockTest {
     private AuthenticationService authenticationService;
     @Mock
     private AuthenticationManager authenticationManager;
+    @Mock
+    private TokenRevocationList tokenRevocationList;
     @InjectMocks
     private AuthenticationController authenticationController;
 
@@ -346,6 +349,8 @@ public class AuthenticationControllerMockTest {
     public void logoutSuccessful() throws Exception {
         mockMvc.perform(post("/api/v1/auth/logout"))
                 .andExpect(status().isNoContent());
+
+        verify(tokenRevocationList).revoke(anyString());
     }
 
     @WithMockUser(username = "ExampleAdminNo3", roles = {"ADMIN"})
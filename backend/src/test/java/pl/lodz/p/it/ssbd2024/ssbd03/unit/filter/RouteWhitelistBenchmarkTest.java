@@ -0,0 +1,70 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.util.UrlPathHelper;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.JWTRequiredFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Micro-benchmark of the per-request cost of checking the JWT whitelist, comparing regular expressions evaluated
+ * on every request with the precompiled route whitelist. Disabled by default, run with:
+ * <code>mvn test -Dtest=RouteWhitelistBenchmarkTest -Dbenchmark=true</code>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RouteWhitelistBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+
+    @Test
+    public void whitelistPerRequestCostBenchmark() {
+        List<MockHttpServletRequest> requests = new ArrayList<>();
+        for (String path : RouteWhitelistTest.PATHS) {
+            for (String method : RouteWhitelistTest.METHODS) {
+                requests.add(new MockHttpServletRequest(method, path));
+            }
+        }
+
+        Predicate<MockHttpServletRequest> legacy = request -> {
+            UrlPathHelper urlPathHelper = new UrlPathHelper();
+            return RouteWhitelistTest.matchesLegacy(request.getMethod(), urlPathHelper.getPathWithinApplication(request));
+        };
+        Predicate<MockHttpServletRequest> compiled = request -> JWTRequiredFilter.WHITELIST.matches(
+                request.getMethod(), UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+
+        long legacyMatches = run(requests, legacy, WARMUP_ITERATIONS);
+        long compiledMatches = run(requests, compiled, WARMUP_ITERATIONS);
+        assertEquals(legacyMatches, compiledMatches);
+
+        long legacyNanos = measure(requests, legacy);
+        long compiledNanos = measure(requests, compiled);
+
+        log.info("Regular expressions: {} ns/request, compiled whitelist: {} ns/request.",
+                legacyNanos / MEASURED_ITERATIONS, compiledNanos / MEASURED_ITERATIONS);
+        assertTrue(compiledNanos < legacyNanos, "Compiled whitelist should be faster than regular expressions");
+    }
+
+    private long measure(List<MockHttpServletRequest> requests, Predicate<MockHttpServletRequest> matcher) {
+        long start = System.nanoTime();
+        run(requests, matcher, MEASURED_ITERATIONS);
+        return System.nanoTime() - start;
+    }
+
+    private long run(List<MockHttpServletRequest> requests, Predicate<MockHttpServletRequest> matcher, int iterations) {
+        long matches = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (matcher.test(requests.get(i % requests.size()))) matches++;
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,121 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.JWTRequiredFilter;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.filters.RouteWhitelist;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteWhitelistTest {
+
+    private static final String UUID_REGEX = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
+
+    /**
+     * Regular expressions previously used by the JWTRequiredFilter, used as a reference for the compiled whitelist.
+     */
+    static final Map<String, String> LEGACY_WHITELIST = new LinkedHashMap<>() {{
+        put("^/v3/api-docs.*", null);
+        put("^/swagger-ui.*", null);
+        put("^/swagger-resources.*", null);
+        put("^/configuration/ui.*", null);
+        put("^/configuration/security.*", null);
+        put("^/swagger-ui.html.*", null);
+        put("^/favicon.ico.*", null);
+        put("^/api/v1/auth/login-credentials", HttpMethod.POST.name());
+        put("^/api/v1/auth/login-auth-code", HttpMethod.POST.name());
+        put("^/api/v1/auth/random-image", HttpMethod.GET.name());
+        put("^/api/v1/auth/jwks", HttpMethod.GET.name());
+        put("^/api/v1/register/client", HttpMethod.POST.name());
+        put("^/api/v1/accounts/forgot-password", HttpMethod.POST.name());
+        put("^/api/v1/accounts/change-password/.*", HttpMethod.POST.name());
+        put("^/api/v1/accounts/activate-account/.*", HttpMethod.POST.name());
+        put("^/api/v1/accounts/confirm-email/.*", HttpMethod.POST.name());
+        put("^/api/v1/accounts/restore-access", HttpMethod.POST.name());
+        put("^/api/v1/accounts/restore-token/.*", HttpMethod.POST.name());
+        put("^/api/v1/parking/sectors/get/%s".formatted(UUID_REGEX), HttpMethod.GET.name());
+        put("^/api/v1/parking/active", HttpMethod.GET.name());
+        put("^/api/v1/parking/reservations/%s/exit$".formatted(UUID_REGEX), HttpMethod.POST.name());
+        put("^/api/v1/parking/%s/enter$".formatted(UUID_REGEX), HttpMethod.POST.name());
+        put("^/api/v1/parking/get/%s$".formatted(UUID_REGEX), HttpMethod.GET.name());
+        put("^/api/v1/parking/client/sectors/%s$".formatted(UUID_REGEX), HttpMethod.GET.name());
+    }};
+
+    private static final String ID = UUID.randomUUID().toString();
+
+    static final List<String> PATHS = List.of(
+            "/v3/api-docs", "/v3/api-docs/swagger-config", "/swagger-ui/index.html", "/swagger-ui.html",
+            "/swagger-resources/configuration", "/configuration/ui", "/configuration/security", "/favicon.ico",
+            "/api/v1/auth/login-credentials", "/api/v1/auth/login-credentials/", "/api/v1/auth/login-auth-code",
+            "/api/v1/auth/random-image", "/api/v1/auth/jwks", "/api/v1/auth/logout", "/api/v1/register/client", "/api/v1/register/staff",
+            "/api/v1/accounts/forgot-password", "/api/v1/accounts/change-password/token",
+            "/api/v1/accounts/change-password/", "/api/v1/accounts/change-password", "/api/v1/accounts/change-password/a/b",
+            "/api/v1/accounts/activate-account/token", "/api/v1/accounts/confirm-email/token",
+            "/api/v1/accounts/restore-access", "/api/v1/accounts/restore-token/token",
+            "/api/v1/accounts", "/api/v1/accounts/" + ID, "/api/v1/accounts/me",
+            "/api/v1/parking/sectors/get/" + ID, "/api/v1/parking/sectors/get/" + ID.toUpperCase(),
+            "/api/v1/parking/sectors/get/" + ID + "/", "/api/v1/parking/sectors/get/not-an-id",
+            "/api/v1/parking/active", "/api/v1/parking/reservations/" + ID + "/exit",
+            "/api/v1/parking/reservations/" + ID + "/exit/", "/api/v1/parking/" + ID + "/enter",
+            "/api/v1/parking/" + ID.substring(1) + "/enter", "/api/v1/parking/get/" + ID,
+            "/api/v1/parking/client/sectors/" + ID, "/api/v1/parking/" + ID, "/api/v1/reservations/cursor",
+            "/", "", "/api//v1/auth/login-credentials"
+    );
+
+    static final List<String> METHODS = List.of(HttpMethod.GET.name(), HttpMethod.POST.name(), HttpMethod.DELETE.name());
+
+    static boolean matchesLegacy(String method, String path) {
+        for (Map.Entry<String, String> entry : LEGACY_WHITELIST.entrySet()) {
+            if (path.matches(entry.getKey()) && (entry.getValue() == null || method.equals(entry.getValue()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void whitelistMatchesLegacyRegularExpressionsTestPositive() {
+        for (String path : PATHS) {
+            for (String method : METHODS) {
+                assertEquals(matchesLegacy(method, path), JWTRequiredFilter.WHITELIST.matches(method, path),
+                        "%s %s".formatted(method, path));
+            }
+        }
+    }
+
+    @Test
+    public void whitelistRespectsHttpMethodTestPositive() {
+        assertTrue(JWTRequiredFilter.WHITELIST.matches(HttpMethod.POST.name(), "/api/v1/auth/login-credentials"));
+        assertFalse(JWTRequiredFilter.WHITELIST.matches(HttpMethod.GET.name(), "/api/v1/auth/login-credentials"));
+        assertTrue(JWTRequiredFilter.WHITELIST.matches(HttpMethod.DELETE.name(), "/swagger-ui/index.html"));
+    }
+
+    @Test
+    public void whitelistPrefersMatchingBranchTestPositive() {
+        RouteWhitelist whitelist = RouteWhitelist.builder()
+                .permit(HttpMethod.GET, "/parking/" + ID + "/sectors")
+                .permit(HttpMethod.GET, "/parking/{uuid}/enter")
+                .build();
+
+        assertTrue(whitelist.matches(HttpMethod.GET.name(), "/parking/" + ID + "/enter"));
+        assertTrue(whitelist.matches(HttpMethod.GET.name(), "/parking/" + ID + "/sectors"));
+        assertFalse(whitelist.matches(HttpMethod.GET.name(), "/parking/" + UUID.randomUUID() + "/sectors"));
+    }
+
+    @Test
+    public void whitelistWithNullArgumentsTestNegative() {
+        assertFalse(JWTRequiredFilter.WHITELIST.matches(null, "/api/v1/auth/login-credentials"));
+        assertFalse(JWTRequiredFilter.WHITELIST.matches(HttpMethod.POST.name(), null));
+    }
+
+    @Test
+    public void builderWithRelativePatternTestNegative() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RouteWhitelist.builder().permit(HttpMethod.GET, "api/v1/parking/active"));
+    }
+}
@@ -71,6 +71,19 @@ public class ReservationUnitTest {
         assertEquals(1, reservation.getParkingEvents().size());
         assertEquals(parkingEvent, reservation.getParkingEvents().getFirst());
     }
+
+    @Test
+    public void vehicleInsideAfterAddingParkingEventsTest() {
+        assertFalse(reservation.isVehicleInside());
+
+        reservation.addParkingEvent(new ParkingEvent(LocalDateTime.now(), ParkingEvent.EventType.ENTRY));
+        assertTrue(reservation.isVehicleInside());
+
+        reservation.addParkingEvent(new ParkingEvent(LocalDateTime.now(), ParkingEvent.EventType.EXIT));
+        assertFalse(reservation.isVehicleInside());
+        assertEquals(2, reservation.getParkingEvents().size());
+    }
+
     @Test
     public void testToString() {
         String result = reservation.toString();
@@ -0,0 +1,44 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.model;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.SectorCapacitySlot;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SectorCapacitySlotUnitTest {
+
+    @Test
+    public void sectorCapacitySlotConstructorTest() {
+        UUID sectorId = UUID.randomUUID();
+        LocalDateTime startTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+        SectorCapacitySlot slot = new SectorCapacitySlot(sectorId, startTime);
+
+        assertEquals(sectorId, slot.getSectorId());
+        assertEquals(startTime, slot.getStartTime());
+        assertEquals(0, slot.getReservedPlaces());
+    }
+
+    @Test
+    public void reservePlaceTest() {
+        SectorCapacitySlot slot = new SectorCapacitySlot(UUID.randomUUID(), LocalDateTime.of(2024, 5, 1, 10, 0));
+        slot.reservePlace();
+        slot.reservePlace();
+
+        assertEquals(2, slot.getReservedPlaces());
+    }
+
+    @Test
+    public void slotOfTest() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0), SectorCapacitySlot.slotOf(LocalDateTime.of(2024, 5, 1, 10, 0)));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0), SectorCapacitySlot.slotOf(LocalDateTime.of(2024, 5, 1, 10, 59, 59)));
+    }
+
+    @Test
+    public void lastSlotOfTest() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 11, 0), SectorCapacitySlot.lastSlotOf(LocalDateTime.of(2024, 5, 1, 12, 0)));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 12, 0), SectorCapacitySlot.lastSlotOf(LocalDateTime.of(2024, 5, 1, 12, 30)));
+    }
+}
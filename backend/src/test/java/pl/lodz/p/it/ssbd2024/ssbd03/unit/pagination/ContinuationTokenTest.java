@@ -0,0 +1,70 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.pagination;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.commons.pagination.ContinuationToken;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.InvalidDataFormatException;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContinuationTokenTest {
+
+    @Test
+    public void encodeAndDecodeTestPositive() throws Exception {
+        LocalDateTime beginTime = LocalDateTime.of(2024, 6, 1, 12, 30, 15, 123456000);
+        UUID id = UUID.randomUUID();
+
+        ContinuationToken token = ContinuationToken.decode(ContinuationToken.of(beginTime, id).encode());
+
+        assertNotNull(token);
+        assertEquals(beginTime, token.getSortKeyAsDateTime());
+        assertEquals(id, token.getTieBreakerAsUUID());
+    }
+
+    @Test
+    public void encodeAndDecodeWithNumericTieBreakerTestPositive() throws Exception {
+        ContinuationToken token = ContinuationToken.decode(ContinuationToken.of("jerzybem", 7L).encode());
+
+        assertNotNull(token);
+        assertEquals("jerzybem", token.getSortKey());
+        assertEquals(7L, token.getTieBreakerAsLong());
+    }
+
+    @Test
+    public void encodedTokenIsUrlSafeTestPositive() {
+        String encoded = ContinuationToken.of("???>>>", UUID.randomUUID()).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void decodeMissingTokenTestPositive() throws Exception {
+        assertNull(ContinuationToken.decode(null));
+        assertNull(ContinuationToken.decode(" "));
+    }
+
+    @Test
+    public void decodeNotBase64TokenTestNegative() {
+        assertThrows(InvalidDataFormatException.class, () -> ContinuationToken.decode("not a token"));
+    }
+
+    @Test
+    public void decodeTokenWithoutSeparatorTestNegative() {
+        String token = Base64.getUrlEncoder().encodeToString("login".getBytes());
+
+        assertThrows(InvalidDataFormatException.class, () -> ContinuationToken.decode(token));
+    }
+
+    @Test
+    public void decodeTokenWithInvalidKeysTestNegative() throws Exception {
+        ContinuationToken token = ContinuationToken.decode(ContinuationToken.of("login", "version").encode());
+
+        assertNotNull(token);
+        assertThrows(InvalidDataFormatException.class, token::getSortKeyAsDateTime);
+        assertThrows(InvalidDataFormatException.class, token::getTieBreakerAsUUID);
+        assertThrows(InvalidDataFormatException.class, token::getTieBreakerAsLong);
+    }
+}
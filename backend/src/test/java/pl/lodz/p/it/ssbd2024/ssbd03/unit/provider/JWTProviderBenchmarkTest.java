@@ -0,0 +1,107 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.provider;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.consts.utils.JWTConsts;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Micro-benchmark of issuing and verifying the access tokens, comparing the algorithm and verifiers built on every
+ * call (with the token verified twice by the authentication filter) with the prebuilt ones (with the token verified
+ * once). Disabled by default, run with:
+ * <code>mvn test -Dtest=JWTProviderBenchmarkTest -Dbenchmark=true</code>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class JWTProviderBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+    private static final String SECRET_KEY = Base64.getEncoder().encodeToString("benchmark-secret-key-".repeat(12).getBytes());
+
+    @Test
+    public void issueAndVerifyTokenBenchmark() throws Exception {
+        JWTProvider jwtProvider = new JWTProvider();
+        setField(jwtProvider, "secretKey", SECRET_KEY);
+        setField(jwtProvider, "accessTokenTTL", 15);
+
+        Account account = new Account("login", "password", "firstName", "lastName", "email@example.com", "123123123");
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(account, UUID.randomUUID());
+        Client client = new Client();
+        client.setAccount(account);
+        account.addUserLevel(client);
+        String token = jwtProvider.generateJWTToken(account);
+
+        Supplier<Boolean> legacyVerification = () -> {
+            Algorithm algorithm = Algorithm.HMAC256(new String(Base64.getDecoder().decode(SECRET_KEY)));
+            DecodedJWT first = JWT.require(algorithm).build().verify(token);
+            UUID accountId = UUID.fromString(first.getClaim(JWTConsts.ACCOUNT_ID).asString());
+            JWTVerifier verifier = JWT.require(Algorithm.HMAC256(new String(Base64.getDecoder().decode(SECRET_KEY))))
+                    .withSubject(account.getLogin())
+                    .withClaim(JWTConsts.ACCOUNT_ID, accountId.toString())
+                    .withIssuer(JWTConsts.TOKEN_ISSUER)
+                    .build();
+            return verifier.verify(token).getExpiresAt().after(new Date());
+        };
+        Supplier<Boolean> prebuiltVerification = () -> {
+            try {
+                DecodedJWT decodedJWT = jwtProvider.verifyToken(token);
+                return jwtProvider.isTokenValid(decodedJWT, jwtProvider.extractAccountId(decodedJWT), account.getLogin());
+            } catch (Exception exception) {
+                return false;
+            }
+        };
+        Supplier<Boolean> legacyIssuing = () -> JWT.create()
+                .withSubject(account.getLogin())
+                .withClaim(JWTConsts.ACCOUNT_ID, account.getId().toString())
+                .withIssuer(JWTConsts.TOKEN_ISSUER)
+                .sign(Algorithm.HMAC256(new String(Base64.getDecoder().decode(SECRET_KEY)))) != null;
+        Supplier<Boolean> prebuiltIssuing = () -> jwtProvider.generateJWTToken(account) != null;
+
+        assertTrue(run(legacyVerification, WARMUP_ITERATIONS));
+        assertTrue(run(prebuiltVerification, WARMUP_ITERATIONS));
+        assertTrue(run(legacyIssuing, WARMUP_ITERATIONS));
+        assertTrue(run(prebuiltIssuing, WARMUP_ITERATIONS));
+
+        System.out.printf("Verification, built per call, twice: %.1f ns/token%n", measure(legacyVerification));
+        System.out.printf("Verification, prebuilt, once:        %.1f ns/token%n", measure(prebuiltVerification));
+        System.out.printf("Issuing, algorithm built per call:   %.1f ns/token%n", measure(legacyIssuing));
+        System.out.printf("Issuing, prebuilt algorithm:         %.1f ns/token%n", measure(prebuiltIssuing));
+    }
+
+    private double measure(Supplier<Boolean> operation) {
+        long start = System.nanoTime();
+        run(operation, MEASURED_ITERATIONS);
+        return (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private boolean run(Supplier<Boolean> operation, int iterations) {
+        boolean result = true;
+        for (int i = 0; i < iterations; i++) {
+            result &= operation.get();
+        }
+        return result;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = JWTProvider.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -23,6 +23,9 @@ import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.JWTProvider;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -468,4 +471,98 @@ public class JWTProviderTest {
         assertFalse(signature.isEmpty());
         assertFalse(signature.isBlank());
     }
+
+    @Test
+    public void jwtProviderVerifyTokenOnceTestPositive() throws Exception {
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(accountNo1, UUID.fromString(exampleUUID));
+        id.setAccessible(false);
+
+        DecodedJWT decodedJWT = jwtProvider.verifyToken(jwtProvider.generateJWTToken(accountNo1));
+
+        assertEquals(UUID.fromString(exampleUUID), jwtProvider.extractAccountId(decodedJWT));
+        assertTrue(jwtProvider.isTokenValid(decodedJWT, UUID.fromString(exampleUUID), accountNo1.getLogin()));
+        assertFalse(jwtProvider.isTokenValid(decodedJWT, UUID.randomUUID(), accountNo1.getLogin()));
+        assertFalse(jwtProvider.isTokenValid(decodedJWT, UUID.fromString(exampleUUID), "otherLogin"));
+    }
+
+    @Test
+    public void jwtProviderGenerateJWTTokenWithVersionTestPositive() throws Exception {
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(accountNo1, UUID.fromString(exampleUUID));
+        id.setAccessible(false);
+
+        DecodedJWT decodedJWT = jwtProvider.verifyToken(jwtProvider.generateJWTToken(accountNo1, "exampleEpoch", 7L));
+
+        assertEquals("exampleEpoch", decodedJWT.getClaim(JWTConsts.TOKEN_EPOCH).asString());
+        assertEquals(7L, decodedJWT.getClaim(JWTConsts.TOKEN_VERSION).asLong());
+        assertEquals(accountNo1.getLogin(), decodedJWT.getSubject());
+    }
+
+    @Test
+    public void jwtProviderVerifyTokenSignedWithOtherKeyTestNegative() {
+        String jwtToken = JWT.create()
+                .withSubject(accountNo1.getLogin())
+                .withClaim(JWTConsts.ACCOUNT_ID, exampleUUID)
+                .withExpiresAt(Instant.now().plus(1, ChronoUnit.MINUTES))
+                .withIssuer(JWTConsts.TOKEN_ISSUER)
+                .sign(Algorithm.HMAC256(otherTokenKey));
+
+        assertThrows(TokenDataExtractionException.class, () -> jwtProvider.verifyToken(jwtToken));
+    }
+
+    @Test
+    public void jwtProviderES256KeyRotationTestPositive() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair oldKey = generator.generateKeyPair();
+        KeyPair newKey = generator.generateKeyPair();
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(accountNo1, UUID.fromString(exampleUUID));
+        id.setAccessible(false);
+
+        JWTProvider oldProvider = createES256Provider("old", oldKey, Map.of("old", oldKey));
+        String oldToken = oldProvider.generateJWTToken(accountNo1);
+        assertEquals("old", JWT.decode(oldToken).getKeyId());
+        assertEquals("ES256", JWT.decode(oldToken).getAlgorithm());
+
+        JWTProvider rotatedProvider = createES256Provider("new", newKey, Map.of("old", oldKey, "new", newKey));
+        String newToken = rotatedProvider.generateJWTToken(accountNo1);
+        assertEquals("new", JWT.decode(newToken).getKeyId());
+        assertTrue(rotatedProvider.isTokenValid(oldToken, UUID.fromString(exampleUUID), accountNo1.getLogin()));
+        assertTrue(rotatedProvider.isTokenValid(newToken, UUID.fromString(exampleUUID), accountNo1.getLogin()));
+        assertFalse(oldProvider.isTokenValid(newToken, UUID.fromString(exampleUUID), accountNo1.getLogin()));
+
+        JWTProvider retiredProvider = createES256Provider("new", newKey, Map.of("new", newKey));
+        assertFalse(retiredProvider.isTokenValid(oldToken, UUID.fromString(exampleUUID), accountNo1.getLogin()));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> keys = (List<Map<String, String>>) rotatedProvider.getJsonWebKeySet().get("keys");
+        assertEquals(2, keys.size());
+        assertTrue(keys.stream().allMatch(key -> "EC".equals(key.get("kty")) && key.get("x").length() == 43));
+        assertTrue(((List<?>) jwtProvider.getJsonWebKeySet().get("keys")).isEmpty());
+    }
+
+    private static JWTProvider createES256Provider(String activeKeyId, KeyPair activeKey, Map<String, KeyPair> publicKeys) throws Exception {
+        JWTProvider provider = new JWTProvider();
+        String encodedPublicKeys = String.join(",", publicKeys.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + Base64.getEncoder().encodeToString(entry.getValue().getPublic().getEncoded()))
+                .toList());
+        setField(provider, "secretKey", secretTokenKey);
+        setField(provider, "accessTokenTTL", jwtTokenValidityLengthValue);
+        setField(provider, "signingAlgorithm", "ES256");
+        setField(provider, "activeKeyId", activeKeyId);
+        setField(provider, "privateKey", Base64.getEncoder().encodeToString(activeKey.getPrivate().getEncoded()));
+        setField(provider, "publicKeys", encodedPublicKeys);
+        return provider;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = JWTProvider.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
 }
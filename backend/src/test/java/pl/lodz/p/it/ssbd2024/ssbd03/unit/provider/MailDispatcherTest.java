@@ -0,0 +1,115 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.provider;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.MailOutboxServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailDispatcher;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MailDispatcherTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private GreenMail greenMail;
+    private MailOutboxServiceInterface mailOutboxService;
+    private MailDispatcher mailDispatcher;
+
+    @BeforeEach
+    public void startSmtpServer() throws Exception {
+        greenMail = new GreenMail(new ServerSetup(0, "localhost", ServerSetup.PROTOCOL_SMTP).dynamicPort());
+        greenMail.start();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        Environment env = mock(Environment.class);
+        when(env.getActiveProfiles()).thenReturn(new String[0]);
+
+        mailOutboxService = mock(MailOutboxServiceInterface.class);
+        mailDispatcher = new MailDispatcher(mailOutboxService, mailSender, env, new SyncTaskExecutor());
+        setField(mailDispatcher, "senderEmail", "eldorado@localhost");
+        setField(mailDispatcher, "batchSize", BATCH_SIZE);
+    }
+
+    @AfterEach
+    public void stopSmtpServer() {
+        greenMail.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void drainSendsEveryBatchAndReportsSentMessagesTestPositive() throws Exception {
+        OutboxMail first = createMail("first@localhost", "First");
+        OutboxMail second = createMail("second@localhost", "Second");
+        OutboxMail third = createMail("third@localhost", "Third");
+        when(mailOutboxService.claim(BATCH_SIZE)).thenReturn(List.of(first, second), List.of(third));
+
+        mailDispatcher.drain();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("First", received[0].getSubject());
+        assertTrue(GreenMailUtil.getBody(received[2]).contains("Third"));
+
+        ArgumentCaptor<Collection<UUID>> sentIds = ArgumentCaptor.forClass(Collection.class);
+        verify(mailOutboxService, times(2)).claim(BATCH_SIZE);
+        verify(mailOutboxService, times(2)).complete(sentIds.capture(), eq(Map.of()));
+        assertEquals(List.of(first.getId(), second.getId()), sentIds.getAllValues().get(0));
+        assertEquals(List.of(third.getId()), sentIds.getAllValues().get(1));
+    }
+
+    @Test
+    public void drainStopsWhenOutboxIsEmptyTestPositive() throws Exception {
+        when(mailOutboxService.claim(BATCH_SIZE)).thenReturn(List.of());
+
+        mailDispatcher.drain();
+
+        verify(mailOutboxService, never()).complete(any(), any());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void drainReportsFailuresWhenServerIsUnavailableTestNegative() throws Exception {
+        OutboxMail mail = createMail("first@localhost", "First");
+        when(mailOutboxService.claim(BATCH_SIZE)).thenReturn(List.of(mail));
+        greenMail.stop();
+
+        mailDispatcher.drain();
+
+        ArgumentCaptor<Map<UUID, String>> failures = ArgumentCaptor.forClass(Map.class);
+        verify(mailOutboxService).complete(eq(List.of()), failures.capture());
+        assertEquals(Set.of(mail.getId()), failures.getValue().keySet());
+    }
+
+    private static OutboxMail createMail(String recipient, String subject) throws Exception {
+        OutboxMail mail = new OutboxMail(recipient, subject, "<p>" + subject + "</p>");
+        Field id = AbstractEntity.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(mail, UUID.randomUUID());
+        return mail;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,81 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.provider;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.utils.EmailTemplateNotFoundException;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailTemplate;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailTemplate.Placeholder;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.mail.MailTemplateRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MailTemplateTest {
+
+    @Test
+    public void renderReplacesEveryOccurrenceOfPlaceholderTestPositive() {
+        MailTemplate template = MailTemplate.compile("<a href=\"$action_link\">$action_link</a> $firstname $lastname");
+
+        String content = template.newRenderer()
+                .with(Placeholder.ACTION_LINK, "http://localhost")
+                .with(Placeholder.FIRSTNAME, "Jerzy")
+                .with(Placeholder.LASTNAME, "Bem")
+                .render();
+
+        assertEquals("<a href=\"http://localhost\">http://localhost</a> Jerzy Bem", content);
+    }
+
+    @Test
+    public void renderDoesNotReplacePlaceholdersInValuesTestPositive() {
+        MailTemplate template = MailTemplate.compile("$firstname $lastname");
+
+        String content = template.newRenderer()
+                .with(Placeholder.FIRSTNAME, "$lastname")
+                .with(Placeholder.LASTNAME, "Bem")
+                .render();
+
+        assertEquals("$lastname Bem", content);
+    }
+
+    @Test
+    public void renderKeepsUnknownAndMissingPlaceholdersTestPositive() {
+        MailTemplate template = MailTemplate.compile("Price: 10$ $unknown $code");
+
+        assertEquals("Price: 10$ $unknown $code", template.newRenderer().render());
+    }
+
+    @Test
+    public void bindInlinesConstantValueTestPositive() {
+        MailTemplate template = MailTemplate.compile("<img src=\"$eldorado_logo\"/> $firstname $eldorado_logo")
+                .bind(Placeholder.ELDORADO_LOGO, "logo");
+
+        assertEquals("<img src=\"logo\"/> Jerzy logo", template.newRenderer().with(Placeholder.FIRSTNAME, "Jerzy").render());
+    }
+
+    @Test
+    public void registryCompilesTemplateOnceWithLogoTestPositive() throws Exception {
+        MailTemplateRegistry registry = new MailTemplateRegistry();
+
+        MailTemplate template = registry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE);
+        String content = template.newRenderer().render();
+
+        assertSame(template, registry.getTemplate(MailTemplateRegistry.DEFAULT_TEMPLATE));
+        assertTrue(content.contains("data:image/png;base64,"));
+        assertFalse(content.contains("$eldorado_logo"));
+        assertFalse(content.contains("\n"));
+    }
+
+    @Test
+    public void registryWithMissingTemplateTestNegative() {
+        MailTemplateRegistry registry = new MailTemplateRegistry();
+
+        assertThrows(EmailTemplateNotFoundException.class, () -> registry.getTemplate("missing-template.html"));
+    }
+
+    @Test
+    public void registryCachesMessagesPerLanguageTestPositive() {
+        MailTemplateRegistry registry = new MailTemplateRegistry();
+
+        assertEquals(I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "pl"), registry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "pl"));
+        assertEquals(I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "en"), registry.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "en"));
+    }
+}
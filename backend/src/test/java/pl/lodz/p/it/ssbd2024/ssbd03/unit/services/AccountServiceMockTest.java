@@ -10,6 +10,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.annotation.SecurityTestExecutionListeners;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
@@ -93,6 +95,11 @@ public class AccountServiceMockTest {
     @Mock
     private TokenProvider tokenProvider;
 
+    @Mock
+    private PrincipalCache principalCache;
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -372,6 +379,8 @@ public class AccountServiceMockTest {
         assertFalse(account.getBlocked());
         accountService.blockAccount(id);
         assertTrue(account.getBlocked());
+        verify(principalCache).invalidate(account.getId());
+        verify(tokenRevocationList).revoke(account.getLogin());
     }
 
     @Test
@@ -10,6 +10,8 @@ import org.springframework.security.test.context.annotation.SecurityTestExecutio
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import pl.lodz.p.it.ssbd2024.ssbd03.commons.dto.mok.token.AccessAndRefreshTokensDTO;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
 import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.ActivityLog;
@@ -61,6 +63,11 @@ public class AuthenticationServiceMockTest {
     @Mock
     private TokenProvider tokenProvider;
 
+    @Mock
+    private PrincipalCache principalCache;
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -267,7 +274,7 @@ public class AuthenticationServiceMockTest {
         when(authenticationFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
         when(tokenProvider.generateRefreshToken(account)).thenReturn(refreshTokenObject);
         doNothing().when(authenticationFacade).edit(account);
-        when(jwtProvider.generateJWTToken(account)).thenReturn(exampleAccessToken);
+        when(jwtProvider.generateJWTToken(eq(account), any(), anyLong())).thenReturn(exampleAccessToken);
 
         AccessAndRefreshTokensDTO accessAndRefreshTokensDTO = authenticationService.registerSuccessfulLoginAttempt(account.getLogin(), false, exampleIpAddress, exampleLanguage);
 
@@ -291,7 +298,7 @@ public class AuthenticationServiceMockTest {
         when(authenticationFacade.findByLogin(account.getLogin())).thenReturn(Optional.of(account));
         when(tokenProvider.generateRefreshToken(account)).thenReturn(refreshTokenObject);
         doNothing().when(authenticationFacade).edit(account);
-        when(jwtProvider.generateJWTToken(account)).thenReturn(exampleAccessToken);
+        when(jwtProvider.generateJWTToken(eq(account), any(), anyLong())).thenReturn(exampleAccessToken);
 
         AccessAndRefreshTokensDTO accessAndRefreshTokensDTO = authenticationService.registerSuccessfulLoginAttempt(account.getLogin(), true, exampleIpAddress, exampleLanguage);
 
@@ -340,7 +347,7 @@ public class AuthenticationServiceMockTest {
         when(tokenFacade.findByTokenValue(exampleRefreshTokenValue)).thenReturn(Optional.of(refreshTokenObject));
         when(jwtProvider.isTokenValid(exampleRefreshTokenValue, account)).thenReturn(true);
         when(tokenProvider.generateRefreshToken(account)).thenReturn(newRefreshTokenObject);
-        when(jwtProvider.generateJWTToken(account)).thenReturn(newExampleAccessTokenValue);
+        when(jwtProvider.generateJWTToken(eq(account), any(), anyLong())).thenReturn(newExampleAccessTokenValue);
         doNothing().when(tokenFacade).remove(refreshTokenObject);
         doNothing().when(tokenFacade).create(newRefreshTokenObject);
 
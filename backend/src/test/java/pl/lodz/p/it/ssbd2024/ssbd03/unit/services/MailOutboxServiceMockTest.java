@@ -0,0 +1,92 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.OutboxMail;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.OutboxMailMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.MailOutboxService;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MailOutboxServiceMockTest {
+
+    @Mock
+    private OutboxMailMOKFacade outboxMailFacade;
+
+    @InjectMocks
+    private MailOutboxService mailOutboxService;
+
+    @BeforeEach
+    public void setMailOutboxServiceParameters() throws Exception {
+        setField("claimTimeout", 5L);
+        setField("maxAttempts", 3);
+        setField("retryBaseDelay", 30L);
+        setField("retryMaxDelay", 1L);
+    }
+
+    @Test
+    void claimCountsAttemptAndPostponesNextAttemptTestPositive() throws Exception {
+        OutboxMail mail = new OutboxMail("test@email.com", "Subject", "Content");
+        when(outboxMailFacade.findReady(any(LocalDateTime.class), eq(10))).thenReturn(List.of(mail));
+
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(List.of(mail), mailOutboxService.claim(10));
+
+        assertEquals(1, mail.getAttempts());
+        assertFalse(mail.getNextAttemptTime().isBefore(before.plusMinutes(5)));
+    }
+
+    @Test
+    void completeRemovesSentAndRetriesFailedWithBackoffTestPositive() throws Exception {
+        UUID sentId = UUID.randomUUID();
+        UUID failedId = UUID.randomUUID();
+        OutboxMail failed = new OutboxMail("test@email.com", "Subject", "Content");
+        failed.claim(null);
+        failed.claim(null);
+        when(outboxMailFacade.find(failedId)).thenReturn(Optional.of(failed));
+
+        LocalDateTime before = LocalDateTime.now();
+        mailOutboxService.complete(List.of(sentId), Map.of(failedId, "Connection refused"));
+
+        verify(outboxMailFacade).removeByIds(List.of(sentId));
+        assertEquals("Connection refused", failed.getLastError());
+        assertFalse(failed.getNextAttemptTime().isBefore(before.plusSeconds(60)));
+        assertTrue(failed.getNextAttemptTime().isBefore(before.plusSeconds(61).plusNanos(500_000_000)));
+    }
+
+    @Test
+    void completeStopsRetryingAfterMaxAttemptsTestPositive() throws Exception {
+        UUID failedId = UUID.randomUUID();
+        OutboxMail failed = new OutboxMail("test@email.com", "Subject", "Content");
+        failed.claim(null);
+        failed.claim(null);
+        failed.claim(null);
+        when(outboxMailFacade.find(failedId)).thenReturn(Optional.of(failed));
+
+        mailOutboxService.complete(List.of(), Map.of(failedId, "Connection refused"));
+
+        assertNull(failed.getNextAttemptTime());
+        assertEquals("Connection refused", failed.getLastError());
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = MailOutboxService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mailOutboxService, value);
+    }
+}
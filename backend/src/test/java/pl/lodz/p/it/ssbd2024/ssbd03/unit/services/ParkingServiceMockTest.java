@@ -0,0 +1,136 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.AbstractEntity;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Client;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Address;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Parking;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.ParkingEvent;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Reservation;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mop.Sector;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ParkingFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.facades.ReservationFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations.ParkingService;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ParkingServiceMockTest {
+
+    private static final int RESERVATION_MAX_HOURS = 24;
+
+    @Mock
+    private ParkingFacade parkingFacade;
+    @Mock
+    private ReservationFacade reservationFacade;
+    @Mock
+    private MailProvider mailProvider;
+
+    @InjectMocks
+    private ParkingService parkingService;
+
+    @BeforeEach
+    public void setParkingServiceParameters() throws Exception {
+        Field reservationMaxHours = ParkingService.class.getDeclaredField("reservationMaxHours");
+        reservationMaxHours.setAccessible(true);
+        reservationMaxHours.set(parkingService, RESERVATION_MAX_HOURS);
+    }
+
+    @Test
+    void deactivateSectorReleasesCapacityOfCancelledReservationsTestPositive() throws Exception {
+        Parking parking = new Parking(new Address("Lodz", "90-000", "Pomorska"), Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        Sector sector = new Sector(parking, "SA-01", Sector.SectorType.COVERED, 10, 100);
+        setId(sector, UUID.randomUUID());
+        LocalDateTime deactivationTime = LocalDateTime.now().plusDays(3);
+        Reservation first = createReservation(sector, deactivationTime.minusHours(2), deactivationTime.plusHours(1));
+        Reservation second = createReservation(sector, deactivationTime.plusHours(5), deactivationTime.plusHours(8));
+
+        when(parkingFacade.findAndRefreshSectorById(sector.getId())).thenReturn(Optional.of(sector));
+        when(reservationFacade.getAllReservationsToCancelBeforeDeactivation(eq(sector.getId()), any(LocalDateTime.class)))
+                .thenReturn(List.of(first, second));
+
+        parkingService.deactivateSector(sector.getId(), deactivationTime);
+
+        assertEquals(Reservation.ReservationStatus.CANCELLED, first.getStatus());
+        assertEquals(Reservation.ReservationStatus.CANCELLED, second.getStatus());
+        verify(parkingFacade).releaseCapacity(sector.getId(), first.getBeginTime(), first.getEndTime());
+        verify(parkingFacade).releaseCapacity(sector.getId(), second.getBeginTime(), second.getEndTime());
+        verify(parkingFacade).editSector(sector);
+        assertEquals(deactivationTime, sector.getDeactivationTime());
+    }
+
+    @Test
+    void enterParkingWithoutReservationReservesCapacityUntilMaximumReservationTimeTestPositive() throws Exception {
+        Parking parking = new Parking(new Address("Lodz", "90-000", "Pomorska"), Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        Sector fullSector = new Sector(parking, "SA-01", Sector.SectorType.UNCOVERED, 10, 100);
+        Sector freeSector = new Sector(parking, "SA-02", Sector.SectorType.UNCOVERED, 10, 100);
+        UUID parkingId = UUID.randomUUID();
+
+        when(parkingFacade.getAvailableSectorsNow(eq(Client.ClientType.BASIC), eq(parkingId), any(LocalDateTime.class), eq(RESERVATION_MAX_HOURS)))
+                .thenReturn(List.of(fullSector, freeSector));
+        when(parkingFacade.occupyPlaceInTimeframe(eq(fullSector), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+        when(parkingFacade.occupyPlaceInTimeframe(eq(freeSector), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+
+        Reservation reservation = parkingService.enterParkingWithoutReservation(parkingId, null, true);
+
+        assertEquals(freeSector, reservation.getSector());
+        verify(parkingFacade).occupyPlaceInTimeframe(freeSector, reservation.getBeginTime(),
+                reservation.getBeginTime().plusHours(RESERVATION_MAX_HOURS));
+        verify(parkingFacade, never()).occupyPlace(any(Sector.class));
+        verify(reservationFacade).create(reservation);
+    }
+
+    @Test
+    void exitParkingWithoutReservationReleasesRemainingCapacityTestPositive() throws Exception {
+        Parking parking = new Parking(new Address("Lodz", "90-000", "Pomorska"), Parking.SectorDeterminationStrategy.LEAST_OCCUPIED);
+        Sector sector = new Sector(parking, "SA-01", Sector.SectorType.UNCOVERED, 10, 100);
+        setId(sector, UUID.randomUUID());
+        LocalDateTime beginTime = LocalDateTime.now().minusHours(2);
+        Reservation reservation = new Reservation(sector, beginTime);
+        reservation.setStatus(Reservation.ReservationStatus.IN_PROGRESS);
+        reservation.addParkingEvent(new ParkingEvent(beginTime, ParkingEvent.EventType.ENTRY));
+        setId(reservation, UUID.randomUUID());
+
+        when(reservationFacade.findAndRefresh(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(parkingFacade.releasePlace(sector)).thenReturn(true);
+
+        parkingService.exitParking(reservation.getId(), "anonymous", false);
+
+        assertEquals(Reservation.ReservationStatus.COMPLETED_MANUALLY, reservation.getStatus());
+        assertNotNull(reservation.getEndTime());
+        verify(parkingFacade).releaseCapacity(eq(sector.getId()), any(LocalDateTime.class),
+                eq(beginTime.plusHours(RESERVATION_MAX_HOURS)));
+    }
+
+    private static Reservation createReservation(Sector sector, LocalDateTime beginTime, LocalDateTime endTime) throws Exception {
+        Client client = new Client();
+        client.setAccount(new Account("login", "password", "Name", "Lastname", "email@localhost", "123456789"));
+        Reservation reservation = new Reservation(client, sector, beginTime);
+        reservation.setEndTime(endTime);
+        reservation.setStatus(Reservation.ReservationStatus.AWAITING);
+        setId(reservation, UUID.randomUUID());
+        return reservation;
+    }
+
+    private static void setId(AbstractEntity entity, UUID id) throws Exception {
+        Field field = AbstractEntity.class.getDeclaredField("id");
+        field.setAccessible(true);
+        field.set(entity, id);
+    }
+}
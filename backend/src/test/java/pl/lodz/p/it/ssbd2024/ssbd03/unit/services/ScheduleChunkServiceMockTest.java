@@ -0,0 +1,217 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.test.context.annotation.SecurityTestExecutionListeners;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.schedule.SchedulerNode;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.PrincipalCache;
+import pl.lodz.p.it.ssbd2024.ssbd03.config.security.cache.TokenRevocationList;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.SchedulerLeaseMOKFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.ScheduleChunkService;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith({MockitoExtension.class, SpringExtension.class})
+@SecurityTestExecutionListeners
+public class ScheduleChunkServiceMockTest {
+
+    private static final String LEASE = "mok.task";
+
+    @Mock
+    private MailProvider mailProvider;
+    @Mock
+    private TokenFacade tokenFacade;
+    @Mock
+    private AccountMOKFacade accountMOKFacade;
+    @Mock
+    private AccountHistoryDataFacade historyDataFacade;
+    @Mock
+    private TokenProvider tokenProvider;
+    @Mock
+    private PrincipalCache principalCache;
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+    @Mock
+    private SchedulerLeaseMOKFacade schedulerLeaseFacade;
+    @Mock
+    private SchedulerNode schedulerNode;
+
+    @InjectMocks
+    private ScheduleChunkService scheduleChunkService;
+
+    private SchedulerLease lease;
+    private LocalDateTime timestamp;
+
+    @BeforeEach
+    public void setScheduleChunkServiceParameters() throws Exception {
+        Field chunkSizeField = scheduleChunkService.getClass().getDeclaredField("chunkSize");
+        chunkSizeField.setAccessible(true);
+        chunkSizeField.set(scheduleChunkService, 2);
+        Field accountCreationConfirmationUrlField = scheduleChunkService.getClass().getDeclaredField("accountCreationConfirmationUrl");
+        accountCreationConfirmationUrlField.setAccessible(true);
+        accountCreationConfirmationUrlField.set(scheduleChunkService, "http://localhost/confirm/");
+
+        timestamp = LocalDateTime.now();
+        lease = new SchedulerLease(LEASE, "node", timestamp, timestamp.plusHours(1));
+        lease.setCheckpoint("previous");
+        lenient().when(schedulerNode.getNodeId()).thenReturn("node");
+        lenient().when(schedulerLeaseFacade.renew(eq(LEASE), eq("node"), any(LocalDateTime.class))).thenReturn(Optional.of(lease));
+    }
+
+    @Test
+    void deleteNotActivatedAccountsTestFullChunk() throws Exception {
+        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
+        Account account1 = new Account("login1", "TestPassword1", "firstName1", "lastName1", "test1@email.com", "123123124");
+
+        when(accountMOKFacade.findChunkOfAccountsMarkedForDeletion(timestamp, null, 2)).thenReturn(List.of(account, account1));
+
+        assertEquals("login1", scheduleChunkService.deleteNotActivatedAccounts(LEASE, timestamp, null));
+
+        verify(accountMOKFacade, times(1)).remove(account);
+        verify(accountMOKFacade, times(1)).remove(account1);
+        verify(mailProvider, times(2)).sendRemoveAccountInfoEmail(any(), any(), any(), any());
+        assertEquals("login1", lease.getCheckpoint());
+    }
+
+    @Test
+    void deleteNotActivatedAccountsTestLastChunk() throws Exception {
+        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
+
+        when(accountMOKFacade.findChunkOfAccountsMarkedForDeletion(timestamp, "previous", 2)).thenReturn(List.of(account));
+
+        assertNull(scheduleChunkService.deleteNotActivatedAccounts(LEASE, timestamp, "previous"));
+
+        verify(accountMOKFacade, times(1)).remove(account);
+        assertNull(lease.getCheckpoint());
+    }
+
+    @Test
+    void deleteNotActivatedAccountsTestLeaseTakenOver() throws Exception {
+        when(schedulerLeaseFacade.renew(eq(LEASE), eq("node"), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        assertNull(scheduleChunkService.deleteNotActivatedAccounts(LEASE, timestamp, "previous"));
+
+        verify(accountMOKFacade, never()).findChunkOfAccountsMarkedForDeletion(any(), any(), anyInt());
+    }
+
+    @Test
+    void deleteNotActivatedAccountsTestUnsuccessful() throws Exception {
+        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
+
+        when(accountMOKFacade.findChunkOfAccountsMarkedForDeletion(timestamp, "previous", 2)).thenReturn(List.of(account));
+        doThrow(new ApplicationDatabaseException(new RuntimeException())).when(accountMOKFacade).remove(account);
+
+        assertThrows(ApplicationDatabaseException.class, () -> scheduleChunkService.deleteNotActivatedAccounts(LEASE, timestamp, "previous"));
+
+        verify(mailProvider, never()).sendRemoveAccountInfoEmail(any(), any(), any(), any());
+        assertEquals("previous", lease.getCheckpoint());
+    }
+
+    @Test
+    void resendConfirmationEmailsTestSuccessful() throws Exception {
+        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
+        Account account1 = new Account("login1", "TestPassword1", "firstName1", "lastName1", "test1@email.com", "123123124");
+        account.setAccountLanguage("pl");
+        account1.setAccountLanguage("en");
+        Token token = new Token("TEST VALUE", account, Token.TokenType.REGISTER);
+        Token token1 = new Token("TEST VALUE1", account1, Token.TokenType.REGISTER);
+        Token newToken = new Token("NewTokenValue", account, Token.TokenType.REGISTER);
+        Token newToken1 = new Token("NewTokenValue1", account1, Token.TokenType.REGISTER);
+
+        when(tokenFacade.findChunkByTypeAndAccountCreatedBefore(Token.TokenType.REGISTER, timestamp, null, 2))
+                .thenReturn(List.of(token, token1));
+        when(tokenProvider.generateAccountActivationToken(account)).thenReturn(newToken);
+        when(tokenProvider.generateAccountActivationToken(account1)).thenReturn(newToken1);
+
+        assertEquals("login1", scheduleChunkService.resendConfirmationEmails(LEASE, timestamp, null));
+
+        verify(tokenFacade, times(1)).removeByTypeAndAccounts(eq(Token.TokenType.REGISTER), anyCollection());
+        verify(tokenFacade, times(1)).createAll(List.of(newToken, newToken1));
+        verify(tokenFacade, never()).create(any());
+        verify(mailProvider, times(1)).sendRegistrationConfirmEmail("firstName", "lastName", "test@email.com",
+                "http://localhost/confirm/NewTokenValue", "pl");
+        verify(mailProvider, times(1)).sendRegistrationConfirmEmail("firstName1", "lastName1", "test1@email.com",
+                "http://localhost/confirm/NewTokenValue1", "en");
+    }
+
+    @Test
+    void resendConfirmationEmailsTestEmpty() throws Exception {
+        when(tokenFacade.findChunkByTypeAndAccountCreatedBefore(Token.TokenType.REGISTER, timestamp, "previous", 2))
+                .thenReturn(List.of());
+
+        assertNull(scheduleChunkService.resendConfirmationEmails(LEASE, timestamp, "previous"));
+
+        verify(tokenFacade, never()).removeByTypeAndAccounts(any(), any());
+        verify(mailProvider, never()).sendRegistrationConfirmEmail(any(), any(), any(), any(), any());
+        assertNull(lease.getCheckpoint());
+    }
+
+    @Test
+    @WithMockUser(username = "login")
+    void unblockAccountsTestSuccessful() throws Exception {
+        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
+        Account account1 = new Account("login1", "TestPassword1", "firstName1", "lastName1", "test1@email.com", "123123124");
+        account.setAccountLanguage("pl");
+        account1.setAccountLanguage("en");
+        account.blockAccount(false);
+        account1.blockAccount(false);
+
+        when(accountMOKFacade.findChunkOfAccountsBlockedByLoginIncorrectly(timestamp, null, 2)).thenReturn(List.of(account, account1));
+        when(accountMOKFacade.findByLogin("login")).thenReturn(Optional.empty());
+
+        assertEquals("login1", scheduleChunkService.unblockAccounts(LEASE, timestamp, null));
+
+        assertFalse(account.getBlocked());
+        assertFalse(account1.getBlocked());
+        verify(accountMOKFacade, times(1)).findByLogin("login");
+        verify(historyDataFacade, times(2)).create(any(AccountHistoryData.class));
+        verify(mailProvider, times(2)).sendUnblockAccountInfoEmail(any(), any(), any(), any());
+    }
+
+    @Test
+    void unblockAccountsTestEmpty() throws Exception {
+        when(accountMOKFacade.findChunkOfAccountsBlockedByLoginIncorrectly(timestamp, "previous", 2)).thenReturn(List.of());
+
+        assertNull(scheduleChunkService.unblockAccounts(LEASE, timestamp, "previous"));
+
+        verify(mailProvider, never()).sendUnblockAccountInfoEmail(any(), any(), any(), any());
+        assertNull(lease.getCheckpoint());
+    }
+
+    @Test
+    void suspendAccountsTestSuccessful() throws Exception {
+        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
+
+        when(accountMOKFacade.findChunkOfAccountsWithoutRecentActivity(timestamp, null, 2)).thenReturn(List.of(account));
+
+        assertNull(scheduleChunkService.suspendAccounts(LEASE, timestamp, null));
+
+        assertTrue(account.getSuspended());
+        verify(accountMOKFacade, times(1)).edit(account);
+        verify(principalCache, times(1)).invalidate(account.getId());
+        verify(tokenRevocationList, times(1)).revoke(account.getLogin());
+        verify(mailProvider, times(1)).sendSuspendAccountInfoEmail(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,156 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.implementations.ScheduleMOPService;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces.ScheduleMOPChunkServiceInterface;
+import pl.lodz.p.it.ssbd2024.ssbd03.mop.services.interfaces.ScheduleMOPChunkServiceInterface.ChunkResult;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleMOPServiceMockTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private ScheduleMOPChunkServiceInterface scheduleChunkService;
+
+    @InjectMocks
+    private ScheduleMOPService scheduleService;
+
+    @BeforeEach
+    public void setScheduleServiceParameters() throws Exception {
+        Field endTimeField = ScheduleMOPService.class.getDeclaredField("endTime");
+        endTimeField.setAccessible(true);
+        endTimeField.set(scheduleService, "24");
+        Field chunkSizeField = ScheduleMOPService.class.getDeclaredField("chunkSize");
+        chunkSizeField.setAccessible(true);
+        chunkSizeField.set(scheduleService, CHUNK_SIZE);
+
+        lenient().when(scheduleChunkService.acquireLease(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void terminateReservationProcessesChunksUntilLastChunkIsNotFullTestPositive() throws Exception {
+        when(scheduleChunkService.terminateReservations(eq("mop.terminateReservation"), any(LocalDateTime.class)))
+                .thenReturn(chunk(CHUNK_SIZE), chunk(CHUNK_SIZE), chunk(1));
+
+        scheduleService.terminateReservation();
+
+        verify(scheduleChunkService, times(3)).terminateReservations(eq("mop.terminateReservation"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void completeReservationRemovesPastSlotsBeforeProcessingChunksTestPositive() throws Exception {
+        when(scheduleChunkService.completeReservations("mop.completeReservation")).thenReturn(chunk(CHUNK_SIZE), chunk(0));
+
+        scheduleService.completeReservation();
+
+        InOrder inOrder = inOrder(scheduleChunkService);
+        inOrder.verify(scheduleChunkService).acquireLease("mop.completeReservation");
+        inOrder.verify(scheduleChunkService).removePastCapacitySlots();
+        inOrder.verify(scheduleChunkService, times(2)).completeReservations("mop.completeReservation");
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void completeReservationFollowsUpEachReservationAfterFailureOfAnotherTestPositive() throws Exception {
+        UUID failingId = UUID.randomUUID();
+        UUID succeedingId = UUID.randomUUID();
+        when(scheduleChunkService.completeReservations("mop.completeReservation"))
+                .thenReturn(new ChunkResult(1, List.of(), List.of(failingId, succeedingId)));
+        doThrow(new ApplicationDatabaseException(new RuntimeException())).when(scheduleChunkService).recalculateClientType(failingId);
+
+        scheduleService.completeReservation();
+
+        verify(scheduleChunkService).recalculateClientType(failingId);
+        verify(scheduleChunkService).recalculateClientType(succeedingId);
+        verify(scheduleChunkService, times(1)).completeReservations("mop.completeReservation");
+    }
+
+    @Test
+    void processExpiredReservationsNotifiesAboutTerminationAfterChunkTestPositive() throws Exception {
+        UUID terminatedId = UUID.randomUUID();
+        UUID completedId = UUID.randomUUID();
+        when(scheduleChunkService.processExpiredReservations())
+                .thenReturn(new ChunkResult(2, List.of(terminatedId), List.of(completedId)));
+
+        scheduleService.processExpiredReservations();
+
+        InOrder inOrder = inOrder(scheduleChunkService);
+        inOrder.verify(scheduleChunkService).processExpiredReservations();
+        inOrder.verify(scheduleChunkService).notifyAboutTermination(terminatedId);
+        inOrder.verify(scheduleChunkService).recalculateClientType(completedId);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void completeReservationSkippedWhenLeaseIsHeldByAnotherInstanceTestNegative() throws Exception {
+        when(scheduleChunkService.acquireLease("mop.completeReservation")).thenReturn(false);
+
+        scheduleService.completeReservation();
+
+        verify(scheduleChunkService, never()).removePastCapacitySlots();
+        verify(scheduleChunkService, never()).completeReservations(anyString());
+    }
+
+    @Test
+    void backfillVehicleInsideIsExecutedInChunkServiceTestPositive() throws Exception {
+        when(scheduleChunkService.backfillVehicleInside()).thenReturn(3);
+
+        scheduleService.backfillVehicleInside();
+
+        verify(scheduleChunkService).backfillVehicleInside();
+        verifyNoMoreInteractions(scheduleChunkService);
+    }
+
+    @Test
+    void backfillVehicleInsideIsNotRepeatedAfterSuccessTestPositive() throws Exception {
+        when(scheduleChunkService.backfillVehicleInside()).thenReturn(3);
+
+        scheduleService.backfillVehicleInside();
+        scheduleService.backfillVehicleInside();
+
+        verify(scheduleChunkService, times(1)).backfillVehicleInside();
+    }
+
+    @Test
+    void backfillCapacitySlotsIsRepeatedAfterFailureTestNegative() throws Exception {
+        when(scheduleChunkService.backfillCapacitySlots())
+                .thenThrow(new ApplicationDatabaseException(new RuntimeException()))
+                .thenReturn(5);
+
+        assertThrows(ApplicationDatabaseException.class, () -> scheduleService.backfillCapacitySlots());
+        scheduleService.backfillCapacitySlots();
+        scheduleService.backfillCapacitySlots();
+
+        verify(scheduleChunkService, times(2)).backfillCapacitySlots();
+    }
+
+    @Test
+    void backfillCapacitySlotsIsExecutedInChunkServiceTestPositive() throws Exception {
+        when(scheduleChunkService.backfillCapacitySlots()).thenReturn(5);
+
+        scheduleService.backfillCapacitySlots();
+
+        verify(scheduleChunkService).backfillCapacitySlots();
+        verifyNoMoreInteractions(scheduleChunkService);
+    }
+
+    private static ChunkResult chunk(int claimed) {
+        return new ChunkResult(claimed, List.of(), List.of());
+    }
+}
@@ -3,28 +3,20 @@ package pl.lodz.p.it.ssbd2024.ssbd03.unit.services;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.test.context.annotation.SecurityTestExecutionListeners;
-import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.AccountHistoryData;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Token;
-import pl.lodz.p.it.ssbd2024.ssbd03.entities.mok.Account;
-import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationBaseException;
-import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountHistoryDataFacade;
-import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.AccountMOKFacade;
-import pl.lodz.p.it.ssbd2024.ssbd03.mok.facades.TokenFacade;
+import pl.lodz.p.it.ssbd2024.ssbd03.entities.SchedulerLease;
+import pl.lodz.p.it.ssbd2024.ssbd03.exceptions.ApplicationDatabaseException;
 import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.implementations.ScheduleService;
-import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.MailProvider;
-import pl.lodz.p.it.ssbd2024.ssbd03.utils.providers.TokenProvider;
+import pl.lodz.p.it.ssbd2024.ssbd03.mok.services.interfaces.ScheduleChunkServiceInterface;
 
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.Mockito.*;
@@ -33,21 +25,15 @@ import static org.mockito.Mockito.*;
 @SecurityTestExecutionListeners
 public class ScheduleServiceMockTest {
     @Mock
-    private MailProvider mailProvider;
-    @Mock
-    private TokenFacade tokenFacade;
-    @Mock
-    private AccountMOKFacade accountMOKFacade;
-    @Mock
-    private AccountHistoryDataFacade historyDataFacade;
-    @Mock
-    private TokenProvider tokenProvider;
+    private ScheduleChunkServiceInterface scheduleChunkService;
 
     @InjectMocks
     private ScheduleService scheduleService;
 
+    private SchedulerLease lease;
+
     @BeforeEach
-    public void setScheduleServiceParameters() throws NoSuchFieldException, IllegalAccessException {
+    public void setScheduleServiceParameters() throws Exception {
         //Using the default parameters from application properties.
         //They shouldn't have any impact on the tests as they're mocked.
         //I didn't want to raise whole application just to set two string fields.
@@ -58,144 +44,81 @@ public class ScheduleServiceMockTest {
         Field unblockTimeField = scheduleService.getClass().getDeclaredField("unblockTime");
         unblockTimeField.setAccessible(true);
         unblockTimeField.set(scheduleService, "2");
+        Field maxDaysWithoutAuthenticationField = scheduleService.getClass().getDeclaredField("maxDaysWithoutAuthentication");
+        maxDaysWithoutAuthenticationField.setAccessible(true);
+        maxDaysWithoutAuthenticationField.set(scheduleService, "30");
         Field resendRegistrationConfirmationEmailAfterHoursField = scheduleService.getClass().getDeclaredField("resendRegistrationConfirmationEmailAfterHours");
         resendRegistrationConfirmationEmailAfterHoursField.setAccessible(true);
         resendRegistrationConfirmationEmailAfterHoursField.set(scheduleService, 12);
 
+        lease = new SchedulerLease("lease", "node", LocalDateTime.now(), LocalDateTime.now().plusHours(1));
+        lenient().when(scheduleChunkService.acquireLease(anyString())).thenReturn(Optional.of(lease));
     }
 
     @Test
-    void deleteNotSuspendedTestSuccessful() throws Exception {
-        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
-        Account account1 = new Account("login1", "TestPassword1", "firstName1", "lastName1", "test1@email.com", "123123124");
-        List<Account> accountList = List.of(account, account1);
-
-        when(accountMOKFacade.findAllAccountsMarkedForDeletion(24L, TimeUnit.HOURS)).thenReturn(accountList);
-        doNothing().when(tokenFacade).removeByAccount(null);
-        doNothing().when(accountMOKFacade).remove(any(Account.class));
+    void deleteNotActiveTestSuccessful() throws Exception {
+        when(scheduleChunkService.deleteNotActivatedAccounts(eq("mok.deleteNotActivatedAccounts"), any(LocalDateTime.class), isNull()))
+                .thenReturn("login");
+        when(scheduleChunkService.deleteNotActivatedAccounts(eq("mok.deleteNotActivatedAccounts"), any(LocalDateTime.class), eq("login")))
+                .thenReturn(null);
 
         scheduleService.deleteNotActivatedAccounts();
 
-        verify(accountMOKFacade, times(1)).remove(account);
-        verify(accountMOKFacade, times(1)).remove(account1);
+        InOrder inOrder = inOrder(scheduleChunkService);
+        inOrder.verify(scheduleChunkService).deleteNotActivatedAccounts(eq("mok.deleteNotActivatedAccounts"), any(LocalDateTime.class), isNull());
+        inOrder.verify(scheduleChunkService).deleteNotActivatedAccounts(eq("mok.deleteNotActivatedAccounts"), any(LocalDateTime.class), eq("login"));
+        inOrder.verifyNoMoreInteractions();
     }
 
     @Test
-    void deleteNotActiveTestUnsuccessful() throws Exception {
-        when(accountMOKFacade.findAllAccountsMarkedForDeletion(24L, TimeUnit.HOURS)).thenThrow(NumberFormatException.class);
+    void deleteNotActiveTestResumedFromCheckpoint() throws Exception {
+        lease.setCheckpoint("checkpoint");
 
-        assertDoesNotThrow(() -> scheduleService.deleteNotActivatedAccounts());
+        scheduleService.deleteNotActivatedAccounts();
+
+        verify(scheduleChunkService, times(1)).deleteNotActivatedAccounts(anyString(), any(LocalDateTime.class), eq("checkpoint"));
+        verify(scheduleChunkService, never()).deleteNotActivatedAccounts(anyString(), any(LocalDateTime.class), isNull());
     }
 
     @Test
-    void deleteNotActiveTestEmpty() throws Exception {
-        List<Account> accountList = new ArrayList<>();
-
-        when(accountMOKFacade.findAllAccountsMarkedForDeletion(24L, TimeUnit.HOURS)).thenReturn(accountList);
+    void deleteNotActiveTestLeaseHeldByAnotherInstance() throws Exception {
+        when(scheduleChunkService.acquireLease("mok.deleteNotActivatedAccounts")).thenReturn(Optional.empty());
 
         scheduleService.deleteNotActivatedAccounts();
 
-        verify(accountMOKFacade, times(1)).findAllAccountsMarkedForDeletion(24L, TimeUnit.HOURS);
+        verify(scheduleChunkService, never()).deleteNotActivatedAccounts(anyString(), any(), any());
     }
 
     @Test
-    void resendEmailConfirmationEmailTestSuccessful() throws Exception {
-        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
-        Account account1 = new Account("login1", "TestPassword1", "firstName1", "lastName1", "test1@email.com", "123123124");
-        account.setAccountLanguage("pl");
-        account1.setAccountLanguage("en");
-        Token token = new Token("TEST VALUE", account, Token.TokenType.REGISTER);
-        Token token1 = new Token("TEST VALUE", account1, Token.TokenType.REGISTER);
-        List<Token> tokenList = List.of(token, token1);
-
-        Token newToken = new Token("NewTokenValue", account, Token.TokenType.REGISTER);
-        Token newToken1 = new Token("NewTokenValue1", account1, Token.TokenType.REGISTER);
-
-        Field creationDateField = Account.class.getDeclaredField("creationTime");
-        creationDateField.setAccessible(true);
-        creationDateField.set(account, LocalDateTime.now().minusHours(13));
-        creationDateField.set(account1, LocalDateTime.now().minusHours(13));
-        creationDateField.setAccessible(false);
-
-        when(tokenFacade.findByTokenType(Token.TokenType.REGISTER)).thenReturn(tokenList);
-        doNothing().when(tokenFacade).removeByTypeAndAccount(Token.TokenType.REGISTER, null);
-        doReturn(newToken).when(tokenProvider).generateAccountActivationToken(account);
-        doReturn(newToken1).when(tokenProvider).generateAccountActivationToken(account1);
-        doNothing().when(tokenFacade).create(newToken);
-        doNothing().when(tokenFacade).create(newToken1);
-        doNothing().when(mailProvider).sendRegistrationConfirmEmail(any(String.class), any(String.class), any(String.class), any(String.class), any(String.class));
-
-        scheduleService.resendConfirmationEmail();
+    void deleteNotActiveTestUnsuccessful() throws Exception {
+        when(scheduleChunkService.deleteNotActivatedAccounts(anyString(), any(LocalDateTime.class), any()))
+                .thenThrow(new ApplicationDatabaseException(new RuntimeException()));
 
-        verify(mailProvider, times(2)).sendRegistrationConfirmEmail(any(String.class), any(String.class), any(String.class), any(String.class), any(String.class));
+        assertDoesNotThrow(() -> scheduleService.deleteNotActivatedAccounts());
+        verify(scheduleChunkService, times(1)).deleteNotActivatedAccounts(anyString(), any(LocalDateTime.class), any());
     }
 
     @Test
-    void resendEmailConfirmationEmailTestEmpty() throws Exception {
-        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
-        Account account1 = new Account("login1", "TestPassword1", "firstName1", "lastName1", "test1@email.com", "123123124");
-        account.setAccountLanguage("pl");
-        account1.setAccountLanguage("en");
-        Token token = new Token("TEST VALUE", account, Token.TokenType.REGISTER);
-        Token token1 = new Token("TEST VALUE", account1, Token.TokenType.REGISTER);
-        List<Token> tokenList = List.of(token, token1);
-
-        Field creationDateField = Account.class.getDeclaredField("creationTime");
-        creationDateField.setAccessible(true);
-        creationDateField.set(account, LocalDateTime.now());
-        creationDateField.set(account1, LocalDateTime.now());
-        creationDateField.setAccessible(false);
-
-        when(tokenFacade.findByTokenType(Token.TokenType.REGISTER)).thenReturn(tokenList);
+    void resendConfirmationEmailTestSuccessful() throws Exception {
         scheduleService.resendConfirmationEmail();
-        verify(tokenFacade, times(1)).findByTokenType(Token.TokenType.REGISTER);
-        verify(mailProvider, never()).sendRegistrationConfirmEmail(any(String.class), any(String.class), any(String.class), any(String.class), any(String.class));
-    }
-
-    @Test
-    @WithMockUser(username = "login")
-    void unblockAccountTestSuccessful() throws NoSuchFieldException, IllegalAccessException, ApplicationBaseException {
-        Account account = new Account("login", "TestPassword", "firstName", "lastName", "test@email.com", "123123123");
-        Account account1 = new Account("login1", "TestPassword1", "firstName1", "lastName1", "test1@email.com", "123123124");
-        account.setAccountLanguage("pl");
-        account1.setAccountLanguage("en");
-        account.blockAccount(false);
-        account1.blockAccount(false);
-        Field blockedTimeField = Account.class.getDeclaredField("blockedTime");
-        blockedTimeField.setAccessible(true);
-        blockedTimeField.set(account, LocalDateTime.now().minusHours(3));
-        blockedTimeField.set(account1, LocalDateTime.now().minusHours(3));
-        blockedTimeField.setAccessible(false);
-        List<Account> accountList = List.of(account, account1);
-
-        when(accountMOKFacade.findAllBlockedAccountsThatWereBlockedByLoginIncorrectlyCertainAmountOfTimes(2L, TimeUnit.HOURS))
-                .thenReturn(accountList);
-        doNothing().when(accountMOKFacade).edit(any());
-        doNothing().when(mailProvider).sendUnblockAccountInfoEmail(any(), any(), any(), any());
-        doNothing().when(historyDataFacade).create(any(AccountHistoryData.class));
 
-        scheduleService.unblockAccount();
-
-        verify(mailProvider, times(2)).sendUnblockAccountInfoEmail(any(), any(), any(), any());
+        verify(scheduleChunkService, times(1)).resendConfirmationEmails(eq("mok.resendConfirmationEmail"), any(LocalDateTime.class), isNull());
     }
 
     @Test
-    void unblockAccountTestUnsuccessful() throws Exception {
-        when(accountMOKFacade.findAllBlockedAccountsThatWereBlockedByLoginIncorrectlyCertainAmountOfTimes(2L, TimeUnit.HOURS))
-                .thenThrow(NumberFormatException.class);
+    void unblockAccountTestSuccessful() throws Exception {
+        scheduleService.unblockAccount();
 
-        assertDoesNotThrow(() -> scheduleService.unblockAccount());
+        verify(scheduleChunkService, times(1)).unblockAccounts(eq("mok.unblockAccount"), any(LocalDateTime.class), isNull());
     }
 
     @Test
-    void unblockAccountTestEmpty() throws Exception {
-        List<Account> accountList = new ArrayList<>();
+    void suspendAccountTestSuccessful() throws Exception {
+        when(scheduleChunkService.suspendAccounts(anyString(), any(LocalDateTime.class), isNull())).thenReturn("login");
 
-        when(accountMOKFacade.findAllBlockedAccountsThatWereBlockedByLoginIncorrectlyCertainAmountOfTimes(2L, TimeUnit.HOURS))
-                .thenReturn(accountList);
-
-        scheduleService.unblockAccount();
+        scheduleService.suspendAccountWithoutAuthenticationForSpecifiedTime();
 
-        verify(mailProvider, never()).sendUnblockAccountInfoEmail(any(), any(), any(), any());
+        verify(scheduleChunkService, times(1)).suspendAccounts(anyString(), any(LocalDateTime.class), isNull());
+        verify(scheduleChunkService, times(1)).suspendAccounts(anyString(), any(LocalDateTime.class), eq("login"));
     }
 }
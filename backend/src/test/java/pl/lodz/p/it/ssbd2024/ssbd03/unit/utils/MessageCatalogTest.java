@@ -0,0 +1,54 @@
+package pl.lodz.p.it.ssbd2024.ssbd03.unit.utils;
+
+import org.junit.jupiter.api.Test;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.I18n;
+import pl.lodz.p.it.ssbd2024.ssbd03.utils.MessageCatalog;
+
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageCatalogTest {
+
+    private final MessageCatalog catalog = MessageCatalog.load(I18n.MESSAGES_BUNDLE, I18n.SUPPORTED_LANGUAGES);
+
+    @Test
+    public void getMessageReturnsMessageOfGivenLanguageTestPositive() {
+        for (String language : I18n.SUPPORTED_LANGUAGES) {
+            ResourceBundle bundle = ResourceBundle.getBundle(I18n.MESSAGES_BUNDLE, Locale.of(language));
+            assertEquals(bundle.getString(I18n.AUTO_GENERATED_MESSAGE_NOTE), catalog.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, language));
+        }
+        assertEquals(catalog.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "pl"), catalog.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "PL"));
+    }
+
+    @Test
+    public void getMessageFallsBackToBaseBundleForUnknownLanguageTestPositive() {
+        ResourceBundle baseBundle = ResourceBundle.getBundle(I18n.MESSAGES_BUNDLE, Locale.ROOT,
+                ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+
+        assertFalse(catalog.isSupported("de"));
+        assertEquals(baseBundle.getString(I18n.AUTO_GENERATED_MESSAGE_NOTE), catalog.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "de"));
+        assertEquals(baseBundle.getString(I18n.AUTO_GENERATED_MESSAGE_NOTE), catalog.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, null));
+    }
+
+    @Test
+    public void getMessageFallsBackToBaseBundleForMissingMessageTestPositive() {
+        assertEquals("", catalog.getMessage(I18n.REMOVE_ACCOUNT_ACTION_DESCRIPTION, "en"));
+    }
+
+    @Test
+    public void getMessageThrowsForUnknownKeyTestNegative() {
+        assertThrows(MissingResourceException.class, () -> catalog.getMessage("unknown.message.key", "pl"));
+    }
+
+    @Test
+    public void reloadKeepsMessagesAvailableTestPositive() {
+        String message = I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "en");
+
+        I18n.reload();
+
+        assertEquals(message, I18n.getMessage(I18n.AUTO_GENERATED_MESSAGE_NOTE, "en"));
+    }
+}
@@ -42,6 +42,16 @@ GRANT SELECT                         ON TABLE public.staff_data     TO ssbd03aut
 GRANT SELECT                         ON TABLE public.admin_data     TO ssbd03auth;
 
 GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.token          TO ssbd03mok;
+GRANT SELECT, INSERT, UPDATE         ON TABLE public.scheduler_lease        TO ssbd03mok;
+GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.outbox_mail            TO ssbd03mok;
+GRANT SELECT, INSERT, DELETE         ON TABLE public.cache_invalidation     TO ssbd03mok;
+
+GRANT SELECT, INSERT, DELETE, UPDATE ON TABLE public.sector_capacity_slot   TO ssbd03mop;
+GRANT SELECT, INSERT, UPDATE         ON TABLE public.scheduler_lease        TO ssbd03mop;
+GRANT         INSERT                 ON TABLE public.outbox_mail            TO ssbd03mop;
+GRANT         INSERT                 ON TABLE public.outbox_mail            TO ssbd03auth;
+GRANT         INSERT                 ON TABLE public.cache_invalidation     TO ssbd03mop;
+GRANT         INSERT                 ON TABLE public.cache_invalidation     TO ssbd03auth;
 
 -- INSERT VALUE
 -- Admin
@@ -312,4 +322,7 @@ INSERT INTO public.parking_event (id, reservation_id, date, type, version) VALUE
 INSERT INTO public.parking_event (id, reservation_id, date, type, version) VALUES ('bb47ce52-9efb-4f65-b9f5-251f5639f538', '41d93d74-9d4b-4e93-a044-ec77a01c4a32', current_timestamp - interval '30 minutes', 'EXIT', 0);
 
 --5 -- starts in the future - overlaps - blocking
-INSERT INTO public.reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES ('fcae0865-d856-4dba-8094-04dc60b8a027', current_timestamp, current_timestamp + interval '1 hour', current_timestamp + interval '3 hour', '69507c7f-4c03-4087-85e6-3ae3b6fc2201', '65c51075-0749-4304-984a-9cb926e65aab', 0, 'IN_PROGRESS');
\ No newline at end of file
+INSERT INTO public.reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES ('fcae0865-d856-4dba-8094-04dc60b8a027', current_timestamp, current_timestamp + interval '1 hour', current_timestamp + interval '3 hour', '69507c7f-4c03-4087-85e6-3ae3b6fc2201', '65c51075-0749-4304-984a-9cb926e65aab', 0, 'IN_PROGRESS');
+
+-- vehicle inside flag, derived from the parking events
+UPDATE public.reservation r SET vehicle_inside = ((SELECT COUNT(*) FROM public.parking_event p WHERE p.reservation_id = r.id) % 2 = 1);
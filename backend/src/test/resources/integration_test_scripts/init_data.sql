@@ -326,3 +326,6 @@ INSERT INTO public.sector (id, creation_timestamp, occupied_places, max_places,
 
 -- michalkowal
 INSERT INTO public.reservation (id, creation_timestamp, begin_time, end_time, client_id, sector_id, version, status) VALUES ('91c6cd8b-8f04-4ca5-a156-c695b4ba1cec', current_timestamp, current_timestamp - interval '1 hour', current_timestamp + interval '7 hour', '69507c7f-4c03-4087-85e6-3ae3b6fc2201', 'b9f5bb0c-d19f-4101-ac57-d758e063ac3e', 0, 'IN_PROGRESS');
+
+-- vehicle inside flag, derived from the parking events
+UPDATE public.reservation r SET vehicle_inside = ((SELECT COUNT(*) FROM public.parking_event p WHERE p.reservation_id = r.id) % 2 = 1);
@@ -1,10 +1,14 @@
 DELETE FROM public.entry_code;
 DELETE FROM public.parking_event;
 DELETE FROM public.reservation;
+DELETE FROM public.sector_capacity_slot;
 DELETE FROM public.sector;
 DELETE FROM public.parking_history;
 DELETE FROM public.parking;
 DELETE FROM public.token;
+DELETE FROM public.outbox_mail;
+DELETE FROM public.scheduler_lease;
+DELETE FROM public.cache_invalidation;
 
 DELETE FROM public.attribute_association;
 DELETE FROM public.attribute_value;